@@ -104,13 +104,17 @@ public class AuditScheduler extends Scheduler {
             if (!logger.isInstalled())
                 continue;
 
+            final long maxLastModifiedTime = System.currentTimeMillis() - duration.getSeconds() * 1000L;
+            if (arcDev.isAuditSpoolSegments())
+                service.auditAndProcessSpoolSegments(logger, maxLastModifiedTime);
+
             Path dir = auditSpoolDirPath.resolve(logger.getCommonName().replaceAll("\\W", "_"));
             if (!Files.isDirectory(dir))
                 continue;
 
-            final long maxLastModifiedTime = System.currentTimeMillis() - duration.getSeconds() * 1000L;
             try (DirectoryStream<Path> dirStream = Files.newDirectoryStream(dir, file ->
                     !file.getFileName().toString().endsWith(FAILED)
+                        && !AuditSpoolSegments.isSegmentFile(file)
                         && Files.getLastModifiedTime(file).toMillis() <= maxLastModifiedTime)) {
                 for (Path path : dirStream) {
                     if (arcDev.getAuditPollingInterval() == null)
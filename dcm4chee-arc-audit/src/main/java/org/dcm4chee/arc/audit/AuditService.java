@@ -81,6 +81,7 @@ import org.dcm4chee.arc.qmgt.HttpServletRequestInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
@@ -110,58 +111,65 @@ public class AuditService {
     @Inject
     private IHL7ApplicationCache hl7AppCache;
 
-    private void aggregateAuditMessage(AuditLogger auditLogger, Path path) throws Exception {
-        AuditUtils.EventType eventType = AuditUtils.EventType.fromFile(path);
-        if (path.toFile().length() == 0) {
-            LOG.warn("Attempt to read from an empty file.", eventType, path);
+    private final AuditSpoolSegments spoolSegments = new AuditSpoolSegments();
+
+    @PreDestroy
+    void closeSpoolSegments() {
+        spoolSegments.closeAll();
+    }
+
+    private void aggregateAuditMessage(AuditLogger auditLogger, AuditSpoolEntry entry) throws Exception {
+        AuditUtils.EventType eventType = AuditUtils.EventType.fromName(entry.getName());
+        if (entry.size() == 0) {
+            LOG.warn("Attempt to read from an empty file.", eventType, entry);
             return;
         }
         switch (eventType.eventClass) {
             case APPLN_ACTIVITY:
-                auditApplicationActivity(auditLogger, path, eventType);
+                auditApplicationActivity(auditLogger, entry, eventType);
                 break;
             case CONN_FAILURE:
-                auditConnectionFailure(auditLogger, path, eventType);
+                auditConnectionFailure(auditLogger, entry, eventType);
                 break;
             case STORE_WADOR:
-                auditStoreOrWADORetrieve(auditLogger, path, eventType);
+                auditStoreOrWADORetrieve(auditLogger, entry, eventType);
                 break;
             case RETRIEVE:
-                auditRetrieve(auditLogger, path, eventType);
+                auditRetrieve(auditLogger, entry, eventType);
                 break;
             case USER_DELETED:
             case SCHEDULER_DELETED:
-                auditDeletion(auditLogger, path, eventType);
+                auditDeletion(auditLogger, entry, eventType);
                 break;
             case QUERY:
-                auditQuery(auditLogger, path, eventType);
+                auditQuery(auditLogger, entry, eventType);
                 break;
             case HL7:
-                auditPatientRecord(auditLogger, path, eventType);
+                auditPatientRecord(auditLogger, entry, eventType);
                 break;
             case PROC_STUDY:
-                auditProcedureRecord(auditLogger, path, eventType);
+                auditProcedureRecord(auditLogger, entry, eventType);
                 break;
             case PROV_REGISTER:
-                auditProvideAndRegister(auditLogger, path, eventType);
+                auditProvideAndRegister(auditLogger, entry, eventType);
                 break;
             case STGCMT:
-                auditStorageCommit(auditLogger, path, eventType);
+                auditStorageCommit(auditLogger, entry, eventType);
                 break;
             case INST_RETRIEVED:
-                auditExternalRetrieve(auditLogger, path, eventType);
+                auditExternalRetrieve(auditLogger, entry, eventType);
                 break;
             case LDAP_CHANGES:
-                auditSoftwareConfiguration(auditLogger, path, eventType);
+                auditSoftwareConfiguration(auditLogger, entry, eventType);
                 break;
             case QUEUE_EVENT:
-                auditQueueMessageEvent(auditLogger, path, eventType);
+                auditQueueMessageEvent(auditLogger, entry, eventType);
                 break;
             case IMPAX:
-                auditPatientMismatch(auditLogger, path, eventType);
+                auditPatientMismatch(auditLogger, entry, eventType);
                 break;
             case ASSOCIATION_FAILURE:
-                auditAssociationFailure(auditLogger, path, eventType);
+                auditAssociationFailure(auditLogger, entry, eventType);
                 break;
         }
     }
@@ -193,9 +201,9 @@ public class AuditService {
                 .build();
     }
 
-    private void auditApplicationActivity(AuditLogger auditLogger, Path path, AuditUtils.EventType eventType) {
-        SpoolFileReader reader = new SpoolFileReader(path);
-        EventIdentificationBuilder eventIdentification = toBuildEventIdentification(eventType, null, getEventTime(path, auditLogger));
+    private void auditApplicationActivity(AuditLogger auditLogger, AuditSpoolEntry entry, AuditUtils.EventType eventType) {
+        SpoolFileReader reader = new SpoolFileReader(entry);
+        EventIdentificationBuilder eventIdentification = toBuildEventIdentification(eventType, null, getEventTime(entry, auditLogger));
         AuditInfo archiveInfo = new AuditInfo(reader.getMainInfo());
         ActiveParticipantBuilder[] activeParticipants = buildApplicationActivityActiveParticipants(auditLogger, eventType, archiveInfo);
         emitAuditMessage(
@@ -258,13 +266,13 @@ public class AuditService {
         }
     }
 
-    private void auditDeletion(AuditLogger auditLogger, Path path, AuditUtils.EventType eventType) {
-        SpoolFileReader reader = new SpoolFileReader(path);
+    private void auditDeletion(AuditLogger auditLogger, AuditSpoolEntry entry, AuditUtils.EventType eventType) {
+        SpoolFileReader reader = new SpoolFileReader(entry);
         AuditInfo auditInfo = new AuditInfo(reader.getMainInfo());
 
         String outcome = auditInfo.getField(AuditInfo.OUTCOME);
         EventIdentificationBuilder ei = toCustomBuildEventIdentification(eventType, outcome,
-                auditInfo.getField(AuditInfo.WARNING), getEventTime(path, auditLogger));
+                auditInfo.getField(AuditInfo.WARNING), getEventTime(entry, auditLogger));
 
         emitAuditMessage(
                 DeletionAuditService.auditMsg(auditLogger, reader, eventType, ei),
@@ -303,10 +311,10 @@ public class AuditService {
         }
     }
 
-    private void auditQueueMessageEvent(AuditLogger auditLogger, Path path, AuditUtils.EventType eventType) {
-        SpoolFileReader reader = new SpoolFileReader(path);
+    private void auditQueueMessageEvent(AuditLogger auditLogger, AuditSpoolEntry entry, AuditUtils.EventType eventType) {
+        SpoolFileReader reader = new SpoolFileReader(entry);
         AuditInfo auditInfo = new AuditInfo(reader.getMainInfo());
-        Calendar eventTime = getEventTime(path, auditLogger);
+        Calendar eventTime = getEventTime(entry, auditLogger);
         emitAuditMessage(
                 QueueMessageAuditService.auditMsg(auditInfo, eventType, auditLogger, eventTime),
                 auditLogger);
@@ -327,9 +335,9 @@ public class AuditService {
         }
     }
 
-    private void auditSoftwareConfiguration(AuditLogger auditLogger, Path path, AuditUtils.EventType eventType) {
-        SpoolFileReader reader = new SpoolFileReader(path);
-        Calendar eventTime = getEventTime(path, auditLogger);
+    private void auditSoftwareConfiguration(AuditLogger auditLogger, AuditSpoolEntry entry, AuditUtils.EventType eventType) {
+        SpoolFileReader reader = new SpoolFileReader(entry);
+        Calendar eventTime = getEventTime(entry, auditLogger);
         emitAuditMessage(
                 SoftwareConfigurationAuditService.auditMsg(auditLogger, reader, eventType, eventTime),
                 auditLogger);
@@ -361,11 +369,11 @@ public class AuditService {
         }
     }
 
-    private void auditExternalRetrieve(AuditLogger auditLogger, Path path, AuditUtils.EventType eventType) {
-        SpoolFileReader reader = new SpoolFileReader(path);
+    private void auditExternalRetrieve(AuditLogger auditLogger, AuditSpoolEntry entry, AuditUtils.EventType eventType) {
+        SpoolFileReader reader = new SpoolFileReader(entry);
         AuditInfo i = new AuditInfo(reader.getMainInfo());
         EventIdentificationBuilder eventIdentification = toCustomBuildEventIdentification(eventType, i.getField(AuditInfo.OUTCOME),
-                i.getField(AuditInfo.WARNING), getEventTime(path, auditLogger));
+                i.getField(AuditInfo.WARNING), getEventTime(entry, auditLogger));
 
         ActiveParticipantBuilder[] activeParticipants = new ActiveParticipantBuilder[4];
         String userID = i.getField(AuditInfo.CALLING_USERID);
@@ -414,12 +422,12 @@ public class AuditService {
         }
     }
 
-    private void auditConnectionFailure(AuditLogger auditLogger, Path path, AuditUtils.EventType eventType) {
-        SpoolFileReader reader = new SpoolFileReader(path);
+    private void auditConnectionFailure(AuditLogger auditLogger, AuditSpoolEntry entry, AuditUtils.EventType eventType) {
+        SpoolFileReader reader = new SpoolFileReader(entry);
         AuditInfo auditInfo = new AuditInfo(reader.getMainInfo());
 
         emitAuditMessage(
-                ConnectionEventsAuditService.auditMsg(auditInfo, eventType, getEventTime(path, auditLogger)),
+                ConnectionEventsAuditService.auditMsg(auditInfo, eventType, getEventTime(entry, auditLogger)),
                 auditLogger);
     }
 
@@ -429,7 +437,13 @@ public class AuditService {
             AuditUtils.EventType eventType = AuditUtils.EventType.QUERY__EVT;
             AuditInfo auditInfo = ctx.getHttpRequest() != null ? createAuditInfoForQIDO(ctx) : createAuditInfoForFIND(ctx);
             FileTime eventTime = null;
+            byte[] content = spoolToSegments() ? toQuerySpoolContent(ctx, auditInfo) : null;
             for (AuditLogger auditLogger : ext.getAuditLoggers()) {
+                if (content != null) {
+                    if (!isSpoolingSuppressed(eventType, ctx.getCallingAET(), auditLogger))
+                        appendToSpoolSegment(auditLogger, eventType, eventType.name(), content);
+                    continue;
+                }
                 if (!isSpoolingSuppressed(eventType, ctx.getCallingAET(), auditLogger)) {
                     Path directory = toDirPath(auditLogger);
                     try {
@@ -463,6 +477,17 @@ public class AuditService {
         }
     }
 
+    private static byte[] toQuerySpoolContent(QueryContext ctx, AuditInfo auditInfo) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new DataOutputStream(out).writeUTF(auditInfo.toString());
+        if (ctx.getAssociation() != null) {
+            try (DicomOutputStream dos = new DicomOutputStream(out, UID.ImplicitVRLittleEndian)) {
+                dos.writeDataset(null, ctx.getQueryKeys());
+            }
+        }
+        return out.toByteArray();
+    }
+
     private AuditInfo createAuditInfoForFIND(QueryContext ctx) {
         return new AuditInfo(
                 new AuditInfoBuilder.Builder()
@@ -501,9 +526,22 @@ public class AuditService {
         return msg;
     }
 
+    void auditAndProcessSpoolSegments(AuditLogger auditLogger, long maxCreatedTime) {
+        Path dir = toDirPath(auditLogger);
+        spoolSegments.close(dir, maxCreatedTime);
+        if (!Files.isDirectory(dir))
+            return;
+
+        try {
+            spoolSegments.processClosedSegments(dir, maxCreatedTime, entry -> aggregateAuditMessage(auditLogger, entry));
+        } catch (IOException e) {
+            LOG.warn("Failed to process Audit Spool Segments of [AuditLogger={}]\n", auditLogger.getCommonName(), e);
+        }
+    }
+
     void auditAndProcessFile(AuditLogger auditLogger, Path file) {
         try {
-            aggregateAuditMessage(auditLogger, file);
+            aggregateAuditMessage(auditLogger, AuditSpoolEntry.of(file));
             Files.delete(file);
         } catch (Exception e) {
             LOG.warn("Failed to process [AuditSpoolFile={}] of [AuditLogger={}].\n",
@@ -518,11 +556,11 @@ public class AuditService {
     }
 
     private void auditQuery(
-            AuditLogger auditLogger, Path file, AuditUtils.EventType eventType) throws IOException {
+            AuditLogger auditLogger, AuditSpoolEntry entry, AuditUtils.EventType eventType) throws IOException {
         AuditInfo qrI;
         ActiveParticipantBuilder[] activeParticipants = new ActiveParticipantBuilder[2];
-        EventIdentificationBuilder eventIdentification = toBuildEventIdentification(eventType, null, getEventTime(file, auditLogger));
-        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+        EventIdentificationBuilder eventIdentification = toBuildEventIdentification(eventType, null, getEventTime(entry, auditLogger));
+        try (InputStream in = new BufferedInputStream(entry.openStream())) {
             qrI = new AuditInfo(new DataInputStream(in).readUTF());
             String archiveUserID = qrI.getField(AuditInfo.CALLED_USERID);
             String callingUserID = qrI.getField(AuditInfo.CALLING_USERID);
@@ -553,7 +591,7 @@ public class AuditService {
                         .build();
             }
             else {
-                byte[] buffer = new byte[(int) Files.size(file)];
+                byte[] buffer = new byte[(int) entry.size()];
                 int len = in.read(buffer);
                 byte[] data;
                 if (len != -1) {
@@ -657,11 +695,11 @@ public class AuditService {
         }
     }
 
-    private void auditPatientMismatch(AuditLogger logger, Path path, AuditUtils.EventType eventType) {
-        SpoolFileReader reader = new SpoolFileReader(path);
+    private void auditPatientMismatch(AuditLogger logger, AuditSpoolEntry entry, AuditUtils.EventType eventType) {
+        SpoolFileReader reader = new SpoolFileReader(entry);
         AuditInfo auditInfo = new AuditInfo(reader.getMainInfo());
         AuditMessage auditMsg = AuditMessages.createMessage(
-                patientMismatchEventIdentification(logger, path, eventType, auditInfo),
+                patientMismatchEventIdentification(logger, entry, eventType, auditInfo),
                 patientMismatchActiveParticipants(logger, auditInfo),
                 storeStudyPOI(auditInfo, studyParticipantObjDesc(reader, auditInfo)),
                 patientPOI(auditInfo));
@@ -669,12 +707,12 @@ public class AuditService {
     }
 
     private EventIdentificationBuilder patientMismatchEventIdentification(
-            AuditLogger logger, Path path, AuditUtils.EventType eventType, AuditInfo auditInfo) {
+            AuditLogger logger, AuditSpoolEntry entry, AuditUtils.EventType eventType, AuditInfo auditInfo) {
         AuditMessages.EventTypeCode eventTypeCode = patMismatchEventTypeCode(auditInfo);
         return new EventIdentificationBuilder.Builder(
                                             eventType.eventID,
                                             eventType.eventActionCode,
-                                            getEventTime(path, logger),
+                                            getEventTime(entry, logger),
                                             AuditMessages.EventOutcomeIndicator.MinorFailure)
                                             .outcomeDesc(eventTypeCode.getOriginalText())
                                             .eventTypeCode(eventTypeCode)
@@ -746,8 +784,8 @@ public class AuditService {
         }
     }
 
-    private void auditStoreError(AuditLogger auditLogger, Path path, AuditUtils.EventType eventType) {
-        SpoolFileReader reader = new SpoolFileReader(path);
+    private void auditStoreError(AuditLogger auditLogger, AuditSpoolEntry entry, AuditUtils.EventType eventType) {
+        SpoolFileReader reader = new SpoolFileReader(entry);
         AuditInfo auditInfo = new AuditInfo(reader.getMainInfo());
 
         InstanceInfo instanceInfo = new InstanceInfo();
@@ -769,7 +807,7 @@ public class AuditService {
         EventIdentificationBuilder eventIdentification = new EventIdentificationBuilder.Builder(
                 eventType.eventID,
                 eventType.eventActionCode,
-                getEventTime(path, auditLogger),
+                getEventTime(entry, auditLogger),
                 AuditMessages.EventOutcomeIndicator.MinorFailure)
                 .outcomeDesc(outcome.stream().collect(Collectors.joining("\n")))
                 .eventTypeCode(errorCode.toArray(new AuditMessages.EventTypeCode[0]))
@@ -789,24 +827,24 @@ public class AuditService {
         emitAuditMessage(auditMsg, auditLogger);
     }
 
-    private void auditStoreOrWADORetrieve(AuditLogger auditLogger, Path path, AuditUtils.EventType eventType) {
-        if (path.toFile().getName().endsWith("_ERROR")) {
-            auditStoreError(auditLogger, path, eventType);
+    private void auditStoreOrWADORetrieve(AuditLogger auditLogger, AuditSpoolEntry entry, AuditUtils.EventType eventType) {
+        if (entry.getName().endsWith("_ERROR")) {
+            auditStoreError(auditLogger, entry, eventType);
             return;
         }
 
         if (eventType.name().startsWith("WADO")) {
-            auditWADORetrieve(auditLogger, path, eventType);
+            auditWADORetrieve(auditLogger, entry, eventType);
             return;
         }
 
-        SpoolFileReader reader = new SpoolFileReader(path);
+        SpoolFileReader reader = new SpoolFileReader(entry);
         AuditInfo auditInfo = new AuditInfo(reader.getMainInfo());
         EventIdentificationBuilder eventIdentification = toCustomBuildEventIdentification(
                                             eventType,
                                             auditInfo.getField(AuditInfo.OUTCOME),
                                             auditInfo.getField(AuditInfo.WARNING),
-                                            getEventTime(path, auditLogger));
+                                            getEventTime(entry, auditLogger));
 
         AuditMessage auditMsg = AuditMessages.createMessage(
                 eventIdentification,
@@ -844,13 +882,13 @@ public class AuditService {
                 .build();
     }
 
-    private void auditWADORetrieve(AuditLogger auditLogger, Path path, AuditUtils.EventType eventType) {
-        SpoolFileReader reader = new SpoolFileReader(path);
+    private void auditWADORetrieve(AuditLogger auditLogger, AuditSpoolEntry entry, AuditUtils.EventType eventType) {
+        SpoolFileReader reader = new SpoolFileReader(entry);
         AuditInfo auditInfo = new AuditInfo(reader.getMainInfo());
         EventIdentificationBuilder eventIdentification = toBuildEventIdentification(
                 eventType,
                 auditInfo.getField(AuditInfo.OUTCOME),
-                getEventTime(path, auditLogger));
+                getEventTime(entry, auditLogger));
 
         ParticipantObjectDescriptionBuilder desc = new ParticipantObjectDescriptionBuilder.Builder()
                 .sopC(toSOPClasses(reader, auditInfo.getField(AuditInfo.OUTCOME) != null))
@@ -921,11 +959,11 @@ public class AuditService {
         return device.getDeviceExtension(ArchiveDeviceExtension.class);
     }
 
-    private void auditRetrieve(AuditLogger auditLogger, Path path, AuditUtils.EventType eventType) {
-        SpoolFileReader reader = new SpoolFileReader(path);
+    private void auditRetrieve(AuditLogger auditLogger, AuditSpoolEntry entry, AuditUtils.EventType eventType) {
+        SpoolFileReader reader = new SpoolFileReader(entry);
         AuditInfo auditInfo = new AuditInfo(reader.getMainInfo());
         EventIdentificationBuilder ei = toCustomBuildEventIdentification(eventType, auditInfo.getField(AuditInfo.OUTCOME),
-                auditInfo.getField(AuditInfo.WARNING), getEventTime(path, auditLogger));
+                auditInfo.getField(AuditInfo.WARNING), getEventTime(entry, auditLogger));
 
         emitAuditMessage(
                 RetrieveAuditService.auditMsg(eventType, auditInfo, auditLogger, ei, reader),
@@ -1032,10 +1070,10 @@ public class AuditService {
         }
     }
 
-    private void auditPatientRecord(AuditLogger auditLogger, Path path, AuditUtils.EventType et) throws Exception {
-        SpoolFileReader reader = new SpoolFileReader(path.toFile());
+    private void auditPatientRecord(AuditLogger auditLogger, AuditSpoolEntry entry, AuditUtils.EventType et) throws Exception {
+        SpoolFileReader reader = SpoolFileReader.ofHL7(entry);
         AuditInfo auditInfo = new AuditInfo(reader.getMainInfo());
-        Calendar eventTime = getEventTime(path, auditLogger);
+        Calendar eventTime = getEventTime(entry, auditLogger);
         String patVerStatus = auditInfo.getField(AuditInfo.PAT_VERIFICATION_STATUS);
         boolean unverifiedPat = patVerStatus == null
                 || Patient.VerificationStatus.valueOf(patVerStatus) == Patient.VerificationStatus.UNVERIFIED;
@@ -1278,12 +1316,12 @@ public class AuditService {
         }
     }
 
-    private void auditProcedureRecord(AuditLogger auditLogger, Path path, AuditUtils.EventType et) {
-        SpoolFileReader reader = new SpoolFileReader(path.toFile());
+    private void auditProcedureRecord(AuditLogger auditLogger, AuditSpoolEntry entry, AuditUtils.EventType et) {
+        SpoolFileReader reader = SpoolFileReader.ofHL7(entry);
         AuditInfo prI = new AuditInfo(reader.getMainInfo());
 
         EventIdentificationBuilder eventIdentification = toBuildEventIdentification(et, prI.getField(AuditInfo.OUTCOME),
-                getEventTime(path, auditLogger));
+                getEventTime(entry, auditLogger));
 
         ActiveParticipantBuilder[] activeParticipantBuilder = buildProcedureRecordActiveParticipants(auditLogger, prI);
 
@@ -1356,11 +1394,11 @@ public class AuditService {
         }
     }
 
-    private void auditProvideAndRegister(AuditLogger auditLogger, Path path, AuditUtils.EventType et) {
-        SpoolFileReader reader = new SpoolFileReader(path);
+    private void auditProvideAndRegister(AuditLogger auditLogger, AuditSpoolEntry entry, AuditUtils.EventType et) {
+        SpoolFileReader reader = new SpoolFileReader(entry);
         AuditInfo auditInfo = new AuditInfo(reader.getMainInfo());
         emitAuditMessage(
-                ProvideAndRegisterAuditService.provideRegisterAuditMsg(auditInfo, auditLogger, et, getEventTime(path, auditLogger)),
+                ProvideAndRegisterAuditService.provideRegisterAuditMsg(auditInfo, auditLogger, et, getEventTime(entry, auditLogger)),
                 auditLogger);
     }
 
@@ -1389,9 +1427,9 @@ public class AuditService {
         }
     }
 
-    private void auditStorageCommit(AuditLogger auditLogger, Path path, AuditUtils.EventType et) {
-        SpoolFileReader reader = new SpoolFileReader(path);
-        Calendar eventTime = getEventTime(path, auditLogger);
+    private void auditStorageCommit(AuditLogger auditLogger, AuditSpoolEntry entry, AuditUtils.EventType et) {
+        SpoolFileReader reader = new SpoolFileReader(entry);
+        Calendar eventTime = getEventTime(entry, auditLogger);
 
         emitAuditMessage(
                 StorageCommitAuditService.auditMsg(reader, et, auditLogger, eventTime),
@@ -1438,11 +1476,11 @@ public class AuditService {
         }
     }
 
-    private void auditAssociationFailure(AuditLogger auditLogger, Path path, AuditUtils.EventType et) {
-        SpoolFileReader reader = new SpoolFileReader(path);
+    private void auditAssociationFailure(AuditLogger auditLogger, AuditSpoolEntry entry, AuditUtils.EventType et) {
+        SpoolFileReader reader = new SpoolFileReader(entry);
         AuditInfo auditInfo = new AuditInfo(reader.getMainInfo());
         emitAuditMessage(
-                AssociationEventsAuditService.associationFailureAuditMsg(auditInfo, et, getEventTime(path, auditLogger)),
+                AssociationEventsAuditService.associationFailureAuditMsg(auditInfo, et, getEventTime(entry, auditLogger)),
                 auditLogger);
     }
 
@@ -1450,13 +1488,13 @@ public class AuditService {
         return AuditMessages.createParticipantObjectDetail(type, value);
     }
 
-    private Calendar getEventTime(Path path, AuditLogger auditLogger){
+    private Calendar getEventTime(AuditSpoolEntry entry, AuditLogger auditLogger){
         Calendar eventTime = auditLogger.timeStamp();
         try {
-            eventTime.setTimeInMillis(Files.getLastModifiedTime(path).toMillis());
+            eventTime.setTimeInMillis(entry.getEventTime());
         } catch (Exception e) {
             LOG.warn("Failed to get Last Modified Time of [AuditSpoolFile={}] of [AuditLogger={}]\n",
-                    path, auditLogger.getCommonName(), e);
+                    entry, auditLogger.getCommonName(), e);
         }
         return eventTime;
     }
@@ -1477,6 +1515,10 @@ public class AuditService {
             LOG.warn("Attempt to write empty file : ", eventType);
             return;
         }
+        if (spoolToSegments()) {
+            appendToSpoolSegments(eventType, eventType.name(), data, auditInfoBuilder);
+            return;
+        }
         FileTime eventTime = null;
         AuditLoggerDeviceExtension ext = device.getDeviceExtension(AuditLoggerDeviceExtension.class);
         for (AuditLogger auditLogger : ext.getAuditLoggers()) {
@@ -1515,6 +1557,10 @@ public class AuditService {
             LOG.warn("Attempt to write empty file : " + file);
             return;
         }
+        if (spoolToSegments()) {
+            appendToSpoolSegments(eventType, file, null, auditInfoBuilders);
+            return;
+        }
         FileTime eventTime = null;
         AuditLoggerDeviceExtension ext = device.getDeviceExtension(AuditLoggerDeviceExtension.class);
         for (AuditLogger auditLogger : ext.getAuditLoggers()) {
@@ -1539,6 +1585,48 @@ public class AuditService {
         }
     }
 
+    private boolean spoolToSegments() {
+        ArchiveDeviceExtension arcDev = getArchiveDevice();
+        return arcDev.isAuditAggregate() && arcDev.isAuditSpoolSegments();
+    }
+
+    private void appendToSpoolSegments(AuditUtils.EventType eventType, String name, byte[][] data,
+            AuditInfoBuilder... auditInfoBuilders) {
+        byte[] content;
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            if (data != null) {
+                out.write(data[0]);
+                if (data.length > 1 && data[1].length > 0)
+                    out.write(data[1]);
+            }
+            try (SpoolFileWriter writer = new SpoolFileWriter(new BufferedWriter(
+                    new OutputStreamWriter(out, StandardCharsets.UTF_8)))) {
+                for (AuditInfoBuilder auditInfoBuilder : auditInfoBuilders)
+                    writer.writeLine(new AuditInfo(auditInfoBuilder));
+            }
+            content = out.toByteArray();
+        } catch (IOException e) {
+            LOG.warn("Failed to encode [AuditSpoolEntry={}]\n", name, e);
+            return;
+        }
+        AuditLoggerDeviceExtension ext = device.getDeviceExtension(AuditLoggerDeviceExtension.class);
+        for (AuditLogger auditLogger : ext.getAuditLoggers()) {
+            if (auditLogger.isInstalled())
+                appendToSpoolSegment(auditLogger, eventType, name, content);
+        }
+    }
+
+    private void appendToSpoolSegment(AuditLogger auditLogger, AuditUtils.EventType eventType, String name,
+            byte[] content) {
+        try {
+            spoolSegments.append(toDirPath(auditLogger), eventType, name, System.currentTimeMillis(), content);
+        } catch (IOException e) {
+            LOG.warn("Failed to append [AuditSpoolEntry={}] to Audit Spool Segment at [AuditLogger={}]\n",
+                    name, auditLogger.getCommonName(), e);
+        }
+    }
+
     private Path filePath(AuditUtils.EventType eventType, Path dir, AuditInfoBuilder... auditInfoBuilders)
             throws IOException {
         Path file = Files.createTempFile(dir, eventType.name(), null);
@@ -0,0 +1,299 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Spools audit events as records to append-only segment files per Audit Logger and Event Type. Closed segments
+ * are read sequentially, aggregating records of Store and WADO events with equal name in memory. Aggregations
+ * with records received within the Audit Aggregate Duration are carried over to the open segment. The offset of
+ * already processed records, or the number of already processed aggregations, is checkpointed, so processing of
+ * a segment continues after a restart. Records are checkpointed after they are processed, but aggregations are
+ * checkpointed before they are carried over, so a crash never appends an aggregation twice to the open segment.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class AuditSpoolSegments {
+    private static final Logger LOG = LoggerFactory.getLogger(AuditSpoolSegments.class);
+    private static final String SEGMENT = ".segment";
+    private static final String CHECKPOINT = ".offset";
+    private static final String FAILED = ".failed";
+
+    private final Map<Path, Segment> openSegments = new HashMap<>();
+
+    interface Processor {
+        void process(AuditSpoolEntry entry) throws Exception;
+    }
+
+    static boolean isSegmentFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(SEGMENT) || name.endsWith(CHECKPOINT);
+    }
+
+    void append(Path dir, AuditUtils.EventType eventType, String name, long eventTime, byte[] content)
+            throws IOException {
+        Path key = dir.resolve(eventType.name());
+        synchronized (openSegments) {
+            Segment segment = openSegments.get(key);
+            if (segment == null) {
+                Files.createDirectories(dir);
+                segment = new Segment(Files.createTempFile(dir, eventType.name() + '-', SEGMENT));
+                openSegments.put(key, segment);
+            }
+            try {
+                segment.write(name, eventTime, content);
+            } catch (IOException e) {
+                segment.close();
+                openSegments.remove(key);
+                throw e;
+            }
+        }
+    }
+
+    void close(Path dir, long maxCreatedTime) {
+        synchronized (openSegments) {
+            for (Iterator<Segment> iter = openSegments.values().iterator(); iter.hasNext();) {
+                Segment segment = iter.next();
+                if (segment.file.getParent().equals(dir) && segment.createdTime <= maxCreatedTime) {
+                    segment.close();
+                    iter.remove();
+                }
+            }
+        }
+    }
+
+    void closeAll() {
+        synchronized (openSegments) {
+            openSegments.values().forEach(Segment::close);
+            openSegments.clear();
+        }
+    }
+
+    void processClosedSegments(Path dir, long maxEventTime, Processor processor) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> dirStream = Files.newDirectoryStream(dir, "*" + SEGMENT)) {
+            dirStream.forEach(segments::add);
+        }
+        synchronized (openSegments) {
+            for (Segment segment : openSegments.values())
+                segments.remove(segment.file);
+        }
+        Map<Path, Long> lastModifiedTimes = new HashMap<>();
+        for (Path segment : segments)
+            lastModifiedTimes.put(segment, Files.getLastModifiedTime(segment).toMillis());
+        segments.sort(Comparator.comparing(lastModifiedTimes::get));
+        for (Path segment : segments)
+            processSegment(segment, maxEventTime, processor);
+    }
+
+    private void processSegment(Path segment, long maxEventTime, Processor processor) throws IOException {
+        Path checkpoint = segment.resolveSibling(segment.getFileName() + CHECKPOINT);
+        AuditUtils.EventType eventType = AuditUtils.EventType.fromName(segment.getFileName().toString());
+        boolean aggregate = eventType.eventClass == AuditUtils.EventClass.STORE_WADOR;
+        Map<String, Aggregation> aggregations = new LinkedHashMap<>();
+        try (FileChannel checkpointChannel = FileChannel.open(checkpoint,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer offsetBuffer = ByteBuffer.allocate(8);
+            long offset = checkpointChannel.read(offsetBuffer, 0) == 8 ? offsetBuffer.getLong(0) : 0L;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+                if (!aggregate)
+                    for (long skip = offset, skipped; skip > 0 && (skipped = in.skip(skip)) > 0; skip -= skipped);
+                String name;
+                while ((name = readName(in)) != null) {
+                    long eventTime = in.readLong();
+                    byte[] content = new byte[in.readInt()];
+                    in.readFully(content);
+                    if (aggregate) {
+                        aggregations.computeIfAbsent(name, Aggregation::new).add(eventTime, content);
+                    } else {
+                        process(segment, processor, AuditSpoolEntry.of(name, eventTime, content));
+                        writeCheckpoint(checkpointChannel, offsetBuffer, offset += recordLength(name, content));
+                    }
+                }
+            } catch (EOFException e) {
+                LOG.warn("Skip incomplete record at end of [AuditSpoolSegment={}]", segment);
+            }
+            // for aggregated segments, the checkpoint holds the number of already processed aggregations
+            long processed = 0;
+            for (Aggregation aggregation : aggregations.values()) {
+                if (processed++ < offset)
+                    continue;
+                if (aggregation.eventTime > maxEventTime) {
+                    // checkpoint before carrying over, so the aggregation is not carried over twice after a crash
+                    writeCheckpoint(checkpointChannel, offsetBuffer, processed);
+                    try {
+                        carryOver(segment, eventType, aggregation);
+                    } catch (IOException e) {
+                        writeCheckpoint(checkpointChannel, offsetBuffer, processed - 1);
+                        throw e;
+                    }
+                } else {
+                    process(segment, processor, aggregation.toEntry());
+                    writeCheckpoint(checkpointChannel, offsetBuffer, processed);
+                }
+            }
+        }
+        Files.delete(segment);
+        Files.delete(checkpoint);
+    }
+
+    /**
+     * Appends an aggregation with records received within the Audit Aggregate Duration to the open segment, so
+     * it is merged with further records of the same Study and user, instead of emitting a separate audit message.
+     */
+    private void carryOver(Path segment, AuditUtils.EventType eventType, Aggregation aggregation)
+            throws IOException {
+        LOG.debug("Carry over [AuditSpoolEntry={}] of [AuditSpoolSegment={}]", aggregation.name, segment);
+        append(segment.getParent(), eventType, aggregation.name, aggregation.eventTime,
+                aggregation.content.toByteArray());
+    }
+
+    private static void writeCheckpoint(FileChannel checkpointChannel, ByteBuffer offsetBuffer, long value)
+            throws IOException {
+        offsetBuffer.putLong(0, value);
+        offsetBuffer.rewind();
+        checkpointChannel.write(offsetBuffer, 0);
+    }
+
+    private static String readName(DataInputStream in) throws IOException {
+        try {
+            return in.readUTF();
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static long recordLength(String name, byte[] content) {
+        int utflen = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            utflen += c >= 0x0001 && c <= 0x007F ? 1 : c > 0x07FF ? 3 : 2;
+        }
+        return 2 + utflen + 8 + 4 + content.length;
+    }
+
+    private static void process(Path segment, Processor processor, AuditSpoolEntry entry) {
+        try {
+            processor.process(entry);
+        } catch (Exception e) {
+            LOG.warn("Failed to process [AuditSpoolEntry={}] of [AuditSpoolSegment={}].\n", entry, segment, e);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(
+                    segment.resolveSibling(segment.getFileName() + FAILED),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)))) {
+                byte[] content = new byte[(int) entry.size()];
+                try (DataInputStream in = new DataInputStream(entry.openStream())) {
+                    in.readFully(content);
+                }
+                writeRecord(out, entry.getName(), entry.getEventTime(), content);
+            } catch (IOException e1) {
+                LOG.warn("Failed to mark [AuditSpoolEntry={}] of [AuditSpoolSegment={}] as failed.\n",
+                        entry, segment, e1);
+            }
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, String name, long eventTime, byte[] content)
+            throws IOException {
+        out.writeUTF(name);
+        out.writeLong(eventTime);
+        out.writeInt(content.length);
+        out.write(content);
+    }
+
+    private static class Segment {
+        final Path file;
+        final long createdTime = System.currentTimeMillis();
+        final DataOutputStream out;
+
+        Segment(Path file) throws IOException {
+            this.file = file;
+            this.out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(file, StandardOpenOption.APPEND)));
+        }
+
+        void write(String name, long eventTime, byte[] content) throws IOException {
+            writeRecord(out, name, eventTime, content);
+            out.flush();
+        }
+
+        void close() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                LOG.warn("Failed to close [AuditSpoolSegment={}]", file, e);
+            }
+        }
+    }
+
+    private static class Aggregation {
+        final String name;
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        long eventTime;
+
+        Aggregation(String name) {
+            this.name = name;
+        }
+
+        void add(long eventTime, byte[] content) {
+            this.eventTime = eventTime;
+            int off = 0;
+            if (this.content.size() > 0)
+                while (off < content.length && content[off++] != '\n');
+            this.content.write(content, off, content.length - off);
+        }
+
+        AuditSpoolEntry toEntry() {
+            return AuditSpoolEntry.of(name, eventTime, content.toByteArray());
+        }
+    }
+}
@@ -56,7 +56,6 @@ import org.dcm4chee.arc.store.StoreSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collection;
 
@@ -178,8 +177,8 @@ class AuditUtils {
             this.eventTypeCode = etc;
         }
 
-        static EventType fromFile(Path file) {
-            return valueOf(file.getFileName().toString().substring(0, 10));
+        static EventType fromName(String name) {
+            return valueOf(name.substring(0, 10));
         }
 
         static EventType forApplicationActivity(ArchiveServiceEvent event) {
@@ -46,8 +46,6 @@ import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -62,8 +60,9 @@ class SpoolFileReader {
     private byte[] data = ByteUtils.EMPTY_BYTES;
     private byte[] ack = ByteUtils.EMPTY_BYTES;
 
-    SpoolFileReader(Path p) {
-        try (BufferedReader reader = Files.newBufferedReader(p, StandardCharsets.UTF_8)) {
+    SpoolFileReader(AuditSpoolEntry entry) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(entry.openStream(), StandardCharsets.UTF_8))) {
             this.mainInfo = reader.readLine();
             String line;
             while ((line = reader.readLine()) != null)
@@ -73,9 +72,18 @@ class SpoolFileReader {
         }
     }
 
-    SpoolFileReader(File file) {
+    private SpoolFileReader() {
+    }
+
+    static SpoolFileReader ofHL7(AuditSpoolEntry entry) {
+        SpoolFileReader reader = new SpoolFileReader();
+        reader.readHL7(entry);
+        return reader;
+    }
+
+    private void readHL7(AuditSpoolEntry entry) {
         byte[] MSH = {'M', 'S', 'H'};
-        try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(file))) {
+        try (BufferedInputStream in = new BufferedInputStream(entry.openStream())) {
             int readMain;
             int readData;
             ByteArrayOutputStream mainInfo = new ByteArrayOutputStream();
@@ -100,7 +108,7 @@ class SpoolFileReader {
 
             if (skipChar == 2) {
                 ByteArrayOutputStream ack = new ByteArrayOutputStream();
-                int bufLength = (int) file.length() - skipChar - this.mainInfo.length(); //skip first char of MSH of data and \n above
+                int bufLength = (int) entry.size() - skipChar - this.mainInfo.length(); //skip first char of MSH of data and \n above
                 byte[] buf = new byte[bufLength];
                 int read = in.read(buf);
                 int mshStart = indexOf(MSH, 0, buf, read);
@@ -0,0 +1,202 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.audit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class AuditSpoolSegmentsTest {
+
+    private Path dir;
+    private final List<String> processed = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("audit-spool");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files)
+                Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    public void processAndDeleteClosedSegment() throws Exception {
+        AuditSpoolSegments segments = new AuditSpoolSegments();
+        append(segments, AuditUtils.EventType.QUERY__EVT, "q1", 100, "query1\n");
+        append(segments, AuditUtils.EventType.QUERY__EVT, "q2", 100, "query2\n");
+        segments.closeAll();
+        segments.processClosedSegments(dir, Long.MAX_VALUE, this::process);
+        assertEquals(Arrays.asList("q1:query1\n", "q2:query2\n"), processed);
+        assertEquals(0, countFiles());
+    }
+
+    @Test
+    public void aggregateRecordsWithEqualName() throws Exception {
+        AuditSpoolSegments segments = new AuditSpoolSegments();
+        append(segments, AuditUtils.EventType.STORE_CREA, "study1", 100, "header\ninst1\n");
+        append(segments, AuditUtils.EventType.STORE_CREA, "study1", 110, "header\ninst2\n");
+        segments.closeAll();
+        segments.processClosedSegments(dir, Long.MAX_VALUE, this::process);
+        assertEquals(Arrays.asList("study1:header\ninst1\ninst2\n"), processed);
+    }
+
+    @Test
+    public void continueAfterCheckpointOnRestart() throws Exception {
+        AuditSpoolSegments segments = new AuditSpoolSegments();
+        append(segments, AuditUtils.EventType.QUERY__EVT, "q1", 100, "query1\n");
+        append(segments, AuditUtils.EventType.QUERY__EVT, "q2", 100, "query2\n");
+        segments.closeAll();
+        try {
+            segments.processClosedSegments(dir, Long.MAX_VALUE, entry -> {
+                if (entry.getName().equals("q2"))
+                    throw new Crash();
+                process(entry);
+            });
+            fail("Crash expected");
+        } catch (Crash expected) {
+        }
+        new AuditSpoolSegments().processClosedSegments(dir, Long.MAX_VALUE, this::process);
+        assertEquals(Arrays.asList("q1:query1\n", "q2:query2\n"), processed);
+        assertEquals(0, countFiles());
+    }
+
+    @Test
+    public void carryOverOnceOnCrashAfterCarryOver() throws Exception {
+        AuditSpoolSegments segments = new AuditSpoolSegments() {
+            @Override
+            void append(Path dir, AuditUtils.EventType eventType, String name, long eventTime, byte[] content)
+                    throws IOException {
+                super.append(dir, eventType, name, eventTime, content);
+                throw new Crash();
+            }
+        };
+        AuditSpoolSegments initial = new AuditSpoolSegments();
+        append(initial, AuditUtils.EventType.STORE_CREA, "study1", 200, "header\ninst1\n");
+        append(initial, AuditUtils.EventType.STORE_CREA, "study2", 100, "header\ninst2\n");
+        initial.closeAll();
+        try {
+            segments.processClosedSegments(dir, 150, this::process);
+            fail("Crash expected");
+        } catch (Crash expected) {
+        }
+        segments.closeAll();
+        new AuditSpoolSegments().processClosedSegments(dir, Long.MAX_VALUE, this::process);
+        processed.sort(null);
+        assertEquals(Arrays.asList("study1:header\ninst1\n", "study2:header\ninst2\n"), processed);
+        assertEquals(0, countFiles());
+    }
+
+    @Test
+    public void retryCarryOverOnFailure() throws Exception {
+        boolean[] failed = new boolean[1];
+        AuditSpoolSegments segments = new AuditSpoolSegments() {
+            @Override
+            void append(Path dir, AuditUtils.EventType eventType, String name, long eventTime, byte[] content)
+                    throws IOException {
+                if (!failed[0] && eventTime == 200) {
+                    failed[0] = true;
+                    throw new IOException("disk full");
+                }
+                super.append(dir, eventType, name, eventTime, content);
+            }
+        };
+        AuditSpoolSegments initial = new AuditSpoolSegments();
+        append(initial, AuditUtils.EventType.STORE_CREA, "study1", 200, "header\ninst1\n");
+        initial.closeAll();
+        try {
+            segments.processClosedSegments(dir, 150, this::process);
+            fail("IOException expected");
+        } catch (IOException expected) {
+        }
+        segments.processClosedSegments(dir, 150, this::process);
+        segments.closeAll();
+        segments.processClosedSegments(dir, Long.MAX_VALUE, this::process);
+        assertEquals(Arrays.asList("study1:header\ninst1\n"), processed);
+        assertEquals(0, countFiles());
+    }
+
+    private void append(AuditSpoolSegments segments, AuditUtils.EventType eventType, String name, long eventTime,
+            String content) throws IOException {
+        segments.append(dir, eventType, name, eventTime, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void process(AuditSpoolEntry entry) throws IOException {
+        byte[] content = new byte[(int) entry.size()];
+        try (DataInputStream in = new DataInputStream(entry.openStream())) {
+            in.readFully(content);
+        }
+        processed.add(entry.getName() + ':' + new String(content, StandardCharsets.UTF_8));
+    }
+
+    private long countFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            long count = 0;
+            for (Path file : files)
+                count++;
+            return count;
+        }
+    }
+
+    private static class Crash extends Error {
+    }
+}
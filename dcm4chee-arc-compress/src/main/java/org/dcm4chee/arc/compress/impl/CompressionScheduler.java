@@ -48,11 +48,9 @@ import org.dcm4chee.arc.Scheduler;
 import org.dcm4chee.arc.conf.*;
 import org.dcm4chee.arc.entity.Location;
 import org.dcm4chee.arc.entity.Series;
-import org.dcm4chee.arc.retrieve.LocationInputStream;
 import org.dcm4chee.arc.retrieve.RetrieveContext;
 import org.dcm4chee.arc.retrieve.RetrieveService;
 import org.dcm4chee.arc.store.InstanceLocations;
-import org.dcm4chee.arc.store.StoreContext;
 import org.dcm4chee.arc.store.StoreService;
 import org.dcm4chee.arc.store.StoreSession;
 import org.slf4j.Logger;
@@ -63,6 +61,7 @@ import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 import java.util.concurrent.Semaphore;
@@ -75,6 +74,7 @@ import java.util.concurrent.Semaphore;
 public class CompressionScheduler extends Scheduler {
 
     private static final Logger LOG = LoggerFactory.getLogger(CompressionScheduler.class);
+    private static final long DEF_PREFETCH_MEMORY = 64000000L;
 
     @PersistenceContext(unitName="dcm4chee-arc")
     private EntityManager em;
@@ -123,13 +123,14 @@ public class CompressionScheduler extends Scheduler {
         int fetchSize = arcDev.getCompressionFetchSize();
         int permits = arcDev.getCompressionThreads();
         Semaphore semaphore = new Semaphore(permits);
+        Semaphore prefetchMemory = new Semaphore(prefetchMemoryPermits(arcDev));
         List<Series.Compression> compressions;
         do {
             for (Series.Compression compression : compressions = ejb.findSeriesForCompression(fetchSize)) {
                 if (ejb.claimForCompression(compression)) {
                     acquire(semaphore, 1);
                     device.execute(() -> {
-                        process(ae, compression);
+                        process(ae, compression, semaphore, prefetchMemory);
                         semaphore.release();
                     });
                 }
@@ -144,6 +145,13 @@ public class CompressionScheduler extends Scheduler {
         acquire(semaphore, permits);
     }
 
+    private static int prefetchMemoryPermits(ArchiveDeviceExtension arcDev) {
+        String prefetchMemory = arcDev.getCompressionPrefetchMemory();
+        int permits = SeriesCompression.prefetchPermits(
+                prefetchMemory != null ? BinaryPrefix.parse(prefetchMemory) : DEF_PREFETCH_MEMORY);
+        return permits >= 0 ? permits : Integer.MAX_VALUE;
+    }
+
     private static void acquire(Semaphore semaphore, int permits) {
         if (!semaphore.tryAcquire(permits)) {
             try {
@@ -157,7 +165,8 @@ public class CompressionScheduler extends Scheduler {
         }
     }
 
-    private void process(ApplicationEntity ae, Series.Compression compr) {
+    private void process(ApplicationEntity ae, Series.Compression compr, Semaphore semaphore,
+            Semaphore prefetchMemory) {
         ArchiveAEExtension arcAE = ae.getAEExtensionNotNull(ArchiveAEExtension.class);
         if (compr.instancePurgeState == Series.InstancePurgeState.PURGED) {
             try (StoreSession session = storeService.newStoreSession(ae)) {
@@ -178,12 +187,11 @@ public class CompressionScheduler extends Scheduler {
             retrieveService.calculateMatches(retrCtx);
             LOG.info("Start compression of {} Instances of Series[iuid={}] of Study[iuid={}]",
                     retrCtx.getNumberOfMatches(), compr.seriesInstanceUID, compr.studyInstanceUID);
-            int failures = 0;
-            int completed = 0;
             int skipped = 0;
             ArchiveCompressionRule compressionRule = new ArchiveCompressionRule();
             compressionRule.setTransferSyntax(compr.transferSyntaxUID);
             compressionRule.setImageWriteParams(compr.imageWriteParams());
+            List<InstanceLocations> insts = new ArrayList<>(retrCtx.getMatches().size());
             for (InstanceLocations inst : retrCtx.getMatches()) {
                 if (alreadyCompressed(inst.getLocations(), compr.transferSyntaxUID)) {
                     LOG.info("{} of Series[iuid={}] of Study[iuid={}] already compressed with {} - skipped",
@@ -191,17 +199,13 @@ public class CompressionScheduler extends Scheduler {
                     skipped++;
                     continue;
                 }
-                try (LocationInputStream lis = retrieveService.openLocationInputStream(retrCtx, inst)) {
-                    StoreContext ctx = storeService.newStoreContext(session);
-                    ctx.setCompressionRule(compressionRule);
-                    storeService.compress(ctx, inst, lis.stream);
-                    completed++;
-                } catch (Exception e) {
-                    LOG.info("Failed to compress {} of Series[iuid={}] of Study[iuid={}]:\n",
-                            inst, compr.seriesInstanceUID, compr.studyInstanceUID, e);
-                    failures++;
-                }
+                insts.add(inst);
             }
+            SeriesCompression seriesCompression = new SeriesCompression(device, retrieveService, storeService,
+                    compr, retrCtx, session, compressionRule, semaphore, prefetchMemory, insts);
+            seriesCompression.run();
+            int completed = seriesCompression.completed();
+            int failures = seriesCompression.failures();
             ejb.updateDB(compr, completed, failures);
             LOG.info("Finished compression of {} Instances of Series[iuid={}] of Study[iuid={}] - {} failures, {} skipped",
                     completed, compr.seriesInstanceUID, compr.studyInstanceUID, failures, skipped);
@@ -0,0 +1,304 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.compress.impl;
+
+import org.dcm4che3.net.Device;
+import org.dcm4che3.util.StreamUtils;
+import org.dcm4chee.arc.conf.ArchiveCompressionRule;
+import org.dcm4chee.arc.entity.Location;
+import org.dcm4chee.arc.entity.Series;
+import org.dcm4chee.arc.retrieve.LocationInputStream;
+import org.dcm4chee.arc.retrieve.RetrieveContext;
+import org.dcm4chee.arc.retrieve.RetrieveService;
+import org.dcm4chee.arc.storage.WriteContext;
+import org.dcm4chee.arc.store.InstanceLocations;
+import org.dcm4chee.arc.store.StoreContext;
+import org.dcm4chee.arc.store.StoreService;
+import org.dcm4chee.arc.store.StoreSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Compresses the Instances of one Series by the thread processing the Series, joined by helper threads for
+ * which permits of the Compression Threads are available. Each thread prefetches the next Instance from the
+ * Storage while compressing the current one. Prefetched Instances are read into memory only as far as
+ * permits of the prefetch memory shared by all Compression Threads are available, otherwise they are streamed
+ * from the Storage.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class SeriesCompression {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SeriesCompression.class);
+
+    private final Device device;
+    private final RetrieveService retrieveService;
+    private final StoreService storeService;
+    private final Series.Compression compr;
+    private final RetrieveContext retrCtx;
+    private final StoreSession session;
+    private final ArchiveCompressionRule compressionRule;
+    private final Semaphore semaphore;
+    private final Semaphore prefetchMemory;
+    private final Queue<InstanceLocations> queue;
+    private final Phaser helpers = new Phaser(1);
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicLong srcSize = new AtomicLong();
+    private final AtomicLong destSize = new AtomicLong();
+    private final AtomicLong compressNanos = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicInteger streamed = new AtomicInteger();
+    private final LongAccumulator maxSize = new LongAccumulator(Math::max, 0L);
+    private final LongAccumulator maxCompressNanos = new LongAccumulator(Math::max, 0L);
+
+    SeriesCompression(Device device, RetrieveService retrieveService, StoreService storeService,
+            Series.Compression compr, RetrieveContext retrCtx, StoreSession session,
+            ArchiveCompressionRule compressionRule, Semaphore semaphore, Semaphore prefetchMemory,
+            Collection<InstanceLocations> insts) {
+        this.device = device;
+        this.retrieveService = retrieveService;
+        this.storeService = storeService;
+        this.compr = compr;
+        this.retrCtx = retrCtx;
+        this.session = session;
+        this.compressionRule = compressionRule;
+        this.semaphore = semaphore;
+        this.prefetchMemory = prefetchMemory;
+        this.queue = new ConcurrentLinkedQueue<>(insts);
+    }
+
+    int completed() {
+        return completed.get();
+    }
+
+    int failures() {
+        return failures.get();
+    }
+
+    /**
+     * Returns the number of permits of the prefetch memory required to hold an object of the specified size,
+     * or {@code -1} if the object cannot be held in one byte array.
+     */
+    static int prefetchPermits(long size) {
+        return size < Integer.MAX_VALUE - 8 ? (int) ((size + 1023) >>> 10) : -1;
+    }
+
+    void run() {
+        long startTime = System.nanoTime();
+        compressInstances(true);
+        helpers.arriveAndAwaitAdvance();
+        long time = System.nanoTime() - startTime;
+        int completed = this.completed.get();
+        if (completed > 0)
+            LOG.info("Compressed {} MB of {} Instances of Series[iuid={}] of Study[iuid={}] in {} ms " +
+                            "({} MB/s, ratio {}:1, {} ms/Instance, max {} ms/Instance, max {} MB/Instance, " +
+                            "{} ms waited for prefetch, {} Instances streamed)",
+                    mb(srcSize.get()), completed, compr.seriesInstanceUID, compr.studyInstanceUID,
+                    time / 1000000L,
+                    mbPerSec(srcSize.get(), time),
+                    ratio(srcSize.get(), destSize.get()),
+                    compressNanos.get() / completed / 1000000L,
+                    maxCompressNanos.get() / 1000000L,
+                    mb(maxSize.get()),
+                    waitNanos.get() / 1000000L,
+                    streamed.get());
+    }
+
+    private void compressInstances(boolean recruitHelpers) {
+        Prefetch next = prefetch(queue.poll());
+        while (next != null) {
+            if (recruitHelpers && !queue.isEmpty() && semaphore.tryAcquire())
+                startHelper();
+            Prefetch current = next;
+            next = prefetch(queue.poll());
+            compress(current);
+        }
+    }
+
+    private void startHelper() {
+        helpers.register();
+        try {
+            device.execute(() -> {
+                try {
+                    compressInstances(false);
+                } finally {
+                    semaphore.release();
+                    helpers.arriveAndDeregister();
+                }
+            });
+        } catch (RuntimeException e) {
+            semaphore.release();
+            helpers.arriveAndDeregister();
+            LOG.warn("Failed to start helper thread for compression of Series[iuid={}] of Study[iuid={}]:\n",
+                    compr.seriesInstanceUID, compr.studyInstanceUID, e);
+        }
+    }
+
+    private Prefetch prefetch(InstanceLocations inst) {
+        return inst != null
+                ? new Prefetch(inst, CompletableFuture.supplyAsync(() -> open(inst), device::execute))
+                : null;
+    }
+
+    private LocationInputStream open(InstanceLocations inst) {
+        LocationInputStream lis;
+        try {
+            synchronized (retrCtx) {
+                lis = retrieveService.openLocationInputStream(retrCtx, inst);
+            }
+        } catch (IOException e) {
+            throw new PrefetchException(e);
+        }
+        long size = lis.location.getSize();
+        int permits = prefetchPermits(size);
+        if (permits < 0 || !prefetchMemory.tryAcquire(permits)) {
+            streamed.getAndIncrement();
+            return lis;
+        }
+        boolean prefetched = false;
+        try (LocationInputStream in = lis) {
+            byte[] b = new byte[(int) size];
+            StreamUtils.readFully(in.stream, b, 0, b.length);
+            prefetched = true;
+            return new LocationInputStream(new PrefetchedInputStream(b, permits), in.ctx, in.location);
+        } catch (IOException e) {
+            throw new PrefetchException(e);
+        } finally {
+            if (!prefetched)
+                prefetchMemory.release(permits);
+        }
+    }
+
+    private void compress(Prefetch prefetch) {
+        InstanceLocations inst = prefetch.inst;
+        long waitStartTime = System.nanoTime();
+        try (LocationInputStream lis = prefetch.get()) {
+            waitNanos.addAndGet(System.nanoTime() - waitStartTime);
+            StoreContext ctx = storeService.newStoreContext(session);
+            ctx.setCompressionRule(compressionRule);
+            long startTime = System.nanoTime();
+            storeService.compress(ctx, inst, lis.stream);
+            long time = System.nanoTime() - startTime;
+            long size = lis.location.getSize();
+            WriteContext writeCtx = ctx.getWriteContext(Location.ObjectType.DICOM_FILE);
+            long compressedSize = writeCtx != null ? writeCtx.getSize() : 0L;
+            srcSize.addAndGet(size);
+            destSize.addAndGet(compressedSize);
+            compressNanos.addAndGet(time);
+            maxCompressNanos.accumulate(time);
+            maxSize.accumulate(size);
+            completed.getAndIncrement();
+            LOG.debug("Compressed {} of {} MB in {} ms ({} MB/s, ratio {}:1)",
+                    inst, mb(size), time / 1000000L, mbPerSec(size, time), ratio(size, compressedSize));
+        } catch (Exception e) {
+            LOG.info("Failed to compress {} of Series[iuid={}] of Study[iuid={}]:\n",
+                    inst, compr.seriesInstanceUID, compr.studyInstanceUID, e);
+            failures.getAndIncrement();
+        }
+    }
+
+    private static String mb(long size) {
+        return String.format("%.1f", size / 1000000.0);
+    }
+
+    private static String mbPerSec(long size, long nanos) {
+        return String.format("%.1f", nanos > 0 ? size * 1000.0 / nanos : 0.0);
+    }
+
+    private static String ratio(long size, long compressedSize) {
+        return String.format("%.2f", compressedSize > 0 ? (double) size / compressedSize : 0.0);
+    }
+
+    private class PrefetchedInputStream extends ByteArrayInputStream {
+        private int permits;
+
+        PrefetchedInputStream(byte[] buf, int permits) {
+            super(buf);
+            this.permits = permits;
+        }
+
+        @Override
+        public void close() {
+            buf = null;
+            prefetchMemory.release(permits);
+            permits = 0;
+        }
+    }
+
+    private static class Prefetch {
+        final InstanceLocations inst;
+        final CompletableFuture<LocationInputStream> future;
+
+        Prefetch(InstanceLocations inst, CompletableFuture<LocationInputStream> future) {
+            this.inst = inst;
+            this.future = future;
+        }
+
+        LocationInputStream get() throws Exception {
+            try {
+                return future.join();
+            } catch (RuntimeException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof PrefetchException ? (IOException) cause.getCause() : e;
+            }
+        }
+    }
+
+    private static class PrefetchException extends RuntimeException {
+        PrefetchException(IOException cause) {
+            super(cause);
+        }
+    }
+}
@@ -284,6 +284,18 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
         writer.writeNotNullOrDef("hl7OrderMissingStudyIUIDPolicy", arcDev.getHl7OrderMissingStudyIUIDPolicy(),
                 HL7OrderMissingStudyIUIDPolicy.GENERATE);
         writer.writeNotNullOrDef("hl7DicomCharacterSet", arcDev.getHl7DicomCharacterSet(), null);
+        writer.writeNotDef("dcmStowMaxParallelism", arcDev.getStowMaxParallelism(), 1);
+        writer.writeNotDef("dcmStoreUpdateDBMaxBatchSize", arcDev.getStoreUpdateDBMaxBatchSize(), 1);
+        writer.writeNotDef("dcmStoreUpdateDBMaxBatchDelay", arcDev.getStoreUpdateDBMaxBatchDelay(), 50);
+        writer.writeNotDef("dcmStreamRetrieveMatches", arcDev.isStreamRetrieveMatches(), false);
+        writer.writeNotDef("dcmExportTaskCoalesceDelay", arcDev.getExportTaskCoalesceDelay(), 0);
+        writer.writeNotNullOrDef("dcmSpanningCFindSCPTimeout", arcDev.getSpanningCFindSCPTimeout(), null);
+        writer.writeNotDef("dcmAuditSpoolSegments", arcDev.isAuditSpoolSegments(), false);
+        writer.writeNotNullOrDef("dcmWadoRenderedCacheDirectory", arcDev.getWadoRenderedCacheDirectory(), null);
+        writer.writeNotNullOrDef("dcmWadoRenderedCacheMaxSize", arcDev.getWadoRenderedCacheMaxSize(), null);
+        writer.writeNotDef("dcmRetrieveReadAhead", arcDev.getRetrieveReadAhead(), 0);
+        writer.writeNotDef("dcmRetrieveMaxAssociations", arcDev.getRetrieveMaxAssociations(), 1);
+        writer.writeNotNullOrDef("dcmCompressionPrefetchMemory", arcDev.getCompressionPrefetchMemory(), null);
         writeAttributeFilters(writer, arcDev);
         writeStorageDescriptor(writer, arcDev.getStorageDescriptors());
         writeQueryRetrieveView(writer, arcDev.getQueryRetrieveViews());
@@ -365,6 +377,7 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
             writer.writeNotNullOrDef("dcmStorageDuration", st.getStorageDuration(), StorageDuration.PERMANENT);
             writer.writeNotDef("dcmReadOnly", st.isReadOnly(), false);
             writer.writeNotDef("dcmDeleterThreads", st.getDeleterThreads(), 1);
+            writer.writeNotDef("dcmDeleterBatchSize", st.getDeleterBatchSize(), 1);
             writer.writeNotNullOrDef("dcmStorageClusterID", st.getStorageClusterID(), null);
             writer.writeNotNullOrDef("dcmStorageThreshold", st.getStorageThreshold(), null);
             writer.writeNotEmpty("dcmDeleterThreshold", st.getDeleterThresholdsAsStrings());
@@ -420,6 +433,7 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
             writer.writeNotNullOrDef(
                     "dcmPurgeQueueMessageCanceledDelay", qd.getPurgeQueueMessageCanceledDelay(), null);
             writer.writeNotDef("dcmMaxQueueSize", qd.getMaxQueueSize(), 0);
+            writer.writeNotDef("dcmStatusUpdateBatchDelay", qd.getStatusUpdateBatchDelay(), 0);
             writer.writeEnd();
         }
         writer.writeEnd();
@@ -742,6 +756,7 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
         writer.writeNotNullOrDef("dcmIDGeneratorName", generator.getName(), null);
         writer.writeNotNullOrDef("dcmIDGeneratorFormat", generator.getFormat(), null);
         writer.writeNotDef("dcmIDGeneratorInitialValue", generator.getInitialValue(), 1);
+        writer.writeNotDef("dcmIDGeneratorBlockSize", generator.getBlockSize(), 1);
         writer.writeEnd();
     }
 
@@ -829,6 +844,11 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                 arcAE.getUpdateLocationStatusOnRetrieve());
         writer.writeNotNull("dcmStorageVerificationOnRetrieve",
                 arcAE.getStorageVerificationOnRetrieve());
+        writer.writeNotNull("dcmStowMaxParallelism", arcAE.getStowMaxParallelism());
+        writer.writeNotNull("dcmStreamRetrieveMatches", arcAE.getStreamRetrieveMatches());
+        writer.writeNotNullOrDef("dcmSpanningCFindSCPTimeout", arcAE.getSpanningCFindSCPTimeout(), null);
+        writer.writeNotNull("dcmRetrieveReadAhead", arcAE.getRetrieveReadAhead());
+        writer.writeNotNull("dcmRetrieveMaxAssociations", arcAE.getRetrieveMaxAssociations());
         writeExportRule(writer, arcAE.getExportRules());
         writeExportPrefetchRules(writer, arcAE.getExportPriorsRules());
         writeArchiveCompressionRules(writer, arcAE.getCompressionRules());
@@ -1343,6 +1363,42 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                 case "hl7DicomCharacterSet":
                     arcDev.setHl7DicomCharacterSet(reader.stringValue());
                     break;
+                case "dcmStowMaxParallelism":
+                    arcDev.setStowMaxParallelism(reader.intValue());
+                    break;
+                case "dcmStoreUpdateDBMaxBatchSize":
+                    arcDev.setStoreUpdateDBMaxBatchSize(reader.intValue());
+                    break;
+                case "dcmStoreUpdateDBMaxBatchDelay":
+                    arcDev.setStoreUpdateDBMaxBatchDelay(reader.intValue());
+                    break;
+                case "dcmStreamRetrieveMatches":
+                    arcDev.setStreamRetrieveMatches(reader.booleanValue());
+                    break;
+                case "dcmExportTaskCoalesceDelay":
+                    arcDev.setExportTaskCoalesceDelay(reader.intValue());
+                    break;
+                case "dcmSpanningCFindSCPTimeout":
+                    arcDev.setSpanningCFindSCPTimeout(Duration.valueOf(reader.stringValue()));
+                    break;
+                case "dcmAuditSpoolSegments":
+                    arcDev.setAuditSpoolSegments(reader.booleanValue());
+                    break;
+                case "dcmWadoRenderedCacheDirectory":
+                    arcDev.setWadoRenderedCacheDirectory(reader.stringValue());
+                    break;
+                case "dcmWadoRenderedCacheMaxSize":
+                    arcDev.setWadoRenderedCacheMaxSize(reader.stringValue());
+                    break;
+                case "dcmRetrieveReadAhead":
+                    arcDev.setRetrieveReadAhead(reader.intValue());
+                    break;
+                case "dcmRetrieveMaxAssociations":
+                    arcDev.setRetrieveMaxAssociations(reader.intValue());
+                    break;
+                case "dcmCompressionPrefetchMemory":
+                    arcDev.setCompressionPrefetchMemory(reader.stringValue());
+                    break;
                 case "dcmAttributeFilter":
                     loadAttributeFilterListFrom(arcDev, reader);
                     break;
@@ -1529,6 +1585,9 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                     case "dcmDeleterThreads":
                         st.setDeleterThreads(reader.intValue());
                         break;
+                    case "dcmDeleterBatchSize":
+                        st.setDeleterBatchSize(reader.intValue());
+                        break;
                     case "dcmStorageClusterID":
                         st.setStorageClusterID(reader.stringValue());
                         break;
@@ -1640,6 +1699,9 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                     case "dcmMaxQueueSize":
                         qd.setMaxQueueSize(reader.intValue());
                         break;
+                    case "dcmStatusUpdateBatchDelay":
+                        qd.setStatusUpdateBatchDelay(reader.intValue());
+                        break;
                     default:
                         reader.skipUnknownProperty();
                 }
@@ -2412,6 +2474,9 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                     case "dcmIDGeneratorInitialValue":
                         generator.setInitialValue(reader.intValue());
                         break;
+                    case "dcmIDGeneratorBlockSize":
+                        generator.setBlockSize(reader.intValue());
+                        break;
                     default:
                         reader.skipUnknownProperty();
                 }
@@ -2645,6 +2710,21 @@ public class JsonArchiveConfiguration extends JsonConfigurationExtension {
                 case "dcmInvokeImageDisplayStudyURL":
                     arcAE.setInvokeImageDisplayStudyURL(reader.stringValue());
                     break;
+                case "dcmStowMaxParallelism":
+                    arcAE.setStowMaxParallelism(reader.intValue());
+                    break;
+                case "dcmStreamRetrieveMatches":
+                    arcAE.setStreamRetrieveMatches(reader.booleanValue());
+                    break;
+                case "dcmSpanningCFindSCPTimeout":
+                    arcAE.setSpanningCFindSCPTimeout(Duration.valueOf(reader.stringValue()));
+                    break;
+                case "dcmRetrieveReadAhead":
+                    arcAE.setRetrieveReadAhead(reader.intValue());
+                    break;
+                case "dcmRetrieveMaxAssociations":
+                    arcAE.setRetrieveMaxAssociations(reader.intValue());
+                    break;
                 case "dcmExportRule":
                     loadExportRule(arcAE.getExportRules(), reader);
                     break;
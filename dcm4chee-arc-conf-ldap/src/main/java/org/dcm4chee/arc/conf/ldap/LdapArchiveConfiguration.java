@@ -288,6 +288,18 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "hl7OrderMissingStudyIUIDPolicy",
                 ext.getHl7OrderMissingStudyIUIDPolicy(), HL7OrderMissingStudyIUIDPolicy.GENERATE);
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "hl7DicomCharacterSet", ext.getHl7DicomCharacterSet(), null);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmStowMaxParallelism", ext.getStowMaxParallelism(), 1);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmStoreUpdateDBMaxBatchSize", ext.getStoreUpdateDBMaxBatchSize(), 1);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmStoreUpdateDBMaxBatchDelay", ext.getStoreUpdateDBMaxBatchDelay(), 50);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmStreamRetrieveMatches", ext.isStreamRetrieveMatches(), false);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmExportTaskCoalesceDelay", ext.getExportTaskCoalesceDelay(), 0);
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmSpanningCFindSCPTimeout", ext.getSpanningCFindSCPTimeout(), null);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmAuditSpoolSegments", ext.isAuditSpoolSegments(), false);
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmWadoRenderedCacheDirectory", ext.getWadoRenderedCacheDirectory(), null);
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmWadoRenderedCacheMaxSize", ext.getWadoRenderedCacheMaxSize(), null);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmRetrieveReadAhead", ext.getRetrieveReadAhead(), 0);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmRetrieveMaxAssociations", ext.getRetrieveMaxAssociations(), 1);
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmCompressionPrefetchMemory", ext.getCompressionPrefetchMemory(), null);
     }
 
     @Override
@@ -509,6 +521,18 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 LdapUtils.enumValue(HL7OrderMissingStudyIUIDPolicy.class,
                         attrs.get("hl7OrderMissingStudyIUIDPolicy"), HL7OrderMissingStudyIUIDPolicy.GENERATE));
         ext.setHl7DicomCharacterSet(LdapUtils.stringValue(attrs.get("hl7DicomCharacterSet"), null));
+        ext.setStowMaxParallelism(LdapUtils.intValue(attrs.get("dcmStowMaxParallelism"), 1));
+        ext.setStoreUpdateDBMaxBatchSize(LdapUtils.intValue(attrs.get("dcmStoreUpdateDBMaxBatchSize"), 1));
+        ext.setStoreUpdateDBMaxBatchDelay(LdapUtils.intValue(attrs.get("dcmStoreUpdateDBMaxBatchDelay"), 50));
+        ext.setStreamRetrieveMatches(LdapUtils.booleanValue(attrs.get("dcmStreamRetrieveMatches"), false));
+        ext.setExportTaskCoalesceDelay(LdapUtils.intValue(attrs.get("dcmExportTaskCoalesceDelay"), 0));
+        ext.setSpanningCFindSCPTimeout(toDuration(attrs.get("dcmSpanningCFindSCPTimeout"), null));
+        ext.setAuditSpoolSegments(LdapUtils.booleanValue(attrs.get("dcmAuditSpoolSegments"), false));
+        ext.setWadoRenderedCacheDirectory(LdapUtils.stringValue(attrs.get("dcmWadoRenderedCacheDirectory"), null));
+        ext.setWadoRenderedCacheMaxSize(LdapUtils.stringValue(attrs.get("dcmWadoRenderedCacheMaxSize"), null));
+        ext.setRetrieveReadAhead(LdapUtils.intValue(attrs.get("dcmRetrieveReadAhead"), 0));
+        ext.setRetrieveMaxAssociations(LdapUtils.intValue(attrs.get("dcmRetrieveMaxAssociations"), 1));
+        ext.setCompressionPrefetchMemory(LdapUtils.stringValue(attrs.get("dcmCompressionPrefetchMemory"), null));
     }
 
     @Override
@@ -895,6 +919,30 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 HL7OrderMissingStudyIUIDPolicy.GENERATE);
         LdapUtils.storeDiffObject(ldapObj, mods, "hl7DicomCharacterSet",
                 aa.getHl7DicomCharacterSet(), bb.getHl7DicomCharacterSet(), null);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmStowMaxParallelism",
+                aa.getStowMaxParallelism(), bb.getStowMaxParallelism(), 1);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmStoreUpdateDBMaxBatchSize",
+                aa.getStoreUpdateDBMaxBatchSize(), bb.getStoreUpdateDBMaxBatchSize(), 1);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmStoreUpdateDBMaxBatchDelay",
+                aa.getStoreUpdateDBMaxBatchDelay(), bb.getStoreUpdateDBMaxBatchDelay(), 50);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmStreamRetrieveMatches",
+                aa.isStreamRetrieveMatches(), bb.isStreamRetrieveMatches(), false);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmExportTaskCoalesceDelay",
+                aa.getExportTaskCoalesceDelay(), bb.getExportTaskCoalesceDelay(), 0);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmSpanningCFindSCPTimeout",
+                aa.getSpanningCFindSCPTimeout(), bb.getSpanningCFindSCPTimeout(), null);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmAuditSpoolSegments",
+                aa.isAuditSpoolSegments(), bb.isAuditSpoolSegments(), false);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmWadoRenderedCacheDirectory",
+                aa.getWadoRenderedCacheDirectory(), bb.getWadoRenderedCacheDirectory(), null);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmWadoRenderedCacheMaxSize",
+                aa.getWadoRenderedCacheMaxSize(), bb.getWadoRenderedCacheMaxSize(), null);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmRetrieveReadAhead",
+                aa.getRetrieveReadAhead(), bb.getRetrieveReadAhead(), 0);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmRetrieveMaxAssociations",
+                aa.getRetrieveMaxAssociations(), bb.getRetrieveMaxAssociations(), 1);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmCompressionPrefetchMemory",
+                aa.getCompressionPrefetchMemory(), bb.getCompressionPrefetchMemory(), null);
         if (remove)
             mods.add(new ModificationItem(DirContext.REMOVE_ATTRIBUTE,
                     LdapUtils.attr("objectClass", "dcmArchiveDevice")));
@@ -1096,6 +1144,11 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 ext.getInvokeImageDisplayPatientURL(), null);
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmInvokeImageDisplayStudyURL",
                 ext.getInvokeImageDisplayStudyURL(), null);
+        LdapUtils.storeNotNull(ldapObj, attrs, "dcmStowMaxParallelism", ext.getStowMaxParallelism());
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmStreamRetrieveMatches", ext.getStreamRetrieveMatches(), null);
+        LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmSpanningCFindSCPTimeout", ext.getSpanningCFindSCPTimeout(), null);
+        LdapUtils.storeNotNull(ldapObj, attrs, "dcmRetrieveReadAhead", ext.getRetrieveReadAhead());
+        LdapUtils.storeNotNull(ldapObj, attrs, "dcmRetrieveMaxAssociations", ext.getRetrieveMaxAssociations());
     }
 
     @Override
@@ -1185,6 +1238,11 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 LdapUtils.booleanValue(attrs.get("dcmStorageVerificationOnRetrieve"), null));
         ext.setInvokeImageDisplayPatientURL(LdapUtils.stringValue(attrs.get("dcmInvokeImageDisplayPatientURL"), null));
         ext.setInvokeImageDisplayStudyURL(LdapUtils.stringValue(attrs.get("dcmInvokeImageDisplayStudyURL"), null));
+        ext.setStowMaxParallelism(LdapUtils.intValue(attrs.get("dcmStowMaxParallelism"), null));
+        ext.setStreamRetrieveMatches(LdapUtils.booleanValue(attrs.get("dcmStreamRetrieveMatches"), null));
+        ext.setSpanningCFindSCPTimeout(toDuration(attrs.get("dcmSpanningCFindSCPTimeout"), null));
+        ext.setRetrieveReadAhead(LdapUtils.intValue(attrs.get("dcmRetrieveReadAhead"), null));
+        ext.setRetrieveMaxAssociations(LdapUtils.intValue(attrs.get("dcmRetrieveMaxAssociations"), null));
     }
 
     @Override
@@ -1350,6 +1408,16 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 aa.getInvokeImageDisplayPatientURL(), bb.getInvokeImageDisplayPatientURL(), null);
         LdapUtils.storeDiffObject(ldapObj, mods, "dcmInvokeImageDisplayStudyURL",
                 aa.getInvokeImageDisplayStudyURL(), bb.getInvokeImageDisplayStudyURL(), null);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmStowMaxParallelism",
+                aa.getStowMaxParallelism(), bb.getStowMaxParallelism(), null);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmStreamRetrieveMatches",
+                aa.getStreamRetrieveMatches(), bb.getStreamRetrieveMatches(), null);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmSpanningCFindSCPTimeout",
+                aa.getSpanningCFindSCPTimeout(), bb.getSpanningCFindSCPTimeout(), null);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmRetrieveReadAhead",
+                aa.getRetrieveReadAhead(), bb.getRetrieveReadAhead(), null);
+        LdapUtils.storeDiffObject(ldapObj, mods, "dcmRetrieveMaxAssociations",
+                aa.getRetrieveMaxAssociations(), bb.getRetrieveMaxAssociations(), null);
         if (remove)
             mods.add(new ModificationItem(DirContext.REMOVE_ATTRIBUTE,
                     LdapUtils.attr("objectClass", "dcmArchiveNetworkAE")));
@@ -1715,6 +1783,7 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 descriptor.getStorageDuration(), StorageDuration.PERMANENT);
         LdapUtils.storeNotDef(ldapObj, attrs, "dcmReadOnly", descriptor.isReadOnly(), false);
         LdapUtils.storeNotDef(ldapObj, attrs, "dcmDeleterThreads", descriptor.getDeleterThreads(), 1);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmDeleterBatchSize", descriptor.getDeleterBatchSize(), 1);
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmStorageClusterID", descriptor.getStorageClusterID(), null);
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmStorageThreshold", descriptor.getStorageThreshold(), null);
         LdapUtils.storeNotEmpty(ldapObj, attrs, "dcmDeleterThreshold", descriptor.getDeleterThresholdsAsStrings());
@@ -1751,6 +1820,7 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                         LdapUtils.enumValue(StorageDuration.class, attrs.get("dcmStorageDuration"), StorageDuration.PERMANENT));
                 desc.setReadOnly(LdapUtils.booleanValue(attrs.get("dcmReadOnly"), false));
                 desc.setDeleterThreads(LdapUtils.intValue(attrs.get("dcmDeleterThreads"), 1));
+                desc.setDeleterBatchSize(LdapUtils.intValue(attrs.get("dcmDeleterBatchSize"), 1));
                 desc.setStorageClusterID(LdapUtils.stringValue(attrs.get("dcmStorageClusterID"), null));
                 desc.setStorageThreshold(toStorageThreshold(attrs.get("dcmStorageThreshold")));
                 desc.setDeleterThresholdsFromStrings(LdapUtils.stringArray(attrs.get("dcmDeleterThreshold")));
@@ -1815,6 +1885,8 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
         LdapUtils.storeDiff(ldapObj, mods, "dcmReadOnly", prev.isReadOnly(), desc.isReadOnly(), false);
         LdapUtils.storeDiff(ldapObj, mods, "dcmDeleterThreads",
                 prev.getDeleterThreads(), desc.getDeleterThreads(), 1);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmDeleterBatchSize",
+                prev.getDeleterBatchSize(), desc.getDeleterBatchSize(), 1);
         LdapUtils.storeDiffObject(ldapObj, mods, "dcmStorageClusterID",
                 prev.getStorageClusterID(), desc.getStorageClusterID(), null);
         LdapUtils.storeDiffObject(ldapObj, mods, "dcmStorageThreshold",
@@ -1897,6 +1969,7 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmPurgeQueueMessageCanceledDelay",
                 descriptor.getPurgeQueueMessageCanceledDelay(), null);
         LdapUtils.storeNotDef(ldapObj, attrs, "dcmMaxQueueSize", descriptor.getMaxQueueSize(), 0);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmStatusUpdateBatchDelay", descriptor.getStatusUpdateBatchDelay(), 0);
         return attrs;
     }
 
@@ -1923,6 +1996,7 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 desc.setPurgeQueueMessageCanceledDelay(
                         toDuration(attrs.get("dcmPurgeQueueMessageCanceledDelay"), null));
                 desc.setMaxQueueSize(LdapUtils.intValue(attrs.get("dcmMaxQueueSize"), 0));
+                desc.setStatusUpdateBatchDelay(LdapUtils.intValue(attrs.get("dcmStatusUpdateBatchDelay"), 0));
                 arcdev.addQueueDescriptor(desc);
             }
         } finally {
@@ -1982,6 +2056,8 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
         LdapUtils.storeDiffObject(ldapObj, mods, "dcmPurgeQueueMessageCanceledDelay",
                 prev.getPurgeQueueMessageCanceledDelay(), desc.getPurgeQueueMessageCanceledDelay(), null);
         LdapUtils.storeDiff(ldapObj, mods, "dcmMaxQueueSize", prev.getMaxQueueSize(), desc.getMaxQueueSize(), 0);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmStatusUpdateBatchDelay",
+                prev.getStatusUpdateBatchDelay(), desc.getStatusUpdateBatchDelay(), 0);
         return mods;
     }
 
@@ -3727,6 +3803,7 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
         attrs.put("dcmIDGeneratorName", generator.getName().name());
         LdapUtils.storeNotNullOrDef(ldapObj, attrs, "dcmIDGeneratorFormat", generator.getFormat(), null);
         LdapUtils.storeNotDef(ldapObj, attrs, "dcmIDGeneratorInitialValue", generator.getInitialValue(), 1);
+        LdapUtils.storeNotDef(ldapObj, attrs, "dcmIDGeneratorBlockSize", generator.getBlockSize(), 1);
         return attrs;
     }
 
@@ -3767,6 +3844,7 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
                 generator.setName(LdapUtils.enumValue(IDGenerator.Name.class, attrs.get("dcmIDGeneratorName"), null));
                 generator.setFormat(LdapUtils.stringValue(attrs.get("dcmIDGeneratorFormat"), null));
                 generator.setInitialValue(LdapUtils.intValue(attrs.get("dcmIDGeneratorInitialValue"),1));
+                generator.setBlockSize(LdapUtils.intValue(attrs.get("dcmIDGeneratorBlockSize"),1));
                 arcdev.addIDGenerator(generator);
             }
         } finally {
@@ -3856,6 +3934,7 @@ class LdapArchiveConfiguration extends LdapDicomConfigurationExtension {
 //        LdapUtils.storeDiffObject(mods, "dcmIDGeneratorName", prev.getId(), generator.getId());
         LdapUtils.storeDiffObject(ldapObj, mods, "dcmIDGeneratorFormat", prev.getFormat(), generator.getFormat(), null);
         LdapUtils.storeDiff(ldapObj, mods, "dcmIDGeneratorInitialValue", prev.getInitialValue(), generator.getInitialValue(), 1);
+        LdapUtils.storeDiff(ldapObj, mods, "dcmIDGeneratorBlockSize", prev.getBlockSize(), generator.getBlockSize(), 1);
         return mods;
     }
 
@@ -126,6 +126,11 @@ public class ArchiveAEExtension extends AEExtension {
     private Period storageVerificationInitialDelay;
     private Boolean updateLocationStatusOnRetrieve;
     private Boolean storageVerificationOnRetrieve;
+    private Integer stowMaxParallelism;
+    private Boolean streamRetrieveMatches;
+    private Duration spanningCFindSCPTimeout;
+    private Integer retrieveReadAhead;
+    private Integer retrieveMaxAssociations;
     private final LinkedHashSet<String> acceptedMoveDestinations = new LinkedHashSet<>();
     private final LinkedHashSet<String> acceptedUserRoles = new LinkedHashSet<>();
     private final ArrayList<ExportRule> exportRules = new ArrayList<>();
@@ -135,6 +140,13 @@ public class ArchiveAEExtension extends AEExtension {
     private final ArrayList<ArchiveAttributeCoercion> attributeCoercions = new ArrayList<>();
     private final ArrayList<StudyRetentionPolicy> studyRetentionPolicies = new ArrayList<>();
     private final ArrayList<StoreAccessControlIDRule> storeAccessControlIDRules = new ArrayList<>();
+    private final RuleIndex<ExportRule> exportRuleIndex = new RuleIndex<>(ExportRule::getConditions);
+    private final RuleIndex<ArchiveCompressionRule> compressionRuleIndex =
+            new RuleIndex<>(ArchiveCompressionRule::getConditions);
+    private final RuleIndex<StudyRetentionPolicy> studyRetentionPolicyIndex =
+            new RuleIndex<>(StudyRetentionPolicy::getConditions);
+    private final RuleIndex<StoreAccessControlIDRule> storeAccessControlIDRuleIndex =
+            new RuleIndex<>(StoreAccessControlIDRule::getConditions);
 
     public String getDefaultCharacterSet() {
         return defaultCharacterSet;
@@ -780,14 +792,17 @@ public class ArchiveAEExtension extends AEExtension {
 
     public void removeExportRule(ExportRule rule) {
         exportRules.remove(rule);
+        RuleIndex.modified();
     }
 
     public void clearExportRules() {
         exportRules.clear();
+        RuleIndex.modified();
     }
 
     public void addExportRule(ExportRule rule) {
         exportRules.add(rule);
+        RuleIndex.modified();
     }
 
     public Collection<ExportRule> getExportRules() {
@@ -828,14 +843,17 @@ public class ArchiveAEExtension extends AEExtension {
 
     public void removeCompressionRule(ArchiveCompressionRule rule) {
         compressionRules.remove(rule);
+        RuleIndex.modified();
     }
 
     public void clearCompressionRules() {
         compressionRules.clear();
+        RuleIndex.modified();
     }
 
     public void addCompressionRule(ArchiveCompressionRule rule) {
         compressionRules.add(rule);
+        RuleIndex.modified();
     }
 
     public Collection<ArchiveCompressionRule> getCompressionRules() {
@@ -844,14 +862,17 @@ public class ArchiveAEExtension extends AEExtension {
 
     public void removeStudyRetentionPolicies(StudyRetentionPolicy policy) {
         studyRetentionPolicies.remove(policy);
+        RuleIndex.modified();
     }
 
     public void clearStudyRetentionPolicy() {
         studyRetentionPolicies.clear();
+        RuleIndex.modified();
     }
 
     public void addStudyRetentionPolicy(StudyRetentionPolicy policy) {
         studyRetentionPolicies.add(policy);
+        RuleIndex.modified();
     }
 
     public Collection<StudyRetentionPolicy> getStudyRetentionPolicies() {
@@ -876,14 +897,17 @@ public class ArchiveAEExtension extends AEExtension {
 
     public void removeStoreAccessControlIDRule(StoreAccessControlIDRule storeAccessControlIDRule) {
         storeAccessControlIDRules.remove(storeAccessControlIDRule);
+        RuleIndex.modified();
     }
 
     public void clearStoreAccessControlIDRules() {
         storeAccessControlIDRules.clear();
+        RuleIndex.modified();
     }
 
     public void addStoreAccessControlIDRule(StoreAccessControlIDRule storeAccessControlIDRule) {
         storeAccessControlIDRules.add(storeAccessControlIDRule);
+        RuleIndex.modified();
     }
 
     public ArrayList<StoreAccessControlIDRule> getStoreAccessControlIDRules() {
@@ -1192,6 +1216,76 @@ public class ArchiveAEExtension extends AEExtension {
                 : getArchiveDeviceExtension().isStorageVerificationOnRetrieve();
     }
 
+    public Integer getStowMaxParallelism() {
+        return stowMaxParallelism;
+    }
+
+    public void setStowMaxParallelism(Integer stowMaxParallelism) {
+        this.stowMaxParallelism = stowMaxParallelism;
+    }
+
+    public int stowMaxParallelism() {
+        return stowMaxParallelism != null
+                ? stowMaxParallelism
+                : getArchiveDeviceExtension().getStowMaxParallelism();
+    }
+
+    public Boolean getStreamRetrieveMatches() {
+        return streamRetrieveMatches;
+    }
+
+    public void setStreamRetrieveMatches(Boolean streamRetrieveMatches) {
+        this.streamRetrieveMatches = streamRetrieveMatches;
+    }
+
+    public boolean streamRetrieveMatches() {
+        return streamRetrieveMatches != null
+                ? streamRetrieveMatches.booleanValue()
+                : getArchiveDeviceExtension().isStreamRetrieveMatches();
+    }
+
+    public Duration getSpanningCFindSCPTimeout() {
+        return spanningCFindSCPTimeout;
+    }
+
+    public void setSpanningCFindSCPTimeout(Duration spanningCFindSCPTimeout) {
+        this.spanningCFindSCPTimeout = spanningCFindSCPTimeout;
+    }
+
+    public Duration spanningCFindSCPTimeout() {
+        return spanningCFindSCPTimeout != null
+                ? spanningCFindSCPTimeout
+                : getArchiveDeviceExtension().getSpanningCFindSCPTimeout();
+    }
+
+    public Integer getRetrieveReadAhead() {
+        return retrieveReadAhead;
+    }
+
+    public void setRetrieveReadAhead(Integer retrieveReadAhead) {
+        this.retrieveReadAhead = retrieveReadAhead;
+    }
+
+    public int retrieveReadAhead() {
+        return retrieveReadAhead != null
+                ? retrieveReadAhead
+                : getArchiveDeviceExtension().getRetrieveReadAhead();
+    }
+
+    public Integer getRetrieveMaxAssociations() {
+        return retrieveMaxAssociations;
+    }
+
+    public void setRetrieveMaxAssociations(Integer retrieveMaxAssociations) {
+        this.retrieveMaxAssociations = retrieveMaxAssociations;
+    }
+
+    public int retrieveMaxAssociations() {
+        return retrieveMaxAssociations != null
+                ? retrieveMaxAssociations
+                : getArchiveDeviceExtension().getRetrieveMaxAssociations();
+    }
+
     @Override
     public void reconfigure(AEExtension from) {
         ArchiveAEExtension aeExt = (ArchiveAEExtension) from;
@@ -1259,6 +1353,11 @@ public class ArchiveAEExtension extends AEExtension {
         storageVerificationInitialDelay = aeExt.storageVerificationInitialDelay;
         updateLocationStatusOnRetrieve = aeExt.updateLocationStatusOnRetrieve;
         storageVerificationOnRetrieve = aeExt.storageVerificationOnRetrieve;
+        stowMaxParallelism = aeExt.stowMaxParallelism;
+        streamRetrieveMatches = aeExt.streamRetrieveMatches;
+        spanningCFindSCPTimeout = aeExt.spanningCFindSCPTimeout;
+        retrieveReadAhead = aeExt.retrieveReadAhead;
+        retrieveMaxAssociations = aeExt.retrieveMaxAssociations;
         acceptedMoveDestinations.clear();
         acceptedMoveDestinations.addAll(aeExt.acceptedMoveDestinations);
         acceptedUserRoles.clear();
@@ -1277,6 +1376,7 @@ public class ArchiveAEExtension extends AEExtension {
         attributeCoercions.addAll(aeExt.attributeCoercions);
         storeAccessControlIDRules.clear();
         storeAccessControlIDRules.addAll(aeExt.storeAccessControlIDRules);
+        RuleIndex.modified();
     }
 
     public ArchiveDeviceExtension getArchiveDeviceExtension() {
@@ -1286,15 +1386,15 @@ public class ArchiveAEExtension extends AEExtension {
     public Map<String, ExportRule> findExportRules(
             String hostName, String sendingAET, String receivingAET, Attributes attrs, Calendar cal) {
         HashMap<String, ExportRule> result = new HashMap<>();
-        for (Collection<ExportRule> rules
-                : new Collection[]{exportRules, getArchiveDeviceExtension().getExportRules() })
-            for (ExportRule rule : rules)
-                if (rule.match(hostName, sendingAET, receivingAET, attrs, cal))
-                    for (String exporterID : rule.getExporterIDs()) {
-                        ExportRule rule1 = result.get(exporterID);
-                        if (rule1 == null || rule1.getEntity().compareTo(rule.getEntity()) > 0)
-                            result.put(exporterID, rule);
-                    }
+        for (ExportRule rule : exportRuleIndex.candidates(exportRules,
+                getArchiveDeviceExtension().getExportRules(), hostName, sendingAET, receivingAET))
+            if (ScheduleExpression.emptyOrAnyContains(cal, rule.getSchedules())
+                    && rule.getConditions().matchAttributes(attrs))
+                for (String exporterID : rule.getExporterIDs()) {
+                    ExportRule rule1 = result.get(exporterID);
+                    if (rule1 == null || rule1.getEntity().compareTo(rule.getEntity()) > 0)
+                        result.put(exporterID, rule);
+                }
         return result;
     }
 
@@ -1315,12 +1415,11 @@ public class ArchiveAEExtension extends AEExtension {
     public ArchiveCompressionRule findCompressionRule(
             String hostName, String sendingAET, String receivingAET, Attributes attrs) {
         ArchiveCompressionRule rule1 = null;
-        for (Collection<ArchiveCompressionRule> rules
-                : new Collection[]{ compressionRules, getArchiveDeviceExtension().getCompressionRules() })
-            for (ArchiveCompressionRule rule : rules)
-                if (rule.match(hostName, sendingAET, receivingAET, attrs))
-                    if (rule1 == null || rule1.getPriority() < rule.getPriority())
-                        rule1 = rule;
+        for (ArchiveCompressionRule rule : compressionRuleIndex.candidates(compressionRules,
+                getArchiveDeviceExtension().getCompressionRules(), hostName, sendingAET, receivingAET))
+            if (rule1 == null || rule1.getPriority() < rule.getPriority())
+                if (rule.getConditions().matchAttributes(attrs))
+                    rule1 = rule;
         return rule1;
     }
 
@@ -1339,26 +1438,21 @@ public class ArchiveAEExtension extends AEExtension {
     public StudyRetentionPolicy findStudyRetentionPolicy(
             String hostName, String sendingAET, String receivingAET, Attributes attrs) {
         StudyRetentionPolicy policy1 = null;
-        for (Collection<StudyRetentionPolicy> policies
-                : new Collection[]{ studyRetentionPolicies, getArchiveDeviceExtension().getStudyRetentionPolicies() })
-            for (StudyRetentionPolicy policy : policies)
-                if (policy.match(hostName, sendingAET, receivingAET, attrs))
-                    if (policy1 == null || policy1.getPriority() < policy.getPriority())
-                        policy1 = policy;
+        for (StudyRetentionPolicy policy : studyRetentionPolicyIndex.candidates(studyRetentionPolicies,
+                getArchiveDeviceExtension().getStudyRetentionPolicies(), hostName, sendingAET, receivingAET))
+            if (policy1 == null || policy1.getPriority() < policy.getPriority())
+                if (policy.getConditions().matchAttributes(attrs))
+                    policy1 = policy;
         return policy1;
     }
 
     public String storeAccessControlID(String hostName, String sendingAET, String receivingAET, Attributes attrs) {
         StoreAccessControlIDRule rule1 = null;
-        for (Collection<StoreAccessControlIDRule> rules : new Collection[]{
-                storeAccessControlIDRules,
-                    getArchiveDeviceExtension().getStoreAccessControlIDRules()
-        }) {
-            for (StoreAccessControlIDRule rule : rules)
-                if (rule.match(hostName, sendingAET, receivingAET, attrs))
-                    if (rule1 == null || rule.getPriority() < rule.getPriority())
-                        rule1 = rule;
-        }
+        for (StoreAccessControlIDRule rule : storeAccessControlIDRuleIndex.candidates(storeAccessControlIDRules,
+                getArchiveDeviceExtension().getStoreAccessControlIDRules(), hostName, sendingAET, receivingAET))
+            if (rule1 == null || rule.getPriority() < rule.getPriority())
+                if (rule.getConditions().matchAttributes(attrs))
+                    rule1 = rule;
         return rule1 != null ? rule1.getStoreAccessControlID() : storeAccessControlID;
     }
 }
@@ -52,6 +52,7 @@ public class ArchiveCompressionRule {
 
     public void setConditions(Conditions conditions) {
         this.conditions = conditions;
+        RuleIndex.modified();
     }
 
     public Duration getDelay() {
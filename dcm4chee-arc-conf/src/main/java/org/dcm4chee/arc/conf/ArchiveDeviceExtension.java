@@ -229,6 +229,18 @@ public class ArchiveDeviceExtension extends DeviceExtension {
     private volatile boolean patientVerificationAdjustIssuerOfPatientID;
     private volatile HL7OrderMissingStudyIUIDPolicy hl7OrderMissingStudyIUIDPolicy = HL7OrderMissingStudyIUIDPolicy.GENERATE;
     private volatile String hl7DicomCharacterSet;
+    private volatile int stowMaxParallelism = 1;
+    private volatile int storeUpdateDBMaxBatchSize = 1;
+    private volatile int storeUpdateDBMaxBatchDelay = 50;
+    private volatile boolean streamRetrieveMatches;
+    private int exportTaskCoalesceDelay;
+    private volatile Duration spanningCFindSCPTimeout;
+    private volatile boolean auditSpoolSegments;
+    private volatile String wadoRenderedCacheDirectory;
+    private volatile String wadoRenderedCacheMaxSize;
+    private volatile int retrieveReadAhead;
+    private volatile int retrieveMaxAssociations = 1;
+    private volatile String compressionPrefetchMemory;
 
     private final HashSet<String> wadoSupportedSRClasses = new HashSet<>();
     private final EnumMap<Entity,AttributeFilter> attributeFilters = new EnumMap<>(Entity.class);
@@ -1518,14 +1530,17 @@ public class ArchiveDeviceExtension extends DeviceExtension {
 
     public void removeExportRule(ExportRule rule) {
         exportRules.remove(rule);
+        RuleIndex.modified();
     }
 
     public void clearExportRules() {
         exportRules.clear();
+        RuleIndex.modified();
     }
 
     public void addExportRule(ExportRule rule) {
         exportRules.add(rule);
+        RuleIndex.modified();
     }
 
     public Collection<ExportRule> getExportRules() {
@@ -1646,14 +1661,17 @@ public class ArchiveDeviceExtension extends DeviceExtension {
 
     public void removeCompressionRule(ArchiveCompressionRule rule) {
         compressionRules.remove(rule);
+        RuleIndex.modified();
     }
 
     public void clearCompressionRules() {
         compressionRules.clear();
+        RuleIndex.modified();
     }
 
     public void addCompressionRule(ArchiveCompressionRule rule) {
         compressionRules.add(rule);
+        RuleIndex.modified();
     }
 
     public Collection<ArchiveCompressionRule> getCompressionRules() {
@@ -1662,14 +1680,17 @@ public class ArchiveDeviceExtension extends DeviceExtension {
 
     public void removeStudyRetentionPolicy(StudyRetentionPolicy policy) {
         studyRetentionPolicies.remove(policy);
+        RuleIndex.modified();
     }
 
     public void clearStudyRetentionPolicies() {
         studyRetentionPolicies.clear();
+        RuleIndex.modified();
     }
 
     public void addStudyRetentionPolicy(StudyRetentionPolicy policy) {
         studyRetentionPolicies.add(policy);
+        RuleIndex.modified();
     }
 
     public Collection<StudyRetentionPolicy> getStudyRetentionPolicies() {
@@ -1710,14 +1731,17 @@ public class ArchiveDeviceExtension extends DeviceExtension {
 
     public void removeStoreAccessControlIDRule(StoreAccessControlIDRule storeAccessControlIDRule) {
         storeAccessControlIDRules.remove(storeAccessControlIDRule);
+        RuleIndex.modified();
     }
 
     public void clearStoreAccessControlIDRules() {
         storeAccessControlIDRules.clear();
+        RuleIndex.modified();
     }
 
     public void addStoreAccessControlIDRule(StoreAccessControlIDRule storeAccessControlIDRule) {
         storeAccessControlIDRules.add(storeAccessControlIDRule);
+        RuleIndex.modified();
     }
 
     public ArrayList<StoreAccessControlIDRule> getStoreAccessControlIDRules() {
@@ -2238,6 +2262,102 @@ public class ArchiveDeviceExtension extends DeviceExtension {
         this.hl7DicomCharacterSet = hl7DicomCharacterSet;
     }
 
+    public int getStowMaxParallelism() {
+        return stowMaxParallelism;
+    }
+
+    public void setStowMaxParallelism(int stowMaxParallelism) {
+        this.stowMaxParallelism = greaterZero(stowMaxParallelism, "StowMaxParallelism");
+    }
+
+    public int getStoreUpdateDBMaxBatchSize() {
+        return storeUpdateDBMaxBatchSize;
+    }
+
+    public void setStoreUpdateDBMaxBatchSize(int storeUpdateDBMaxBatchSize) {
+        this.storeUpdateDBMaxBatchSize = greaterZero(storeUpdateDBMaxBatchSize, "StoreUpdateDBMaxBatchSize");
+    }
+
+    public int getStoreUpdateDBMaxBatchDelay() {
+        return storeUpdateDBMaxBatchDelay;
+    }
+
+    public void setStoreUpdateDBMaxBatchDelay(int storeUpdateDBMaxBatchDelay) {
+        this.storeUpdateDBMaxBatchDelay = storeUpdateDBMaxBatchDelay;
+    }
+
+    public boolean isStreamRetrieveMatches() {
+        return streamRetrieveMatches;
+    }
+
+    public void setStreamRetrieveMatches(boolean streamRetrieveMatches) {
+        this.streamRetrieveMatches = streamRetrieveMatches;
+    }
+
+    public int getExportTaskCoalesceDelay() {
+        return exportTaskCoalesceDelay;
+    }
+
+    public void setExportTaskCoalesceDelay(int exportTaskCoalesceDelay) {
+        this.exportTaskCoalesceDelay = exportTaskCoalesceDelay;
+    }
+
+    public Duration getSpanningCFindSCPTimeout() {
+        return spanningCFindSCPTimeout;
+    }
+
+    public void setSpanningCFindSCPTimeout(Duration spanningCFindSCPTimeout) {
+        this.spanningCFindSCPTimeout = spanningCFindSCPTimeout;
+    }
+
+    public boolean isAuditSpoolSegments() {
+        return auditSpoolSegments;
+    }
+
+    public void setAuditSpoolSegments(boolean auditSpoolSegments) {
+        this.auditSpoolSegments = auditSpoolSegments;
+    }
+
+    public String getWadoRenderedCacheDirectory() {
+        return wadoRenderedCacheDirectory;
+    }
+
+    public void setWadoRenderedCacheDirectory(String wadoRenderedCacheDirectory) {
+        this.wadoRenderedCacheDirectory = wadoRenderedCacheDirectory;
+    }
+
+    public String getWadoRenderedCacheMaxSize() {
+        return wadoRenderedCacheMaxSize;
+    }
+
+    public void setWadoRenderedCacheMaxSize(String wadoRenderedCacheMaxSize) {
+        this.wadoRenderedCacheMaxSize = wadoRenderedCacheMaxSize;
+    }
+
+    public int getRetrieveReadAhead() {
+        return retrieveReadAhead;
+    }
+
+    public void setRetrieveReadAhead(int retrieveReadAhead) {
+        this.retrieveReadAhead = retrieveReadAhead;
+    }
+
+    public int getRetrieveMaxAssociations() {
+        return retrieveMaxAssociations;
+    }
+
+    public void setRetrieveMaxAssociations(int retrieveMaxAssociations) {
+        this.retrieveMaxAssociations = retrieveMaxAssociations;
+    }
+
+    public String getCompressionPrefetchMemory() {
+        return compressionPrefetchMemory;
+    }
+
+    public void setCompressionPrefetchMemory(String compressionPrefetchMemory) {
+        this.compressionPrefetchMemory = compressionPrefetchMemory;
+    }
+
     @Override
     public void reconfigure(DeviceExtension from) {
         ArchiveDeviceExtension arcdev = (ArchiveDeviceExtension) from;
@@ -2403,6 +2523,18 @@ public class ArchiveDeviceExtension extends DeviceExtension {
         patientVerificationAdjustIssuerOfPatientID = arcdev.patientVerificationAdjustIssuerOfPatientID;
         hl7OrderMissingStudyIUIDPolicy = arcdev.hl7OrderMissingStudyIUIDPolicy;
         hl7DicomCharacterSet = arcdev.hl7DicomCharacterSet;
+        stowMaxParallelism = arcdev.stowMaxParallelism;
+        storeUpdateDBMaxBatchSize = arcdev.storeUpdateDBMaxBatchSize;
+        storeUpdateDBMaxBatchDelay = arcdev.storeUpdateDBMaxBatchDelay;
+        streamRetrieveMatches = arcdev.streamRetrieveMatches;
+        exportTaskCoalesceDelay = arcdev.exportTaskCoalesceDelay;
+        spanningCFindSCPTimeout = arcdev.spanningCFindSCPTimeout;
+        auditSpoolSegments = arcdev.auditSpoolSegments;
+        wadoRenderedCacheDirectory = arcdev.wadoRenderedCacheDirectory;
+        wadoRenderedCacheMaxSize = arcdev.wadoRenderedCacheMaxSize;
+        retrieveReadAhead = arcdev.retrieveReadAhead;
+        retrieveMaxAssociations = arcdev.retrieveMaxAssociations;
+        compressionPrefetchMemory = arcdev.compressionPrefetchMemory;
         attributeFilters.clear();
         attributeFilters.putAll(arcdev.attributeFilters);
         attributeSet.clear();
@@ -2447,6 +2579,7 @@ public class ArchiveDeviceExtension extends DeviceExtension {
         attributeCoercions.addAll(arcdev.attributeCoercions);
         storeAccessControlIDRules.clear();
         storeAccessControlIDRules.addAll(arcdev.storeAccessControlIDRules);
+        RuleIndex.modified();
         rejectionNoteMap.clear();
         rejectionNoteMap.putAll(arcdev.rejectionNoteMap);
         keycloakServerMap.clear();
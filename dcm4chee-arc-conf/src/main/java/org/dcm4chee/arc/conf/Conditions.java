@@ -4,6 +4,8 @@ import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Sequence;
 import org.dcm4che3.util.TagUtils;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.regex.Pattern;
@@ -18,7 +20,12 @@ public class Conditions {
     public static final String SENDING_APPLICATION_ENTITY_TITLE = "SendingApplicationEntityTitle";
     public static final String SENDING_HOSTNAME = "SendingHostname";
 
+    private static final int RECEIVING_AET = -1;
+    private static final int SENDING_AET = -2;
+    private static final int SENDING_HOST = -3;
+
     private final Map<String, Pattern> map = new TreeMap<>();
+    private volatile Compiled compiled;
 
     public Conditions(String... props) {
          for (String s : props) {
@@ -56,6 +63,8 @@ public class Conditions {
     public void setCondition(String tagPath, String value) {
         Pattern pattern = Pattern.compile(value);
         map.put(tagPath, pattern);
+        compiled = null;
+        RuleIndex.modified();
     }
 
     public Map<String,Pattern> getMap() {
@@ -63,55 +72,68 @@ public class Conditions {
     }
 
     public boolean match(String hostName, String sendingAET, String receivingAET, Attributes attrs) {
-        for (Map.Entry<String, Pattern> entry : map.entrySet()) {
-            String tagPath = entry.getKey();
-            Pattern pattern = entry.getValue();
-            boolean ne = tagPath.endsWith("!");
-            if (ne)
-                tagPath = tagPath.substring(0, tagPath.length()-1);
-            switch (tagPath) {
-                case RECEIVING_APPLICATION_ENTITY_TITLE:
-                    if (ne ? (receivingAET != null && pattern.matcher(receivingAET).matches())
-                           : (receivingAET == null || !pattern.matcher(receivingAET).matches()))
-                        return false;
-                    break;
-                case SENDING_APPLICATION_ENTITY_TITLE:
-                    if (ne ? (sendingAET != null && pattern.matcher(sendingAET).matches())
-                           : (sendingAET == null || !pattern.matcher(sendingAET).matches()))
-                        return false;
+        return matchAssociation(hostName, sendingAET, receivingAET) && matchAttributes(attrs);
+    }
+
+    /**
+     * Evaluates only the conditions on the Sending Hostname, Sending and Receiving Application Entity Title,
+     * which are the same for all objects received on one association.
+     */
+    public boolean matchAssociation(String hostName, String sendingAET, String receivingAET) {
+        for (Condition condition : compiled().association) {
+            String value;
+            switch (condition.tagPath[0]) {
+                case RECEIVING_AET:
+                    value = receivingAET;
                     break;
-                case SENDING_HOSTNAME:
-                    if (ne ? (hostName != null && pattern.matcher(hostName).matches())
-                           : (hostName == null || !pattern.matcher(hostName).matches()))
-                        return false;
+                case SENDING_AET:
+                    value = sendingAET;
                     break;
                 default:
-                    if (!match(attrs, TagUtils.parseTagPath(tagPath), pattern, 0, ne))
-                        return false;
+                    value = hostName;
             }
+            if (condition.ne ? (value != null && condition.matches(value))
+                             : (value == null || !condition.matches(value)))
+                return false;
         }
         return true;
     }
 
-    private boolean match(Attributes attrs, int[] tagPath, Pattern pattern, int level, boolean ne) {
+    /**
+     * Evaluates only the conditions on attributes of the received object.
+     */
+    public boolean matchAttributes(Attributes attrs) {
+        for (Condition condition : compiled().attributes)
+            if (!match(attrs, condition, 0, condition.ne))
+                return false;
+        return true;
+    }
+
+    private Compiled compiled() {
+        Compiled compiled = this.compiled;
+        if (compiled == null)
+            this.compiled = compiled = new Compiled(map);
+        return compiled;
+    }
+
+    private boolean match(Attributes attrs, Condition condition, int level, boolean ne) {
+        int[] tagPath = condition.tagPath;
         if (level < tagPath.length-1) {
             Sequence seq = attrs.getSequence(tagPath[level]);
             if (seq != null)
                 for (Attributes item : seq)
-                    if (match(item, tagPath, pattern, level+1, false))
+                    if (match(item, condition, level+1, false))
                         return true;
         } else {
             String[] ss = attrs.getStrings(tagPath[level]);
             if (ss != null)
                 for (String s : ss)
-                    if (pattern != null && s != null && pattern.matcher(s).matches() && !ne)
+                    if (s != null && condition.matches(s) && !ne)
                         return true;
-                    else if (pattern == null || s == null)
+                    else if (s == null)
                         return false;
-                    else if (ne && !pattern.matcher(s).matches())
+                    else if (ne && !condition.matches(s))
                         return true;
-//            if (pattern.matcher(s).matches())
-//                        return true;
             if (ss == null && ne)
                 return true;
             if (ss == null && !ne)
@@ -120,6 +142,62 @@ public class Conditions {
         return false;
     }
 
+    private static final class Compiled {
+        final Condition[] association;
+        final Condition[] attributes;
+
+        Compiled(Map<String, Pattern> map) {
+            List<Condition> association = new ArrayList<>();
+            List<Condition> attributes = new ArrayList<>();
+            for (Map.Entry<String, Pattern> entry : map.entrySet()) {
+                String tagPath = entry.getKey();
+                boolean ne = tagPath.endsWith("!");
+                if (ne)
+                    tagPath = tagPath.substring(0, tagPath.length()-1);
+                switch (tagPath) {
+                    case RECEIVING_APPLICATION_ENTITY_TITLE:
+                        association.add(new Condition(new int[]{ RECEIVING_AET }, ne, entry.getValue()));
+                        break;
+                    case SENDING_APPLICATION_ENTITY_TITLE:
+                        association.add(new Condition(new int[]{ SENDING_AET }, ne, entry.getValue()));
+                        break;
+                    case SENDING_HOSTNAME:
+                        association.add(new Condition(new int[]{ SENDING_HOST }, ne, entry.getValue()));
+                        break;
+                    default:
+                        attributes.add(new Condition(TagUtils.parseTagPath(tagPath), ne, entry.getValue()));
+                }
+            }
+            this.association = association.toArray(new Condition[0]);
+            this.attributes = attributes.toArray(new Condition[0]);
+        }
+    }
+
+    private static final class Condition {
+        final int[] tagPath;
+        final boolean ne;
+        final Pattern pattern;
+        final String literal;
+
+        Condition(int[] tagPath, boolean ne, Pattern pattern) {
+            this.tagPath = tagPath;
+            this.ne = ne;
+            this.pattern = pattern;
+            this.literal = isLiteral(pattern.pattern()) ? pattern.pattern() : null;
+        }
+
+        boolean matches(String s) {
+            return literal != null ? literal.equals(s) : pattern.matcher(s).matches();
+        }
+
+        private static boolean isLiteral(String regex) {
+            for (int i = 0, n = regex.length(); i < n; i++)
+                if ("\\[](){}.*+?^$|".indexOf(regex.charAt(i)) >= 0)
+                    return false;
+            return true;
+        }
+    }
+
     @Override
     public String toString() {
         return map.toString();
@@ -55,6 +55,7 @@ public class ExportRule {
 
     public void setConditions(Conditions conditions) {
         this.conditions = conditions;
+        RuleIndex.modified();
     }
 
     public String[] getExporterIDs() {
@@ -97,8 +97,25 @@ public class QueryRetrieveView {
                 : !containsCode(showInstancesRejectedByCode, codeItem);
     }
 
+    public boolean hideRejectionNote(Code conceptNameCode) {
+        return conceptNameCode != null && containsCode(hideRejectionNotesWithCode, conceptNameCode);
+    }
+
+    public boolean hideRejectedInstance(Code rejectionNoteCode) {
+        return rejectionNoteCode == null
+                ? hideNotRejectedInstances
+                : !containsCode(showInstancesRejectedByCode, rejectionNoteCode);
+    }
+
+    public boolean showInstance(Code rejectionNoteCode, Code conceptNameCode) {
+        return !hideRejectedInstance(rejectionNoteCode) && !hideRejectionNote(conceptNameCode);
+    }
+
     private boolean containsCode(Code[] codes, Attributes codeItem) {
-        Code code = new Code(codeItem);
+        return containsCode(codes, new Code(codeItem));
+    }
+
+    private boolean containsCode(Code[] codes, Code code) {
         for (Code code1 : codes) {
             if (code1.equalsIgnoreMeaning(code))
                 return true;
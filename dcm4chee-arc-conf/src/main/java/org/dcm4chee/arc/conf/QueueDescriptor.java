@@ -23,6 +23,7 @@ public class QueueDescriptor {
     private Duration purgeQueueMessageWarningDelay;
     private Duration purgeQueueMessageCanceledDelay;
     private int maxQueueSize = 0;
+    private int statusUpdateBatchDelay;
 
     public QueueDescriptor(String queueName) {
         setQueueName(queueName);
@@ -145,4 +146,12 @@ public class QueueDescriptor {
     public void setMaxQueueSize(int maxQueueSize) {
         this.maxQueueSize = maxQueueSize;
     }
+
+    public int getStatusUpdateBatchDelay() {
+        return statusUpdateBatchDelay;
+    }
+
+    public void setStatusUpdateBatchDelay(int statusUpdateBatchDelay) {
+        this.statusUpdateBatchDelay = statusUpdateBatchDelay;
+    }
 }
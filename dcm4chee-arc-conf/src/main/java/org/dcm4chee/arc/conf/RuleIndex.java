@@ -0,0 +1,169 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.conf;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Caches the rules configured for an Archive AE and its Device, which conditions on Sending Hostname, Sending and
+ * Receiving Application Entity Title match, by these three values. So for objects received on the same association,
+ * only the conditions on attributes of the objects have to be evaluated. The cache is rebuilt after any invocation of
+ * {@link #modified()}, which is invoked on modification of one of the rule lists, on replacement of the Conditions
+ * of a rule and on modification of Conditions. The least recently used keys are evicted, if the number of cached
+ * keys exceeds 1000.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class RuleIndex<R> {
+
+    private static final int MAX_CACHED_KEYS = 1000;
+    private static final AtomicInteger MOD_COUNT = new AtomicInteger();
+
+    private final Function<R, Conditions> conditionsOf;
+    private volatile Snapshot<R> snapshot;
+
+    RuleIndex(Function<R, Conditions> conditionsOf) {
+        this.conditionsOf = conditionsOf;
+    }
+
+    static void modified() {
+        MOD_COUNT.incrementAndGet();
+    }
+
+    List<R> candidates(Collection<R> aeRules, Collection<R> deviceRules,
+                       String hostName, String sendingAET, String receivingAET) {
+        Snapshot<R> snapshot = this.snapshot;
+        int modCount = MOD_COUNT.get();
+        if (snapshot == null || snapshot.modCount != modCount)
+            this.snapshot = snapshot = new Snapshot<>(modCount, aeRules, deviceRules, conditionsOf);
+        return snapshot.candidates(hostName, sendingAET, receivingAET);
+    }
+
+    private static final class Snapshot<R> {
+        final int modCount;
+        final Object[] rules;
+        final Conditions[] conditions;
+        final LinkedHashMap<Key, List<R>> cache = new LinkedHashMap<Key, List<R>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<R>> eldest) {
+                return size() > MAX_CACHED_KEYS;
+            }
+        };
+
+        Snapshot(int modCount, Collection<R> aeRules, Collection<R> deviceRules,
+                 Function<R, Conditions> conditionsOf) {
+            this.modCount = modCount;
+            rules = new Object[aeRules.size() + deviceRules.size()];
+            conditions = new Conditions[rules.length];
+            int i = 0;
+            for (R rule : aeRules) {
+                rules[i] = rule;
+                conditions[i++] = conditionsOf.apply(rule);
+            }
+            for (R rule : deviceRules) {
+                rules[i] = rule;
+                conditions[i++] = conditionsOf.apply(rule);
+            }
+        }
+
+        List<R> candidates(String hostName, String sendingAET, String receivingAET) {
+            Key key = new Key(hostName, sendingAET, receivingAET);
+            List<R> candidates;
+            synchronized (cache) {
+                candidates = cache.get(key);
+            }
+            if (candidates == null) {
+                candidates = select(hostName, sendingAET, receivingAET);
+                synchronized (cache) {
+                    cache.put(key, candidates);
+                }
+            }
+            return candidates;
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<R> select(String hostName, String sendingAET, String receivingAET) {
+            ArrayList<R> list = new ArrayList<>();
+            for (int i = 0; i < rules.length; i++)
+                if (conditions[i].matchAssociation(hostName, sendingAET, receivingAET))
+                    list.add((R) rules[i]);
+            return list.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(list);
+        }
+    }
+
+    private static final class Key {
+        final String hostName;
+        final String sendingAET;
+        final String receivingAET;
+        final int hash;
+
+        Key(String hostName, String sendingAET, String receivingAET) {
+            this.hostName = hostName;
+            this.sendingAET = sendingAET;
+            this.receivingAET = receivingAET;
+            this.hash = Objects.hash(hostName, sendingAET, receivingAET);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return Objects.equals(hostName, other.hostName)
+                    && Objects.equals(sendingAET, other.sendingAET)
+                    && Objects.equals(receivingAET, other.receivingAET);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
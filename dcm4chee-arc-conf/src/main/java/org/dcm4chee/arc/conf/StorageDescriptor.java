@@ -64,6 +64,7 @@ public final class StorageDescriptor {
     private String retrieveCacheStorageID;
     private int retrieveCacheStorageMaxParallel = 10;
     private int deleterThreads = 1;
+    private int deleterBatchSize = 1;
     private String externalRetrieveAETitle;
     private boolean readOnly;
     private StorageDuration storageDuration = StorageDuration.PERMANENT;
@@ -168,6 +169,14 @@ public final class StorageDescriptor {
         this.deleterThreads = deleterThreads;
     }
 
+    public int getDeleterBatchSize() {
+        return deleterBatchSize;
+    }
+
+    public void setDeleterBatchSize(int deleterBatchSize) {
+        this.deleterBatchSize = deleterBatchSize;
+    }
+
     public boolean isReadOnly() {
         return readOnly;
     }
@@ -86,6 +86,7 @@ public class StoreAccessControlIDRule {
 
     public void setConditions(Conditions conditions) {
         this.conditions = conditions;
+        RuleIndex.modified();
     }
 
     public String getStoreAccessControlID() {
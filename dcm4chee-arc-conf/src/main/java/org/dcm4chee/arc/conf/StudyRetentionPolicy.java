@@ -96,6 +96,7 @@ public class StudyRetentionPolicy {
 
     public void setConditions(Conditions conditions) {
         this.conditions = conditions;
+        RuleIndex.modified();
     }
 
     public Period getRetentionPeriod() {
@@ -91,6 +91,26 @@ public class ConditionsTest {
         assertTrue(notmodality.match(null, null, null, empty));
     }
 
+    @Test
+    public void matchRegex() throws Exception {
+        Conditions sending = new Conditions("SendingApplicationEntityTitle=STORE.*");
+        assertTrue(sending.match(null, "STORESCU", null, new Attributes()));
+        assertFalse(sending.match(null, "DCMQRSCP", null, new Attributes()));
+        Conditions modality = new Conditions("Modality=CT|MR");
+        assertTrue(modality.match(null, null, null, modality("CT")));
+        assertTrue(modality.match(null, null, null, modality("MR")));
+        assertFalse(modality.match(null, null, null, modality("CR")));
+    }
+
+    @Test
+    public void matchAssociationAndAttributes() throws Exception {
+        Conditions conditions = new Conditions("SendingApplicationEntityTitle=STORESCU", "Modality=CT");
+        assertTrue(conditions.matchAssociation(null, "STORESCU", null));
+        assertFalse(conditions.matchAssociation(null, "DCMQRSCP", null));
+        assertTrue(conditions.matchAttributes(modality("CT")));
+        assertFalse(conditions.matchAttributes(modality("MR")));
+    }
+
     private Attributes modality(String modality) {
         Attributes attrs = new Attributes(1);
         attrs.setString(Tag.Modality, VR.CS, modality);
@@ -0,0 +1,113 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.conf;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class RuleIndexTest {
+
+    private final RuleIndex<Conditions> index = new RuleIndex<>(Function.identity());
+    private final List<Conditions> deviceRules = Collections.emptyList();
+
+    @Test
+    public void candidates() {
+        Conditions storescu = new Conditions("SendingApplicationEntityTitle=STORESCU");
+        Conditions any = new Conditions();
+        List<Conditions> aeRules = list(storescu, any);
+        assertEquals(list(storescu, any), index.candidates(aeRules, deviceRules, null, "STORESCU", "DCM4CHEE"));
+        assertEquals(list(any), index.candidates(aeRules, deviceRules, null, "MOVESCU", "DCM4CHEE"));
+    }
+
+    @Test
+    public void modifyConditions() {
+        Conditions conditions = new Conditions("SendingApplicationEntityTitle=STORESCU");
+        List<Conditions> aeRules = list(conditions);
+        assertEquals(aeRules, index.candidates(aeRules, deviceRules, null, "STORESCU", "DCM4CHEE"));
+        conditions.setCondition(Conditions.SENDING_APPLICATION_ENTITY_TITLE, "MOVESCU");
+        assertTrue(index.candidates(aeRules, deviceRules, null, "STORESCU", "DCM4CHEE").isEmpty());
+        assertEquals(aeRules, index.candidates(aeRules, deviceRules, null, "MOVESCU", "DCM4CHEE"));
+    }
+
+    @Test
+    public void modifyRules() {
+        ArchiveAEExtension arcAE = new ArchiveAEExtension();
+        ArchiveCompressionRule rule = new ArchiveCompressionRule("rule");
+        rule.setConditions(new Conditions("SendingApplicationEntityTitle=STORESCU"));
+        List<ArchiveCompressionRule> deviceRules = Collections.emptyList();
+        RuleIndex<ArchiveCompressionRule> index = new RuleIndex<>(ArchiveCompressionRule::getConditions);
+        assertTrue(index.candidates(arcAE.getCompressionRules(), deviceRules, null, "STORESCU", null).isEmpty());
+        arcAE.addCompressionRule(rule);
+        assertEquals(list(rule), index.candidates(arcAE.getCompressionRules(), deviceRules, null, "STORESCU", null));
+        rule.setConditions(new Conditions("SendingApplicationEntityTitle=MOVESCU"));
+        assertTrue(index.candidates(arcAE.getCompressionRules(), deviceRules, null, "STORESCU", null).isEmpty());
+        arcAE.removeCompressionRule(rule);
+        assertTrue(index.candidates(arcAE.getCompressionRules(), deviceRules, null, "MOVESCU", null).isEmpty());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsedKeys() {
+        Conditions storescu = new Conditions("SendingApplicationEntityTitle=STORESCU");
+        List<Conditions> aeRules = list(storescu);
+        List<Conditions> candidates = index.candidates(aeRules, deviceRules, null, "STORESCU", null);
+        for (int i = 0; i < 2000; i++) {
+            index.candidates(aeRules, deviceRules, null, "AE" + i, null);
+            assertSame(candidates, index.candidates(aeRules, deviceRules, null, "STORESCU", null));
+        }
+    }
+
+    @SafeVarargs
+    private static <T> List<T> list(T... rules) {
+        List<T> list = new ArrayList<>();
+        Collections.addAll(list, rules);
+        return list;
+    }
+}
@@ -46,6 +46,7 @@ import org.dcm4che3.data.IDWithIssuer;
 import org.dcm4che3.net.Device;
 import org.dcm4chee.arc.code.CodeCache;
 import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
+import org.dcm4chee.arc.conf.QueryRetrieveView;
 import org.dcm4chee.arc.conf.StorageDescriptor;
 import org.dcm4chee.arc.delete.RejectionService;
 import org.dcm4chee.arc.delete.StudyDeleteContext;
@@ -176,6 +177,14 @@ public class DeletionServiceEJB {
                 .executeUpdate() > 0;
     }
 
+    public List<Location> claimDeleteObjects(List<Location> locations) {
+        List<Location> claimed = new ArrayList<>(locations.size());
+        for (Location location : locations)
+            if (claimDeleteObject(location))
+                claimed.add(location);
+        return claimed;
+    }
+
     public boolean claimResolveFailedToDelete(Location location) {
         return em.createNamedQuery(Location.UPDATE_STATUS_FROM)
                 .setParameter(1, location.getPk())
@@ -230,12 +239,26 @@ public class DeletionServiceEJB {
                 .executeUpdate() > 0;
     }
 
+    public boolean isReferencedByOtherLocation(Location location) {
+        return em.createNamedQuery(Location.COUNT_OTHERS_BY_STORAGE_ID_AND_STORAGE_PATH, Long.class)
+                .setParameter(1, location.getStorageID())
+                .setParameter(2, location.getStoragePath())
+                .setParameter(3, location.getPk())
+                .getSingleResult() > 0;
+    }
+
     public void removeLocation(Location location) {
         em.createNamedQuery(Location.DELETE_BY_PK)
                 .setParameter(1, location.getPk())
                 .executeUpdate();
     }
 
+    public int removeLocations(List<Location> locations) {
+        return em.createNamedQuery(Location.DELETE_BY_PKS)
+                .setParameter(1, locations.stream().map(Location::getPk).collect(Collectors.toList()))
+                .executeUpdate();
+    }
+
     public void removeMetadata(Metadata metadata) {
         em.createNamedQuery(Metadata.DELETE_BY_PK)
                 .setParameter(1, metadata.getPk())
@@ -365,39 +388,51 @@ public class DeletionServiceEJB {
     }
 
     private void deleteInstances(Collection<Instance> insts) {
+        Collection<QueryRetrieveView> qrViews =
+                device.getDeviceExtension(ArchiveDeviceExtension.class).getQueryRetrieveViews();
         HashMap<Long, Series> series = new HashMap<>();
+        HashMap<Long, Set<String>> seriesViewIDs = new HashMap<>();
         for (Instance inst : insts) {
             Series ser = inst.getSeries();
-            if (!series.containsKey(ser.getPk())) {
-                series.put(ser.getPk(), ser);
-                deleteSeriesQueryAttributes(ser);
-            }
+            series.putIfAbsent(ser.getPk(), ser);
+            QueryAttributesUtils.addViewIDsShowing(qrViews,
+                    inst.getRejectionNoteCode() != null ? inst.getRejectionNoteCode().getCode() : null,
+                    inst.getConceptNameCode() != null ? inst.getConceptNameCode().getCode() : null,
+                    seriesViewIDs.computeIfAbsent(ser.getPk(), pk -> new HashSet<>()));
             em.remove(inst);
         }
         HashMap<Long, Study> studies = new HashMap<>();
+        HashMap<Study, Set<String>> studyViewIDs = new HashMap<>();
         for (Series ser : series.values()) {
+            Set<String> viewIDs = seriesViewIDs.get(ser.getPk());
             Study study = ser.getStudy();
-            if (!studies.containsKey(study.getPk())) {
+            if (!studies.containsKey(study.getPk()))
                 studies.put(study.getPk(), study);
-                deleteStudyQueryAttributes(study);
-            }
+            studyViewIDs.computeIfAbsent(study, x -> new HashSet<>()).addAll(viewIDs);
             if (countInstancesOfSeries(ser) == 0) {
+                deleteSeriesQueryAttributes(ser);
                 if (ser.getMetadata() != null)
                     ser.getMetadata().setStatus(Metadata.Status.TO_DELETE);
                 em.remove(ser);
             } else {
+                storeEjb.deleteSeriesQueryAttributes(ser, viewIDs);
                 studies.put(study.getPk(), null);
                 if (ser.getRejectionState() == RejectionState.PARTIAL && !hasRejectedInstances(ser))
                     ser.setRejectionState(RejectionState.NONE);
             }
         }
-        for (Study study : studies.values()) {
-            if (study == null)
+        for (Map.Entry<Study, Set<String>> entry : studyViewIDs.entrySet()) {
+            Study study = entry.getKey();
+            if (studies.get(study.getPk()) == null) {
+                storeEjb.deleteStudyQueryAttributes(study, entry.getValue());
                 continue;
+            }
 
             if (countSeriesOfStudy(study) == 0) {
+                deleteStudyQueryAttributes(study);
                 em.remove(study);
             } else {
+                storeEjb.deleteStudyQueryAttributes(study, entry.getValue());
                 if (study.getRejectionState() == RejectionState.PARTIAL
                         && !hasSeriesWithOtherRejectionState(study, RejectionState.NONE))
                     study.setRejectionState(RejectionState.NONE);
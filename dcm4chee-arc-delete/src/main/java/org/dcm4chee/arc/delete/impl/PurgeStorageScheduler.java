@@ -71,6 +71,7 @@ import java.io.InputStreamReader;
 import java.util.*;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import java.util.zip.ZipInputStream;
 
 /**
@@ -457,18 +458,20 @@ public class PurgeStorageScheduler extends Scheduler {
 
             LOG.info("Start deleting {} objects from {}", locations.size(), desc);
             int deleteThreads = desc.getDeleterThreads();
+            int batchSize = Math.max(1, desc.getDeleterBatchSize());
             Semaphore semaphore = deleteThreads > 1 ? new Semaphore(deleteThreads) : null;
             AtomicInteger success = new AtomicInteger();
             AtomicInteger skipped = new AtomicInteger();
+            long startTime = System.currentTimeMillis();
             try (Storage storage = storageFactory.getStorage(desc)) {
-                for (Location location : locations) {
+                for (List<Location> batch : batches(locations, batchSize, storage.isContentAddressed())) {
                     if (semaphore == null) {
-                        deleteLocation(storage, location, success, skipped);
+                        deleteLocations(storage, batch, success, skipped);
                     } else {
                         semaphore.acquire();
                         device.execute(() -> {
                             try {
-                                deleteLocation(storage, location, success, skipped);
+                                deleteLocations(storage, batch, success, skipped);
                             } finally {
                                 semaphore.release();
                             }
@@ -483,25 +486,133 @@ public class PurgeStorageScheduler extends Scheduler {
             } catch (Exception e) {
                 LOG.warn("Failed to access {}", desc, e);
             } finally {
-                LOG.info("Finished deleting {} (skipped={}, failed={}) objects from {}",
-                        success, skipped, locations.size() - success.get() - skipped.get(), desc);
+                long time = Math.max(1L, System.currentTimeMillis() - startTime);
+                LOG.info("Finished deleting {} (skipped={}, failed={}) objects from {} in {} ms ({} objects/s)",
+                        success, skipped, locations.size() - success.get() - skipped.get(), desc,
+                        time, success.get() * 1000L / time);
             }
         } while (locations.size() == fetchSize);
     }
 
+    /**
+     * Splits locations into batches of batchSize locations. If groupByStoragePath, locations referring to the same
+     * object are kept in one batch - which may exceed batchSize - so they are processed sequentially by one
+     * deleter thread and only the last remaining reference deletes the object.
+     */
+    private static List<List<Location>> batches(List<Location> locations, int batchSize,
+                                                boolean groupByStoragePath) {
+        List<List<Location>> batches = new ArrayList<>();
+        if (!groupByStoragePath) {
+            for (int fromIndex = 0; fromIndex < locations.size(); fromIndex += batchSize)
+                batches.add(locations.subList(fromIndex, Math.min(fromIndex + batchSize, locations.size())));
+            return batches;
+        }
+        List<Location> batch = new ArrayList<>(batchSize);
+        for (List<Location> sameStoragePath : locations.stream()
+                .collect(Collectors.groupingBy(Location::getStoragePath, LinkedHashMap::new, Collectors.toList()))
+                .values()) {
+            batch.addAll(sameStoragePath);
+            if (batch.size() >= batchSize) {
+                batches.add(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty())
+            batches.add(batch);
+        return batches;
+    }
+
+    private void deleteLocations(Storage storage, List<Location> locations, AtomicInteger success,
+                                 AtomicInteger skipped) {
+        if (locations.size() == 1) {
+            deleteLocation(storage, locations.get(0), success, skipped);
+            return;
+        }
+        List<Location> claimed;
+        try {
+            claimed = ejb.claimDeleteObjects(locations);
+        } catch (Exception e) {
+            LOG.warn("Failed to claim deletion of {} objects from {}", locations.size(), storage, e);
+            return;
+        }
+        skipped.getAndAdd(locations.size() - claimed.size());
+        if (storage.isContentAddressed())
+            claimed.removeIf(location -> removeIfReferencedByOtherLocation(storage, location, success));
+        if (claimed.isEmpty())
+            return;
+
+        Set<String> deletedPaths;
+        try {
+            deletedPaths = new HashSet<>(storage.deleteObjects(
+                    claimed.stream().map(Location::getStoragePath).collect(Collectors.toList())));
+        } catch (Exception e) {
+            LOG.info("Failed to delete {} objects from {} in one batch - delete objects separately",
+                    claimed.size(), storage, e);
+            for (Location location : claimed)
+                deleteClaimedLocation(storage, location, success);
+            return;
+        }
+        Map<Boolean, List<Location>> byDeleted = claimed.stream()
+                .collect(Collectors.partitioningBy(location -> deletedPaths.contains(location.getStoragePath())));
+        List<Location> deleted = byDeleted.get(true);
+        List<Location> notDeleted = byDeleted.get(false);
+        if (!notDeleted.isEmpty()) {
+            LOG.info("{} of {} objects not deleted from {} in one batch - delete objects separately",
+                    notDeleted.size(), claimed.size(), storage);
+            for (Location location : notDeleted)
+                deleteClaimedLocation(storage, location, success);
+        }
+        if (deleted.isEmpty())
+            return;
+
+        try {
+            ejb.removeLocations(deleted);
+            LOG.debug("Successfully delete {} objects from {}", deleted.size(), storage);
+            success.getAndAdd(deleted.size());
+        } catch (Exception e) {
+            LOG.warn("Failed to remove records of {} objects deleted from {}", deleted.size(), storage, e);
+        }
+    }
+
     private void deleteLocation(Storage storage, Location location, AtomicInteger success, AtomicInteger skipped) {
         try {
-            if (ejb.claimDeleteObject(location)) {
-                storage.deleteObject(location.getStoragePath());
-                ejb.removeLocation(location);
-                LOG.debug("Successfully delete {} from {}", location, storage);
-                success.getAndIncrement();
-            } else {
+            if (!ejb.claimDeleteObject(location)) {
                 skipped.getAndIncrement();
+                return;
             }
         } catch (Exception e) {
             LOG.warn("Failed to delete {} from {}", location, storage, e);
+            return;
+        }
+        deleteClaimedLocation(storage, location, success);
+    }
+
+    private void deleteClaimedLocation(Storage storage, Location location, AtomicInteger success) {
+        if (storage.isContentAddressed() && removeIfReferencedByOtherLocation(storage, location, success))
+            return;
+
+        try {
+            storage.deleteObject(location.getStoragePath());
+            ejb.removeLocation(location);
+            LOG.debug("Successfully delete {} from {}", location, storage);
+            success.getAndIncrement();
+        } catch (Exception e) {
+            LOG.warn("Failed to delete {} from {}", location, storage, e);
+        }
+    }
+
+    private boolean removeIfReferencedByOtherLocation(Storage storage, Location location, AtomicInteger success) {
+        try {
+            if (!ejb.isReferencedByOtherLocation(location))
+                return false;
+
+            ejb.removeLocation(location);
+            LOG.debug("Keep {} on {} referenced by other location", location, storage);
+            success.getAndIncrement();
+        } catch (Exception e) {
+            LOG.warn("Failed to remove record of {} on {}", location, storage, e);
         }
+        return true;
     }
 
 }
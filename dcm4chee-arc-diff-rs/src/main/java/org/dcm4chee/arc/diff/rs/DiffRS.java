@@ -151,6 +151,10 @@ public class DiffRS {
     @ValidValueOf(type = Duration.class)
     private String splitStudyDateRange;
 
+    @QueryParam("parallelism")
+    @Pattern(regexp = "[1-9]\\d?")
+    private String parallelism;
+
     @Override
     public String toString() {
         return request.getRequestURI() + '?' + request.getQueryString();
@@ -70,6 +70,7 @@ public class DiffContext {
     private String queryString;
     private QueryAttributes queryAttributes;
     private Duration splitStudyDateRange;
+    private int parallelism;
     private int priority;
     private boolean forceQueryByStudyUID;
     private boolean fuzzymatching;
@@ -130,6 +131,7 @@ public class DiffContext {
         this.queryAttributes = new QueryAttributes(queryParameters, null);
         this.forceQueryByStudyUID = parseBoolean(queryParameters.getFirst("ForceQueryByStudyUID"), false);
         this.splitStudyDateRange = parseDuration(queryParameters.getFirst("SplitStudyDateRange"));
+        this.parallelism = parseInt(queryParameters.getFirst("parallelism"), 1);
         this.compareKeys = parseComparefields(queryParameters.get("comparefield"));
         this.priority = parseInt(queryParameters.getFirst("priority"), 0);
         this.fuzzymatching = parseBoolean(queryParameters.getFirst("fuzzymatching"), false);
@@ -151,6 +153,10 @@ public class DiffContext {
         return splitStudyDateRange;
     }
 
+    public int getParallelism() {
+        return parallelism;
+    }
+
     public int[] getCompareKeys() {
         return compareKeys;
     }
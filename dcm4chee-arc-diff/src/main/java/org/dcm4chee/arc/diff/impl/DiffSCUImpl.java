@@ -130,13 +130,13 @@ public class DiffSCUImpl implements DiffSCU {
                 if (other == null) {
                     if (ctx.isCheckMissing()) {
                         missing++;
-                        return addOriginalAttributesSequence(match, modifiedAttributesForMissing());
+                        return addOriginalAttributesSequence(ctx, match, modifiedAttributesForMissing());
                     }
                 } else if (ctx.isCheckDifferent()) {
                     Attributes modified = new Attributes(match.size());
                     if (other.diff(match, ctx.getCompareKeys(), modified) > 0) {
                         different++;
-                        return addOriginalAttributesSequence(match, modified);
+                        return addOriginalAttributesSequence(ctx, match, modified);
                     }
                 }
             }
@@ -174,14 +174,14 @@ public class DiffSCUImpl implements DiffSCU {
         safeRelease(as2);
     }
 
-    private static Attributes modifiedAttributesForMissing() {
+    static Attributes modifiedAttributesForMissing() {
         Attributes modified = new Attributes(2);
         modified.setInt(Tag.NumberOfStudyRelatedSeries, VR.IS, 0);
         modified.setInt(Tag.NumberOfStudyRelatedInstances, VR.IS, 0);
         return modified;
     }
 
-    private Attributes addOriginalAttributesSequence(Attributes match, Attributes modified) {
+    static Attributes addOriginalAttributesSequence(DiffContext ctx, Attributes match, Attributes modified) {
         Sequence sq = match.newSequence(Tag.OriginalAttributesSequence, 1);
         Attributes item = new Attributes();
         sq.add(item);
@@ -193,7 +193,7 @@ public class DiffSCUImpl implements DiffSCU {
         return match;
     }
 
-    private static int checkRSP(DimseRSP rsp) throws DicomServiceException {
+    static int checkRSP(DimseRSP rsp) throws DicomServiceException {
         Attributes cmd = rsp.getCommand();
         int status = cmd.getInt(Tag.Status, -1);
         if (!Status.isPending(status) && status != Status.Success)
@@ -220,7 +220,7 @@ public class DiffSCUImpl implements DiffSCU {
             }
     }
 
-    private static void safeRelease(Association as) {
+    static void safeRelease(Association as) {
         if (as != null)
             try {
                 as.release();
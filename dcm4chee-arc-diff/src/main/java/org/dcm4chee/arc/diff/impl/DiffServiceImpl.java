@@ -88,7 +88,7 @@ public class DiffServiceImpl implements DiffService {
 
     @Override
     public DiffSCU createDiffSCU(DiffContext ctx) {
-        return new DiffSCUImpl(ctx, findSCU);
+        return PartitionedDiffSCU.createDiffSCU(ctx, findSCU);
     }
 
     @Override
@@ -0,0 +1,314 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.diff.impl;
+
+import org.dcm4che3.data.*;
+import org.dcm4che3.net.Association;
+import org.dcm4che3.net.DimseRSP;
+import org.dcm4che3.net.QueryOption;
+import org.dcm4che3.net.Status;
+import org.dcm4chee.arc.conf.Duration;
+import org.dcm4chee.arc.diff.DiffContext;
+import org.dcm4chee.arc.diff.DiffSCU;
+import org.dcm4chee.arc.query.scu.CFindSCU;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares Studies of two C-FIND SCPs by splitting the Study Date range into partitions, which are queried
+ * in parallel over several pairs of associations. Matches of each partition are buffered and sort-merged by
+ * Study Instance UID, so only Studies not found in the same partition of the secondary C-FIND SCP are queried
+ * separately.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class PartitionedDiffSCU implements DiffSCU {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PartitionedDiffSCU.class);
+    private static final Comparator<Attributes> BY_STUDY_IUID =
+            Comparator.comparing(attrs -> attrs.getString(Tag.StudyInstanceUID, ""));
+
+    private final DiffContext ctx;
+    private final CFindSCU findSCU;
+    private final List<DateRange> partitions;
+    private final CompletableFuture<List<Attributes>>[] results;
+    private final AtomicInteger nextPartition = new AtomicInteger();
+    private final Semaphore window;
+    private final List<Association> associations = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger missing = new AtomicInteger();
+    private final AtomicInteger different = new AtomicInteger();
+    private final AtomicInteger matches = new AtomicInteger();
+    private Attributes keys;
+    private Association[][] pairs;
+    private boolean collectDiffs = true;
+    private int consumedPartitions;
+    private Iterator<Attributes> diffs;
+    private volatile boolean canceled;
+
+    @SuppressWarnings("unchecked")
+    private PartitionedDiffSCU(DiffContext ctx, CFindSCU findSCU, List<DateRange> partitions) {
+        this.ctx = ctx;
+        this.findSCU = findSCU;
+        this.partitions = partitions;
+        this.results = new CompletableFuture[partitions.size()];
+        for (int i = 0; i < results.length; i++)
+            results[i] = new CompletableFuture<>();
+        this.window = new Semaphore(ctx.getParallelism() * 2);
+    }
+
+    static DiffSCU createDiffSCU(DiffContext ctx, CFindSCU findSCU) {
+        List<DateRange> partitions = partitionsOf(ctx);
+        return partitions != null
+                ? new PartitionedDiffSCU(ctx, findSCU, partitions)
+                : new DiffSCUImpl(ctx, findSCU);
+    }
+
+    private static List<DateRange> partitionsOf(DiffContext ctx) {
+        Duration splitStudyDateRange = ctx.getSplitStudyDateRange();
+        Attributes keys = ctx.getQueryKeys();
+        DateRange dateRange;
+        if (ctx.getParallelism() <= 1
+                || splitStudyDateRange == null
+                || keys.containsValue(Tag.StudyInstanceUID)
+                || keys.containsValue(Tag.StudyTime)
+                || (dateRange = keys.getDateRange(Tag.StudyDate)) == null
+                || dateRange.getStartDate() == null)
+            return null;
+
+        int days = Math.max(1, (int) (splitStudyDateRange.getSeconds() / 86400));
+        Date endDate = dateRange.getEndDate() != null ? dateRange.getEndDate() : new Date();
+        Calendar cal = Calendar.getInstance();
+        cal.setTime(dateRange.getStartDate());
+        List<DateRange> partitions = new ArrayList<>();
+        while (!cal.getTime().after(endDate)) {
+            Date start = cal.getTime();
+            cal.add(Calendar.DATE, days - 1);
+            Date end = cal.getTime();
+            partitions.add(new DateRange(start, end.after(endDate) ? endDate : end));
+            cal.add(Calendar.DATE, 1);
+        }
+        return partitions.size() > 1 ? partitions : null;
+    }
+
+    @Override
+    public int init() throws Exception {
+        ctx.supportSorting();
+        keys = new Attributes(ctx.getQueryKeys());
+        keys.remove(Tag.SortingOperationsSequence);
+        EnumSet<QueryOption> queryOptions = EnumSet.of(QueryOption.DATETIME);
+        if (ctx.isFuzzymatching())
+            queryOptions.add(QueryOption.FUZZY);
+        pairs = new Association[Math.min(ctx.getParallelism(), partitions.size())][];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = new Association[] {
+                    openAssociation(ctx.getPrimaryAE().getAETitle(), queryOptions),
+                    openAssociation(ctx.getSecondaryAE().getAETitle(), queryOptions)
+            };
+        }
+        return Status.Pending;
+    }
+
+    private void startComparePartitions() {
+        for (Association[] pair : pairs)
+            ctx.getLocalAE().getDevice().execute(() -> comparePartitions(pair[0], pair[1]));
+        pairs = null;
+    }
+
+    private Association openAssociation(String calledAET, EnumSet<QueryOption> queryOptions) throws Exception {
+        Association as = findSCU.openAssociation(ctx.getLocalAE(), calledAET,
+                UID.StudyRootQueryRetrieveInformationModelFIND, queryOptions);
+        associations.add(as);
+        return as;
+    }
+
+    @Override
+    public void countDiffs() throws Exception {
+        collectDiffs = false;
+        while (nextDiff() != null);
+    }
+
+    @Override
+    public Attributes nextDiff() throws Exception {
+        if (pairs != null)
+            startComparePartitions();
+        while (!canceled) {
+            if (diffs != null && diffs.hasNext())
+                return diffs.next();
+            if (consumedPartitions == results.length)
+                break;
+            try {
+                diffs = results[consumedPartitions++].get().iterator();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof Exception ? (Exception) cause : e;
+            }
+            window.release();
+        }
+        return null;
+    }
+
+    @Override
+    public int missing() {
+        return missing.get();
+    }
+
+    @Override
+    public int different() {
+        return different.get();
+    }
+
+    @Override
+    public int matches() {
+        return matches.get();
+    }
+
+    @Override
+    public void cancel() {
+        canceled = true;
+        window.release(ctx.getParallelism());
+        for (CompletableFuture<List<Attributes>> result : results)
+            result.complete(Collections.emptyList());
+        synchronized (associations) {
+            for (Association as : associations)
+                as.abort();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (consumedPartitions < results.length)
+            cancel();
+    }
+
+    private void comparePartitions(Association as1, Association as2) {
+        try {
+            int i;
+            while (!canceled) {
+                window.acquire();
+                if ((i = nextPartition.getAndIncrement()) >= results.length)
+                    break;
+                results[i].complete(comparePartition(as1, as2, partitions.get(i)));
+            }
+        } catch (Exception e) {
+            if (!canceled) {
+                LOG.warn("Failed to compare Studies of {} with {}:\n",
+                        ctx.getPrimaryAE().getAETitle(), ctx.getSecondaryAE().getAETitle(), e);
+                for (CompletableFuture<List<Attributes>> result : results)
+                    result.completeExceptionally(e);
+            }
+        } finally {
+            associations.remove(as1);
+            associations.remove(as2);
+            DiffSCUImpl.safeRelease(as1);
+            DiffSCUImpl.safeRelease(as2);
+        }
+    }
+
+    private List<Attributes> comparePartition(Association as1, Association as2, DateRange dateRange)
+            throws Exception {
+        Attributes partitionKeys = new Attributes(keys);
+        partitionKeys.setDateRange(Tag.StudyDate, VR.DA, dateRange);
+        List<Attributes> primary = find(as1, partitionKeys);
+        List<Attributes> secondary = ctx.isForceQueryByStudyUID()
+                ? Collections.emptyList()
+                : find(as2, partitionKeys);
+        LOG.debug("Compare {} with {} Studies of {} from {}",
+                primary.size(), secondary.size(), dateRange, ctx.getPrimaryAE().getAETitle());
+        primary.sort(BY_STUDY_IUID);
+        secondary.sort(BY_STUDY_IUID);
+        List<Attributes> diffs = new ArrayList<>();
+        Iterator<Attributes> others = secondary.iterator();
+        Attributes other = others.hasNext() ? others.next() : null;
+        for (Attributes match : primary) {
+            if (canceled)
+                break;
+
+            matches.incrementAndGet();
+            String studyIUID = match.getString(Tag.StudyInstanceUID, "");
+            while (other != null && studyIUID.compareTo(other.getString(Tag.StudyInstanceUID, "")) > 0)
+                other = others.hasNext() ? others.next() : null;
+            Attributes found;
+            if (other != null && studyIUID.equals(other.getString(Tag.StudyInstanceUID, ""))) {
+                found = other;
+                other = others.hasNext() ? others.next() : null;
+            } else {
+                List<Attributes> list = findSCU.findStudy(as2, ctx.priority(), studyIUID, ctx.getReturnKeys());
+                found = !list.isEmpty() ? list.get(0) : null;
+            }
+            if (found == null) {
+                if (!collectDiffs || ctx.isCheckMissing()) {
+                    missing.incrementAndGet();
+                    if (collectDiffs)
+                        diffs.add(DiffSCUImpl.addOriginalAttributesSequence(ctx, match,
+                                DiffSCUImpl.modifiedAttributesForMissing()));
+                }
+            } else if (!collectDiffs || ctx.isCheckDifferent()) {
+                Attributes modified = collectDiffs ? new Attributes(match.size()) : null;
+                if (found.diff(match, ctx.getCompareKeys(), modified) > 0) {
+                    different.incrementAndGet();
+                    if (collectDiffs)
+                        diffs.add(DiffSCUImpl.addOriginalAttributesSequence(ctx, match, modified));
+                }
+            }
+        }
+        return diffs;
+    }
+
+    private List<Attributes> find(Association as, Attributes keys) throws Exception {
+        List<Attributes> list = new ArrayList<>();
+        DimseRSP rsp = findSCU.query(as, ctx.priority(), keys, 0, 1, ctx.getSplitStudyDateRange());
+        while (rsp.next() && !canceled) {
+            Attributes match = rsp.getDataset();
+            if (match != null)
+                list.add(match);
+            else
+                DiffSCUImpl.checkRSP(rsp);
+        }
+        return list;
+    }
+}
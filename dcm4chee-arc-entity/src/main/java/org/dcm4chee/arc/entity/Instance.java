@@ -47,6 +47,7 @@ import org.dcm4che3.util.DateUtils;
 import org.dcm4che3.util.StringUtils;
 import org.dcm4chee.arc.conf.AttributeFilter;
 import org.dcm4chee.arc.conf.Availability;
+import org.dcm4chee.arc.conf.QueryRetrieveView;
 
 import javax.persistence.*;
 import java.util.*;
@@ -412,6 +413,12 @@ public class Instance {
         this.rejectionNoteCode = rejectionNoteCode;
     }
 
+    public boolean isShownBy(QueryRetrieveView qrView) {
+        return qrView.showInstance(
+                rejectionNoteCode != null ? rejectionNoteCode.getCode() : null,
+                conceptNameCode != null ? conceptNameCode.getCode() : null);
+    }
+
     public Collection<VerifyingObserver> getVerifyingObservers() {
         if (verifyingObservers == null)
             verifyingObservers = new ArrayList<>();
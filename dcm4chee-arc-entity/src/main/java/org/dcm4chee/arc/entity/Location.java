@@ -54,7 +54,8 @@ import java.util.Date;
 @Entity
 @Table(name = "location", indexes = {
     @Index(columnList = "storage_id,status"),
-    @Index(columnList = "multi_ref")
+    @Index(columnList = "multi_ref"),
+    @Index(columnList = "storage_id,storage_path")
 })
 @NamedQueries({
         @NamedQuery(name = Location.FIND_BY_STORAGE_ID_AND_STATUS,
@@ -88,6 +89,10 @@ import java.util.Date;
                         "where i.conceptNameCode=?1 and i.updatedTime<?2 order by i.pk"),
         @NamedQuery(name = Location.COUNT_BY_MULTI_REF,
                 query = "select count(l) from Location l where l.multiReference=?1"),
+        @NamedQuery(name = Location.FIND_BY_STORAGE_ID_AND_STORAGE_PATH,
+                query = "select l from Location l where l.storageID=?1 and l.storagePath=?2 and l.status<>?3"),
+        @NamedQuery(name = Location.COUNT_OTHERS_BY_STORAGE_ID_AND_STORAGE_PATH,
+                query = "select count(l) from Location l where l.storageID=?1 and l.storagePath=?2 and l.pk<>?3"),
         @NamedQuery(name = Location.COUNT_BY_UIDMAP,
                 query = "select count(l) from Location l where l.uidMap=?1"),
         @NamedQuery(name = Location.SET_DIGEST,
@@ -97,7 +102,9 @@ import java.util.Date;
         @NamedQuery(name = Location.UPDATE_STATUS_FROM,
                 query = "update Location l set l.status = ?3 where l.pk = ?1 and l.status = ?2"),
         @NamedQuery(name = Location.DELETE_BY_PK,
-                query = "delete from Location l where l.pk = ?1")
+                query = "delete from Location l where l.pk = ?1"),
+        @NamedQuery(name = Location.DELETE_BY_PKS,
+                query = "delete from Location l where l.pk in ?1")
 })
 @NamedNativeQueries({
         @NamedNativeQuery(name = Location.SIZE_OF_SERIES,
@@ -121,11 +128,15 @@ public class Location {
     public static final String FIND_BY_REJECTION_CODE_BEFORE = "Location.FindByRejectionCodeBefore";
     public static final String FIND_BY_CONCEPT_NAME_CODE_BEFORE = "Location.FindByConceptNameCodeBefore";
     public static final String COUNT_BY_MULTI_REF = "Location.CountByMultiRef";
+    public static final String FIND_BY_STORAGE_ID_AND_STORAGE_PATH = "Location.FindByStorageIDAndStoragePath";
+    public static final String COUNT_OTHERS_BY_STORAGE_ID_AND_STORAGE_PATH =
+            "Location.CountOthersByStorageIDAndStoragePath";
     public static final String COUNT_BY_UIDMAP = "Location.CountByUIDMap";
     public static final String SET_DIGEST = "Location.SetDigest";
     public static final String SET_STATUS = "Location.SetStatus";
     public static final String UPDATE_STATUS_FROM = "Location.UpdateStatusFrom";
     public static final String DELETE_BY_PK = "Location.DeleteByPk";
+    public static final String DELETE_BY_PKS = "Location.DeleteByPks";
     public static final String SIZE_OF_SERIES = "Location.SizeOfSeries";
 
     public enum Status {
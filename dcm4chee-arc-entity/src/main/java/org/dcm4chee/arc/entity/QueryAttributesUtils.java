@@ -0,0 +1,153 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.entity;
+
+import org.dcm4che3.data.Code;
+import org.dcm4che3.util.StringUtils;
+import org.dcm4chee.arc.conf.Availability;
+import org.dcm4chee.arc.conf.QueryRetrieveView;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Helper for incremental updates of {@link SeriesQueryAttributes} and {@link StudyQueryAttributes}.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class QueryAttributesUtils {
+
+    private QueryAttributesUtils() {}
+
+    /**
+     * Adds a stored instance to the Study and Series Query Attributes of all Query/Retrieve Views showing it.
+     *
+     * @param studyQueryAttrs   Study Query Attributes of the Study of the instance
+     * @param seriesQueryAttrs  Series Query Attributes of the Series of the instance by View ID
+     * @param seriesCreated     if the Series was created by the instance
+     * @param shownByView       tests if the instance is shown by the Query/Retrieve View with the given ID
+     * @return Study Query Attributes which cannot be updated, because the number of instances of the Series
+     *         shown by its Query/Retrieve View is not known, and have to be removed by the caller
+     */
+    public static List<StudyQueryAttributes> addInstance(Collection<StudyQueryAttributes> studyQueryAttrs,
+            Map<String, SeriesQueryAttributes> seriesQueryAttrs, boolean seriesCreated,
+            Predicate<String> shownByView, String modality, String sopClassUID, String[] retrieveAETs,
+            Availability availability) {
+        List<StudyQueryAttributes> remove = new ArrayList<>();
+        for (StudyQueryAttributes queryAttrs : studyQueryAttrs) {
+            if (!shownByView.test(queryAttrs.getViewID()))
+                continue;
+
+            SeriesQueryAttributes seriesQueryAttrs1 = seriesQueryAttrs.get(queryAttrs.getViewID());
+            if (!seriesCreated && seriesQueryAttrs1 == null) {
+                remove.add(queryAttrs);
+                continue;
+            }
+            queryAttrs.addInstance(modality,
+                    seriesCreated || seriesQueryAttrs1.getNumberOfInstances() == 0,
+                    sopClassUID, retrieveAETs, availability);
+        }
+        for (SeriesQueryAttributes queryAttrs : seriesQueryAttrs.values())
+            if (shownByView.test(queryAttrs.getViewID()))
+                queryAttrs.addInstance(sopClassUID, retrieveAETs, availability);
+        return remove;
+    }
+
+    /**
+     * Adds the IDs of Query/Retrieve Views showing a deleted instance, whose Query Attributes become invalid.
+     */
+    public static void addViewIDsShowing(Collection<QueryRetrieveView> qrViews, Code rejectionNoteCode,
+            Code conceptNameCode, Set<String> viewIDs) {
+        for (QueryRetrieveView qrView : qrViews)
+            if (qrView.showInstance(rejectionNoteCode, conceptNameCode))
+                viewIDs.add(qrView.getViewID());
+    }
+
+    /**
+     * Adds the IDs of Query/Retrieve Views whose visibility of a rejected instance, or of an instance whose
+     * rejection is revoked, changed, so their Query Attributes become invalid.
+     */
+    public static void addViewIDsOfChangedVisibility(Collection<QueryRetrieveView> qrViews,
+            Code prevRejectionNoteCode, Code rejectionNoteCode, Code conceptNameCode, Set<String> viewIDs) {
+        for (QueryRetrieveView qrView : qrViews)
+            if (qrView.showInstance(prevRejectionNoteCode, conceptNameCode)
+                    != qrView.showInstance(rejectionNoteCode, conceptNameCode))
+                viewIDs.add(qrView.getViewID());
+    }
+
+    static String union(String values, String value) {
+        if (values == null || values.isEmpty())
+            return value;
+
+        for (String s : StringUtils.split(values, '\\'))
+            if (s.equals(value))
+                return values;
+
+        return values + '\\' + value;
+    }
+
+    static String intersection(String values, String[] other) {
+        String[] ss = StringUtils.split(values, '\\');
+        int l = 0;
+        for (String s : ss)
+            if (contains(other, s))
+                ss[l++] = s;
+
+        if (l == ss.length)
+            return values;
+
+        String[] intersection = new String[l];
+        System.arraycopy(ss, 0, intersection, 0, l);
+        return StringUtils.concat(intersection, '\\');
+    }
+
+    static Availability max(Availability availability, Availability other) {
+        return availability.compareTo(other) < 0 ? other : availability;
+    }
+
+    private static boolean contains(String[] ss, String s0) {
+        for (String s : ss)
+            if (s0.equals(s))
+                return true;
+        return false;
+    }
+}
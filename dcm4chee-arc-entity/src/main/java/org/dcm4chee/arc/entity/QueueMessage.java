@@ -204,6 +204,10 @@ public class QueueMessage {
         return pk;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public String getDeviceName() {
         return deviceName;
     }
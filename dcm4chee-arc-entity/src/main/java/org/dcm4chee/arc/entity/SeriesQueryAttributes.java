@@ -40,6 +40,7 @@
 
 package org.dcm4chee.arc.entity;
 
+import org.dcm4che3.util.StringUtils;
 import org.dcm4chee.arc.conf.Availability;
 
 import javax.persistence.*;
@@ -60,6 +61,14 @@ import javax.persistence.*;
 @NamedQuery(
     name = SeriesQueryAttributes.VIEW_IDS_FOR_SERIES_PK,
     query = "select a.viewID from SeriesQueryAttributes a where a.series.pk = ?1"
+),
+@NamedQuery(
+    name = SeriesQueryAttributes.FIND_BY_SERIES,
+    query = "select a from SeriesQueryAttributes a where a.series = ?1"
+),
+@NamedQuery(
+    name = SeriesQueryAttributes.DELETE_FOR_SERIES_AND_VIEW_IDS,
+    query = "delete from SeriesQueryAttributes a where a.series = ?1 and a.viewID in ?2"
 )
 })
 @Entity
@@ -70,6 +79,8 @@ public class SeriesQueryAttributes {
     public static final String FIND_BY_VIEW_ID_AND_SERIES_PK = "SeriesQueryAttributes.findByViewIDAndSeriesPk";
     public static final String DELETE_FOR_SERIES = "SeriesQueryAttributes.deleteForSeries";
     public static final String VIEW_IDS_FOR_SERIES_PK = "SeriesQueryAttributes.viewIDsForSeriesPk";
+    public static final String FIND_BY_SERIES = "SeriesQueryAttributes.findBySeries";
+    public static final String DELETE_FOR_SERIES_AND_VIEW_IDS = "SeriesQueryAttributes.deleteForSeriesAndViewIDs";
 
     @Id
     @GeneratedValue(strategy=GenerationType.IDENTITY)
@@ -139,6 +150,18 @@ public class SeriesQueryAttributes {
         this.availability = availability;
     }
 
+    public void addInstance(String sopClassUID, String[] retrieveAETs, Availability availability) {
+        if (numberOfInstances++ == 0) {
+            this.sopClassesInSeries = sopClassUID;
+            this.retrieveAETs = StringUtils.concat(retrieveAETs, '\\');
+            this.availability = availability;
+        } else {
+            this.sopClassesInSeries = QueryAttributesUtils.union(sopClassesInSeries, sopClassUID);
+            this.retrieveAETs = QueryAttributesUtils.intersection(this.retrieveAETs, retrieveAETs);
+            this.availability = QueryAttributesUtils.max(this.availability, availability);
+        }
+    }
+
     public Series getSeries() {
         return series;
     }
@@ -40,6 +40,7 @@
 
 package org.dcm4chee.arc.entity;
 
+import org.dcm4che3.util.StringUtils;
 import org.dcm4chee.arc.conf.Availability;
 
 import javax.persistence.*;
@@ -55,7 +56,13 @@ import javax.persistence.*;
 ),
 @NamedQuery(
         name = StudyQueryAttributes.VIEW_IDS_FOR_STUDY_PK,
-        query = "select a.viewID from StudyQueryAttributes a where a.study.pk = ?1")
+        query = "select a.viewID from StudyQueryAttributes a where a.study.pk = ?1"),
+@NamedQuery(
+        name = StudyQueryAttributes.FIND_BY_STUDY,
+        query = "select a from StudyQueryAttributes a where a.study = ?1"),
+@NamedQuery(
+        name = StudyQueryAttributes.DELETE_FOR_STUDY_AND_VIEW_IDS,
+        query = "delete from StudyQueryAttributes a where a.study = ?1 and a.viewID in ?2")
 })
 @Entity
 @Table(name = "study_query_attrs", uniqueConstraints =
@@ -64,6 +71,8 @@ public class StudyQueryAttributes {
 
     public static final String DELETE_FOR_STUDY = "StudyQueryAttributes.deleteForStudy";
     public static final String VIEW_IDS_FOR_STUDY_PK = "StudyQueryAttributes.viewIDsForStudyPk";
+    public static final String FIND_BY_STUDY = "StudyQueryAttributes.findByStudy";
+    public static final String DELETE_FOR_STUDY_AND_VIEW_IDS = "StudyQueryAttributes.deleteForStudyAndViewIDs";
 
     @Id
     @GeneratedValue(strategy=GenerationType.IDENTITY)
@@ -155,6 +164,24 @@ public class StudyQueryAttributes {
         this.availability = availability;
     }
 
+    public void addInstance(String modality, boolean firstInstanceOfSeries, String sopClassUID,
+            String[] retrieveAETs, Availability availability) {
+        if (firstInstanceOfSeries)
+            numberOfSeries++;
+        if (numberOfInstances++ == 0) {
+            this.modalitiesInStudy = modality.equals("*") ? "" : modality;
+            this.sopClassesInStudy = sopClassUID;
+            this.retrieveAETs = StringUtils.concat(retrieveAETs, '\\');
+            this.availability = availability;
+        } else {
+            if (firstInstanceOfSeries && !modality.equals("*"))
+                this.modalitiesInStudy = QueryAttributesUtils.union(modalitiesInStudy, modality);
+            this.sopClassesInStudy = QueryAttributesUtils.union(sopClassesInStudy, sopClassUID);
+            this.retrieveAETs = QueryAttributesUtils.intersection(this.retrieveAETs, retrieveAETs);
+            this.availability = QueryAttributesUtils.max(this.availability, availability);
+        }
+    }
+
     public Study getStudy() {
         return study;
     }
@@ -68,6 +68,7 @@ alter table issuer add constraint UK_gknfxd1vh283cmbg8ymia9ms8  unique (entity_i
 alter table issuer add constraint UK_t1p7jajas0mu12sx8jvtp2y0f  unique (entity_uid, entity_uid_type);
 create index UK_r3oh859i9osv3aluoc8dcx9wk on location (storage_id(64), status);
 create index UK_i1lnahmehau3r3j9pdyxg3p3y on location (multi_ref);
+create index UK_nnxgetossk575clhpgt1igm0v on location (storage_id(64), storage_path(255));
 create index UK_f7c9hmq8pfypohkgkp5vkbhxp on metadata (storage_id(64), status);
 alter table mpps add constraint UK_o49fec996jvdo31o7ysmsn9s2  unique (dicomattrs_fk);
 alter table mpps add constraint UK_cyqglxijg7kebbj6oj821yx4d  unique (sop_iuid);
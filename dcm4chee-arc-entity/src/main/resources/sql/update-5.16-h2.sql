@@ -10,6 +10,7 @@ update series set expiration_state = 0;
 create index UK_fyasyw3wco6hoj2entr7l6d09 on study (expiration_state);
 create index UK_ih49lthl3udoca5opvgsdcerj on series (expiration_state);
 create index UK_9fi64g5jjycg9dp24jjk5txg1 on series (series_iuid);
+create index UK_nnxgetossk575clhpgt1igm0v on location (storage_id, storage_path);
 
 -- part 2: shall be applied on stopped archive before starting 5.16
 update study set expiration_state = 0 where expiration_state is null;
@@ -52,6 +52,7 @@ import org.dcm4chee.arc.store.StoreContext;
 import javax.enterprise.event.Observes;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -67,6 +68,8 @@ public interface ExportManager {
     void createOrUpdateInstanceExportTask(
             String exporterID, String studyIUID, String seriesIUID, String sopIUID, Date scheduledTime);
 
+    void createOrUpdateExportTasks(Map<ExportTaskTrigger, Date> triggers);
+
     int scheduleExportTasks(int fetchSize);
 
     void scheduleExportTask(String studyUID, String seriesUID, String objectUID, ExporterDescriptor exporter,
@@ -0,0 +1,127 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.export.mgt;
+
+import org.dcm4chee.arc.conf.Entity;
+
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Request to create or update the Export Task of one Exporter for a Study, Series or Instance.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class ExportTaskTrigger {
+    private final Entity entity;
+    private final String exporterID;
+    private final String studyIUID;
+    private final String seriesIUID;
+    private final String sopIUID;
+
+    private ExportTaskTrigger(Entity entity, String exporterID, String studyIUID, String seriesIUID,
+            String sopIUID) {
+        this.entity = entity;
+        this.exporterID = exporterID;
+        this.studyIUID = studyIUID;
+        this.seriesIUID = seriesIUID;
+        this.sopIUID = sopIUID;
+    }
+
+    public static ExportTaskTrigger ofStudy(String exporterID, String studyIUID) {
+        return new ExportTaskTrigger(Entity.Study, exporterID, studyIUID, null, null);
+    }
+
+    public static ExportTaskTrigger ofSeries(String exporterID, String studyIUID, String seriesIUID) {
+        return new ExportTaskTrigger(Entity.Series, exporterID, studyIUID, seriesIUID, null);
+    }
+
+    public static ExportTaskTrigger ofInstance(String exporterID, String studyIUID, String seriesIUID, String sopIUID) {
+        return new ExportTaskTrigger(Entity.Instance, exporterID, studyIUID, seriesIUID, sopIUID);
+    }
+
+    public Entity getEntity() {
+        return entity;
+    }
+
+    public void createOrUpdateExportTask(ExportManager ejb, Date scheduledTime) {
+        switch (entity) {
+            case Study:
+                ejb.createOrUpdateStudyExportTask(exporterID, studyIUID, scheduledTime);
+                break;
+            case Series:
+                ejb.createOrUpdateSeriesExportTask(exporterID, studyIUID, seriesIUID, scheduledTime);
+                break;
+            case Instance:
+                ejb.createOrUpdateInstanceExportTask(exporterID, studyIUID, seriesIUID, sopIUID, scheduledTime);
+                break;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ExportTaskTrigger other = (ExportTaskTrigger) o;
+        return entity == other.entity
+                && exporterID.equals(other.exporterID)
+                && studyIUID.equals(other.studyIUID)
+                && Objects.equals(seriesIUID, other.seriesIUID)
+                && Objects.equals(sopIUID, other.sopIUID);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(entity, exporterID, studyIUID, seriesIUID, sopIUID);
+    }
+
+    @Override
+    public String toString() {
+        return "ExportTaskTrigger[" + entity
+                + ", exporterID=" + exporterID
+                + ", studyIUID=" + studyIUID
+                + (seriesIUID != null ? ", seriesIUID=" + seriesIUID : "")
+                + (sopIUID != null ? ", sopIUID=" + sopIUID : "")
+                + ']';
+    }
+}
@@ -60,6 +60,7 @@ import org.dcm4chee.arc.event.QueueMessageEvent;
 import org.dcm4chee.arc.export.mgt.ExportBatch;
 import org.dcm4chee.arc.export.mgt.ExportManager;
 import org.dcm4chee.arc.export.mgt.ExportTaskQuery;
+import org.dcm4chee.arc.export.mgt.ExportTaskTrigger;
 import org.dcm4chee.arc.qmgt.HttpServletRequestInfo;
 import org.dcm4chee.arc.qmgt.IllegalTaskStateException;
 import org.dcm4chee.arc.qmgt.QueueManager;
@@ -83,6 +84,7 @@ import javax.persistence.PersistenceContext;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -166,6 +168,12 @@ public class ExportManagerEJB implements ExportManager {
         }
     }
 
+    @Override
+    public void createOrUpdateExportTasks(Map<ExportTaskTrigger, Date> triggers) {
+        for (Map.Entry<ExportTaskTrigger, Date> entry : triggers.entrySet())
+            entry.getKey().createOrUpdateExportTask(this, entry.getValue());
+    }
+
     private void updateExportTask(ExportTask task, String seriesIUID, String sopIUID, Date scheduledTime) {
         task.setDeviceName(device.getDeviceName());
         task.setSeriesInstanceUID(seriesIUID);
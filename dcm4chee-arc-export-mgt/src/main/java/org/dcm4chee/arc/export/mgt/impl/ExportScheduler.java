@@ -4,8 +4,10 @@ import org.dcm4che3.net.Device;
 import org.dcm4chee.arc.Scheduler;
 import org.dcm4chee.arc.conf.*;
 import org.dcm4chee.arc.export.mgt.ExportManager;
+import org.dcm4chee.arc.export.mgt.ExportTaskTrigger;
 import org.dcm4chee.arc.store.StoreContext;
 import org.dcm4chee.arc.store.StoreSession;
+import org.dcm4chee.arc.store.StoreSessionClosed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,6 +19,7 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -33,6 +36,9 @@ public class ExportScheduler extends Scheduler {
     @Inject
     private ExportManager ejb;
 
+    private final PendingExportTaskTriggers pendingTriggers = new PendingExportTaskTriggers();
+    private final Object flushLock = new Object();
+
     protected ExportScheduler() {
         super(Mode.scheduleWithFixedDelay);
     }
@@ -80,36 +86,50 @@ public class ExportScheduler extends Scheduler {
             Date scheduledTime = scheduledTime(now, rule.getExportDelay(), desc.getSchedules());
             switch (rule.getEntity()) {
                 case Study:
-                    createOrUpdateStudyExportTask(session, exporterID,
-                            ctx.getStudyInstanceUID(),
+                    createOrUpdateExportTask(session,
+                            ExportTaskTrigger.ofStudy(exporterID, ctx.getStudyInstanceUID()),
                             scheduledTime);
                     if (rule.isExportPreviousEntity() && ctx.isPreviousDifferentStudy())
-                        createOrUpdateStudyExportTask(session, exporterID,
-                                ctx.getPreviousInstance().getSeries().getStudy().getStudyInstanceUID(),
+                        createOrUpdateExportTask(session,
+                                ExportTaskTrigger.ofStudy(exporterID,
+                                        ctx.getPreviousInstance().getSeries().getStudy().getStudyInstanceUID()),
                                 scheduledTime);
                     break;
                 case Series:
-                    createOrUpdateSeriesExportTask(session, exporterID,
-                            ctx.getStudyInstanceUID(),
-                            ctx.getSeriesInstanceUID(),
+                    createOrUpdateExportTask(session,
+                            ExportTaskTrigger.ofSeries(exporterID,
+                                    ctx.getStudyInstanceUID(),
+                                    ctx.getSeriesInstanceUID()),
                             scheduledTime);
                     if (rule.isExportPreviousEntity() && ctx.isPreviousDifferentSeries())
-                        createOrUpdateSeriesExportTask(session, exporterID,
-                                ctx.getPreviousInstance().getSeries().getStudy().getStudyInstanceUID(),
-                                ctx.getPreviousInstance().getSeries().getSeriesInstanceUID(),
+                        createOrUpdateExportTask(session,
+                                ExportTaskTrigger.ofSeries(exporterID,
+                                        ctx.getPreviousInstance().getSeries().getStudy().getStudyInstanceUID(),
+                                        ctx.getPreviousInstance().getSeries().getSeriesInstanceUID()),
                                 scheduledTime);
                     break;
                 case Instance:
-                    createOrUpdateInstanceExportTask(session, exporterID,
-                            ctx.getStudyInstanceUID(),
-                            ctx.getSeriesInstanceUID(),
-                            ctx.getSopInstanceUID(),
+                    createOrUpdateExportTask(session,
+                            ExportTaskTrigger.ofInstance(exporterID,
+                                    ctx.getStudyInstanceUID(),
+                                    ctx.getSeriesInstanceUID(),
+                                    ctx.getSopInstanceUID()),
                             scheduledTime);
                     break;
             }
         }
     }
 
+    public void onStoreSessionClosed(@Observes @StoreSessionClosed StoreSession session) {
+        flushExportTaskTriggers();
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        flushExportTaskTriggers();
+    }
+
     private Date scheduledTime(Calendar cal, Duration exportDelay, ScheduleExpression[] schedules) {
         if (exportDelay != null) {
             cal = (Calendar) cal.clone();
@@ -119,78 +139,71 @@ public class ExportScheduler extends Scheduler {
         return cal.getTime();
     }
 
-    private boolean createOrUpdateStudyExportTask(StoreSession session, String exporterID,
-            String studyIUID, Date scheduledTime) {
-        ArchiveAEExtension arcAE = session.getArchiveAEExtension();
-        ArchiveDeviceExtension arcDev = arcAE.getArchiveDeviceExtension();
-        int retries = arcDev.getStoreUpdateDBMaxRetries();
-        for (;;) {
-            try {
-                ejb.createOrUpdateStudyExportTask(exporterID, studyIUID, scheduledTime);
-                return true;
-            } catch (EJBException e) {
-                if (retries-- > 0) {
-                    LOG.info("{}: Failed to update Study Export Task - retry:\n", session, e);
-                } else {
-                    LOG.warn("{}: Failed to update Study Export Task:\n", session, e);
-                    return false;
-                }
-            }
-            try {
-                Thread.sleep(ThreadLocalRandom.current().nextInt(arcDev.getStoreUpdateDBMaxRetryDelay()));
-            } catch (InterruptedException e) {
-                LOG.info("{}: Failed to delay retry to update Study Export Task:\n", session, e);
-            }
+    private void createOrUpdateExportTask(StoreSession session, ExportTaskTrigger trigger, Date scheduledTime) {
+        ArchiveDeviceExtension arcDev = session.getArchiveAEExtension().getArchiveDeviceExtension();
+        int coalesceDelay = arcDev.getExportTaskCoalesceDelay();
+        if (coalesceDelay <= 0) {
+            createOrUpdateExportTasks(session, arcDev, trigger.getEntity() + " Export Task",
+                    () -> trigger.createOrUpdateExportTask(ejb, scheduledTime));
+            return;
+        }
+        if (!pendingTriggers.add(trigger, scheduledTime))
+            return;
+
+        LOG.debug("{}: Delay update of Export Tasks for {} ms", session, coalesceDelay);
+        try {
+            device.schedule(this::flushExportTaskTriggers, coalesceDelay, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            pendingTriggers.flushNotScheduled();
+            LOG.warn("{}: Failed to delay update of Export Tasks - update immediately:\n", session, e);
+            flushExportTaskTriggers();
         }
     }
 
-    private boolean createOrUpdateSeriesExportTask(StoreSession session, String exporterID,
-            String studyIUID, String seriesIUID, Date scheduledTime) {
-        ArchiveAEExtension arcAE = session.getArchiveAEExtension();
-        ArchiveDeviceExtension arcDev = arcAE.getArchiveDeviceExtension();
-        int retries = arcDev.getStoreUpdateDBMaxRetries();
-        for (;;) {
-            try {
-                ejb.createOrUpdateSeriesExportTask(exporterID, studyIUID, seriesIUID, scheduledTime);
-                return true;
-            } catch (EJBException e) {
-                if (retries-- > 0) {
-                    LOG.info("{}: Failed to update Series Export Task - retry:\n", session, e);
-                } else {
-                    LOG.warn("{}: Failed to update Series Export Task:\n", session, e);
-                    return false;
-                }
-            }
-            try {
-                Thread.sleep(ThreadLocalRandom.current().nextInt(arcDev.getStoreUpdateDBMaxRetryDelay()));
-            } catch (InterruptedException e) {
-                LOG.info("{}: Failed to delay retry to update Series Export Task:\n", session, e);
+    /**
+     * Writes the pending triggers of all Store Sessions in one transaction. If that fails, each trigger is written
+     * in its own transaction, so one failing Export Task does not prevent the update of the others.
+     */
+    private void flushExportTaskTriggers() {
+        synchronized (flushLock) {
+            Map<ExportTaskTrigger, Date> triggers = pendingTriggers.removeAll();
+            if (triggers.isEmpty())
+                return;
+
+            LOG.debug("Update Export Tasks by {} coalesced triggers", triggers.size());
+            ArchiveDeviceExtension arcDev = device.getDeviceExtension(ArchiveDeviceExtension.class);
+            String deviceName = device.getDeviceName();
+            if (triggers.size() > 1 && createOrUpdateExportTasks(deviceName, arcDev,
+                    triggers.size() + " Export Tasks", () -> ejb.createOrUpdateExportTasks(triggers)))
+                return;
+
+            for (Map.Entry<ExportTaskTrigger, Date> entry : triggers.entrySet()) {
+                ExportTaskTrigger trigger = entry.getKey();
+                createOrUpdateExportTasks(deviceName, arcDev, trigger.getEntity() + " Export Task",
+                        () -> trigger.createOrUpdateExportTask(ejb, entry.getValue()));
             }
         }
     }
 
-    private boolean createOrUpdateInstanceExportTask(StoreSession session, String exporterID,
-            String studyIUID, String seriesIUID, String sopIUID, Date scheduledTime) {
-        ejb.createOrUpdateInstanceExportTask(exporterID, studyIUID, seriesIUID, sopIUID, scheduledTime);
-        ArchiveAEExtension arcAE = session.getArchiveAEExtension();
-        ArchiveDeviceExtension arcDev = arcAE.getArchiveDeviceExtension();
+    private boolean createOrUpdateExportTasks(Object logPrefix, ArchiveDeviceExtension arcDev, String exportTasks,
+            Runnable update) {
         int retries = arcDev.getStoreUpdateDBMaxRetries();
         for (;;) {
             try {
-                ejb.createOrUpdateInstanceExportTask(exporterID, studyIUID, seriesIUID, sopIUID, scheduledTime);
+                update.run();
                 return true;
             } catch (EJBException e) {
                 if (retries-- > 0) {
-                    LOG.info("{}: Failed to update Instance Export Task - retry:\n", session, e);
+                    LOG.info("{}: Failed to update {} - retry:\n", logPrefix, exportTasks, e);
                 } else {
-                    LOG.warn("{}: Failed to update Instance Export Task:\n", session, e);
+                    LOG.warn("{}: Failed to update {}:\n", logPrefix, exportTasks, e);
                     return false;
                 }
             }
             try {
                 Thread.sleep(ThreadLocalRandom.current().nextInt(arcDev.getStoreUpdateDBMaxRetryDelay()));
             } catch (InterruptedException e) {
-                LOG.info("{}: Failed to delay retry to update Instance Export Task:\n", session, e);
+                LOG.info("{}: Failed to delay retry to update {}:\n", logPrefix, exportTasks, e);
             }
         }
     }
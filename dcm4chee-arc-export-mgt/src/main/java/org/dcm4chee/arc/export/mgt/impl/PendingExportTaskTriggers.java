@@ -0,0 +1,86 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.export.mgt.impl;
+
+import org.dcm4chee.arc.export.mgt.ExportTaskTrigger;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Triggers to create or update Export Tasks collected in memory. Only the last scheduled time per Export Task is
+ * kept, in order of the last occurrence of its trigger, to end up in the same DB state as by immediate updates.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class PendingExportTaskTriggers {
+    private final Map<ExportTaskTrigger, Date> triggers = new LinkedHashMap<>();
+    private boolean flushScheduled;
+
+    /**
+     * @return {@code true} if the caller has to schedule the flush of the pending triggers
+     */
+    synchronized boolean add(ExportTaskTrigger trigger, Date scheduledTime) {
+        triggers.remove(trigger);
+        triggers.put(trigger, scheduledTime);
+        if (flushScheduled)
+            return false;
+
+        flushScheduled = true;
+        return true;
+    }
+
+    /**
+     * Let the next added trigger schedule the flush again, after the caller failed to schedule it.
+     */
+    synchronized void flushNotScheduled() {
+        flushScheduled = false;
+    }
+
+    synchronized Map<ExportTaskTrigger, Date> removeAll() {
+        flushScheduled = false;
+        Map<ExportTaskTrigger, Date> result = new LinkedHashMap<>(triggers);
+        triggers.clear();
+        return result;
+    }
+}
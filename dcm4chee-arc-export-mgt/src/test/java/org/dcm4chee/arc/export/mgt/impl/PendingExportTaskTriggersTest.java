@@ -0,0 +1,95 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.export.mgt.impl;
+
+import org.dcm4chee.arc.export.mgt.ExportTaskTrigger;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class PendingExportTaskTriggersTest {
+
+    private static final String EXPORTER_ID = "STORESCP";
+    private static final String STUDY_IUID = "1.2.3";
+    private static final String SERIES_IUID = "1.2.3.4";
+
+    @Test
+    public void keepLastScheduledTimeInOrderOfLastOccurrence() {
+        PendingExportTaskTriggers pending = new PendingExportTaskTriggers();
+        pending.add(ExportTaskTrigger.ofStudy(EXPORTER_ID, STUDY_IUID), new Date(1000));
+        pending.add(ExportTaskTrigger.ofSeries(EXPORTER_ID, STUDY_IUID, SERIES_IUID), new Date(2000));
+        pending.add(ExportTaskTrigger.ofStudy(EXPORTER_ID, STUDY_IUID), new Date(3000));
+        Map<ExportTaskTrigger, Date> triggers = pending.removeAll();
+        assertEquals(Arrays.asList(
+                ExportTaskTrigger.ofSeries(EXPORTER_ID, STUDY_IUID, SERIES_IUID),
+                ExportTaskTrigger.ofStudy(EXPORTER_ID, STUDY_IUID)),
+                new ArrayList<>(triggers.keySet()));
+        assertEquals(new Date(3000), triggers.get(ExportTaskTrigger.ofStudy(EXPORTER_ID, STUDY_IUID)));
+        assertTrue(pending.removeAll().isEmpty());
+    }
+
+    @Test
+    public void scheduleFlushOncePerBatch() {
+        PendingExportTaskTriggers pending = new PendingExportTaskTriggers();
+        assertTrue(pending.add(ExportTaskTrigger.ofStudy(EXPORTER_ID, STUDY_IUID), new Date()));
+        assertFalse(pending.add(ExportTaskTrigger.ofSeries(EXPORTER_ID, STUDY_IUID, SERIES_IUID), new Date()));
+        assertEquals(2, pending.removeAll().size());
+        assertTrue(pending.add(ExportTaskTrigger.ofStudy(EXPORTER_ID, STUDY_IUID), new Date()));
+    }
+
+    @Test
+    public void scheduleFlushAgainAfterFailureToSchedule() {
+        PendingExportTaskTriggers pending = new PendingExportTaskTriggers();
+        assertTrue(pending.add(ExportTaskTrigger.ofStudy(EXPORTER_ID, STUDY_IUID), new Date()));
+        pending.flushNotScheduled();
+        assertTrue(pending.add(ExportTaskTrigger.ofSeries(EXPORTER_ID, STUDY_IUID, SERIES_IUID), new Date()));
+        assertEquals(2, pending.removeAll().size());
+    }
+}
@@ -62,16 +62,25 @@ public class IDServiceEJB {
     private EntityManager em;
 
     public int nextValue(IDGenerator.Name name, int initialValue) {
+        return reserveValues(name, initialValue, 1);
+    }
+
+    /**
+     * Reserves a block of consecutive values of the ID sequence.
+     *
+     * @return the first value of the reserved block
+     */
+    public int reserveValues(IDGenerator.Name name, int initialValue, int count) {
         IDSequence idSeq = em.find(IDSequence.class, name);
         if (idSeq != null) {
             int val = idSeq.getNextValue();
-            idSeq.setNextValue(val + 1);
+            idSeq.setNextValue(val + count);
             return val;
         }
 
         idSeq = new IDSequence();
         idSeq.setName(name);
-        idSeq.setNextValue(initialValue + 1);
+        idSeq.setNextValue(initialValue + count);
         em.persist(idSeq);
         return initialValue;
     }
@@ -53,6 +53,8 @@ import org.slf4j.LoggerFactory;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -69,10 +71,12 @@ public class IDServiceImpl implements IDService {
     @Inject
     private IDServiceEJB ejb;
 
+    private final Map<IDGenerator.Name, IDBlock> idBlocks = new EnumMap<>(IDGenerator.Name.class);
+
     @Override
     public String createID(IDGenerator.Name name) {
         IDGenerator generator = device.getDeviceExtension(ArchiveDeviceExtension.class).getIDGenerator(name);
-        return String.format(generator.getFormat(), nextValue(generator.getName(), generator.getInitialValue()));
+        return String.format(generator.getFormat(), nextValue(generator));
     }
 
     @Override
@@ -104,15 +108,34 @@ public class IDServiceImpl implements IDService {
 
     @Override
     public int newLocationMultiReference() {
-        return nextValue(IDGenerator.Name.LocationMultiReference, 0);
+        IDGenerator generator = device.getDeviceExtension(ArchiveDeviceExtension.class).getIDGenerators()
+                .get(IDGenerator.Name.LocationMultiReference);
+        return generator != null
+                ? nextValue(generator)
+                : reserveValues(IDGenerator.Name.LocationMultiReference, 0, 1);
+    }
+
+    private int nextValue(IDGenerator generator) {
+        IDGenerator.Name name = generator.getName();
+        int initialValue = generator.getInitialValue();
+        int blockSize = generator.getBlockSize();
+        if (blockSize <= 1)
+            return reserveValues(name, initialValue, 1);
+
+        IDBlock idBlock;
+        synchronized (idBlocks) {
+            idBlock = idBlocks.computeIfAbsent(name,
+                    key -> new IDBlock(count -> reserveValues(key, initialValue, count)));
+        }
+        return idBlock.nextValue(blockSize);
     }
 
-    private int nextValue(IDGenerator.Name name, int initalValue) {
+    private int reserveValues(IDGenerator.Name name, int initalValue, int count) {
         try {
-            return ejb.nextValue(name, initalValue);
+            return ejb.reserveValues(name, initalValue, count);
         } catch (RuntimeException e) {
             LOG.info("Failed to create {} - retry\n", name, e);
-            return ejb.nextValue(name, initalValue);
+            return ejb.reserveValues(name, initalValue, count);
         }
     }
 }
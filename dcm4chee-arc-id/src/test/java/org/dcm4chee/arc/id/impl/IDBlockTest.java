@@ -0,0 +1,116 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.id.impl;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class IDBlockTest {
+    private static final int NODES = 4;
+    private static final int THREADS_PER_NODE = 8;
+    private static final int VALUES_PER_THREAD = 1000;
+    private static final int BLOCK_SIZE = 100;
+
+    private int nextValue = 1;
+
+    private synchronized int reserveValues(int count) {
+        int val = nextValue;
+        nextValue += count;
+        return val;
+    }
+
+    @Test
+    public void nextValue() throws Exception {
+        IDBlock idBlock = new IDBlock(this::reserveValues);
+        for (int i = 1; i <= 2 * BLOCK_SIZE; i++)
+            assertEquals(i, idBlock.nextValue(BLOCK_SIZE));
+        assertEquals(2 * BLOCK_SIZE + 1, nextValue);
+    }
+
+    @Test
+    public void skipUnassignedValuesOfDiscardedBlock() throws Exception {
+        assertEquals(1, new IDBlock(this::reserveValues).nextValue(BLOCK_SIZE));
+        assertEquals(BLOCK_SIZE + 1, new IDBlock(this::reserveValues).nextValue(BLOCK_SIZE));
+    }
+
+    @Test
+    public void uniqueAcrossNodes() throws Exception {
+        Set<Integer> values = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int node = 0; node < NODES; node++) {
+            IDBlock idBlock = new IDBlock(this::reserveValues);
+            for (int i = 0; i < THREADS_PER_NODE; i++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                        for (int j = 0; j < VALUES_PER_THREAD; j++)
+                            if (!values.add(idBlock.nextValue(BLOCK_SIZE)))
+                                throw new AssertionError("Duplicate value");
+                    } catch (Throwable e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+        }
+        start.countDown();
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(failures.toString(), 0, failures.size());
+        assertEquals(NODES * THREADS_PER_NODE * VALUES_PER_THREAD, values.size());
+    }
+}
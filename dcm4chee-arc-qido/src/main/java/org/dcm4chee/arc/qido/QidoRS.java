@@ -64,6 +64,7 @@ import org.jboss.resteasy.plugins.providers.multipart.MultipartRelatedOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.json.Json;
@@ -74,6 +75,7 @@ import javax.ws.rs.*;
 import javax.ws.rs.core.*;
 import javax.xml.transform.stream.StreamResult;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -90,6 +92,8 @@ import java.util.stream.Stream;
 public class QidoRS {
 
     private static final Logger LOG = LoggerFactory.getLogger(QidoRS.class);
+    private static final String SEEK_AFTER_PK = "pk.";
+    private static final String OFFSET = "offset.";
 
     @Inject
     private QueryService service;
@@ -125,6 +129,10 @@ public class QidoRS {
     @Pattern(regexp = "[1-9]\\d{0,4}")
     private String limit;
 
+    @QueryParam("continuationtoken")
+    @Pattern(regexp = "[A-Za-z0-9_-]{1,32}")
+    private String continuationtoken;
+
     @QueryParam("withoutstudies")
     @Pattern(regexp = "true|false")
     private String withoutstudies;
@@ -190,6 +198,9 @@ public class QidoRS {
 
     private char csvDelimiter = ',';
 
+    private Query streamedQuery;
+    private Transaction streamedTransaction;
+
     @Override
     public String toString() {
         return request.getRequestURI() + '?' + request.getQueryString();
@@ -359,7 +370,7 @@ public class QidoRS {
                 try {
                     transaction.commit();
                 } catch (Exception e) {
-                    LOG.warn("Failed to commit transaction:\n{}", e);
+                    LOG.warn("Failed to commit transaction:\n", e);
                 }
             }
         }
@@ -409,49 +420,68 @@ public class QidoRS {
                         .type(output.type())
                         .build();
             }
-            try (Query query = model.createQuery(service, ctx)) {
+            Query query = model.createQuery(service, ctx);
+            Transaction transaction = null;
+            boolean streaming = false;
+            try {
                 query.initQuery();
                 int maxResults = arcAE.qidoMaxNumberOfResults();
-                int offsetInt = parseInt(offset);
+                long offsetInt = parseInt(offset);
                 int limitInt = parseInt(limit);
-                int remaining = 0;
-                if (maxResults > 0 && (limitInt == 0 || limitInt > maxResults) && !ctx.isConsiderPurgedInstances()) {
-                    int numResults = (int) (query.fetchCount() - offsetInt);
-                    if (numResults <= 0)
-                        return Response.noContent().build();
-
-                    remaining = numResults - maxResults;
+                boolean limitedByMaxResults = maxResults > 0 && (limitInt == 0 || limitInt > maxResults);
+                int pageSize = limitedByMaxResults ? maxResults : limitInt;
+                boolean probe = pageSize > 0 && !ctx.isConsiderPurgedInstances();
+                if (probe && query.isOrderedByPk())
+                    query.orderByPkIfMoreMatchesBeyondLimit();
+                if (continuationtoken != null) {
+                    String token = decodeContinuationToken(continuationtoken);
+                    if (token.startsWith(SEEK_AFTER_PK) && query.isOrderedByPk()) {
+                        query.seekAfterPk(Long.parseLong(token.substring(SEEK_AFTER_PK.length())));
+                        offsetInt = 0;
+                    } else if (token.startsWith(OFFSET))
+                        offsetInt = Long.parseLong(token.substring(OFFSET.length()));
+                    else
+                        return Response.status(Response.Status.BAD_REQUEST)
+                                .entity("Invalid continuationtoken: " + continuationtoken)
+                                .type("text/plain")
+                                .build();
                 }
                 if (offsetInt > 0)
                     query.offset(offsetInt);
 
-                if (remaining > 0)
-                    query.limit(maxResults);
+                if (probe)
+                    query.limitAndProbe(pageSize);
                 else if (limitInt > 0)
                     query.limit(limitInt);
 
-                Transaction transaction = query.beginTransaction();
-                try {
-                    query.setFetchSize(arcAE.getArchiveDeviceExtension().getQueryFetchSize());
-                    query.executeQuery();
-                    if (!query.hasMoreMatches())
-                        return Response.noContent().build();
-
-                    Response.ResponseBuilder builder = Response.ok();
-                    if (remaining > 0)
-                        builder.header("Warning", warning(remaining));
-
-                    return builder.entity(
-                            output.entity(this, method, query, model, model.getAttributesCoercion(service, ctx)))
-                            .type(output.type())
-                            .build();
-                } finally {
-                    try {
-                        transaction.commit();
-                    } catch (Exception e) {
-                        LOG.warn("Failed to commit transaction:\n{}", e);
-                    }
+                transaction = query.beginTransaction();
+                query.setFetchSize(arcAE.getArchiveDeviceExtension().getQueryFetchSize());
+                query.executeQuery();
+                if (!query.hasMoreMatches())
+                    return Response.noContent().build();
+
+                Response.ResponseBuilder builder = Response.ok();
+                if (probe && query.hasMoreMatchesBeyondLimit()) {
+                    if (limitedByMaxResults)
+                        builder.header("Warning", warning());
+                    Long lastPk = query.isOrderedByPk() ? query.lastPkWithinLimit() : null;
+                    builder.header("Continuation-Token", encodeContinuationToken(lastPk != null
+                            ? SEEK_AFTER_PK + lastPk
+                            : OFFSET + (offsetInt + pageSize)));
                 }
+
+                Object entity = output.entity(this, method, query, model, model.getAttributesCoercion(service, ctx));
+                streaming = output.isStreaming();
+                if (streaming) {
+                    streamedQuery = query;
+                    streamedTransaction = transaction;
+                }
+                return builder.entity(entity)
+                        .type(output.type())
+                        .build();
+            } finally {
+                if (!streaming)
+                    close(query, transaction);
             }
         } catch (Exception e) {
             return errResponseAsTextPlain(e);
@@ -499,9 +529,22 @@ public class QidoRS {
         throw new WebApplicationException(Response.Status.NOT_ACCEPTABLE);
     }
 
-    private String warning(int remaining) {
+    private String warning() {
         return "299 " + request.getServerName() + ':' + request.getServerPort()
-                + " \"There are " + remaining + " additional results that can be requested\"";
+                + " \"There are additional results that can be requested\"";
+    }
+
+    private static String encodeContinuationToken(String token) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String decodeContinuationToken(String token) {
+        try {
+            String s = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            return s.matches("(pk|offset)\\.\\d{1,18}") ? s : "";
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
     }
 
     private QueryContext newQueryContext(String method, QueryAttributes queryAttrs, String studyInstanceUID,
@@ -677,11 +720,15 @@ public class QidoRS {
         },
         JSON {
             @Override
-            Object entity(QidoRS service, String method, Query query, Model model, AttributesCoercion coercion)
-                    throws DicomServiceException {
+            Object entity(QidoRS service, String method, Query query, Model model, AttributesCoercion coercion) {
                 return service.writeJSON(method, query, model, coercion);
             }
 
+            @Override
+            boolean isStreaming() {
+                return true;
+            }
+
             @Override
             MediaType type() {
                 return MediaTypes.APPLICATION_DICOM_JSON_TYPE;
@@ -689,11 +736,15 @@ public class QidoRS {
         },
         CSV {
             @Override
-            Object entity(QidoRS service, String method, Query query, Model model, AttributesCoercion coercion)
-                    throws DicomServiceException {
+            Object entity(QidoRS service, String method, Query query, Model model, AttributesCoercion coercion) {
                 return service.writeCSV(method, query, model, coercion);
             }
 
+            @Override
+            boolean isStreaming() {
+                return true;
+            }
+
             @Override
             MediaType type() {
                 return MediaTypes.TEXT_CSV_UTF8_TYPE;
@@ -704,6 +755,19 @@ public class QidoRS {
                 throws DicomServiceException;
 
         abstract MediaType type();
+
+        /**
+         * @return {@code true} if the returned entity writes the matches directly from the query and takes over
+         *         committing the transaction and closing the query after writing the last match
+         */
+        boolean isStreaming() {
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    private interface MatchWriter {
+        void write(Attributes match) throws IOException;
     }
 
     private Object writeXML(String method, Query query, Model model, AttributesCoercion coercion)
@@ -730,41 +794,54 @@ public class QidoRS {
         return output;
     }
 
-    private Object writeJSON(String method, Query query, Model model, AttributesCoercion coercion)
-            throws DicomServiceException {
-        final List<Attributes> matches = matches(method, query, model, coercion);
+    private Object writeJSON(String method, Query query, Model model, AttributesCoercion coercion) {
         return (StreamingOutput) out -> {
+            try {
                 JsonGenerator gen = Json.createGenerator(out);
                 JSONWriter writer = new JSONWriter(gen);
                 gen.writeStartArray();
-                for (Attributes match : matches)
-                    writer.write(match);
+                writeMatches(method, query, model, coercion, writer::write, gen::flush);
                 gen.writeEnd();
                 gen.flush();
+            } finally {
+                closeStreamedQuery();
+            }
         };
     }
 
-    private Object writeCSV(String method, Query query, Model model, AttributesCoercion coercion)
-            throws DicomServiceException {
-        final List<Attributes> matches =  matches(method, query, model, coercion);
+    private Object writeCSV(String method, Query query, Model model, AttributesCoercion coercion) {
         return (StreamingOutput) out -> {
-            Writer writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
-            int[] tags = tagsFrom(model, matches.get(0));
-            if (tags.length != 0) {
-                writeCSVHeader(writer, tags, matches.get(0));
-                for (Attributes match : matches)
-                    write(writer, match, tags);
+            try {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+                int[][] tags = new int[1][];
+                writeMatches(method, query, model, coercion, match -> {
+                    if (tags[0] == null) {
+                        tags[0] = tagsFrom(model, match);
+                        if (tags[0].length != 0)
+                            writeCSVHeader(writer, tags[0], match);
+                    }
+                    if (tags[0].length != 0)
+                        write(writer, match, tags[0]);
+                }, writer);
+                writer.flush();
+            } finally {
+                closeStreamedQuery();
             }
-            writer.flush();
         };
     }
 
-    private List<Attributes> matches(String method, Query query, Model model, AttributesCoercion coercion)
-            throws DicomServiceException {
+    /**
+     * Writes matches as they are fetched from the query, without collecting them in memory. The output is flushed
+     * after each batch of {@link ArchiveDeviceExtension#getQueryFetchSize()} matches, so the first matches are sent
+     * to the client before the next ones are fetched, and a slow client blocks further fetching from the database.
+     */
+    private void writeMatches(String method, Query query, Model model, AttributesCoercion coercion,
+            MatchWriter writer, Flushable flushable) throws IOException {
         if (query == null)
-            return Collections.emptyList();
+            return;
 
-        final ArrayList<Attributes> matches = new ArrayList<>();
+        int batchSize = Math.max(1,
+                device.getDeviceExtensionNotNull(ArchiveDeviceExtension.class).getQueryFetchSize());
         int count = 0;
         while (query.hasMoreMatches()) {
             Attributes tmp = query.nextMatch();
@@ -772,10 +849,40 @@ public class QidoRS {
                 continue;
             Attributes match = adjust(tmp, model, query, coercion);
             LOG.debug("{}: Match #{}:\n{}", method, ++count, match);
-            matches.add(match);
+            writer.write(match);
+            if (count % batchSize == 0)
+                flushable.flush();
         }
         LOG.info("{}: {} Matches", method, count);
-        return matches;
+    }
+
+    /**
+     * Closes the query of a streaming response, if JAX-RS did not write the entity, e.g. on a HEAD request or
+     * if a provider failed before writing.
+     */
+    @PreDestroy
+    void onRequestDestroyed() {
+        if (streamedQuery != null) {
+            LOG.info("Close query of QIDO-RS response which was not written");
+            closeStreamedQuery();
+        }
+    }
+
+    private void closeStreamedQuery() {
+        close(streamedQuery, streamedTransaction);
+        streamedQuery = null;
+        streamedTransaction = null;
+    }
+
+    private static void close(Query query, Transaction transaction) {
+        if (transaction != null)
+            try {
+                transaction.commit();
+            } catch (Exception e) {
+                LOG.warn("Failed to commit transaction:\n", e);
+            }
+        if (query != null)
+            query.close();
     }
 
     private int[] tagsFrom(Model model, Attributes match) {
@@ -70,6 +70,9 @@ public class PurgeQueueMessageScheduler extends Scheduler {
     @Inject
     private QueueManager mgr;
 
+    @Inject
+    private QueueManagerImpl queueManager;
+
     protected PurgeQueueMessageScheduler() {
         super(Mode.scheduleWithFixedDelay);
     }
@@ -94,6 +97,7 @@ public class PurgeQueueMessageScheduler extends Scheduler {
             delete(desc.getQueueName(), QueueMessage.Status.WARNING, desc.getPurgeQueueMessageWarningDelay());
             delete(desc.getQueueName(), QueueMessage.Status.CANCELED, desc.getPurgeQueueMessageCanceledDelay());
         }
+        queueManager.reconcileScheduledCounts();
     }
 
     private void delete(String queueName, QueueMessage.Status status, Duration delay) {
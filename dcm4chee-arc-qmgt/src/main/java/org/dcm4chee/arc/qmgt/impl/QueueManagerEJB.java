@@ -72,6 +72,8 @@ import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -106,7 +108,8 @@ public class QueueManagerEJB {
             throws QueueSizeLimitExceededException {
         QueueDescriptor queueDescriptor = descriptorOf(queueName);
         int maxQueueSize = queueDescriptor.getMaxQueueSize();
-        if (maxQueueSize > 0 && maxQueueSize < countScheduledMessagesOnThisDevice(queueName))
+        if (maxQueueSize > 0 && queueDescriptor.getStatusUpdateBatchDelay() <= 0
+                && maxQueueSize < countScheduledMessagesOnThisDevice(queueName))
             throw new QueueSizeLimitExceededException(queueDescriptor);
 
         sendMessage(queueDescriptor, msg, delay, priority);
@@ -147,14 +150,18 @@ public class QueueManagerEJB {
 
     @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
     public QueueMessage onProcessingSuccessful(String msgId, Outcome outcome) {
-        QueueMessage entity = findQueueMessage(msgId);
+        return onProcessingSuccessful(msgId, findQueueMessage(msgId), outcome, new Date());
+    }
+
+    private QueueMessage onProcessingSuccessful(String msgId, QueueMessage entity, Outcome outcome,
+            Date processingEndTime) {
         if (entity == null) {
             LOG.info("Finished processing of Task[id={}]", msgId);
             return null;
         }
         QueueMessage.Status status = outcome.getStatus();
         String queueName = entity.getQueueName();
-        entity.setProcessingEndTime(new Date());
+        entity.setProcessingEndTime(processingEndTime);
         entity.setOutcomeMessage(outcome.getDescription());
         entity.setStatus(status);
         setUpdateTime(entity);
@@ -179,14 +186,18 @@ public class QueueManagerEJB {
 
     @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
     public QueueMessage onProcessingFailed(String msgId, Throwable e) {
-        QueueMessage entity = findQueueMessage(msgId);
+        return onProcessingFailed(msgId, findQueueMessage(msgId), e, new Date());
+    }
+
+    private QueueMessage onProcessingFailed(String msgId, QueueMessage entity, Throwable e,
+            Date processingEndTime) {
         if (entity == null) {
             LOG.warn("Failed processing of Task[id={}]:\n", msgId, e);
             return null;
         }
 
         entity.setErrorMessage(e.getMessage());
-        entity.setProcessingEndTime(new Date());
+        entity.setProcessingEndTime(processingEndTime);
         QueueDescriptor descriptor = descriptorOf(entity.getQueueName());
         long delay = descriptor.getRetryDelayInSeconds(entity.incrementNumberOfFailures());
         if (delay < 0) {
@@ -200,6 +211,51 @@ public class QueueManagerEJB {
         return entity;
     }
 
+    /**
+     * Updates the status of processed Tasks in one transaction.
+     *
+     * @return updates of Tasks rescheduled for retry
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public List<TaskStatusUpdate> onProcessingFinished(Collection<TaskStatusUpdate> updates) {
+        List<TaskStatusUpdate> rescheduled = new ArrayList<>();
+        for (TaskStatusUpdate update : updates)
+            if (isRescheduled(applyStatusUpdate(update)))
+                rescheduled.add(update);
+        return rescheduled;
+    }
+
+    /**
+     * Updates the status of one processed Task.
+     *
+     * @return {@code true} if the Task was rescheduled for retry
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public boolean onProcessingFinished(TaskStatusUpdate update) {
+        return isRescheduled(applyStatusUpdate(update));
+    }
+
+    private QueueMessage applyStatusUpdate(TaskStatusUpdate update) {
+        String msgId = update.getMessageID();
+        QueueMessage entity = findQueueMessage(msgId);
+        if (entity == null) {
+            LOG.info("Discard status update of already deleted Task[id={}]", msgId);
+            return null;
+        }
+        if (entity.getStatus() != QueueMessage.Status.IN_PROCESS || entity.getVersion() != update.getVersion()) {
+            LOG.info("Discard status update of Task[id={}] from Queue {} with Status: {} modified since start of processing",
+                    msgId, entity.getQueueName(), entity.getStatus());
+            return null;
+        }
+        return update.getException() != null
+                ? onProcessingFailed(msgId, entity, update.getException(), update.getProcessingEndTime())
+                : onProcessingSuccessful(msgId, entity, update.getOutcome(), update.getProcessingEndTime());
+    }
+
+    private static boolean isRescheduled(QueueMessage entity) {
+        return entity != null && entity.getStatus() == QueueMessage.Status.SCHEDULED;
+    }
+
     public boolean cancelTask(String msgId, QueueMessageEvent queueEvent) throws IllegalTaskStateException {
         QueueMessage entity = findQueueMessage(msgId);
         if (entity == null)
@@ -40,18 +40,30 @@ package org.dcm4chee.arc.qmgt.impl;
 
 import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.Predicate;
+import org.dcm4che3.net.Device;
+import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
+import org.dcm4chee.arc.conf.QueueDescriptor;
 import org.dcm4chee.arc.entity.QueueMessage;
 import org.dcm4chee.arc.event.QueueMessageEvent;
 import org.dcm4chee.arc.qmgt.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Resource;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.jms.ObjectMessage;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @ApplicationScoped
 public class QueueManagerImpl implements QueueManager {
@@ -61,6 +73,16 @@ public class QueueManagerImpl implements QueueManager {
     @Inject
     private QueueManagerEJB ejb;
 
+    @Inject
+    private Device device;
+
+    @Resource
+    private TransactionSynchronizationRegistry txSyncRegistry;
+
+    private final Map<String, AtomicLong> scheduledCounts = new ConcurrentHashMap<>();
+    private final Map<String, TaskStatusUpdate> inProcess = new ConcurrentHashMap<>();
+    private final Map<String, PendingStatusUpdates> pendingStatusUpdates = new ConcurrentHashMap<>();
+
     @Override
     public ObjectMessage createObjectMessage(Serializable object) {
         return ejb.createObjectMessage(object);
@@ -70,18 +92,79 @@ public class QueueManagerImpl implements QueueManager {
     public QueueMessage scheduleMessage(String queueName, ObjectMessage message, int priority, String batchID,
                                         long delay)
             throws QueueSizeLimitExceededException {
-        return ejb.scheduleMessage(queueName, message, priority, batchID, delay);
+        QueueDescriptor descriptor = descriptorOf(queueName);
+        if (descriptor.getStatusUpdateBatchDelay() <= 0)
+            return ejb.scheduleMessage(queueName, message, priority, batchID, delay);
+
+        AtomicLong scheduledCount = scheduledCount(queueName);
+        int maxQueueSize = descriptor.getMaxQueueSize();
+        if (maxQueueSize > 0 && maxQueueSize < scheduledCount.get())
+            throw new QueueSizeLimitExceededException(descriptor);
+
+        QueueMessage queueMessage = ejb.scheduleMessage(queueName, message, priority, batchID, delay);
+        incrementAfterCommit(txSyncRegistry, scheduledCount);
+        return queueMessage;
+    }
+
+    /**
+     * Increments the in-memory number of scheduled Tasks after the commit of the current transaction, so Tasks
+     * scheduled by a transaction rolled back by the caller are not counted. Increments it immediately, if there
+     * is no active transaction, because the Task was then already committed by {@link QueueManagerEJB}.
+     */
+    static void incrementAfterCommit(TransactionSynchronizationRegistry txSyncRegistry, AtomicLong scheduledCount) {
+        if (txSyncRegistry.getTransactionKey() == null) {
+            scheduledCount.incrementAndGet();
+            return;
+        }
+        txSyncRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED)
+                    scheduledCount.incrementAndGet();
+            }
+        });
     }
 
     @Override
     public long countScheduledMessagesOnThisDevice(String queueName) {
-        return ejb.countScheduledMessagesOnThisDevice(queueName);
+        return descriptorOf(queueName).getStatusUpdateBatchDelay() > 0
+                ? scheduledCount(queueName).get()
+                : ejb.countScheduledMessagesOnThisDevice(queueName);
+    }
+
+    private AtomicLong scheduledCount(String queueName) {
+        return scheduledCounts.computeIfAbsent(queueName,
+                key -> new AtomicLong(ejb.countScheduledMessagesOnThisDevice(key)));
+    }
+
+    /**
+     * Replaces the in-memory numbers of scheduled Tasks by the numbers of scheduled Tasks in the database, to
+     * correct deviations caused by concurrent modifications by other nodes or by the management interface.
+     */
+    void reconcileScheduledCounts() {
+        for (Map.Entry<String, AtomicLong> entry : scheduledCounts.entrySet())
+            entry.getValue().set(ejb.countScheduledMessagesOnThisDevice(entry.getKey()));
     }
 
     @Override
     public QueueMessage onProcessingStart(String msgId) {
         try {
-            return ejb.onProcessingStart(msgId);
+            QueueMessage queueMessage = ejb.onProcessingStart(msgId);
+            if (queueMessage == null)
+                return null;
+
+            String queueName = queueMessage.getQueueName();
+            if (descriptorOf(queueName).getStatusUpdateBatchDelay() > 0) {
+                inProcess.put(msgId, new TaskStatusUpdate(msgId, queueName, queueMessage.getVersion()));
+                AtomicLong scheduledCount = scheduledCounts.get(queueName);
+                if (scheduledCount != null)
+                    scheduledCount.updateAndGet(count -> count > 0 ? count - 1 : 0);
+            }
+            return queueMessage;
         } catch (Throwable e) {
             logDBUpdateFailed("onProcessingStart", msgId, e);
             return null;
@@ -90,6 +173,11 @@ public class QueueManagerImpl implements QueueManager {
 
     @Override
     public QueueMessage onProcessingSuccessful(String msgId, Outcome outcome) {
+        TaskStatusUpdate update = inProcess.remove(msgId);
+        if (update != null) {
+            deferStatusUpdate(update.setOutcome(outcome));
+            return null;
+        }
         try {
             return ejb.onProcessingSuccessful(msgId, outcome);
         } catch (Throwable e) {
@@ -100,6 +188,11 @@ public class QueueManagerImpl implements QueueManager {
 
     @Override
     public QueueMessage onProcessingFailed(String msgId, Throwable e) {
+        TaskStatusUpdate update = inProcess.remove(msgId);
+        if (update != null) {
+            deferStatusUpdate(update.setException(e));
+            return null;
+        }
         try {
             return ejb.onProcessingFailed(msgId, e);
         } catch (Throwable e1) {
@@ -108,10 +201,74 @@ public class QueueManagerImpl implements QueueManager {
         }
     }
 
+    private void deferStatusUpdate(TaskStatusUpdate update) {
+        pendingStatusUpdates.computeIfAbsent(update.getQueueName(), PendingStatusUpdates::new).add(update);
+    }
+
+    private void flushStatusUpdates(List<TaskStatusUpdate> updates) {
+        try {
+            for (TaskStatusUpdate update : ejb.onProcessingFinished(updates))
+                incrementScheduledCount(update);
+            return;
+        } catch (Throwable e) {
+            LOG.warn("Failed to update status of {} Tasks in DB in one transaction - update status of each Task:\n",
+                    updates.size(), e);
+        }
+        for (TaskStatusUpdate update : updates) {
+            try {
+                if (ejb.onProcessingFinished(update))
+                    incrementScheduledCount(update);
+            } catch (Throwable e) {
+                logDBUpdateFailed("onProcessingFinished", update.getMessageID(), e);
+            }
+        }
+    }
+
+    private void incrementScheduledCount(TaskStatusUpdate update) {
+        AtomicLong scheduledCount = scheduledCounts.get(update.getQueueName());
+        if (scheduledCount != null)
+            scheduledCount.incrementAndGet();
+    }
+
+    private QueueDescriptor descriptorOf(String queueName) {
+        return device.getDeviceExtensionNotNull(ArchiveDeviceExtension.class).getQueueDescriptorNotNull(queueName);
+    }
+
     private static void logDBUpdateFailed(String method, String msgId, Throwable e) {
         LOG.error("Failed to update status of Task[id={}] in DB {}:\n", msgId, method, e);
     }
 
+    private final class PendingStatusUpdates {
+        private final String queueName;
+        private List<TaskStatusUpdate> updates = new ArrayList<>();
+        private boolean flushScheduled;
+
+        PendingStatusUpdates(String queueName) {
+            this.queueName = queueName;
+        }
+
+        void add(TaskStatusUpdate update) {
+            synchronized (this) {
+                updates.add(update);
+                if (flushScheduled)
+                    return;
+
+                flushScheduled = true;
+            }
+            device.schedule(this::flush, descriptorOf(queueName).getStatusUpdateBatchDelay(), TimeUnit.MILLISECONDS);
+        }
+
+        void flush() {
+            List<TaskStatusUpdate> updates;
+            synchronized (this) {
+                flushScheduled = false;
+                updates = this.updates;
+                this.updates = new ArrayList<>();
+            }
+            flushStatusUpdates(updates);
+        }
+    }
+
     @Override
     public boolean cancelTask(String msgId, QueueMessageEvent queueEvent) throws IllegalTaskStateException {
         return ejb.cancelTask(msgId, queueEvent);
@@ -0,0 +1,104 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.qmgt.impl;
+
+import org.dcm4chee.arc.qmgt.Outcome;
+
+import java.util.Date;
+
+/**
+ * Deferred update of the status of a processed Task. It is only applied, if the Task is still in process and
+ * was not modified since the start of its processing. The end time of the processing is recorded when the
+ * outcome or failure of the Task is set, not when the update is applied.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class TaskStatusUpdate {
+    private final String msgId;
+    private final String queueName;
+    private final long version;
+    private Outcome outcome;
+    private Throwable exception;
+    private Date processingEndTime;
+
+    TaskStatusUpdate(String msgId, String queueName, long version) {
+        this.msgId = msgId;
+        this.queueName = queueName;
+        this.version = version;
+    }
+
+    String getMessageID() {
+        return msgId;
+    }
+
+    String getQueueName() {
+        return queueName;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    Outcome getOutcome() {
+        return outcome;
+    }
+
+    TaskStatusUpdate setOutcome(Outcome outcome) {
+        this.outcome = outcome;
+        this.processingEndTime = new Date();
+        return this;
+    }
+
+    Throwable getException() {
+        return exception;
+    }
+
+    TaskStatusUpdate setException(Throwable exception) {
+        this.exception = exception;
+        this.processingEndTime = new Date();
+        return this;
+    }
+
+    Date getProcessingEndTime() {
+        return processingEndTime;
+    }
+}
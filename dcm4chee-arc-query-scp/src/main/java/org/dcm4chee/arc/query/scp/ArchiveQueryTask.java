@@ -52,6 +52,7 @@ import org.dcm4che3.net.pdu.PresentationContext;
 import org.dcm4che3.net.service.BasicQueryTask;
 import org.dcm4che3.net.service.DicomServiceException;
 import org.dcm4chee.arc.conf.ArchiveAEExtension;
+import org.dcm4chee.arc.conf.Duration;
 import org.dcm4chee.arc.conf.SpanningCFindSCPPolicy;
 import org.dcm4chee.arc.query.Query;
 import org.dcm4chee.arc.query.QueryContext;
@@ -78,10 +79,12 @@ public class ArchiveQueryTask extends BasicQueryTask {
     private final String spanningCFindSCP;
     private final String[] spanningRetrieveAETs;
     private final SpanningCFindSCPPolicy spanningPolicy;
+    private final Duration spanningTimeout;
     private final int queryMaxNumberOfResults;
     private final int queryFetchSize;
     private Association spanningAssoc;
     private DimseRSP spanningCFindRSP;
+    private ConcurrentSpanningCFind concurrentSpanningCFind;
     private Attributes spanningMatch;
     private Query query;
     private Transaction transaction;
@@ -99,6 +102,7 @@ public class ArchiveQueryTask extends BasicQueryTask {
         spanningCFindSCP = arcAE.spanningCFindSCP();
         spanningRetrieveAETs = arcAE.spanningCFindSCPRetrieveAETitles();
         spanningPolicy = arcAE.spanningCFindSCPPolicy();
+        spanningTimeout = arcAE.spanningCFindSCPTimeout();
         queryMaxNumberOfResults = arcAE.queryMaxNumberOfResults();
         queryFetchSize = arcAE.getArchiveDeviceExtension().getQueryFetchSize();
     }
@@ -123,6 +127,10 @@ public class ArchiveQueryTask extends BasicQueryTask {
     }
 
     private void releaseSpanningAssociation() {
+        if (concurrentSpanningCFind != null) {
+            concurrentSpanningCFind.cancel();
+            concurrentSpanningCFind = null;
+        }
         if (spanningAssoc != null) {
             try {
                 spanningAssoc.release();
@@ -148,6 +156,8 @@ public class ArchiveQueryTask extends BasicQueryTask {
     protected Attributes nextMatch() throws DicomServiceException {
         try {
             return state.nextMatch(this);
+        }  catch (DicomServiceException e) {
+            throw e;
         }  catch (Exception e) {
             throw new DicomServiceException(Status.UnableToProcess, e);
         }
@@ -162,16 +172,32 @@ public class ArchiveQueryTask extends BasicQueryTask {
         this.query = ctx.getQueryService().createQuery(ctx);
         setOptionalKeysNotSupported(query.isOptionalKeysNotSupported());
         query.initQuery();
-        if (queryMaxNumberOfResults > 0 && !ctx.containsUniqueKey()
-                && query.fetchCount() > queryMaxNumberOfResults) {
-            throw new DicomServiceException(Status.UnableToProcess, "Request entity too large");
-        }
+        boolean probe = queryMaxNumberOfResults > 0 && !ctx.containsUniqueKey();
+        if (probe)
+            query.limitAndProbe(queryMaxNumberOfResults);
         transaction = query.beginTransaction();
         query.setFetchSize(queryFetchSize);
         query.executeQuery();
+        if (probe && query.hasMoreMatchesBeyondLimit())
+            throw new DicomServiceException(Status.UnableToProcess, "Request entity too large");
+    }
+
+    private void startConcurrentSpanning() {
+        concurrentSpanningCFind = ConcurrentSpanningCFind.start(
+                ctx.getQueryService().cfindSCU(),
+                as.getApplicationEntity(),
+                spanningCFindSCP,
+                ctx.getSOPClassUID(),
+                as.getQueryOptionsFor(ctx.getSOPClassUID()),
+                spanningQueryKeys(),
+                spanningTimeout.getSeconds() * 1000L + spanningTimeout.getNano() / 1000000);
     }
 
     private void initSpanning() throws Exception {
+        if (concurrentSpanningCFind != null) {
+            spanningMatch = concurrentSpanningCFind.nextMatch();
+            return;
+        }
         CFindSCU cfindscu = ctx.getQueryService().cfindSCU();
         spanningAssoc = cfindscu.openAssociation(
                 as.getApplicationEntity(),
@@ -290,8 +316,12 @@ public class ArchiveQueryTask extends BasicQueryTask {
 
     private Attributes nextSpanningMatch() throws Exception {
         Attributes match = spanningMatch;
-        spanningMatch = spanningCFindRSP.getDataset();
-        spanningCFindRSP.next();
+        if (concurrentSpanningCFind != null) {
+            spanningMatch = concurrentSpanningCFind.nextMatch();
+        } else {
+            spanningMatch = spanningCFindRSP.getDataset();
+            spanningCFindRSP.next();
+        }
         return match;
     }
 
@@ -334,10 +364,14 @@ public class ArchiveQueryTask extends BasicQueryTask {
     }
 
     private State initState() throws Exception {
+        if (spanningCFindSCP != null && spanningTimeout != null)
+            startConcurrentSpanning();
         if (spanningCFindSCP == null || spanningPolicy == SpanningCFindSCPPolicy.SUPPLEMENT) {
             initQuery();
             state = spanningCFindSCP == null ? State.QUERY : State.QUERY_BEFORE_SPANNING;
         } else {
+            if (concurrentSpanningCFind != null && spanningPolicy == SpanningCFindSCPPolicy.MERGE)
+                initQuery();
             initSpanning();
             state = spanningPolicy == SpanningCFindSCPPolicy.REPLACE ? State.SPANNING : State.SPANNING_BEFORE_QUERY;
         }
@@ -352,7 +386,8 @@ public class ArchiveQueryTask extends BasicQueryTask {
 
     private State initQueryAfterSpanning() throws Exception {
         releaseSpanningAssociation();
-        initQuery();
+        if (query == null)
+            initQuery();
         return state = State.QUERY;
     }
 }
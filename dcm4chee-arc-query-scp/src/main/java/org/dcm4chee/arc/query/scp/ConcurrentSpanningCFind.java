@@ -0,0 +1,185 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.query.scp;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.net.ApplicationEntity;
+import org.dcm4che3.net.Association;
+import org.dcm4che3.net.DimseRSP;
+import org.dcm4che3.net.Priority;
+import org.dcm4che3.net.QueryOption;
+import org.dcm4che3.net.Status;
+import org.dcm4che3.net.service.DicomServiceException;
+import org.dcm4chee.arc.query.scu.CFindSCU;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receives matches from the Spanning C-Find SCP in a separate thread, so the local query may be performed
+ * concurrently. The specified timeout limits the time waiting for the next match, not the duration of the whole
+ * query; if it elapses or the query fails, {@link #nextMatch()} throws a {@link DicomServiceException}, so the
+ * C-FIND is not reported as successful with incomplete matches. At most 1000 received matches are buffered;
+ * further C-FIND responses are not read until buffered matches are consumed.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class ConcurrentSpanningCFind implements Runnable {
+    private static final Logger LOG = LoggerFactory.getLogger(ConcurrentSpanningCFind.class);
+    private static final Attributes END = new Attributes(0);
+    private static final int MAX_BUFFERED_MATCHES = 1000;
+
+    private final BlockingQueue<Attributes> matches = new LinkedBlockingQueue<>(MAX_BUFFERED_MATCHES);
+    private final CFindSCU cfindscu;
+    private final ApplicationEntity localAE;
+    private final String calledAET;
+    private final String cuid;
+    private final EnumSet<QueryOption> queryOptions;
+    private final Attributes keys;
+    private final long timeout;
+    private volatile Association as;
+    private volatile boolean canceled;
+    private volatile Exception failure;
+    private boolean done;
+
+    ConcurrentSpanningCFind(CFindSCU cfindscu, ApplicationEntity localAE, String calledAET, String cuid,
+            EnumSet<QueryOption> queryOptions, Attributes keys, long timeout) {
+        this.cfindscu = cfindscu;
+        this.localAE = localAE;
+        this.calledAET = calledAET;
+        this.cuid = cuid;
+        this.queryOptions = queryOptions;
+        this.keys = keys;
+        this.timeout = timeout;
+    }
+
+    static ConcurrentSpanningCFind start(CFindSCU cfindscu, ApplicationEntity localAE, String calledAET,
+            String cuid, EnumSet<QueryOption> queryOptions, Attributes keys, long timeout) {
+        ConcurrentSpanningCFind cfind = new ConcurrentSpanningCFind(
+                cfindscu, localAE, calledAET, cuid, queryOptions, keys, timeout);
+        localAE.getDevice().execute(cfind);
+        return cfind;
+    }
+
+    @Override
+    public void run() {
+        try {
+            Association as = this.as = cfindscu.openAssociation(localAE, calledAET, cuid, queryOptions);
+            if (canceled) {
+                as.abort();
+                return;
+            }
+            receive(cfindscu.query(as, Priority.NORMAL, keys, 0, 1, null));
+            this.as = null;
+            as.release();
+        } catch (Exception e) {
+            if (!canceled) {
+                LOG.warn("Failed to query Spanning C-Find SCP {}:\n", calledAET, e);
+                failure = e;
+            }
+        } finally {
+            if (!canceled)
+                putEnd();
+        }
+    }
+
+    void receive(DimseRSP rsp) throws IOException, InterruptedException {
+        rsp.next();
+        Attributes match;
+        while ((match = rsp.getDataset()) != null && !canceled) {
+            matches.put(match);
+            rsp.next();
+        }
+    }
+
+    void putEnd() {
+        try {
+            matches.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns next match received from the Spanning C-Find SCP, waiting until it is received or the timeout
+     * elapsed.
+     *
+     * @return next match or {@code null}, if there are no more matches
+     * @throws DicomServiceException if the timeout elapsed or the query failed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    Attributes nextMatch() throws DicomServiceException, InterruptedException {
+        if (done)
+            return null;
+
+        Attributes match = matches.poll(timeout, TimeUnit.MILLISECONDS);
+        if (match == null) {
+            LOG.warn("Timeout of receiving matches from Spanning C-Find SCP {} elapsed", calledAET);
+            cancel();
+            done = true;
+            throw new DicomServiceException(Status.UnableToProcess,
+                    "Timeout of receiving matches from Spanning C-Find SCP " + calledAET + " elapsed");
+        }
+        if (match == END) {
+            done = true;
+            Exception e = failure;
+            if (e != null)
+                throw new DicomServiceException(Status.UnableToProcess,
+                        "Failed to query Spanning C-Find SCP " + calledAET + ": " + e.getMessage());
+            return null;
+        }
+        return match;
+    }
+
+    void cancel() {
+        canceled = true;
+        matches.clear(); // unblock receiving thread
+        Association as = this.as;
+        if (as != null)
+            as.abort();
+    }
+}
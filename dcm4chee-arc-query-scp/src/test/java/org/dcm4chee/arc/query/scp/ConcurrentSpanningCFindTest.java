@@ -0,0 +1,146 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.query.scp;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.VR;
+import org.dcm4che3.net.DimseRSP;
+import org.dcm4che3.net.Status;
+import org.dcm4che3.net.service.DicomServiceException;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class ConcurrentSpanningCFindTest {
+
+    private static final long TIMEOUT = 200;
+
+    @Test
+    public void receiveAllMatchesOfSlowButActiveSCP() throws Exception {
+        ConcurrentSpanningCFind cfind = startReceiving(matches(5), TIMEOUT / 2, 0);
+        for (int i = 0; i < 5; i++)
+            assertEquals(String.valueOf(i), cfind.nextMatch().getString(Tag.StudyInstanceUID));
+        assertNull(cfind.nextMatch());
+        assertNull(cfind.nextMatch());
+    }
+
+    @Test
+    public void returnMatchesBufferedBeforeTimeout() throws Exception {
+        ConcurrentSpanningCFind cfind = startReceiving(matches(3), 0, 0);
+        Thread.sleep(TIMEOUT * 2);
+        for (int i = 0; i < 3; i++)
+            assertNotNull(cfind.nextMatch());
+        assertNull(cfind.nextMatch());
+    }
+
+    @Test
+    public void failOnTimeoutOfInactiveSCP() throws Exception {
+        ConcurrentSpanningCFind cfind = startReceiving(matches(3), 0, TIMEOUT * 5);
+        assertNotNull(cfind.nextMatch());
+        try {
+            cfind.nextMatch();
+            fail("DicomServiceException expected");
+        } catch (DicomServiceException e) {
+            assertEquals(Status.UnableToProcess, e.getStatus());
+        }
+        assertNull(cfind.nextMatch());
+    }
+
+    private static List<Attributes> matches(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            Attributes match = new Attributes(1);
+            match.setString(Tag.StudyInstanceUID, VR.UI, String.valueOf(i));
+            return match;
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * Starts receiving the specified matches, delaying each match by {@code delay} ms and all matches after the
+     * first one additionally by {@code stallAfterFirst} ms.
+     */
+    private static ConcurrentSpanningCFind startReceiving(List<Attributes> matches, long delay,
+            long stallAfterFirst) {
+        ConcurrentSpanningCFind cfind = new ConcurrentSpanningCFind(
+                null, null, "SPANNING_SCP", null, null, null, TIMEOUT);
+        DimseRSP rsp = dimseRSP(matches.iterator(), delay, stallAfterFirst);
+        Thread thread = new Thread(() -> {
+            try {
+                cfind.receive(rsp);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            } finally {
+                cfind.putEnd();
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return cfind;
+    }
+
+    private static DimseRSP dimseRSP(Iterator<Attributes> matches, long delay, long stallAfterFirst) {
+        Attributes[] dataset = new Attributes[1];
+        int[] count = new int[1];
+        return (DimseRSP) Proxy.newProxyInstance(DimseRSP.class.getClassLoader(),
+                new Class<?>[]{ DimseRSP.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "next":
+                            Thread.sleep(count[0]++ > 0 ? delay + stallAfterFirst : delay);
+                            dataset[0] = matches.hasNext() ? matches.next() : null;
+                            return dataset[0] != null;
+                        case "getDataset":
+                            return dataset[0];
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
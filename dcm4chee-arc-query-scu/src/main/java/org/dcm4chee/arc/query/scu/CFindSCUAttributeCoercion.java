@@ -46,7 +46,6 @@ import org.dcm4che3.data.Tag;
 import org.dcm4che3.net.ApplicationEntity;
 import org.dcm4che3.net.Priority;
 import org.dcm4che3.net.service.QueryRetrieveLevel2;
-import org.dcm4chee.arc.Cache;
 import org.dcm4chee.arc.LeadingCFindSCPQueryCache;
 import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
 import org.slf4j.Logger;
@@ -100,11 +99,11 @@ public class CFindSCUAttributeCoercion implements AttributesCoercion {
     }
 
     private Attributes queryStudy(String studyIUID) {
-        LeadingCFindSCPQueryCache.Key key = new LeadingCFindSCPQueryCache.Key(leadingCFindSCP, studyIUID);
-        Cache.Entry<Attributes> entry = queryCache.getEntry(key);
-        if (entry != null)
-            return entry.value();
+        return queryCache.get(new LeadingCFindSCPQueryCache.Key(leadingCFindSCP, studyIUID),
+                key -> findStudy(studyIUID));
+    }
 
+    private Attributes findStudy(String studyIUID) {
         Attributes newAttrs = null;
         try {
             ArchiveDeviceExtension arcdev = localAE.getDevice().getDeviceExtensionNotNull(ArchiveDeviceExtension.class);
@@ -114,7 +113,6 @@ public class CFindSCUAttributeCoercion implements AttributesCoercion {
                 newAttrs = matches.get(0);
         } catch (Exception e) {
         }
-        queryCache.put(key, newAttrs);
         return newAttrs;
     }
 }
@@ -112,6 +112,7 @@ public class QueryAttributes {
                 case "missing":
                 case "offset":
                 case "limit":
+                case "continuationtoken":
                 case "priority":
                 case "withoutstudies":
                 case "fuzzymatching":
@@ -132,6 +133,7 @@ public class QueryAttributes {
                 case "queue":
                 case "SplitStudyDateRange":
                 case "ForceQueryByStudyUID":
+                case "parallelism":
                 case "includedefaults":
                 case "ExpirationDate":
                 case "storageID":
@@ -72,6 +72,45 @@ public interface Query extends Closeable {
 
     void limit(long limit);
 
+    /**
+     * Limits the number of fetched records to the specified value, and probes by {@link #executeQuery()} for one
+     * record beyond the limit to detect if there are further matches without counting them.
+     *
+     * @see #hasMoreMatchesBeyondLimit()
+     */
+    void limitAndProbe(long limit);
+
+    /**
+     * @return {@code true} if {@link #executeQuery()} found more records than the limit set by
+     *         {@link #limitAndProbe(long)}
+     */
+    boolean hasMoreMatchesBeyondLimit();
+
+    /**
+     * @return {@code true} if no other sort order was requested and the primary key of the queried entity is
+     *         selected, so following pages of results can be fetched by {@link #seekAfterPk(long)}
+     */
+    boolean isOrderedByPk();
+
+    /**
+     * Orders matches by primary key, if {@link #executeQuery()} detects more matches than the limit set by
+     * {@link #limitAndProbe(long)}, so following pages of results can be fetched by {@link #seekAfterPk(long)}.
+     * Matches which fit into one page are not sorted.
+     */
+    void orderByPkIfMoreMatchesBeyondLimit();
+
+    /**
+     * Restricts matches to records with a greater primary key than the specified value and orders them by
+     * primary key.
+     */
+    void seekAfterPk(long pk);
+
+    /**
+     * @return primary key of the last record within the limit set by {@link #limitAndProbe(long)}, if there are
+     *         further matches and the query is ordered by primary key, otherwise {@code null}
+     */
+    Long lastPkWithinLimit();
+
     void offset(long offset);
 
     boolean hasMoreMatches() throws DicomServiceException;
@@ -43,6 +43,7 @@ package org.dcm4chee.arc.query.impl;
 import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Order;
 import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.NumberPath;
 import com.querydsl.jpa.hibernate.HibernateQuery;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
@@ -76,6 +77,11 @@ abstract class AbstractQuery implements Query {
     private long limit;
     private int rejected;
     private int matches;
+    private boolean probe;
+    private boolean orderByPkIfMoreMatchesBeyondLimit;
+    private Long seekAfterPk;
+    private boolean moreMatchesBeyondLimit;
+    private Long lastPkWithinLimit;
 
     public AbstractQuery(QueryContext context, StatelessSession session) {
         this.context = context;
@@ -115,6 +121,13 @@ abstract class AbstractQuery implements Query {
 
     protected abstract HibernateQuery<Tuple> newHibernateQuery(boolean forCount);
 
+    /**
+     * @return primary key of the queried entity or {@code null}, if it is not selected by the query
+     */
+    protected NumberPath<Long> pk() {
+        return null;
+    }
+
     protected abstract Attributes toAttributes(Tuple results);
 
     private void checkQuery() {
@@ -133,7 +146,37 @@ abstract class AbstractQuery implements Query {
         checkQuery();
         rejected = 0;
         matches = 0;
-        results = offset > 0 ? query.fetch().iterator() : query.iterate();
+        if (probe) {
+            moreMatchesBeyondLimit = existsMatchAt(offset + limit);
+            if (moreMatchesBeyondLimit && (seekAfterPk != null || orderByPkIfMoreMatchesBeyondLimit)) {
+                if (seekAfterPk == null)
+                    query.orderBy(pk().asc());
+                lastPkWithinLimit = pkOfMatchAt(offset + limit - 1);
+            }
+        }
+        results = iterateMatches();
+    }
+
+    /**
+     * Checks if there is a match at the specified position, without ordering the matches and only fetching that
+     * one record, so the rows within the limit are streamed by the query itself and not collected in memory.
+     */
+    boolean existsMatchAt(long position) {
+        return newProbeQuery().offset(position).fetchFirst() != null;
+    }
+
+    Long pkOfMatchAt(long position) {
+        NumberPath<Long> pk = pk();
+        return newProbeQuery().select(pk).orderBy(pk.asc()).offset(position).fetchFirst();
+    }
+
+    private HibernateQuery<Tuple> newProbeQuery() {
+        HibernateQuery<Tuple> q = newHibernateQuery(false);
+        return seekAfterPk != null ? q.where(pk().gt(seekAfterPk)) : q;
+    }
+
+    Iterator<Tuple> iterateMatches() {
+        return offset > 0 ? query.fetch().iterator() : query.iterate();
     }
 
     @Override
@@ -148,6 +191,48 @@ abstract class AbstractQuery implements Query {
         this.limit = limit;
     }
 
+    @Override
+    public void limitAndProbe(long limit) {
+        checkQuery();
+        query.limit(limit);
+        this.limit = limit;
+        this.probe = true;
+    }
+
+    @Override
+    public boolean hasMoreMatchesBeyondLimit() {
+        return moreMatchesBeyondLimit;
+    }
+
+    @Override
+    public boolean isOrderedByPk() {
+        return context.getOrderByTags() == null && pk() != null;
+    }
+
+    @Override
+    public void orderByPkIfMoreMatchesBeyondLimit() {
+        checkQuery();
+        if (!isOrderedByPk())
+            throw new IllegalStateException("query not orderable by pk");
+
+        orderByPkIfMoreMatchesBeyondLimit = true;
+    }
+
+    @Override
+    public void seekAfterPk(long pk) {
+        checkQuery();
+        if (!isOrderedByPk())
+            throw new IllegalStateException("query not orderable by pk");
+
+        query.where(pk().gt(pk)).orderBy(pk().asc());
+        seekAfterPk = pk;
+    }
+
+    @Override
+    public Long lastPkWithinLimit() {
+        return lastPkWithinLimit;
+    }
+
     @Override
     public void offset(long offset) {
         checkQuery();
@@ -158,7 +243,7 @@ abstract class AbstractQuery implements Query {
     @Override
     public boolean hasMoreMatches() throws DicomServiceException {
         boolean hasNext = results.hasNext();
-        if (hasNext || rejected == 0 || limit != matches)
+        if (hasNext || probe || rejected == 0 || limit != matches)
             return hasNext;
 
         offset(offset + matches);
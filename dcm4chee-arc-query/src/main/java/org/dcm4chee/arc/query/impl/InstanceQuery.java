@@ -43,6 +43,7 @@ package org.dcm4chee.arc.query.impl;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.dsl.NumberPath;
 import com.querydsl.jpa.hibernate.HibernateQuery;
 import org.dcm4che3.data.*;
 import org.dcm4che3.dict.archive.ArchiveTag;
@@ -123,6 +124,11 @@ class InstanceQuery extends AbstractQuery {
         this.codeCache = codeCache;
     }
 
+    @Override
+    protected NumberPath<Long> pk() {
+        return QInstance.instance.pk;
+    }
+
     @Override
     protected HibernateQuery<Tuple> newHibernateQuery(boolean forCount) {
         HibernateQuery<Tuple> q = new HibernateQuery<Void>(session).select(SELECT).from(QInstance.instance);
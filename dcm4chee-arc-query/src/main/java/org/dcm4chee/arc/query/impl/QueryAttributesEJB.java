@@ -44,10 +44,8 @@ import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Expression;
 import com.querydsl.jpa.hibernate.HibernateQuery;
 import org.dcm4che3.net.Device;
-import org.dcm4che3.util.StringUtils;
 import org.dcm4chee.arc.code.CodeCache;
 import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
-import org.dcm4chee.arc.conf.Availability;
 import org.dcm4chee.arc.conf.QueryRetrieveView;
 import org.dcm4chee.arc.entity.*;
 import org.dcm4chee.arc.query.util.QueryBuilder;
@@ -107,9 +105,9 @@ public class QueryAttributesEJB {
                 .fetch()) {
             Integer numberOfInstancesI = tuple.get(QSeriesQueryAttributes.seriesQueryAttributes.numberOfInstances);
             if (numberOfInstancesI == null)
-                builder.add(tuple, calculateSeriesQueryAttributes(tuple.get(QSeries.series.pk), qrView));
+                addSeries(builder, tuple, calculateSeriesQueryAttributes(tuple.get(QSeries.series.pk), qrView));
             else
-                builder.add(tuple);
+                addSeries(builder, tuple);
         }
         StudyQueryAttributes queryAttrs = builder.build();
         queryAttrs.setViewID(qrView.getViewID());
@@ -134,7 +132,7 @@ public class QueryAttributesEJB {
                         .iterate()) {
 
             while (results.hasNext()) {
-                builder.addInstance(results.next());
+                addInstance(builder, results.next());
             }
         }
         SeriesQueryAttributes queryAttrs = builder.build();
@@ -165,119 +163,28 @@ public class QueryAttributesEJB {
         return true;
     }
 
-    private static class SeriesQueryAttributesBuilder {
-        private int numberOfInstances;
-        private String[] retrieveAETs;
-        private Availability availability;
-        private Set<String> cuids = new HashSet<>();
-
-        public void addInstance(Tuple result) {
-            String[] retrieveAETs1 = StringUtils.split(result.get(QInstance.instance.retrieveAETs), '\\');
-            Availability availability1 = result.get(QInstance.instance.availability);
-            if (numberOfInstances++ == 0) {
-                retrieveAETs = retrieveAETs1;
-                availability = availability1;
-            } else {
-                retrieveAETs = intersection(retrieveAETs, retrieveAETs1);
-                if (availability.compareTo(availability1) < 0)
-                    availability = availability1;
-            }
-            cuids.add(result.get(QInstance.instance.sopClassUID));
-        }
-
-        public SeriesQueryAttributes build() {
-            SeriesQueryAttributes queryAttrs = new SeriesQueryAttributes();
-            queryAttrs.setNumberOfInstances(numberOfInstances);
-            if (numberOfInstances > 0) {
-                queryAttrs.setSOPClassesInSeries(StringUtils.concat(cuids, '\\'));
-                queryAttrs.setRetrieveAETs(StringUtils.concat(retrieveAETs, '\\'));
-                queryAttrs.setAvailability(availability);
-            }
-            return queryAttrs;
-        }
+    private static void addInstance(SeriesQueryAttributesBuilder builder, Tuple tuple) {
+        builder.addInstance(
+                tuple.get(QInstance.instance.sopClassUID),
+                tuple.get(QInstance.instance.retrieveAETs),
+                tuple.get(QInstance.instance.availability));
     }
 
-    private static class StudyQueryAttributesBuilder {
-
-        private int numberOfSeries;
-        private int numberOfInstances;
-        private String[] retrieveAETs;
-        private Availability availability;
-        private Set<String> mods = new HashSet<>();
-        private Set<String> cuids = new HashSet<>();
-
-        public void add(Tuple tuple) {
-            add(tuple.get(QSeriesQueryAttributes.seriesQueryAttributes.numberOfInstances),
-                    tuple.get(QSeries.series.modality),
-                    tuple.get(QSeriesQueryAttributes.seriesQueryAttributes.sopClassesInSeries),
-                    tuple.get(QSeriesQueryAttributes.seriesQueryAttributes.retrieveAETs),
-                    tuple.get(QSeriesQueryAttributes.seriesQueryAttributes.availability));
-        }
-
-        public void add(Tuple tuple, SeriesQueryAttributes series) {
-            add(series.getNumberOfInstances(),
-                    tuple.get(QSeries.series.modality),
-                    series.getSOPClassesInSeries(),
-                    series.getRetrieveAETs(),
-                    series.getAvailability());
-        }
-
-        private void add(int numInstances, String modality, String sopClassesInSeries, String retrieveAETs,
-                         Availability availability) {
-            if (numInstances == 0)
-                return;
-
-            String[] retrieveAETs1 = StringUtils.split(retrieveAETs, '\\');
-            numberOfInstances += numInstances;
-            if (numberOfSeries++ == 0) {
-                this.retrieveAETs = retrieveAETs1;
-                this.availability = availability;
-            } else {
-                this.retrieveAETs = intersection(this.retrieveAETs, retrieveAETs1);
-                if (this.availability.compareTo(availability) < 0)
-                    this.availability = availability;
-            }
-            if (!modality.equals("*"))
-                mods.add(modality);
-            for (String cuid : StringUtils.split(sopClassesInSeries, '\\'))
-                cuids.add(cuid);
-        }
-
-        public StudyQueryAttributes build() {
-            StudyQueryAttributes queryAttrs = new StudyQueryAttributes();
-            queryAttrs.setNumberOfInstances(numberOfInstances);
-            if (numberOfInstances > 0) {
-                queryAttrs.setNumberOfSeries(numberOfSeries);
-                queryAttrs.setModalitiesInStudy(StringUtils.concat(mods, '\\'));
-                queryAttrs.setSOPClassesInStudy(StringUtils.concat(cuids, '\\'));
-                queryAttrs.setRetrieveAETs(StringUtils.concat(retrieveAETs, '\\'));
-                queryAttrs.setAvailability(availability);
-            }
-            return queryAttrs;
-        }
-
+    private static void addSeries(StudyQueryAttributesBuilder builder, Tuple tuple) {
+        builder.addSeries(
+                tuple.get(QSeries.series.modality),
+                tuple.get(QSeriesQueryAttributes.seriesQueryAttributes.numberOfInstances),
+                tuple.get(QSeriesQueryAttributes.seriesQueryAttributes.sopClassesInSeries),
+                tuple.get(QSeriesQueryAttributes.seriesQueryAttributes.retrieveAETs),
+                tuple.get(QSeriesQueryAttributes.seriesQueryAttributes.availability));
     }
 
-
-    private static String[] intersection(String[] ss1, String[] ss2) {
-        int l = 0;
-        for (int i = 0; i < ss1.length; i++)
-            if (contains(ss2, ss1[i]))
-                ss1[l++] = ss1[i];
-
-        if (l == ss1.length)
-            return ss1;
-
-        String[] ss = new String[l];
-        System.arraycopy(ss1, 0, ss, 0, l);
-        return ss;
+    private static void addSeries(StudyQueryAttributesBuilder builder, Tuple tuple, SeriesQueryAttributes series) {
+        builder.addSeries(
+                tuple.get(QSeries.series.modality),
+                series.getNumberOfInstances(),
+                series.getSOPClassesInSeries(),
+                series.getRetrieveAETs(),
+                series.getAvailability());
     }
-
-    private static boolean contains(String[] ss, String s0) {
-        for (String s : ss)
-            if (s0.equals(s))
-                return true;
-        return false;
-    }
-
 }
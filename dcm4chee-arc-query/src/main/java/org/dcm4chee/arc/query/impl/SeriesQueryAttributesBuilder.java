@@ -0,0 +1,104 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.query.impl;
+
+import org.dcm4che3.util.StringUtils;
+import org.dcm4chee.arc.conf.Availability;
+import org.dcm4chee.arc.entity.SeriesQueryAttributes;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * @author Gunter Zeilinger <gunterze@gmail.com>
+ * @since Oct 2017
+ */
+class SeriesQueryAttributesBuilder {
+    private int numberOfInstances;
+    private String[] retrieveAETs;
+    private Availability availability;
+    private Set<String> cuids = new HashSet<>();
+
+    public void addInstance(String cuid, String retrieveAETs, Availability availability) {
+        String[] retrieveAETs1 = StringUtils.split(retrieveAETs, '\\');
+        if (numberOfInstances++ == 0) {
+            this.retrieveAETs = retrieveAETs1;
+            this.availability = availability;
+        } else {
+            this.retrieveAETs = intersection(this.retrieveAETs, retrieveAETs1);
+            if (this.availability.compareTo(availability) < 0)
+                this.availability = availability;
+        }
+        cuids.add(cuid);
+    }
+
+    public SeriesQueryAttributes build() {
+        SeriesQueryAttributes queryAttrs = new SeriesQueryAttributes();
+        queryAttrs.setNumberOfInstances(numberOfInstances);
+        if (numberOfInstances > 0) {
+            queryAttrs.setSOPClassesInSeries(StringUtils.concat(cuids, '\\'));
+            queryAttrs.setRetrieveAETs(StringUtils.concat(retrieveAETs, '\\'));
+            queryAttrs.setAvailability(availability);
+        }
+        return queryAttrs;
+    }
+
+    static String[] intersection(String[] ss1, String[] ss2) {
+        int l = 0;
+        for (int i = 0; i < ss1.length; i++)
+            if (contains(ss2, ss1[i]))
+                ss1[l++] = ss1[i];
+
+        if (l == ss1.length)
+            return ss1;
+
+        String[] ss = new String[l];
+        System.arraycopy(ss1, 0, ss, 0, l);
+        return ss;
+    }
+
+    private static boolean contains(String[] ss, String s0) {
+        for (String s : ss)
+            if (s0.equals(s))
+                return true;
+        return false;
+    }
+}
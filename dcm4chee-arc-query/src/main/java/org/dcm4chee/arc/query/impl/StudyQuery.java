@@ -44,6 +44,7 @@ import com.mysema.commons.lang.CloseableIterator;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.dsl.NumberPath;
 import com.querydsl.jpa.hibernate.HibernateQuery;
 import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.Tag;
@@ -103,6 +104,11 @@ class StudyQuery extends AbstractQuery {
         super(context, session);
     }
 
+    @Override
+    protected NumberPath<Long> pk() {
+        return QStudy.study.pk;
+    }
+
     @Override
     protected HibernateQuery<Tuple> newHibernateQuery(boolean forCount) {
         HibernateQuery<Tuple> q = new HibernateQuery<Void>(session).select(SELECT).from(QStudy.study);
@@ -0,0 +1,212 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.query.impl;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.jpa.hibernate.HibernateQuery;
+import org.dcm4che3.data.Attributes;
+import org.dcm4chee.arc.entity.QStudy;
+import org.dcm4chee.arc.query.QueryContext;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class AbstractQueryTest {
+
+    @Test
+    public void probeWithoutSortingIfMatchesFitIntoPage() {
+        TestQuery query = new TestQuery(5);
+        query.initQuery();
+        query.orderByPkIfMoreMatchesBeyondLimit();
+        query.limitAndProbe(5);
+        query.executeQuery();
+        assertFalse(query.hasMoreMatchesBeyondLimit());
+        assertNull(query.lastPkWithinLimit());
+        assertFalse(query.isSortedByPk());
+    }
+
+    @Test
+    public void orderByPkIfMoreMatchesBeyondLimit() {
+        TestQuery query = new TestQuery(6);
+        query.initQuery();
+        query.orderByPkIfMoreMatchesBeyondLimit();
+        query.limitAndProbe(5);
+        query.executeQuery();
+        assertTrue(query.hasMoreMatchesBeyondLimit());
+        assertEquals(Long.valueOf(5), query.lastPkWithinLimit());
+        assertTrue(query.isSortedByPk());
+    }
+
+    @Test
+    public void streamMatchesInProbeMode() {
+        for (int numMatches : new int[]{ 5, 6 }) {
+            TestQuery query = new TestQuery(numMatches);
+            query.initQuery();
+            query.orderByPkIfMoreMatchesBeyondLimit();
+            query.limitAndProbe(5);
+            query.executeQuery();
+            assertEquals(numMatches > 5, query.hasMoreMatchesBeyondLimit());
+            assertTrue(query.streamed);
+        }
+    }
+
+    @Test
+    public void probeWithOffsetWithoutSorting() {
+        TestQuery query = new TestQuery(11);
+        query.initQuery();
+        query.offset(5);
+        query.limitAndProbe(5);
+        query.executeQuery();
+        assertTrue(query.hasMoreMatchesBeyondLimit());
+        assertNull(query.lastPkWithinLimit());
+        assertFalse(query.isSortedByPk());
+    }
+
+    @Test
+    public void seekAfterPk() {
+        TestQuery query = new TestQuery(12);
+        query.initQuery();
+        query.orderByPkIfMoreMatchesBeyondLimit();
+        query.seekAfterPk(5);
+        query.limitAndProbe(5);
+        query.executeQuery();
+        assertTrue(query.hasMoreMatchesBeyondLimit());
+        assertEquals(Long.valueOf(10), query.lastPkWithinLimit());
+        assertTrue(query.isSortedByPk());
+    }
+
+    @Test
+    public void seekAfterPkOfLastPage() {
+        TestQuery query = new TestQuery(12);
+        query.initQuery();
+        query.orderByPkIfMoreMatchesBeyondLimit();
+        query.seekAfterPk(10);
+        query.limitAndProbe(5);
+        query.executeQuery();
+        assertFalse(query.hasMoreMatchesBeyondLimit());
+        assertNull(query.lastPkWithinLimit());
+        assertTrue(query.isSortedByPk());
+    }
+
+    private static class TestQuery extends AbstractQuery {
+        private final List<Long> pks;
+        private long seekAfterPk;
+        private boolean streamed;
+
+        TestQuery(int numMatches) {
+            super(queryContext(), null);
+            this.pks = LongStream.rangeClosed(1, numMatches).boxed().collect(Collectors.toList());
+        }
+
+        private static QueryContext queryContext() {
+            return (QueryContext) Proxy.newProxyInstance(QueryContext.class.getClassLoader(),
+                    new Class<?>[]{ QueryContext.class },
+                    (proxy, method, args) -> null);
+        }
+
+        boolean isSortedByPk() {
+            return !query.getMetadata().getOrderBy().isEmpty();
+        }
+
+        @Override
+        public void seekAfterPk(long pk) {
+            super.seekAfterPk(pk);
+            seekAfterPk = pk;
+        }
+
+        @Override
+        boolean existsMatchAt(long position) {
+            return position < matchesAfterSeekPk().size();
+        }
+
+        @Override
+        Long pkOfMatchAt(long position) {
+            return matchesAfterSeekPk().get((int) position);
+        }
+
+        private List<Long> matchesAfterSeekPk() {
+            return pks.stream().filter(pk -> pk > seekAfterPk).collect(Collectors.toList());
+        }
+
+        @Override
+        Iterator<Tuple> iterateMatches() {
+            streamed = true;
+            return Collections.emptyIterator();
+        }
+
+        @Override
+        protected NumberPath<Long> pk() {
+            return QStudy.study.pk;
+        }
+
+        @Override
+        protected HibernateQuery<Tuple> newHibernateQuery(boolean forCount) {
+            return new HibernateQuery<>();
+        }
+
+        @Override
+        protected Attributes toAttributes(Tuple results) {
+            return null;
+        }
+
+        @Override
+        public boolean isOptionalKeysNotSupported() {
+            return false;
+        }
+
+        @Override
+        public long fetchCount() {
+            return pks.size();
+        }
+    }
+}
@@ -0,0 +1,318 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.query.impl;
+
+import org.dcm4che3.data.Code;
+import org.dcm4che3.util.StringUtils;
+import org.dcm4chee.arc.conf.Availability;
+import org.dcm4chee.arc.conf.QueryRetrieveView;
+import org.dcm4chee.arc.entity.QueryAttributesUtils;
+import org.dcm4chee.arc.entity.SeriesQueryAttributes;
+import org.dcm4chee.arc.entity.StudyQueryAttributes;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares Study and Series Query Attributes maintained incrementally on store, rejection and deletion of
+ * instances with values recalculated from all instances, after randomized store/reject/delete sequences.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class QueryAttributesConsistencyTest {
+
+    private static final Code REJECTED_FOR_QUALITY_REASONS =
+            new Code("113001", "DCM", null, "Rejected for Quality Reasons");
+    private static final Code INCORRECT_WORKLIST_ENTRY_SELECTED =
+            new Code("110514", "DCM", null, "Incorrect worklist entry selected");
+    private static final Code[] REJECTION_CODES = { REJECTED_FOR_QUALITY_REASONS, INCORRECT_WORKLIST_ENTRY_SELECTED };
+    private static final String[] MODALITIES = { "CT", "MR", "KO", "*" };
+    private static final String[] CUIDS = { "1.2.840.10008.5.1.4.1.1.2", "1.2.840.10008.5.1.4.1.1.4",
+            "1.2.840.10008.5.1.4.1.1.88.59" };
+    private static final String[][] RETRIEVE_AETS = { { "DCM4CHEE" }, { "DCM4CHEE", "DCM4CHEE_ADMIN" }, {} };
+
+    private final List<QueryRetrieveView> qrViews = Arrays.asList(
+            view("hideRejected", false, new Code[0], REJECTION_CODES),
+            view("showRejectedForQuality", false, new Code[]{ REJECTED_FOR_QUALITY_REASONS }, new Code[0]),
+            view("trash", true, REJECTION_CODES, new Code[0]));
+
+    private final List<Inst> insts = new ArrayList<>();
+    private final Map<String, Map<String, SeriesQueryAttributes>> seriesQueryAttrs = new HashMap<>();
+    private final Map<String, StudyQueryAttributes> studyQueryAttrs = new HashMap<>();
+    private Random random;
+
+    @Test
+    public void incrementalEqualsRecalculated() {
+        for (int seed = 0; seed < 200; seed++) {
+            random = new Random(seed);
+            insts.clear();
+            seriesQueryAttrs.clear();
+            studyQueryAttrs.clear();
+            for (int i = 0; i < 50; i++) {
+                switch (random.nextInt(6)) {
+                    case 0:
+                        reject();
+                        break;
+                    case 1:
+                        delete();
+                        break;
+                    case 2:
+                        query();
+                        break;
+                    default:
+                        store();
+                }
+                check("seed=" + seed + ", step=" + i);
+            }
+        }
+    }
+
+    private void store() {
+        String seriesUID = "1.2." + random.nextInt(4);
+        Inst inst = new Inst(seriesUID, modalityOf(seriesUID),
+                CUIDS[random.nextInt(CUIDS.length)],
+                RETRIEVE_AETS[random.nextInt(RETRIEVE_AETS.length)],
+                Availability.values()[random.nextInt(2)],
+                random.nextInt(5) == 0 ? REJECTION_CODES[random.nextInt(REJECTION_CODES.length)] : null);
+        boolean studyCreated = insts.isEmpty();
+        boolean seriesCreated = insts.stream().noneMatch(inst1 -> inst1.seriesUID.equals(seriesUID));
+        insts.add(inst);
+        if (studyCreated)
+            return;
+
+        // as StoreServiceEJB.updateQueryAttributes
+        Map<String, SeriesQueryAttributes> seriesQueryAttrsByViewID = new HashMap<>();
+        for (QueryRetrieveView qrView : qrViews) {
+            SeriesQueryAttributes queryAttrs = seriesQueryAttrs(qrView).get(seriesUID);
+            if (queryAttrs != null)
+                seriesQueryAttrsByViewID.put(qrView.getViewID(), queryAttrs);
+        }
+        for (StudyQueryAttributes queryAttrs : QueryAttributesUtils.addInstance(
+                studyQueryAttrs.values(), seriesQueryAttrsByViewID, seriesCreated,
+                viewID -> inst.isShownBy(qrView(viewID)), inst.modality, inst.cuid, inst.retrieveAETs, inst.availability))
+            studyQueryAttrs.remove(queryAttrs.getViewID());
+    }
+
+    private void reject() {
+        if (insts.isEmpty())
+            return;
+
+        String seriesUID = insts.get(random.nextInt(insts.size())).seriesUID;
+        Code rejectionNoteCode = random.nextInt(3) == 0 ? null : REJECTION_CODES[random.nextInt(REJECTION_CODES.length)];
+        Set<String> viewIDs = new HashSet<>();
+        for (Inst inst : insts) {
+            if (!inst.seriesUID.equals(seriesUID) || random.nextBoolean())
+                continue;
+
+            // as StoreServiceEJB.rejectInstance
+            QueryAttributesUtils.addViewIDsOfChangedVisibility(qrViews, inst.rejectionNoteCode, rejectionNoteCode,
+                    null, viewIDs);
+            inst.rejectionNoteCode = rejectionNoteCode;
+        }
+        invalidate(seriesUID, viewIDs);
+    }
+
+    private void delete() {
+        if (insts.isEmpty())
+            return;
+
+        String seriesUID = insts.get(random.nextInt(insts.size())).seriesUID;
+        Set<String> viewIDs = new HashSet<>();
+        // as DeletionServiceEJB.deleteInstances
+        for (Iterator<Inst> iter = insts.iterator(); iter.hasNext();) {
+            Inst inst = iter.next();
+            if (!inst.seriesUID.equals(seriesUID) || random.nextBoolean())
+                continue;
+
+            QueryAttributesUtils.addViewIDsShowing(qrViews, inst.rejectionNoteCode, null, viewIDs);
+            iter.remove();
+        }
+        if (insts.isEmpty()) {
+            seriesQueryAttrs.clear();
+            studyQueryAttrs.clear();
+            return;
+        }
+        if (seriesUIDs().contains(seriesUID))
+            invalidate(seriesUID, viewIDs);
+        else {
+            for (Map<String, SeriesQueryAttributes> map : seriesQueryAttrs.values())
+                map.remove(seriesUID);
+            studyQueryAttrs.keySet().removeAll(viewIDs);
+        }
+    }
+
+    private void invalidate(String seriesUID, Set<String> viewIDs) {
+        for (String viewID : viewIDs) {
+            seriesQueryAttrs.computeIfAbsent(viewID, x -> new HashMap<>()).remove(seriesUID);
+            studyQueryAttrs.remove(viewID);
+        }
+    }
+
+    private void query() {
+        if (insts.isEmpty())
+            return;
+
+        // as QueryAttributesEJB.calculateStudyQueryAttributes
+        for (QueryRetrieveView qrView : qrViews)
+            studyQueryAttrs.computeIfAbsent(qrView.getViewID(), viewID -> {
+                StudyQueryAttributesBuilder builder = new StudyQueryAttributesBuilder();
+                for (String seriesUID : seriesUIDs()) {
+                    SeriesQueryAttributes series = seriesQueryAttrs(qrView)
+                            .computeIfAbsent(seriesUID, x -> calculateSeriesQueryAttributes(seriesUID, qrView));
+                    builder.addSeries(modalityOf(seriesUID), series.getNumberOfInstances(),
+                            series.getSOPClassesInSeries(), series.getRetrieveAETs(), series.getAvailability());
+                }
+                StudyQueryAttributes queryAttrs = builder.build();
+                queryAttrs.setViewID(viewID);
+                return queryAttrs;
+            });
+    }
+
+    private void check(String msg) {
+        for (QueryRetrieveView qrView : qrViews) {
+            for (Map.Entry<String, SeriesQueryAttributes> entry : seriesQueryAttrs(qrView).entrySet()) {
+                SeriesQueryAttributes expected = calculateSeriesQueryAttributes(entry.getKey(), qrView);
+                SeriesQueryAttributes actual = entry.getValue();
+                String msg1 = msg + ", view=" + qrView.getViewID() + ", series=" + entry.getKey();
+                assertEquals(msg1, expected.getNumberOfInstances(), actual.getNumberOfInstances());
+                if (expected.getNumberOfInstances() > 0) {
+                    assertEquals(msg1, set(expected.getSOPClassesInSeries()), set(actual.getSOPClassesInSeries()));
+                    assertEquals(msg1, set(expected.getRetrieveAETs()), set(actual.getRetrieveAETs()));
+                    assertEquals(msg1, expected.getAvailability(), actual.getAvailability());
+                }
+            }
+            StudyQueryAttributes actual = studyQueryAttrs.get(qrView.getViewID());
+            if (actual == null)
+                continue;
+
+            StudyQueryAttributesBuilder builder = new StudyQueryAttributesBuilder();
+            for (String seriesUID : seriesUIDs()) {
+                SeriesQueryAttributes series = calculateSeriesQueryAttributes(seriesUID, qrView);
+                builder.addSeries(modalityOf(seriesUID), series.getNumberOfInstances(),
+                        series.getSOPClassesInSeries(), series.getRetrieveAETs(), series.getAvailability());
+            }
+            StudyQueryAttributes expected = builder.build();
+            String msg1 = msg + ", view=" + qrView.getViewID();
+            assertEquals(msg1, expected.getNumberOfInstances(), actual.getNumberOfInstances());
+            if (expected.getNumberOfInstances() > 0) {
+                assertEquals(msg1, expected.getNumberOfSeries(), actual.getNumberOfSeries());
+                assertEquals(msg1, set(expected.getModalitiesInStudy()), set(actual.getModalitiesInStudy()));
+                assertEquals(msg1, set(expected.getSOPClassesInStudy()), set(actual.getSOPClassesInStudy()));
+                assertEquals(msg1, set(expected.getRetrieveAETs()), set(actual.getRetrieveAETs()));
+                assertEquals(msg1, expected.getAvailability(), actual.getAvailability());
+            }
+        }
+    }
+
+    private SeriesQueryAttributes calculateSeriesQueryAttributes(String seriesUID, QueryRetrieveView qrView) {
+        SeriesQueryAttributesBuilder builder = new SeriesQueryAttributesBuilder();
+        for (Inst inst : insts)
+            if (inst.seriesUID.equals(seriesUID) && inst.isShownBy(qrView))
+                builder.addInstance(inst.cuid, StringUtils.concat(inst.retrieveAETs, '\\'), inst.availability);
+        SeriesQueryAttributes queryAttrs = builder.build();
+        queryAttrs.setViewID(qrView.getViewID());
+        return queryAttrs;
+    }
+
+    private Map<String, SeriesQueryAttributes> seriesQueryAttrs(QueryRetrieveView qrView) {
+        return seriesQueryAttrs.computeIfAbsent(qrView.getViewID(), viewID -> new HashMap<>());
+    }
+
+    private QueryRetrieveView qrView(String viewID) {
+        for (QueryRetrieveView qrView : qrViews)
+            if (qrView.getViewID().equals(viewID))
+                return qrView;
+        throw new IllegalArgumentException(viewID);
+    }
+
+    private Set<String> seriesUIDs() {
+        Set<String> seriesUIDs = new LinkedHashSet<>();
+        for (Inst inst : insts)
+            seriesUIDs.add(inst.seriesUID);
+        return seriesUIDs;
+    }
+
+    private static String modalityOf(String seriesUID) {
+        return MODALITIES[seriesUID.charAt(seriesUID.length() - 1) - '0'];
+    }
+
+    private static Set<String> set(String s) {
+        return s == null || s.isEmpty()
+                ? Collections.emptySet()
+                : new HashSet<>(Arrays.asList(StringUtils.split(s, '\\')));
+    }
+
+    private static QueryRetrieveView view(String viewID, boolean hideNotRejectedInstances,
+            Code[] showInstancesRejectedByCodes, Code[] hideRejectionNotesWithCodes) {
+        QueryRetrieveView qrView = new QueryRetrieveView();
+        qrView.setViewID(viewID);
+        qrView.setHideNotRejectedInstances(hideNotRejectedInstances);
+        qrView.setShowInstancesRejectedByCodes(showInstancesRejectedByCodes);
+        qrView.setHideRejectionNotesWithCodes(hideRejectionNotesWithCodes);
+        return qrView;
+    }
+
+    private static class Inst {
+        final String seriesUID;
+        final String modality;
+        final String cuid;
+        final String[] retrieveAETs;
+        final Availability availability;
+        Code rejectionNoteCode;
+
+        Inst(String seriesUID, String modality, String cuid, String[] retrieveAETs, Availability availability,
+             Code rejectionNoteCode) {
+            this.seriesUID = seriesUID;
+            this.modality = modality;
+            this.cuid = cuid;
+            this.retrieveAETs = retrieveAETs;
+            this.availability = availability;
+            this.rejectionNoteCode = rejectionNoteCode;
+        }
+
+        boolean isShownBy(QueryRetrieveView qrView) {
+            return qrView.showInstance(rejectionNoteCode, null);
+        }
+    }
+}
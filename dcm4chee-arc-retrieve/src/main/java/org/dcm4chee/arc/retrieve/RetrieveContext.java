@@ -60,6 +60,8 @@ import java.io.Closeable;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ScheduledFuture;
 
 /**
@@ -246,6 +248,12 @@ public interface RetrieveContext extends Closeable {
 
     boolean isConsiderPurgedInstances();
 
+    boolean isStreamMatches();
+
+    void setStreamMatches(boolean streamMatches);
+
+    Map<String, Set<String>> getTransferSyntaxesBySOPClass();
+
     boolean isRetrieveMetadata();
 
     HttpServletRequestInfo getHttpServletRequestInfo();
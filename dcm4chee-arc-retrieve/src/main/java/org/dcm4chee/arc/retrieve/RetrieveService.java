@@ -52,6 +52,7 @@ import org.dcm4che3.net.service.DicomServiceException;
 import org.dcm4che3.net.service.QueryRetrieveLevel2;
 import org.dcm4chee.arc.conf.ArchiveAEExtension;
 import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
+import org.dcm4chee.arc.entity.Metadata;
 import org.dcm4chee.arc.entity.Series;
 import org.dcm4chee.arc.qmgt.HttpServletRequestInfo;
 import org.dcm4chee.arc.storage.Storage;
@@ -64,6 +65,7 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.Date;
 import java.util.Map;
+import java.util.function.Predicate;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -109,6 +111,8 @@ public interface RetrieveService {
 
     boolean calculateMatches(RetrieveContext ctx) throws DicomServiceException;
 
+    void streamMatches(RetrieveContext ctx, Predicate<InstanceLocations> action);
+
     Collection<InstanceLocations> queryInstances(
             StoreSession session, Attributes instanceRefs, String targetStudyIUID)
             throws IOException;
@@ -131,6 +135,8 @@ public interface RetrieveService {
 
     Map<String,Collection<InstanceLocations>> removeNotAccessableMatches(RetrieveContext ctx);
 
+    Map<String,Metadata> findSeriesMetadata(RetrieveContext ctx);
+
     AttributesCoercion getAttributesCoercion(RetrieveContext ctx, InstanceLocations inst);
 
     void waitForPendingCStoreForward(RetrieveContext ctx);
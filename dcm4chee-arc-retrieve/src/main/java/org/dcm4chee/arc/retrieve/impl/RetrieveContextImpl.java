@@ -40,6 +40,7 @@
 
 package org.dcm4chee.arc.retrieve.impl;
 
+import org.dcm4che3.data.Attributes;
 import org.dcm4che3.data.IDWithIssuer;
 import org.dcm4che3.net.ApplicationEntity;
 import org.dcm4che3.net.Association;
@@ -113,6 +114,9 @@ class RetrieveContextImpl implements RetrieveContext {
     private HttpServletRequestInfo httpServletRequestInfo;
     private CopyToRetrieveCacheTask copyToRetrieveCacheTask;
     private final List<UpdateLocation> updateLocations = new ArrayList<>();
+    private boolean streamMatches;
+    private final Map<String, Set<String>> transferSyntaxesBySOPClass = new HashMap<>();
+    final Map<Long, Attributes> streamedSeriesAttrs = new HashMap<>();
 
     RetrieveContextImpl(RetrieveService retrieveService, ArchiveAEExtension arcAE, String localAETitle,
                         QueryRetrieveView qrView) {
@@ -601,6 +605,21 @@ class RetrieveContextImpl implements RetrieveContext {
                 && (qrLevel != QueryRetrieveLevel2.IMAGE || seriesInstanceUIDs.length != 0);
     }
 
+    @Override
+    public boolean isStreamMatches() {
+        return streamMatches;
+    }
+
+    @Override
+    public void setStreamMatches(boolean streamMatches) {
+        this.streamMatches = streamMatches;
+    }
+
+    @Override
+    public Map<String, Set<String>> getTransferSyntaxesBySOPClass() {
+        return transferSyntaxesBySOPClass;
+    }
+
     @Override
     public boolean isRetrieveMetadata() {
         return objectType == null;
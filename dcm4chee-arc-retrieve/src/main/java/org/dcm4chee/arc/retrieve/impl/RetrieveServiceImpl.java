@@ -40,6 +40,7 @@
 
 package org.dcm4chee.arc.retrieve.impl;
 
+import com.mysema.commons.lang.CloseableIterator;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Expression;
@@ -78,6 +79,7 @@ import org.dcm4chee.arc.store.StoreSession;
 import org.dcm4chee.arc.store.UpdateLocation;
 import org.hibernate.Session;
 import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
 import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -137,6 +139,7 @@ public class RetrieveServiceImpl implements RetrieveService {
     };
 
     static final Expression<?>[] PATIENT_STUDY_SERIES_ATTRS = {
+            QPatient.patient.pk,
             QPatient.patient.updatedTime,
             QStudy.study.pk,
             QStudy.study.studyInstanceUID,
@@ -146,6 +149,7 @@ public class RetrieveServiceImpl implements RetrieveService {
             QStudy.study.modifiedTime,
             QStudy.study.expirationDate,
             QStudy.study.accessControlID,
+            QSeries.series.pk,
             QSeries.series.seriesInstanceUID,
             QSeries.series.failedRetrieves,
             QSeries.series.completeness,
@@ -218,6 +222,7 @@ public class RetrieveServiceImpl implements RetrieveService {
         RetrieveContext ctx = newRetrieveContext(arcAE, as, qrLevel, keys);
         ctx.setPriority(rqCmd.getInt(Tag.Priority, 0));
         ctx.setDestinationAETitle(as.getRemoteAET());
+        ctx.setStreamMatches(arcAE.streamRetrieveMatches());
         return ctx;
     }
 
@@ -231,6 +236,9 @@ public class RetrieveServiceImpl implements RetrieveService {
         ctx.setMoveOriginatorMessageID(rqCmd.getInt(Tag.MessageID, 0));
         ctx.setMoveOriginatorAETitle(as.getRemoteAET());
         ctx.setDestinationAE(aeCache.findApplicationEntity(ctx.getDestinationAETitle()));
+        ctx.setStreamMatches(arcAE.streamRetrieveMatches()
+                && arcAE.fallbackCMoveSCP() == null
+                && arcAE.alternativeCMoveSCP() == null);
         return ctx;
     }
 
@@ -383,37 +391,31 @@ public class RetrieveServiceImpl implements RetrieveService {
         matches.clear();
         try {
             HashMap<Long,InstanceLocations> instMap = new HashMap<>();
-            HashMap<Long,Attributes> seriesAttrsMap = new HashMap<>();
             HashMap<Long,StudyInfo> studyInfoMap = new HashMap<>();
             Series.MetadataUpdate metadataUpdate = ctx.getSeriesMetadataUpdate();
             if (metadataUpdate != null && metadataUpdate.instancePurgeState == Series.InstancePurgeState.PURGED) {
-                SeriesAttributes seriesAttributes = getSeriesAttributes(session, metadataUpdate.seriesPk);
+                SeriesAttributes seriesAttributes = getSeriesAttributes(session,
+                        Collections.singleton(metadataUpdate.seriesPk)).get(metadataUpdate.seriesPk);
                 studyInfoMap.put(seriesAttributes.studyInfo.getStudyPk(), seriesAttributes.studyInfo);
                 ctx.getSeriesInfos().add(seriesAttributes.seriesInfo);
                 addLocationsFromMetadata(ctx,
                         metadataUpdate.storageID,
                         metadataUpdate.storagePath,
                         seriesAttributes.attrs);
+            } else if (ctx.isStreamMatches()) {
+                calculateStreamedMatches((RetrieveContextImpl) ctx, session, studyInfoMap);
             } else {
+                LinkedHashMap<Long,List<Attributes>> instAttrsBySeriesPk = new LinkedHashMap<>();
                 HibernateQuery<Tuple> query = createQuery(ctx, session);
                 for (Predicate predicate : createPredicates(ctx)) {
                     for (Tuple tuple : query.where(predicate).fetch()) {
                         Long instPk = tuple.get(QInstance.instance.pk);
                         InstanceLocations match = instMap.get(instPk);
                         if (match == null) {
-                            Long seriesPk = tuple.get(QSeries.series.pk);
-                            Attributes seriesAttrs = seriesAttrsMap.get(seriesPk);
-                            if (seriesAttrs == null) {
-                                SeriesAttributes seriesAttributes = getSeriesAttributes(session, seriesPk);
-                                studyInfoMap.put(seriesAttributes.studyInfo.getStudyPk(), seriesAttributes.studyInfo);
-                                ctx.getSeriesInfos().add(seriesAttributes.seriesInfo);
-                                ctx.setPatientUpdatedTime(seriesAttributes.patientUpdatedTime);
-                                seriesAttrsMap.put(seriesPk, seriesAttrs = seriesAttributes.attrs);
-                            }
                             Attributes instAttrs = AttributesBlob.decodeAttributes(
                                     tuple.get(QueryBuilder.instanceAttributesBlob.encodedAttributes), null);
-                            Attributes.unifyCharacterSets(seriesAttrs, instAttrs);
-                            instAttrs.addAll(seriesAttrs, true);
+                            instAttrsBySeriesPk.computeIfAbsent(tuple.get(QSeries.series.pk), k -> new ArrayList<>())
+                                    .add(instAttrs);
                             match = instanceLocationsFromDB(tuple, instAttrs);
                             matches.add(match);
                             instMap.put(instPk, match);
@@ -421,24 +423,37 @@ public class RetrieveServiceImpl implements RetrieveService {
                         addLocation(match, tuple);
                     }
                 }
-                if (ctx.isConsiderPurgedInstances()) {
-                    for (Tuple tuple : queryMetadataStoragePath(ctx, session).fetch()) {
-                        Long seriesPk = tuple.get(QSeries.series.pk);
-                        SeriesAttributes seriesAttributes = getSeriesAttributes(session, seriesPk);
-                        studyInfoMap.put(seriesAttributes.studyInfo.getStudyPk(), seriesAttributes.studyInfo);
-                        ctx.getSeriesInfos().add(seriesAttributes.seriesInfo);
-                        ctx.setPatientUpdatedTime(seriesAttributes.patientUpdatedTime);
-                        addLocationsFromMetadata(ctx,
-                                tuple.get(QMetadata.metadata.storageID),
-                                tuple.get(QMetadata.metadata.storagePath),
-                                seriesAttributes.attrs);
+                List<Tuple> purgedSeries = ctx.isConsiderPurgedInstances()
+                        ? queryMetadataStoragePath(ctx, session).fetch()
+                        : Collections.emptyList();
+                Set<Long> seriesPks = new LinkedHashSet<>(instAttrsBySeriesPk.keySet());
+                for (Tuple tuple : purgedSeries)
+                    seriesPks.add(tuple.get(QSeries.series.pk));
+                Map<Long,SeriesAttributes> seriesAttrsMap = getSeriesAttributes(session, seriesPks);
+                for (SeriesAttributes seriesAttributes : seriesAttrsMap.values()) {
+                    studyInfoMap.put(seriesAttributes.studyInfo.getStudyPk(), seriesAttributes.studyInfo);
+                    ctx.getSeriesInfos().add(seriesAttributes.seriesInfo);
+                    ctx.setPatientUpdatedTime(seriesAttributes.patientUpdatedTime);
+                }
+                for (Map.Entry<Long,List<Attributes>> entry : instAttrsBySeriesPk.entrySet()) {
+                    Attributes seriesAttrs = seriesAttrsMap.get(entry.getKey()).attrs;
+                    for (Attributes instAttrs : entry.getValue()) {
+                        Attributes.unifyCharacterSets(seriesAttrs, instAttrs);
+                        instAttrs.addAll(seriesAttrs, true);
                     }
                 }
+                for (Tuple tuple : purgedSeries) {
+                    addLocationsFromMetadata(ctx,
+                            tuple.get(QMetadata.metadata.storageID),
+                            tuple.get(QMetadata.metadata.storagePath),
+                            seriesAttrsMap.get(tuple.get(QSeries.series.pk)).attrs);
+                }
             }
-            ctx.setNumberOfMatches(matches.size());
+            if (!ctx.isStreamMatches())
+                ctx.setNumberOfMatches(matches.size());
             ctx.getStudyInfos().addAll(studyInfoMap.values());
             updateStudyAccessTime(ctx);
-            return !matches.isEmpty();
+            return ctx.getNumberOfMatches() > 0;
         } catch (IOException e) {
             throw new DicomServiceException(Status.UnableToCalculateNumberOfMatches, e);
         } finally {
@@ -446,6 +461,113 @@ public class RetrieveServiceImpl implements RetrieveService {
         }
     }
 
+    private void calculateStreamedMatches(RetrieveContextImpl ctx, StatelessSession session,
+            Map<Long,StudyInfo> studyInfoMap) throws IOException {
+        long numberOfInstances = 0L;
+        Set<Long> seriesPks = new LinkedHashSet<>();
+        Map<String, Set<String>> tsuidsByCUID = ctx.getTransferSyntaxesBySOPClass();
+        for (Predicate predicate : createPredicates(ctx)) {
+            numberOfInstances += joinTables(ctx,
+                    new HibernateQuery<Void>(session).select(QInstance.instance.pk.countDistinct()))
+                    .where(predicate)
+                    .fetchOne();
+            for (Tuple tuple : joinTables(ctx, new HibernateQuery<Void>(session)
+                    .select(QSeries.series.pk, QInstance.instance.sopClassUID, QLocation.location.transferSyntaxUID)
+                    .distinct())
+                    .where(predicate)
+                    .fetch()) {
+                seriesPks.add(tuple.get(QSeries.series.pk));
+                Set<String> tsuids = tsuidsByCUID.computeIfAbsent(
+                        tuple.get(QInstance.instance.sopClassUID), cuid -> new HashSet<>());
+                String tsuid = tuple.get(QLocation.location.transferSyntaxUID);
+                if (tsuid != null)
+                    tsuids.add(tsuid);
+            }
+        }
+        List<Tuple> purgedSeries = ctx.isConsiderPurgedInstances()
+                ? queryMetadataStoragePath(ctx, session).fetch()
+                : Collections.emptyList();
+        for (Tuple tuple : purgedSeries)
+            seriesPks.add(tuple.get(QSeries.series.pk));
+        Map<Long,SeriesAttributes> seriesAttrsMap = getSeriesAttributes(session, seriesPks);
+        for (Map.Entry<Long,SeriesAttributes> entry : seriesAttrsMap.entrySet()) {
+            SeriesAttributes seriesAttributes = entry.getValue();
+            studyInfoMap.put(seriesAttributes.studyInfo.getStudyPk(), seriesAttributes.studyInfo);
+            ctx.getSeriesInfos().add(seriesAttributes.seriesInfo);
+            ctx.setPatientUpdatedTime(seriesAttributes.patientUpdatedTime);
+            ctx.streamedSeriesAttrs.put(entry.getKey(), seriesAttributes.attrs);
+        }
+        for (Tuple tuple : purgedSeries) {
+            addLocationsFromMetadata(ctx,
+                    tuple.get(QMetadata.metadata.storageID),
+                    tuple.get(QMetadata.metadata.storagePath),
+                    seriesAttrsMap.get(tuple.get(QSeries.series.pk)).attrs);
+        }
+        for (InstanceLocations match : ctx.getMatches()) {
+            tsuidsByCUID.computeIfAbsent(match.getSopClassUID(), cuid -> new HashSet<>())
+                    .addAll(match.getLocations().stream()
+                            .map(Location::getTransferSyntaxUID)
+                            .collect(Collectors.toList()));
+        }
+        ctx.setNumberOfMatches((int) numberOfInstances + ctx.getMatches().size());
+        LOG.debug("Calculated {} matches of {} series - fetch instance records incrementally",
+                ctx.getNumberOfMatches(), seriesPks.size());
+    }
+
+    @Override
+    public void streamMatches(RetrieveContext ctx, java.util.function.Predicate<InstanceLocations> action) {
+        Map<Long,Attributes> seriesAttrsMap = ((RetrieveContextImpl) ctx).streamedSeriesAttrs;
+        int fetchSize = getArchiveDeviceExtension().getQueryFetchSize();
+        for (Predicate predicate : createPredicates(ctx)) {
+            StatelessSession session = openStatelessSession();
+            Transaction transaction = null;
+            CloseableIterator<Tuple> iterate = null;
+            try {
+                HibernateQuery<Tuple> query = createQuery(ctx, session)
+                        .where(predicate)
+                        .orderBy(QInstance.instance.pk.asc());
+                query.setFetchSize(fetchSize);
+                transaction = session.beginTransaction();
+                iterate = query.iterate();
+                InstanceLocations match = null;
+                while (iterate.hasNext()) {
+                    Tuple tuple = iterate.next();
+                    Long instPk = tuple.get(QInstance.instance.pk);
+                    if (match == null || !instPk.equals(match.getInstancePk())) {
+                        if (match != null && !action.test(match))
+                            return;
+
+                        Attributes instAttrs = AttributesBlob.decodeAttributes(
+                                tuple.get(QueryBuilder.instanceAttributesBlob.encodedAttributes), null);
+                        Long seriesPk = tuple.get(QSeries.series.pk);
+                        Attributes seriesAttrs = seriesAttrsMap.get(seriesPk);
+                        if (seriesAttrs == null) {
+                            seriesAttrs = getSeriesAttributes(session, Collections.singleton(seriesPk))
+                                    .get(seriesPk).attrs;
+                            seriesAttrsMap.put(seriesPk, seriesAttrs);
+                        }
+                        Attributes.unifyCharacterSets(seriesAttrs, instAttrs);
+                        instAttrs.addAll(seriesAttrs, true);
+                        match = instanceLocationsFromDB(tuple, instAttrs);
+                    }
+                    addLocation(match, tuple);
+                }
+                if (match != null && !action.test(match))
+                    return;
+            } finally {
+                SafeClose.close(iterate);
+                if (transaction != null) {
+                    try {
+                        transaction.commit();
+                    } catch (Exception e) {
+                        LOG.warn("Failed to commit transaction:\n{}", e);
+                    }
+                }
+                session.close();
+            }
+        }
+    }
+
     @Override
     public Collection<InstanceLocations> queryInstances(
             StoreSession session, Attributes instanceRefs, String targetStudyIUID)
@@ -654,51 +776,77 @@ public class RetrieveServiceImpl implements RetrieveService {
 
     }
 
-    private SeriesAttributes getSeriesAttributes(StatelessSession session, Long seriesPk) {
-        Tuple tuple = new HibernateQuery<Void>(session).select(PATIENT_STUDY_SERIES_ATTRS)
-                .from(QSeries.series)
-                .join(QSeries.series.attributesBlob, QueryBuilder.seriesAttributesBlob)
-                .join(QSeries.series.study, QStudy.study)
-                .join(QStudy.study.attributesBlob, QueryBuilder.studyAttributesBlob)
-                .join(QStudy.study.patient, QPatient.patient)
-                .join(QPatient.patient.attributesBlob, QueryBuilder.patientAttributesBlob)
-                .where(QSeries.series.pk.eq(seriesPk))
-                .fetchOne();
-        StudyInfo studyInfo = new StudyInfoImpl(
-                tuple.get(QStudy.study.pk),
-                tuple.get(QStudy.study.studyInstanceUID),
-                tuple.get(QStudy.study.accessTime),
-                tuple.get(QStudy.study.failedRetrieves),
-                tuple.get(QStudy.study.completeness),
-                tuple.get(QStudy.study.modifiedTime),
-                tuple.get(QStudy.study.expirationDate),
-                tuple.get(QStudy.study.accessControlID));
-        SeriesInfo seriesInfo = new SeriesInfoImpl(
-                studyInfo.getStudyInstanceUID(),
-                tuple.get(QSeries.series.seriesInstanceUID),
-                tuple.get(QSeries.series.failedRetrieves),
-                tuple.get(QSeries.series.completeness),
-                tuple.get(QSeries.series.updatedTime),
-                tuple.get(QSeries.series.expirationDate),
-                tuple.get(QSeries.series.sourceAET));
-        Date patientUpdatedTime = tuple.get(QPatient.patient.updatedTime);
-        Attributes patAttrs = AttributesBlob.decodeAttributes(
-                tuple.get(QueryBuilder.patientAttributesBlob.encodedAttributes), null);
-        Attributes studyAttrs = AttributesBlob.decodeAttributes(
-                tuple.get(QueryBuilder.studyAttributesBlob.encodedAttributes), null);
-        Attributes seriesAttrs = AttributesBlob.decodeAttributes(
-                tuple.get(QueryBuilder.seriesAttributesBlob.encodedAttributes), null);
-        Attributes.unifyCharacterSets(patAttrs, studyAttrs, seriesAttrs);
-        Attributes attrs = new Attributes(patAttrs.size() + studyAttrs.size() + seriesAttrs.size() + 5);
-        attrs.addAll(patAttrs);
-        attrs.addAll(studyAttrs, true);
-        attrs.addAll(seriesAttrs, true);
-        return new SeriesAttributes(attrs, studyInfo, seriesInfo, patientUpdatedTime);
-}
+    private Map<Long,SeriesAttributes> getSeriesAttributes(StatelessSession session, Collection<Long> seriesPks) {
+        Map<Long,SeriesAttributes> result = new HashMap<>();
+        if (seriesPks.isEmpty())
+            return result;
+
+        HashMap<Long,Attributes> patAttrsMap = new HashMap<>();
+        HashMap<Long,Attributes> studyAttrsMap = new HashMap<>();
+        HashMap<Long,StudyInfo> studyInfoMap = new HashMap<>();
+        int limit = getInExpressionCountLimit();
+        List<Long> pks = new ArrayList<>(seriesPks);
+        int chunkSize = limit > 0 ? Math.max(1, limit - 10) : pks.size();
+        int queries = 0;
+        for (int fromIndex = 0; fromIndex < pks.size(); fromIndex += chunkSize) {
+            List<Long> chunk = pks.subList(fromIndex, Math.min(fromIndex + chunkSize, pks.size()));
+            queries++;
+            for (Tuple tuple : new HibernateQuery<Void>(session).select(PATIENT_STUDY_SERIES_ATTRS)
+                    .from(QSeries.series)
+                    .join(QSeries.series.attributesBlob, QueryBuilder.seriesAttributesBlob)
+                    .join(QSeries.series.study, QStudy.study)
+                    .join(QStudy.study.attributesBlob, QueryBuilder.studyAttributesBlob)
+                    .join(QStudy.study.patient, QPatient.patient)
+                    .join(QPatient.patient.attributesBlob, QueryBuilder.patientAttributesBlob)
+                    .where(chunk.size() == 1 ? QSeries.series.pk.eq(chunk.get(0)) : QSeries.series.pk.in(chunk))
+                    .fetch()) {
+                Long studyPk = tuple.get(QStudy.study.pk);
+                StudyInfo studyInfo = studyInfoMap.computeIfAbsent(studyPk, pk -> new StudyInfoImpl(
+                        pk,
+                        tuple.get(QStudy.study.studyInstanceUID),
+                        tuple.get(QStudy.study.accessTime),
+                        tuple.get(QStudy.study.failedRetrieves),
+                        tuple.get(QStudy.study.completeness),
+                        tuple.get(QStudy.study.modifiedTime),
+                        tuple.get(QStudy.study.expirationDate),
+                        tuple.get(QStudy.study.accessControlID)));
+                SeriesInfo seriesInfo = new SeriesInfoImpl(
+                        studyInfo.getStudyInstanceUID(),
+                        tuple.get(QSeries.series.seriesInstanceUID),
+                        tuple.get(QSeries.series.failedRetrieves),
+                        tuple.get(QSeries.series.completeness),
+                        tuple.get(QSeries.series.updatedTime),
+                        tuple.get(QSeries.series.expirationDate),
+                        tuple.get(QSeries.series.sourceAET));
+                Date patientUpdatedTime = tuple.get(QPatient.patient.updatedTime);
+                Attributes patAttrs = patAttrsMap.computeIfAbsent(tuple.get(QPatient.patient.pk),
+                        pk -> AttributesBlob.decodeAttributes(
+                                tuple.get(QueryBuilder.patientAttributesBlob.encodedAttributes), null));
+                Attributes studyAttrs = studyAttrsMap.computeIfAbsent(studyPk,
+                        pk -> AttributesBlob.decodeAttributes(
+                                tuple.get(QueryBuilder.studyAttributesBlob.encodedAttributes), null));
+                Attributes seriesAttrs = AttributesBlob.decodeAttributes(
+                        tuple.get(QueryBuilder.seriesAttributesBlob.encodedAttributes), null);
+                Attributes.unifyCharacterSets(patAttrs, studyAttrs, seriesAttrs);
+                Attributes attrs = new Attributes(patAttrs.size() + studyAttrs.size() + seriesAttrs.size() + 5);
+                attrs.addAll(patAttrs);
+                attrs.addAll(studyAttrs, true);
+                attrs.addAll(seriesAttrs, true);
+                result.put(tuple.get(QSeries.series.pk),
+                        new SeriesAttributes(attrs, studyInfo, seriesInfo, patientUpdatedTime));
+            }
+        }
+        LOG.debug("Fetched attributes of {} series by {} queries - saved {} queries",
+                result.size(), queries, seriesPks.size() - queries);
+        return result;
+    }
 
     private HibernateQuery<Tuple> createQuery(RetrieveContext ctx, StatelessSession session) {
-        HibernateQuery<Tuple> query = new HibernateQuery<Void>(session).select(SELECT)
-                .from(QInstance.instance)
+        return joinTables(ctx, new HibernateQuery<Void>(session).select(SELECT));
+    }
+
+    private <T> HibernateQuery<T> joinTables(RetrieveContext ctx, HibernateQuery<T> query) {
+        query = query.from(QInstance.instance)
                 .join(QInstance.instance.attributesBlob, QueryBuilder.instanceAttributesBlob)
                 .join(QInstance.instance.series, QSeries.series)
                 .join(QSeries.series.study, QStudy.study)
@@ -766,6 +914,51 @@ public class RetrieveServiceImpl implements RetrieveService {
         return predicates;
     }
 
+    @Override
+    public Map<String, Metadata> findSeriesMetadata(RetrieveContext ctx) {
+        Set<String> seriesIUIDs = new HashSet<>();
+        Set<String> excluded = new HashSet<>();
+        ArchiveAEExtension aeExt = ctx.getArchiveAEExtension();
+        for (InstanceLocations match : ctx.getMatches()) {
+            String seriesIUID = match.getAttributes().getString(Tag.SeriesInstanceUID);
+            if (match.isContainsMetadata() || aeExt.findAttributeCoercion(
+                    ctx.getRequestorHostName(), ctx.getDestinationAETitle(), TransferCapability.Role.SCP,
+                    Dimse.C_STORE_RQ, match.getSopClassUID()) != null)
+                excluded.add(seriesIUID);
+            else
+                seriesIUIDs.add(seriesIUID);
+        }
+        seriesIUIDs.removeAll(excluded);
+        if (seriesIUIDs.isEmpty())
+            return Collections.emptyMap();
+
+        Map<String, Metadata> result = new HashMap<>();
+        StatelessSession session = openStatelessSession();
+        try {
+            for (Tuple tuple : new HibernateQuery<Void>(session)
+                    .select(QSeries.series.seriesInstanceUID, QMetadata.metadata.storageID, QMetadata.metadata.storagePath)
+                    .from(QSeries.series)
+                    .join(QSeries.series.metadata, QMetadata.metadata)
+                    .join(QSeries.series.study, QStudy.study)
+                    .where(QueryBuilder.uidsPredicate(QStudy.study.studyInstanceUID, ctx.getStudyInstanceUIDs()),
+                            QueryBuilder.uidsPredicate(QSeries.series.seriesInstanceUID,
+                                    seriesIUIDs.toArray(StringUtils.EMPTY_STRING)),
+                            QSeries.series.metadataScheduledUpdateTime.isNull(),
+                            QMetadata.metadata.status.eq(Metadata.Status.OK))
+                    .fetch()) {
+                Metadata metadata = new Metadata();
+                metadata.setStorageID(tuple.get(QMetadata.metadata.storageID));
+                metadata.setStoragePath(tuple.get(QMetadata.metadata.storagePath));
+                result.put(tuple.get(QSeries.series.seriesInstanceUID), metadata);
+            }
+        } finally {
+            session.close();
+        }
+        LOG.debug("Found current metadata of {} of {} matching series", result.size(),
+                seriesIUIDs.size() + excluded.size());
+        return result;
+    }
+
     private HibernateQuery<Tuple> queryMetadataStoragePath(RetrieveContext ctx, StatelessSession session) {
         HibernateQuery<Tuple> query = new HibernateQuery<Void>(session).select(METADATA_STORAGE_PATH)
                 .from(QSeries.series)
@@ -40,16 +40,23 @@
 
 package org.dcm4chee.arc;
 
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
+ * Thread-safe cache, partitioned into up to 16 segments with separate locks and LRU eviction. The maximal size is
+ * distributed over the segments, so the number of cached entries never exceeds it. Concurrent loads of the
+ * value for the same key by {@link #get(Object, Loader)} are performed only once.
+ *
  * @author Gunter Zeilinger <gunterze@gmail.com>
  * @since May 2016
  */
 public class Cache<K,V> {
 
+    private static final int SEGMENTS = 16;
+
     public static final class Entry<V> {
         final V value;
         final long fetchTime;
@@ -62,32 +69,34 @@ public class Cache<K,V> {
         }
     }
 
-    private int maxSize;
-    private long staleTimeout;
+    @FunctionalInterface
+    public interface Loader<K,V,E extends Exception> {
+        V load(K key) throws E;
+    }
 
-    private final LinkedHashMap<K,Entry<V>> cache = new LinkedHashMap<K,Entry<V>>(){
-        @Override
-        protected boolean removeEldestEntry(Map.Entry<K, Cache.Entry<V>> eldest) {
-            return maxSize > 0 && size() > maxSize;
-        }
-    };
+    private volatile int maxSize;
+    private volatile long staleTimeout;
+
+    private volatile Segment[] segments = newSegments(0);
+    private final ConcurrentHashMap<K,Loading<V>> loadings = new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
 
     public int getMaxSize() {
         return maxSize;
     }
 
-    public void setMaxSize(int maxSize) {
-        if (maxSize > 0) {
-            int remove = cache.size() - maxSize;
-            if (remove > 0) {
-                Iterator<Map.Entry<K, Entry<V>>> iter = cache.entrySet().iterator();
-                do {
-                    iter.next();
-                    iter.remove();
-                } while (--remove > 0);
-            }
-        }
+    public synchronized void setMaxSize(int maxSize) {
+        if (this.maxSize == maxSize)
+            return;
+
+        Segment[] prev = segments;
+        Segment[] next = newSegments(maxSize);
+        for (Segment segment : prev)
+            segment.moveTo(next);
         this.maxSize = maxSize;
+        this.segments = next;
     }
 
     public long getStaleTimeout() {
@@ -98,15 +107,25 @@ public class Cache<K,V> {
         this.staleTimeout = staleTimeout;
     }
 
-    public Entry<V> getEntry(K key) {
-        if (staleTimeout <= 0)
-            return cache.get(key);
+    public long getHitCount() {
+        return hitCount.sum();
+    }
 
-        long minFetchTime = System.currentTimeMillis() - staleTimeout;
-        for (Iterator<Entry<V>> iter = cache.values().iterator(); iter.hasNext(); iter.remove())
-            if (iter.next().fetchTime > minFetchTime)
-                return cache.get(key);
-        return null;
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public Entry<V> getEntry(K key) {
+        Entry<V> entry = segmentFor(key).getEntry(key);
+        if (entry != null)
+            hitCount.increment();
+        else
+            missCount.increment();
+        return entry;
     }
 
     public V get(K key) {
@@ -114,17 +133,139 @@ public class Cache<K,V> {
         return entry != null ? entry.value : null;
     }
 
+    public <E extends Exception> V get(K key, Loader<? super K, ? extends V, E> loader) throws E {
+        Entry<V> entry = getEntry(key);
+        if (entry != null)
+            return entry.value;
+
+        Loading<V> loading = new Loading<>();
+        Loading<V> other = loadings.putIfAbsent(key, loading);
+        if (other != null) {
+            if (other.await())
+                return other.value;
+
+            V value = loader.load(key);
+            put(key, value);
+            return value;
+        }
+        V value = null;
+        boolean loaded = false;
+        try {
+            entry = segmentFor(key).getEntry(key); // loaded by other thread after the previous lookup
+            if (entry != null) {
+                value = entry.value;
+                loaded = true;
+                return value;
+            }
+            value = loader.load(key);
+            put(key, value);
+            loaded = true;
+        } finally {
+            loadings.remove(key, loading);
+            loading.done(loaded, value);
+        }
+        return value;
+    }
+
     public V put(K key, V value) {
-        Entry<V> entry = cache.put(key, new Entry<V>(value, System.currentTimeMillis()));
+        Entry<V> entry = segmentFor(key).put(key, new Entry<>(value, System.currentTimeMillis()));
         return entry != null ? entry.value : null;
     }
 
     public V remove(K key) {
-        Entry<V> entry = cache.remove(key);
+        Entry<V> entry = segmentFor(key).remove(key);
         return entry != null ? entry.value : null;
     }
 
     public void clear() {
-        cache.clear();
+        for (Segment segment : segments)
+            segment.clear();
+    }
+
+    private Segment segmentFor(K key) {
+        return segmentFor(segments, key);
+    }
+
+    private Segment segmentFor(Segment[] segments, K key) {
+        int h = key.hashCode();
+        return segments[((h ^ (h >>> 16)) & Integer.MAX_VALUE) % segments.length];
+    }
+
+    private Segment[] newSegments(int maxSize) {
+        int n = maxSize > 0 ? Math.min(SEGMENTS, maxSize) : SEGMENTS;
+        @SuppressWarnings("unchecked")
+        Segment[] segments = (Segment[]) new Cache.Segment[n];
+        for (int i = 0; i < n; i++)
+            segments[i] = new Segment(maxSize > 0 ? maxSize / n + (i < maxSize % n ? 1 : 0) : 0);
+        return segments;
+    }
+
+    private final class Segment {
+        private final int maxSize;
+        private final LinkedHashMap<K,Entry<V>> map = new LinkedHashMap<K,Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (maxSize > 0 && size() > maxSize) {
+                    evictionCount.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        Segment(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        synchronized Entry<V> getEntry(K key) {
+            Entry<V> entry = map.get(key);
+            long timeout = staleTimeout;
+            if (entry != null && timeout > 0 && entry.fetchTime <= System.currentTimeMillis() - timeout) {
+                map.remove(key);
+                evictionCount.increment();
+                return null;
+            }
+            return entry;
+        }
+
+        synchronized Entry<V> put(K key, Entry<V> entry) {
+            return map.put(key, entry);
+        }
+
+        synchronized Entry<V> remove(K key) {
+            return map.remove(key);
+        }
+
+        synchronized void clear() {
+            map.clear();
+        }
+
+        synchronized void moveTo(Segment[] segments) {
+            for (Map.Entry<K,Entry<V>> e : map.entrySet())
+                segmentFor(segments, e.getKey()).put(e.getKey(), e.getValue());
+            map.clear();
+        }
+    }
+
+    private static final class Loading<V> {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile boolean loaded;
+        private volatile V value;
+
+        void done(boolean loaded, V value) {
+            this.value = value;
+            this.loaded = loaded;
+            latch.countDown();
+        }
+
+        boolean await() {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            return loaded;
+        }
     }
 }
@@ -0,0 +1,146 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class CacheTest {
+    private static final int THREADS = 16;
+
+    @Test
+    public void maxSizeNeverExceeded() {
+        for (int maxSize : new int[]{ 1, 5, 16, 17, 100 }) {
+            Cache<Integer,Integer> cache = new Cache<>();
+            cache.setMaxSize(maxSize);
+            for (int i = 0; i < 10 * maxSize; i++)
+                cache.put(i, i);
+            assertTrue("maxSize=" + maxSize, size(cache, 10 * maxSize) <= maxSize);
+        }
+    }
+
+    @Test
+    public void shrinkMaxSize() {
+        Cache<Integer,Integer> cache = new Cache<>();
+        for (int i = 0; i < 100; i++)
+            cache.put(i, i);
+        assertEquals(100, size(cache, 100));
+        cache.setMaxSize(3);
+        assertTrue(size(cache, 100) <= 3);
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        Cache<String,String> cache = new Cache<>();
+        cache.setMaxSize(1);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        assertNull(cache.get("a"));
+        assertEquals("B", cache.get("b"));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void removeStaleEntry() throws Exception {
+        Cache<String,String> cache = new Cache<>();
+        cache.setStaleTimeout(1);
+        cache.put("a", "A");
+        Thread.sleep(10);
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void loadOnceForConcurrentMisses() throws Exception {
+        Cache<String,String> cache = new Cache<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Cache.Loader<String,String,InterruptedException> loader = key -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            release.await();
+            return key.toUpperCase();
+        };
+        String[] values = new String[THREADS];
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int index = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    values[index] = cache.get("a", loader);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        loading.await();
+        while (cache.getMissCount() < THREADS)
+            Thread.sleep(1);
+        release.countDown();
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(1, loads.get());
+        for (String value : values)
+            assertEquals("A", value);
+        assertEquals("A", cache.get("a"));
+    }
+
+    private static int size(Cache<Integer,Integer> cache, int maxKey) {
+        int size = 0;
+        for (int i = 0; i < maxKey; i++)
+            if (cache.get(i) != null)
+                size++;
+        return size;
+    }
+}
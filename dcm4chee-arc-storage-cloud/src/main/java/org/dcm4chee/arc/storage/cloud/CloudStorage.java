@@ -53,15 +53,17 @@ import org.jclouds.blobstore.BlobStore;
 import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.PageSet;
+import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.domain.StorageType;
+import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.io.Payload;
 import org.jclouds.io.payloads.InputStreamPayload;
 import org.jclouds.logging.slf4j.config.SLF4JLoggingModule;
 
 import java.io.*;
 import java.nio.file.NoSuchFileException;
-import java.util.Collections;
-import java.util.Map;
-import java.util.Properties;
+import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
@@ -92,7 +94,13 @@ public class CloudStorage extends AbstractStorage {
     private final BlobStoreContext context;
     private final boolean streamingUpload;
     private final long maxPartSize;
-    private int count;
+    private final int uploadMaxParallelism;
+    private final int downloadMaxParallelism;
+    private final PartBufferPool uploadBufferPool;
+    private final PartBufferPool downloadBufferPool;
+    private final boolean appendUniqueSuffix;
+    private final boolean checkBlobExists;
+    private volatile boolean containerInitialized;
 
     @Override
     public WriteContext createWriteContext() {
@@ -102,9 +110,13 @@ public class CloudStorage extends AbstractStorage {
     protected CloudStorage(StorageDescriptor descriptor, Device device) {
         super(descriptor);
         this.device = device;
-        pathFormat = new AttributesFormat(descriptor.getProperty("pathFormat", DEFAULT_PATH_FORMAT));
+        String pathFormatStr = descriptor.getProperty("pathFormat", DEFAULT_PATH_FORMAT);
+        pathFormat = new AttributesFormat(pathFormatStr);
         container = descriptor.getProperty("container", DEFAULT_CONTAINER);
-        if (Boolean.parseBoolean(descriptor.getProperty("containerExists", null))) count++;
+        containerInitialized = Boolean.parseBoolean(descriptor.getProperty("containerExists", null));
+        boolean uniqueStoragePath = Boolean.parseBoolean(descriptor.getProperty("uniqueStoragePath", null));
+        checkBlobExists = !uniqueStoragePath;
+        appendUniqueSuffix = uniqueStoragePath && !pathFormatStr.contains("{rnd");
         String api = descriptor.getStorageURI().getSchemeSpecificPart();
         String endpoint = null;
         int endApi = api.indexOf(':');
@@ -114,6 +126,16 @@ public class CloudStorage extends AbstractStorage {
         }
         this.streamingUpload = Boolean.parseBoolean(descriptor.getProperty("streamingUpload", null));
         this.maxPartSize = BinaryPrefix.parse(descriptor.getProperty("maxPartSize", "5G"));
+        this.uploadMaxParallelism = Integer.parseInt(descriptor.getProperty("uploadMaxParallelism", "1"));
+        this.downloadMaxParallelism = Integer.parseInt(descriptor.getProperty("downloadMaxParallelism", "1"));
+        this.uploadBufferPool = uploadMaxParallelism > 1
+                ? new PartBufferPool(BinaryPrefix.parse(descriptor.getProperty("uploadPartSize", "8Mi")),
+                    uploadMaxParallelism + 1)
+                : null;
+        this.downloadBufferPool = downloadMaxParallelism > 1
+                ? new PartBufferPool(BinaryPrefix.parse(descriptor.getProperty("downloadPartSize", "8Mi")),
+                    downloadMaxParallelism + 1)
+                : null;
         ContextBuilder ctxBuilder = ContextBuilder.newBuilder(api);
         String identity = descriptor.getProperty("identity", null);
         if (identity != null)
@@ -129,6 +151,14 @@ public class CloudStorage extends AbstractStorage {
         ctxBuilder.overrides(overrides);
         ctxBuilder.modules(Collections.singleton(new SLF4JLoggingModule()));
         context = ctxBuilder.buildView(BlobStoreContext.class);
+        if (uploadBufferPool != null) {
+            long minPartSize = context.getBlobStore().getMinimumMultipartPartSize();
+            if (uploadBufferPool.getBufferSize() < minPartSize) {
+                context.close();
+                throw new IllegalArgumentException("uploadPartSize: " + uploadBufferPool.getBufferSize()
+                        + " is less than the minimum multipart part size: " + minPartSize);
+            }
+        }
     }
 
     @Override
@@ -183,20 +213,41 @@ public class CloudStorage extends AbstractStorage {
     private void upload(InputStream in, WriteContext ctx) throws IOException {
         BlobStore blobStore = context.getBlobStore();
         String storagePath = pathFormat.format(ctx.getAttributes());
-        if (count++ == 0 && !blobStore.containerExists(container))
-            blobStore.createContainerInLocation(null, container);
-        else {
-            while (blobStore.blobExists(container, storagePath))
+        boolean created = initContainer(blobStore);
+        if (appendUniqueSuffix)
+            storagePath = storagePath.concat(String.format("-%016X", ThreadLocalRandom.current().nextLong()));
+        if (checkBlobExists && !created) {
+            while (blobExists(blobStore, storagePath))
                 storagePath = storagePath.substring(0, storagePath.lastIndexOf('/') + 1)
                         .concat(String.format("%08X", ThreadLocalRandom.current().nextInt()));
         }
         long length = ctx.getContentLength();
-        Uploader uploader = streamingUpload || length >= 0 && length <= maxPartSize
-                ? STREAMING_UPLOADER : new S3Uploader();
+        Uploader uploader = streamingUpload
+                ? STREAMING_UPLOADER
+                : uploadBufferPool != null && (length < 0 || length > uploadBufferPool.getBufferSize())
+                ? new ParallelUploader(device, uploadBufferPool, uploadMaxParallelism)
+                : length >= 0 && length <= maxPartSize
+                ? STREAMING_UPLOADER
+                : new S3Uploader();
         uploader.upload(context, in, length, blobStore, container, storagePath);
         ctx.setStoragePath(storagePath);
     }
 
+    private boolean initContainer(BlobStore blobStore) {
+        if (containerInitialized)
+            return false;
+
+        synchronized (this) {
+            if (containerInitialized)
+                return false;
+
+            boolean created = !blobStore.containerExists(container)
+                    && blobStore.createContainerInLocation(null, container);
+            containerInitialized = true;
+            return created;
+        }
+    }
+
     private boolean isSynchronizeUpload() {
         return "true".equals(descriptor.getProperty("synchronizeUpload", "false"));
     }
@@ -204,6 +255,16 @@ public class CloudStorage extends AbstractStorage {
     @Override
     protected InputStream openInputStreamA(ReadContext ctx) throws IOException {
         BlobStore blobStore = context.getBlobStore();
+        if (downloadBufferPool != null) {
+            BlobMetadata blobMetadata = blobStore.blobMetadata(container, ctx.getStoragePath());
+            if (blobMetadata == null)
+                throw objectNotFound(ctx.getStoragePath());
+
+            Long length = blobMetadata.getContentMetadata().getContentLength();
+            if (length != null && length > downloadBufferPool.getBufferSize())
+                return new ParallelDownloadInputStream(device, blobStore, container, ctx.getStoragePath(),
+                        length, downloadBufferPool, downloadMaxParallelism);
+        }
         Blob blob = blobStore.getBlob(container, ctx.getStoragePath());
         if (blob == null)
             throw objectNotFound(ctx.getStoragePath());
@@ -212,8 +273,11 @@ public class CloudStorage extends AbstractStorage {
 
     @Override
     public boolean exists(ReadContext ctx) {
-        BlobStore blobStore = context.getBlobStore();
-        return blobStore.blobExists(container, ctx.getStoragePath());
+        return blobExists(context.getBlobStore(), ctx.getStoragePath());
+    }
+
+    boolean blobExists(BlobStore blobStore, String storagePath) {
+        return blobStore.blobExists(container, storagePath);
     }
 
     @Override
@@ -245,6 +309,53 @@ public class CloudStorage extends AbstractStorage {
         blobStore.removeBlob(container, storagePath);
     }
 
+    /**
+     * Deletes objects by one request for multiple blobs. Because that request ignores not existing blobs and does
+     * not report blobs which failed to be deleted, the directories containing the objects are listed before and
+     * after the request, so only existing objects are deleted and only actually deleted objects are returned.
+     */
+    @Override
+    public Collection<String> deleteObjects(Collection<String> storagePaths) throws IOException {
+        BlobStore blobStore = context.getBlobStore();
+        List<String> deleted = new ArrayList<>(storagePaths);
+        deleted.retainAll(existingBlobs(blobStore, storagePaths));
+        if (!deleted.isEmpty()) {
+            removeBlobs(blobStore, deleted);
+            deleted.removeAll(existingBlobs(blobStore, deleted));
+        }
+        return deleted;
+    }
+
+    void removeBlobs(BlobStore blobStore, Collection<String> storagePaths) {
+        blobStore.removeBlobs(container, storagePaths);
+    }
+
+    private Set<String> existingBlobs(BlobStore blobStore, Collection<String> storagePaths) {
+        Set<String> existing = new HashSet<>();
+        Set<String> directories = new HashSet<>();
+        for (String storagePath : storagePaths) {
+            int endDir = storagePath.lastIndexOf('/');
+            if (endDir > 0)
+                directories.add(storagePath.substring(0, endDir + 1));
+            else if (blobStore.blobExists(container, storagePath))
+                existing.add(storagePath);
+        }
+        for (String directory : directories) {
+            String marker = null;
+            do {
+                ListContainerOptions options = ListContainerOptions.Builder.prefix(directory).recursive();
+                if (marker != null)
+                    options.afterMarker(marker);
+                PageSet<? extends StorageMetadata> page = blobStore.list(container, options);
+                for (StorageMetadata metadata : page)
+                    if (metadata.getType() == StorageType.BLOB)
+                        existing.add(metadata.getName());
+                marker = page.getNextMarker();
+            } while (marker != null);
+        }
+        return existing;
+    }
+
     private IOException objectNotFound(String storagePath) {
         return new NoSuchFileException("No Object[" + storagePath
                 + "] in Container[" + container
@@ -0,0 +1,192 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.storage.cloud;
+
+import org.dcm4che3.net.Device;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.options.GetOptions;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Reads a blob by byte-range GETs, keeping up to {@code readAhead} parts in flight.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class ParallelDownloadInputStream extends InputStream {
+
+    private final Device device;
+    private final BlobStore blobStore;
+    private final String container;
+    private final String storagePath;
+    private final long length;
+    private final PartBufferPool bufferPool;
+    private final ArrayDeque<FutureTask<byte[]>> parts = new ArrayDeque<>();
+    private long requested;
+    private long position;
+    private byte[] buf;
+    private int pos;
+    private int count;
+    private boolean closed;
+
+    ParallelDownloadInputStream(Device device, BlobStore blobStore, String container, String storagePath,
+                                long length, PartBufferPool bufferPool, int readAhead) {
+        this.device = device;
+        this.blobStore = blobStore;
+        this.container = container;
+        this.storagePath = storagePath;
+        this.length = length;
+        this.bufferPool = bufferPool;
+        for (int i = 0; i < readAhead && requested < length; i++)
+            requestNextPart();
+    }
+
+    private void requestNextPart() {
+        long offset = requested;
+        int len = (int) Math.min(bufferPool.getBufferSize(), length - offset);
+        requested += len;
+        FutureTask<byte[]> task = new FutureTask<>(() -> download(offset, len));
+        parts.add(task);
+        device.execute(task);
+    }
+
+    private byte[] download(long offset, int len) throws IOException {
+        Blob blob = blobStore.getBlob(container, storagePath, GetOptions.Builder.range(offset, offset + len - 1));
+        if (blob == null)
+            throw new NoSuchFileException(storagePath);
+
+        byte[] b = bufferPool.acquire();
+        try (InputStream in = blob.getPayload().openStream()) {
+            int off = 0;
+            int r;
+            while (off < len && (r = in.read(b, off, len - off)) > 0)
+                off += r;
+            if (off < len)
+                throw new EOFException("Unexpected end of " + storagePath + " at " + (offset + off));
+        } catch (IOException | RuntimeException e) {
+            bufferPool.release(b);
+            throw e;
+        }
+        return b;
+    }
+
+    private boolean nextPart() throws IOException {
+        if (closed)
+            throw new IOException("Stream closed");
+
+        bufferPool.release(buf);
+        buf = null;
+        FutureTask<byte[]> task = parts.poll();
+        if (task == null)
+            return false;
+
+        if (requested < length)
+            requestNextPart();
+        try {
+            buf = task.get();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            Throwable c = e.getCause();
+            if (c instanceof IOException)
+                throw (IOException) c;
+            throw new IOException("Download of " + storagePath + " failed", c);
+        }
+        pos = 0;
+        count = (int) Math.min(bufferPool.getBufferSize(), length - position);
+        return true;
+    }
+
+    @Override
+    public int available() {
+        return count - pos;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (pos >= count && !nextPart())
+            return -1;
+
+        position++;
+        return buf[pos++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off)
+            throw new IndexOutOfBoundsException();
+
+        if (len == 0)
+            return 0;
+
+        if (pos >= count && !nextPart())
+            return -1;
+
+        int n = Math.min(len, count - pos);
+        System.arraycopy(buf, pos, b, off, n);
+        pos += n;
+        position += n;
+        return n;
+    }
+
+    @Override
+    public void close() {
+        if (closed)
+            return;
+
+        closed = true;
+        for (FutureTask<byte[]> task : parts)
+            task.cancel(true);
+        parts.clear();
+        bufferPool.release(buf);
+        buf = null;
+        pos = count = 0;
+    }
+}
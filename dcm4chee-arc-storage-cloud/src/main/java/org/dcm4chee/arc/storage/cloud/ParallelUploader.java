@@ -0,0 +1,198 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.storage.cloud;
+
+import com.google.common.io.ByteSource;
+import org.dcm4che3.net.Device;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Multipart upload with up to {@code maxParallelism} parts in flight, using the portable jclouds multipart API.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class ParallelUploader implements Uploader {
+
+    private final Device device;
+    private final PartBufferPool bufferPool;
+    private final int maxParallelism;
+
+    ParallelUploader(Device device, PartBufferPool bufferPool, int maxParallelism) {
+        this.device = device;
+        this.bufferPool = bufferPool;
+        this.maxParallelism = maxParallelism;
+    }
+
+    @Override
+    public void upload(BlobStoreContext context, InputStream in, long length, BlobStore blobStore,
+                       String container, String storagePath) throws IOException {
+        byte[] buf = bufferPool.acquire();
+        int len;
+        try {
+            len = readFully(in, buf);
+        } catch (IOException e) {
+            bufferPool.release(buf);
+            throw e;
+        }
+        if (len < buf.length) {
+            try {
+                Blob blob = blobStore.blobBuilder(storagePath).payload(createPayload(buf, len)).build();
+                blobStore.putBlob(container, blob);
+            } finally {
+                bufferPool.release(buf);
+            }
+            return;
+        }
+        uploadMultipleParts(in, blobStore, container, storagePath, buf);
+    }
+
+    private void uploadMultipleParts(InputStream in, BlobStore blobStore, String container, String storagePath,
+                                     byte[] firstPart) throws IOException {
+        MultipartUpload mpu;
+        try {
+            mpu = blobStore.initiateMultipartUpload(container,
+                    blobStore.blobBuilder(storagePath).build().getMetadata(), PutOptions.NONE);
+        } catch (RuntimeException e) {
+            bufferPool.release(firstPart);
+            throw e;
+        }
+        List<MultipartPart> parts = new ArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Semaphore semaphore = new Semaphore(maxParallelism);
+        byte[] buf = firstPart; // not yet passed to uploadPart, which releases it after the part was uploaded
+        int len = buf.length;
+        int partNumber = 1;
+        try {
+            for (;;) {
+                acquire(semaphore, 1);
+                if (failure.get() != null) {
+                    semaphore.release();
+                    break;
+                }
+                byte[] part = buf;
+                buf = null;
+                uploadPart(blobStore, mpu, partNumber++, part, len, parts, failure, semaphore);
+                if (len < bufferPool.getBufferSize())
+                    break;
+                buf = bufferPool.acquire();
+                len = readFully(in, buf);
+                if (len == 0)
+                    break;
+            }
+        } catch (IOException | RuntimeException e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            bufferPool.release(buf);
+            semaphore.acquireUninterruptibly(maxParallelism);
+        }
+        Throwable e = failure.get();
+        if (e != null) {
+            blobStore.abortMultipartUpload(mpu);
+            if (e instanceof IOException)
+                throw (IOException) e;
+            throw new IOException("Multipart upload of " + storagePath + " failed", e);
+        }
+        parts.sort(Comparator.comparingInt(MultipartPart::partNumber));
+        blobStore.completeMultipartUpload(mpu, parts);
+    }
+
+    private void uploadPart(BlobStore blobStore, MultipartUpload mpu, int partNumber, byte[] buf, int len,
+                            List<MultipartPart> parts, AtomicReference<Throwable> failure, Semaphore semaphore) {
+        try {
+            device.execute(() -> {
+                try {
+                    MultipartPart part = blobStore.uploadMultipartPart(mpu, partNumber, createPayload(buf, len));
+                    synchronized (parts) {
+                        parts.add(part);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    bufferPool.release(buf);
+                    semaphore.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            bufferPool.release(buf);
+            semaphore.release();
+            throw e;
+        }
+    }
+
+    private static void acquire(Semaphore semaphore, int permits) throws InterruptedIOException {
+        try {
+            semaphore.acquire(permits);
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        }
+    }
+
+    private static Payload createPayload(byte[] buf, int len) {
+        Payload payload = Payloads.newByteSourcePayload(ByteSource.wrap(buf).slice(0, len));
+        payload.getContentMetadata().setContentLength((long) len);
+        return payload;
+    }
+
+    static int readFully(InputStream in, byte[] buf) throws IOException {
+        int off = 0;
+        int r;
+        while (off < buf.length && (r = in.read(buf, off, buf.length - off)) > 0)
+            off += r;
+        return off;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.storage.cloud;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.VR;
+import org.dcm4chee.arc.conf.StorageDescriptor;
+import org.dcm4chee.arc.storage.ReadContext;
+import org.dcm4chee.arc.storage.WriteContext;
+import org.jclouds.blobstore.BlobStore;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Counts the requests for probing existing blobs by uploads of objects with equal formatted storage paths to the
+ * jclouds transient provider and checks that deleting objects in one batch only reports actually deleted objects.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class CloudStorageTest {
+
+    private static final int NUM_OBJECTS = 10;
+    private static final byte[] DATA = new byte[1024];
+
+    @Test
+    public void testProbeExistingBlobs() throws Exception {
+        // first upload into the created container is not probed, all others collide once with the first blob
+        assertEquals(2 * (NUM_OBJECTS - 1), upload(false));
+    }
+
+    @Test
+    public void testUniqueStoragePath() throws Exception {
+        assertEquals(0, upload(true));
+    }
+
+    @Test
+    public void testDeleteObjects() throws Exception {
+        try (ProbeCountingCloudStorage storage = new ProbeCountingCloudStorage(descriptor(true))) {
+            Set<String> storagePaths = store(storage);
+            String missing = storagePaths.iterator().next() + ".missing";
+            List<String> toDelete = new ArrayList<>(storagePaths);
+            toDelete.add(missing);
+            assertEquals(storagePaths, new HashSet<>(storage.deleteObjects(toDelete)));
+            for (String storagePath : toDelete)
+                assertFalse(storagePath, exists(storage, storagePath));
+        }
+    }
+
+    @Test
+    public void testDeleteObjectsNotRemovedByBatch() throws Exception {
+        try (ProbeCountingCloudStorage storage = new ProbeCountingCloudStorage(descriptor(true))) {
+            Set<String> storagePaths = store(storage);
+            storage.notRemoved = storagePaths.iterator().next();
+            Set<String> expected = new HashSet<>(storagePaths);
+            expected.remove(storage.notRemoved);
+            assertEquals(expected, new HashSet<>(storage.deleteObjects(storagePaths)));
+            assertTrue(storage.notRemoved, exists(storage, storage.notRemoved));
+        }
+    }
+
+    private static int upload(boolean uniqueStoragePath) throws Exception {
+        try (ProbeCountingCloudStorage storage = new ProbeCountingCloudStorage(descriptor(uniqueStoragePath))) {
+            Set<String> storagePaths = store(storage);
+            int probes = storage.probes;
+            assertEquals(NUM_OBJECTS, storagePaths.size());
+            for (String storagePath : storagePaths)
+                assertTrue(storagePath, exists(storage, storagePath));
+            return probes;
+        }
+    }
+
+    private static StorageDescriptor descriptor(boolean uniqueStoragePath) {
+        StorageDescriptor descriptor = new StorageDescriptor("cloud");
+        descriptor.setStorageURIStr("jclouds:transient");
+        descriptor.setProperty("pathFormat", "{0020000D}/{0020000E}/{00080018}");
+        descriptor.setProperty("uniqueStoragePath", Boolean.toString(uniqueStoragePath));
+        return descriptor;
+    }
+
+    private static Set<String> store(CloudStorage storage) throws Exception {
+        Attributes attrs = new Attributes(3);
+        attrs.setString(Tag.StudyInstanceUID, VR.UI, "1.2.3");
+        attrs.setString(Tag.SeriesInstanceUID, VR.UI, "1.2.3.4");
+        attrs.setString(Tag.SOPInstanceUID, VR.UI, "1.2.3.4.5");
+        Set<String> storagePaths = new HashSet<>();
+        for (int i = 0; i < NUM_OBJECTS; i++) {
+            WriteContext ctx = storage.createWriteContext();
+            ctx.setAttributes(attrs);
+            ctx.setContentLength(DATA.length);
+            storage.copy(new ByteArrayInputStream(DATA), ctx);
+            storagePaths.add(ctx.getStoragePath());
+        }
+        return storagePaths;
+    }
+
+    private static boolean exists(CloudStorage storage, String storagePath) {
+        ReadContext ctx = storage.createReadContext();
+        ctx.setStoragePath(storagePath);
+        return storage.exists(ctx);
+    }
+
+    private static class ProbeCountingCloudStorage extends CloudStorage {
+        int probes;
+        String notRemoved;
+
+        ProbeCountingCloudStorage(StorageDescriptor descriptor) {
+            super(descriptor, null);
+        }
+
+        @Override
+        void removeBlobs(BlobStore blobStore, Collection<String> storagePaths) {
+            List<String> removed = new ArrayList<>(storagePaths);
+            removed.remove(notRemoved);
+            super.removeBlobs(blobStore, removed);
+        }
+
+        @Override
+        boolean blobExists(BlobStore blobStore, String storagePath) {
+            probes++;
+            return super.blobExists(blobStore, storagePath);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.storage.filesystem;
+
+import org.dcm4che3.util.TagUtils;
+import org.dcm4chee.arc.conf.StorageDescriptor;
+import org.dcm4chee.arc.storage.WriteContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * File system storage which lays out objects by the digest of their content. Objects with equal content
+ * are stored only once: if an object with equal digest already exists, the written copy is discarded and
+ * the write context is marked as {@link WriteContext#isDeduplicated() deduplicated}, so the caller can
+ * reference the existing object.
+ * <p>
+ * Objects are first written to {@code .tmp/} and then linked atomically to their final path, so after a
+ * crash only orphaned temporary files but never incomplete objects remain. Objects are pinned from
+ * linking until {@link #commitStorage} or {@link #revokeStorage}; {@link #deleteObject} fails for pinned
+ * objects, so the Location to delete is kept, and a revoking writer does not delete objects another writer
+ * has linked to meanwhile.
+ * <p>
+ * Pins are only held in memory of the local JVM. Therefore a content-addressed storage must not be written
+ * or purged by several archive instances of a cluster concurrently.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class ContentAddressedStorage extends FileSystemStorage {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ContentAddressedStorage.class);
+
+    private static final String TMP_DIR = ".tmp/";
+    private static final Map<Path, Pin> PINS = new HashMap<>();
+
+    private final String digestAlgorithm;
+
+    public ContentAddressedStorage(StorageDescriptor descriptor) {
+        super(descriptor);
+        String digestAlgorithm = descriptor.getDigestAlgorithm();
+        this.digestAlgorithm = digestAlgorithm != null ? digestAlgorithm : "MD5";
+    }
+
+    @Override
+    public boolean isContentAddressed() {
+        return true;
+    }
+
+    @Override
+    protected OutputStream openOutputStreamA(WriteContext ctx) throws IOException {
+        if (ctx.getMessageDigest() == null)
+            ctx.setMessageDigest(newMessageDigest());
+        Path dir = Paths.get(rootURI.resolve(TMP_DIR));
+        Files.createDirectories(dir);
+        OutputStream stream = null;
+        Path path = null;
+        while (stream == null)
+            try {
+                path = dir.resolve(String.format("%08X", ThreadLocalRandom.current().nextInt()));
+                stream = Files.newOutputStream(path, StandardOpenOption.CREATE_NEW);
+            } catch (FileAlreadyExistsException e) {
+                // retry with another file name
+            }
+        ctx.setStoragePath(rootURI.relativize(path.toUri()).toString());
+        return stream;
+    }
+
+    private MessageDigest newMessageDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance(digestAlgorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    protected void afterOutputStreamClosed(WriteContext ctx) throws IOException {
+        Path tmpPath = Paths.get(rootURI.resolve(ctx.getStoragePath()));
+        try (FileChannel channel = FileChannel.open(tmpPath, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        String storagePath = toStoragePath(ctx.getDigest());
+        Path path = Paths.get(rootURI.resolve(storagePath));
+        boolean deduplicated;
+        synchronized (PINS) {
+            Files.createDirectories(path.getParent());
+            try {
+                Files.createLink(path, tmpPath);
+                deduplicated = false;
+            } catch (FileAlreadyExistsException e) {
+                deduplicated = true;
+            }
+            pin(path, deduplicated);
+            ctx.setStoragePath(storagePath);
+            ctx.setDeduplicated(deduplicated);
+        }
+        Files.delete(tmpPath);
+        LOG.debug("{} {}", deduplicated ? "Link to existing" : "Created", path);
+    }
+
+    private static String toStoragePath(byte[] digest) {
+        String hex = TagUtils.toHexString(digest).toLowerCase();
+        return hex.substring(0, 2) + '/' + hex.substring(2, 4) + '/' + hex;
+    }
+
+    @Override
+    public void copy(InputStream in, WriteContext ctx) throws IOException {
+        checkAccessable();
+        try (OutputStream out = openOutputStream(ctx)) {
+            byte[] buf = new byte[8192];
+            int read;
+            while ((read = in.read(buf)) > 0)
+                out.write(buf, 0, read);
+        }
+    }
+
+    @Override
+    public void commitStorage(WriteContext ctx) throws IOException {
+        synchronized (PINS) {
+            unpin(Paths.get(rootURI.resolve(ctx.getStoragePath())));
+        }
+    }
+
+    @Override
+    public void revokeStorage(WriteContext ctx) throws IOException {
+        String storagePath = ctx.getStoragePath();
+        Path path = Paths.get(rootURI.resolve(storagePath));
+        if (storagePath.startsWith(TMP_DIR)) {
+            Files.deleteIfExists(path);
+            return;
+        }
+        synchronized (PINS) {
+            if (unpin(path) || ctx.isDeduplicated()) {
+                LOG.debug("Keep {} referenced by other write", path);
+                return;
+            }
+            Files.deleteIfExists(path);
+            deleteEmptyDirectories(path);
+        }
+    }
+
+    @Override
+    public void deleteObject(String storagePath) throws IOException {
+        Path path = Paths.get(rootURI.resolve(storagePath));
+        synchronized (PINS) {
+            checkNotPinned(path);
+            Files.delete(path);
+            deleteEmptyDirectories(path);
+        }
+    }
+
+    @Override
+    public Collection<String> deleteObjects(Collection<String> storagePaths) throws IOException {
+        synchronized (PINS) {
+            for (String storagePath : storagePaths)
+                checkNotPinned(Paths.get(rootURI.resolve(storagePath)));
+            return super.deleteObjects(storagePaths);
+        }
+    }
+
+    private static void checkNotPinned(Path path) throws IOException {
+        if (PINS.containsKey(path))
+            throw new IOException("Object " + path + " referenced by pending write");
+    }
+
+    private static void pin(Path path, boolean deduplicated) {
+        Pin pin = PINS.get(path);
+        if (pin == null)
+            PINS.put(path, pin = new Pin());
+        pin.count++;
+        pin.shared |= deduplicated;
+    }
+
+    /**
+     * @return {@code true} if other writes linked to the object while it was pinned
+     */
+    private static boolean unpin(Path path) {
+        Pin pin = PINS.get(path);
+        if (pin == null)
+            return false;
+        if (--pin.count == 0)
+            PINS.remove(path);
+        return pin.shared;
+    }
+
+    private static class Pin {
+        int count;
+        boolean shared;
+    }
+
+    @Override
+    public String toString() {
+        return "ContentAddressedStorage{" + rootURI + '}';
+    }
+}
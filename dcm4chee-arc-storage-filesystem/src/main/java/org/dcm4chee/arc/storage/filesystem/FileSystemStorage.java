@@ -41,6 +41,7 @@
 package org.dcm4chee.arc.storage.filesystem;
 
 import org.dcm4che3.util.AttributesFormat;
+import org.dcm4che3.util.SafeClose;
 import org.dcm4chee.arc.conf.StorageDescriptor;
 import org.dcm4chee.arc.storage.AbstractStorage;
 import org.dcm4chee.arc.storage.ReadContext;
@@ -48,10 +49,13 @@ import org.dcm4chee.arc.storage.WriteContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -63,7 +67,7 @@ public class FileSystemStorage extends AbstractStorage {
 
     private static final Logger LOG = LoggerFactory.getLogger(FileSystemStorage.class);
 
-    private final URI rootURI;
+    protected final URI rootURI;
     private final AttributesFormat pathFormat;
     private final Path checkMountFilePath;
 
@@ -134,6 +138,10 @@ public class FileSystemStorage extends AbstractStorage {
         Path path = Paths.get(rootURI.resolve(pathFormat.format(ctx.getAttributes())));
         Path dir = path.getParent();
         Files.createDirectories(dir);
+        if (readsFromFile(in)) {
+            transferFrom(in, path, ctx);
+            return;
+        }
         long copy = 0L;
         while (copy == 0L)
             try {
@@ -144,10 +152,36 @@ public class FileSystemStorage extends AbstractStorage {
         ctx.setStoragePath(rootURI.relativize(path.toUri()).toString());
     }
 
+    private void transferFrom(InputStream in, Path path, WriteContext ctx) throws IOException {
+        FileChannel channel = null;
+        while (channel == null)
+            try {
+                channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            } catch (FileAlreadyExistsException e) {
+                path = path.resolveSibling(String.format("%08X", ThreadLocalRandom.current().nextInt()));
+            }
+        try {
+            ctx.incrementSize(transferTo(in, channel));
+            channel.close();
+        } catch (IOException e) {
+            SafeClose.close(channel);
+            Files.deleteIfExists(path);
+            throw e;
+        }
+        ctx.setStoragePath(rootURI.relativize(path.toUri()).toString());
+    }
+
     @Override
     protected InputStream openInputStreamA(ReadContext ctx) throws IOException {
         Path path = Paths.get(rootURI.resolve(ctx.getStoragePath()));
-        return Files.newInputStream(path);
+        try {
+            // FileInputStream.skip() seeks, used to access frames by offset
+            return new FileInputStream(path.toFile());
+        } catch (FileNotFoundException e) {
+            if (Files.notExists(path))
+                throw new NoSuchFileException(path.toString());
+            throw e;
+        }
     }
 
     @Override
@@ -157,7 +191,7 @@ public class FileSystemStorage extends AbstractStorage {
         deleteEmptyDirectories(path);
     }
 
-    private void deleteEmptyDirectories(Path path) {
+    protected void deleteEmptyDirectories(Path path) {
         Path rootPath = Paths.get(rootURI);
         Path dirPath = path.getParent();
         while (!dirPath.equals(rootPath)) {
@@ -16,6 +16,8 @@ import javax.inject.Named;
 class FileSystemStorageProvider implements StorageProvider {
     @Override
     public Storage openStorage(StorageDescriptor descriptor) {
-        return new FileSystemStorage(descriptor);
+        return Boolean.parseBoolean(descriptor.getProperty("contentAddressed", "false"))
+                ? new ContentAddressedStorage(descriptor)
+                : new FileSystemStorage(descriptor);
     }
 }
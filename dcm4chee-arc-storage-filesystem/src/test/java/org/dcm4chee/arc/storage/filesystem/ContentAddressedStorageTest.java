@@ -0,0 +1,208 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.storage.filesystem;
+
+import org.dcm4chee.arc.conf.StorageDescriptor;
+import org.dcm4chee.arc.storage.WriteContext;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class ContentAddressedStorageTest {
+
+    private static final int NUM_WRITERS = 8;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private Path root;
+    private ContentAddressedStorage storage;
+
+    @Before
+    public void setUp() throws Exception {
+        root = tmp.getRoot().toPath();
+        StorageDescriptor descriptor = new StorageDescriptor("cas");
+        descriptor.setStorageURIStr(root.toUri().toString());
+        descriptor.setProperty("contentAddressed", "true");
+        storage = new ContentAddressedStorage(descriptor);
+    }
+
+    @Test
+    public void concurrentWritersOfSameContent() throws Exception {
+        byte[] content = content(100000, 1);
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_WRITERS);
+        CyclicBarrier barrier = new CyclicBarrier(NUM_WRITERS);
+        List<Future<WriteContext>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < NUM_WRITERS; i++)
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    return write(content);
+                }));
+            List<WriteContext> ctxs = new ArrayList<>();
+            for (Future<WriteContext> future : futures)
+                ctxs.add(future.get());
+            assertEquals(1, ctxs.stream().filter(ctx -> !ctx.isDeduplicated()).count());
+            assertEquals(1, ctxs.stream().map(WriteContext::getStoragePath).distinct().count());
+            for (WriteContext ctx : ctxs)
+                storage.commitStorage(ctx);
+            assertArrayEquals(content, Files.readAllBytes(root.resolve(ctxs.get(0).getStoragePath())));
+            assertEquals(1, objects().size());
+            assertTrue(temporaryFiles().isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void crashWhileWritingLeavesNoIncompleteObject() throws Exception {
+        byte[] content = content(100000, 2);
+        WriteContext crashed = storage.createWriteContext();
+        OutputStream out = storage.openOutputStream(crashed);
+        out.write(content, 0, content.length / 2);
+        out.flush();
+        // no close(): simulates a crash while writing
+        assertTrue(objects().isEmpty());
+        assertEquals(1, temporaryFiles().size());
+
+        WriteContext ctx = write(content);
+        storage.commitStorage(ctx);
+        assertFalse(ctx.isDeduplicated());
+        assertArrayEquals(content, Files.readAllBytes(root.resolve(ctx.getStoragePath())));
+        out.close();
+    }
+
+    @Test
+    public void revokeKeepsObjectLinkedByOtherWriter() throws Exception {
+        byte[] content = content(1000, 3);
+        WriteContext first = write(content);
+        WriteContext second = write(content);
+        assertTrue(second.isDeduplicated());
+        storage.commitStorage(second);
+        storage.revokeStorage(first);
+        assertArrayEquals(content, Files.readAllBytes(root.resolve(second.getStoragePath())));
+    }
+
+    @Test
+    public void revokeDeletesObjectNotLinkedByOtherWriter() throws Exception {
+        WriteContext ctx = write(content(1000, 4));
+        storage.revokeStorage(ctx);
+        assertTrue(objects().isEmpty());
+    }
+
+    @Test
+    public void deleteFailsForPinnedObject() throws Exception {
+        byte[] content = content(1000, 5);
+        WriteContext ctx = write(content);
+        WriteContext other = write(content(1000, 6));
+        storage.commitStorage(other);
+        try {
+            storage.deleteObjects(Arrays.asList(other.getStoragePath(), ctx.getStoragePath()));
+            fail("IOException expected");
+        } catch (IOException expected) {
+        }
+        assertTrue(Files.exists(root.resolve(other.getStoragePath())));
+        try {
+            storage.deleteObject(ctx.getStoragePath());
+            fail("IOException expected");
+        } catch (IOException expected) {
+        }
+        assertTrue(Files.exists(root.resolve(ctx.getStoragePath())));
+        storage.deleteObject(other.getStoragePath());
+        storage.commitStorage(ctx);
+        storage.deleteObject(ctx.getStoragePath());
+        assertTrue(objects().isEmpty());
+        WriteContext rewritten = write(content);
+        storage.commitStorage(rewritten);
+        assertFalse(rewritten.isDeduplicated());
+        assertArrayEquals(content, Files.readAllBytes(root.resolve(rewritten.getStoragePath())));
+    }
+
+    private WriteContext write(byte[] content) throws IOException {
+        WriteContext ctx = storage.createWriteContext();
+        try (OutputStream out = storage.openOutputStream(ctx)) {
+            out.write(content);
+        }
+        return ctx;
+    }
+
+    private static byte[] content(int length, int seed) {
+        byte[] b = new byte[length];
+        new Random(seed).nextBytes(b);
+        return b;
+    }
+
+    private List<Path> objects() throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> !root.relativize(path).startsWith(".tmp"))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private List<Path> temporaryFiles() throws IOException {
+        Path dir = root.resolve(".tmp");
+        if (Files.notExists(dir))
+            return new ArrayList<>();
+        try (Stream<Path> paths = Files.list(dir)) {
+            return paths.collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.storage.filesystem;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.VR;
+import org.dcm4chee.arc.conf.StorageDescriptor;
+import org.dcm4chee.arc.storage.ReadContext;
+import org.dcm4chee.arc.storage.WriteContext;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class FileSystemStorageTest {
+
+    private static final int SIZE = 1000000;
+    private static final int HEADER = 132;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private byte[] content;
+    private FileSystemStorage src;
+    private FileSystemStorage dest;
+    private Path srcRoot;
+    private Path destRoot;
+
+    @Before
+    public void setUp() throws Exception {
+        content = new byte[SIZE];
+        new Random(SIZE).nextBytes(content);
+        srcRoot = tmp.newFolder("src").toPath();
+        Files.write(srcRoot.resolve("obj"), content);
+        destRoot = tmp.newFolder("dest").toPath();
+        src = new FileSystemStorage(descriptor("src", srcRoot));
+        dest = new FileSystemStorage(descriptor("dest", destRoot));
+    }
+
+    @Test
+    public void copyTransfersRemainingContentOfOpenedStream() throws Exception {
+        ReadContext readCtx = readContext();
+        WriteContext writeCtx = writeContext();
+        try (InputStream in = src.openInputStream(readCtx)) {
+            assertEquals(HEADER, in.read(new byte[HEADER]));
+            dest.copy(in, writeCtx);
+            assertEquals(-1, in.read());
+        }
+        assertEquals(SIZE, readCtx.getSize());
+        assertEquals(SIZE - HEADER, writeCtx.getSize());
+        assertArrayEquals(Arrays.copyOfRange(content, HEADER, SIZE),
+                Files.readAllBytes(destRoot.resolve(writeCtx.getStoragePath())));
+    }
+
+    @Test
+    public void copyCalculatesDigestOfSource() throws Exception {
+        ReadContext readCtx = readContext();
+        readCtx.setMessageDigest(MessageDigest.getInstance("MD5"));
+        WriteContext writeCtx = writeContext();
+        try (InputStream in = src.openInputStream(readCtx)) {
+            dest.copy(in, writeCtx);
+        }
+        assertEquals(SIZE, readCtx.getSize());
+        assertArrayEquals(MessageDigest.getInstance("MD5").digest(content), readCtx.getDigest());
+        assertArrayEquals(content, Files.readAllBytes(destRoot.resolve(writeCtx.getStoragePath())));
+    }
+
+    @Test
+    public void deleteObjectsReturnsOnlyDeletedObjects() throws Exception {
+        Files.write(srcRoot.resolve("obj2"), content);
+        assertEquals(Arrays.asList("obj", "obj2"), src.deleteObjects(Arrays.asList("obj", "missing", "obj2")));
+        assertFalse(Files.exists(srcRoot.resolve("obj")));
+        assertFalse(Files.exists(srcRoot.resolve("obj2")));
+    }
+
+    private ReadContext readContext() {
+        ReadContext ctx = src.createReadContext();
+        ctx.setStoragePath("obj");
+        return ctx;
+    }
+
+    private WriteContext writeContext() {
+        Attributes attrs = new Attributes(1);
+        attrs.setString(Tag.SOPInstanceUID, VR.UI, "1.2.3");
+        WriteContext ctx = dest.createWriteContext();
+        ctx.setAttributes(attrs);
+        return ctx;
+    }
+
+    private static StorageDescriptor descriptor(String storageID, Path root) {
+        StorageDescriptor descriptor = new StorageDescriptor(storageID);
+        descriptor.setStorageURIStr(root.toUri().toString());
+        descriptor.setProperty("pathFormat", "{00080018}");
+        return descriptor;
+    }
+}
@@ -125,6 +125,7 @@ public class StorageRS {
                     writer.writeNotNullOrDef("dcmStorageDuration", desc.getStorageDuration(), StorageDuration.PERMANENT);
                     writer.writeNotDef("dcmReadOnly", desc.isReadOnly(), false);
                     writer.writeNotDef("dcmDeleterThreads", desc.getDeleterThreads(), 1);
+                    writer.writeNotDef("dcmDeleterBatchSize", desc.getDeleterBatchSize(), 1);
                     if (desc.getStorageThreshold() != null)
                         gen.write("storageThreshold", desc.getStorageThreshold().getMinUsableDiskSpace());
                     writeDeleterThresholds(writer, gen, desc.getDeleterThresholds());
@@ -43,8 +43,13 @@ package org.dcm4chee.arc.storage;
 import org.dcm4chee.arc.conf.StorageDescriptor;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.security.DigestInputStream;
 import java.security.DigestOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -81,6 +86,11 @@ public abstract class AbstractStorage implements Storage {
         return true;
     }
 
+    @Override
+    public boolean isContentAddressed() {
+        return false;
+    }
+
     @Override
     public boolean exists(ReadContext ctx) {
         throw new UnsupportedOperationException("exists() not supported by " + getClass().getName());
@@ -156,7 +166,7 @@ public abstract class AbstractStorage implements Storage {
         copyA(in, ctx);
     }
 
-    private void checkAccessable() throws IOException {
+    protected void checkAccessable() throws IOException {
         if (!isAccessable())
             throw new IOException(descriptor + " not accessable");
     }
@@ -191,71 +201,128 @@ public abstract class AbstractStorage implements Storage {
     }
 
     @Override
-    public InputStream openInputStream(final ReadContext ctx) throws IOException {
+    public Collection<String> deleteObjects(Collection<String> storagePaths) throws IOException {
+        List<String> deleted = new ArrayList<>(storagePaths.size());
+        for (String storagePath : storagePaths) {
+            try {
+                deleteObject(storagePath);
+                deleted.add(storagePath);
+            } catch (IOException e) {
+                // not deleted objects are not included in the returned storage paths
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public InputStream openInputStream(ReadContext ctx) throws IOException {
         checkAccessable();
         InputStream stream = openInputStreamA(ctx);
         if (ctx.getMessageDigest() != null) {
             stream = new DigestInputStream(stream, ctx.getMessageDigest());
         }
-        return new FilterInputStream(stream) {
-            @Override
-            public int read() throws IOException {
-                int read = 0;
-                try {
-                    read = in.read();
-                } catch (IOException e) {
-                    throw new StorageException(e);
-                }
-                if (read >= 0)
-                    ctx.incrementSize(1);
-                return read;
-            }
+        return new StorageInputStream(stream, ctx);
+    }
 
-            @Override
-            public int read(byte[] b, int off, int len) throws IOException {
-                int read = 0;
-                try {
-                    read = in.read(b, off, len);
-                } catch (IOException e) {
-                    throw new StorageException(e);
-                }
-                if (read > 0)
-                    ctx.incrementSize(read);
-                return read;
+    /**
+     * @return {@code true} if {@code in} was opened by {@link #openInputStream} and reads from a file without
+     *         calculating a message digest, so its remaining content can be transferred by {@link #transferTo}
+     */
+    protected static boolean readsFromFile(InputStream in) {
+        return in instanceof StorageInputStream && ((StorageInputStream) in).readsFromFile();
+    }
+
+    /**
+     * Transfers the remaining content of a stream, for which {@link #readsFromFile} returns {@code true}, by
+     * {@link FileChannel#transferTo}, without copying it through a heap buffer.
+     *
+     * @return number of transferred bytes
+     */
+    protected static long transferTo(InputStream in, WritableByteChannel target) throws IOException {
+        return ((StorageInputStream) in).transferTo(target);
+    }
+
+    private final class StorageInputStream extends FilterInputStream {
+        private final ReadContext ctx;
+
+        StorageInputStream(InputStream in, ReadContext ctx) {
+            super(in);
+            this.ctx = ctx;
+        }
+
+        boolean readsFromFile() {
+            return in instanceof FileInputStream;
+        }
+
+        long transferTo(WritableByteChannel target) throws IOException {
+            FileChannel channel = ((FileInputStream) in).getChannel();
+            long position = channel.position();
+            long size = channel.size();
+            long count = 0L;
+            while (position + count < size)
+                count += channel.transferTo(position + count, size - position - count, target);
+            channel.position(position + count);
+            ctx.incrementSize(count);
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = 0;
+            try {
+                read = in.read();
+            } catch (IOException e) {
+                throw new StorageException(e);
             }
+            if (read >= 0)
+                ctx.incrementSize(1);
+            return read;
+        }
 
-            @Override
-            public long skip(long n) throws IOException {
-                long skip = 0;
-                try {
-                    skip = in.skip(n);
-                } catch (IOException e) {
-                    throw new StorageException(e);
-                }
-                ctx.incrementSize(skip);
-                return skip;
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = 0;
+            try {
+                read = in.read(b, off, len);
+            } catch (IOException e) {
+                throw new StorageException(e);
             }
+            if (read > 0)
+                ctx.incrementSize(read);
+            return read;
+        }
 
-            @Override
-            public boolean markSupported() {
-                return false;
+        @Override
+        public long skip(long n) throws IOException {
+            long skip = 0;
+            try {
+                skip = in.skip(n);
+            } catch (IOException e) {
+                throw new StorageException(e);
             }
+            ctx.incrementSize(skip);
+            return skip;
+        }
 
-            @Override
-            public void close() throws IOException {
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                beforeInputStreamClosed(ctx, this);
+            } finally {
                 try {
-                    beforeInputStreamClosed(ctx, this);
+                    super.close();
+                } catch (IOException e) {
+                    throw new StorageException(e);
                 } finally {
-                    try {
-                        super.close();
-                    } catch (IOException e) {
-                        throw new StorageException(e);
-                    } finally {
-                        afterInputStreamClosed(ctx);
-                    }
+                    afterInputStreamClosed(ctx);
                 }
             }
-        };
+        }
     }
 
     protected abstract InputStream openInputStreamA(ReadContext ctx) throws IOException;
@@ -49,6 +49,7 @@ import org.dcm4che3.data.Attributes;
 public class DefaultWriteContext extends DefaultReadContext implements WriteContext{
     private Attributes attrs;
     private long contentLength = -1;
+    private boolean deduplicated;
 
     public DefaultWriteContext(Storage storage) {
         super(storage);
@@ -74,4 +75,14 @@ public class DefaultWriteContext extends DefaultReadContext implements WriteCont
         this.contentLength = contentLength;
     }
 
+    @Override
+    public boolean isDeduplicated() {
+        return deduplicated;
+    }
+
+    @Override
+    public void setDeduplicated(boolean deduplicated) {
+        this.deduplicated = deduplicated;
+    }
+
 }
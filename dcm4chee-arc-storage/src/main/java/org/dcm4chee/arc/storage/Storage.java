@@ -6,6 +6,7 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Collection;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -20,6 +21,8 @@ public interface Storage extends Closeable {
 
     boolean isAccessable();
 
+    boolean isContentAddressed();
+
     boolean exists(ReadContext ctx);
 
     long getContentLength(ReadContext ctx) throws IOException;
@@ -40,5 +43,13 @@ public interface Storage extends Closeable {
 
     void deleteObject(String storagePath) throws IOException;
 
+    /**
+     * Deletes objects in one batch, if supported by the storage.
+     *
+     * @return storage paths of deleted objects; not existing or not deleted objects are not included
+     * @throws IOException if the batch could not be processed at all
+     */
+    Collection<String> deleteObjects(Collection<String> storagePaths) throws IOException;
+
     InputStream openInputStream(ReadContext ctx) throws IOException;
 }
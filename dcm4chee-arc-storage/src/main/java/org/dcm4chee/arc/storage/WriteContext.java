@@ -55,4 +55,8 @@ public interface WriteContext extends ReadContext {
     long getContentLength();
 
     void setContentLength(long contentLength);
+
+    boolean isDeduplicated();
+
+    void setDeduplicated(boolean deduplicated);
 }
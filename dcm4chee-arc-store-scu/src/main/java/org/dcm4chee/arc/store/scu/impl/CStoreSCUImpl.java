@@ -58,6 +58,7 @@ import org.dcm4chee.arc.store.scu.CStoreSCU;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Event;
 import javax.inject.Inject;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -89,11 +90,16 @@ public class CStoreSCUImpl implements CStoreSCU {
         }
     }
 
-    private AAssociateRQ createAARQ(RetrieveContext ctx) {
+    static AAssociateRQ createAARQ(RetrieveContext ctx) {
         AAssociateRQ aarq = new AAssociateRQ();
         ApplicationEntity localAE = ctx.getLocalApplicationEntity();
         if (!localAE.isMasqueradeCallingAETitle(ctx.getDestinationAETitle()))
             aarq.setCallingAET(ctx.getLocalAETitle());
+        if (ctx.isStreamMatches()) {
+            for (Map.Entry<String, Set<String>> entry : ctx.getTransferSyntaxesBySOPClass().entrySet())
+                addPresentationContextFor(aarq, entry.getKey(), entry.getValue());
+            return aarq;
+        }
         for (InstanceLocations inst : ctx.getMatches()) {
             String cuid = inst.getSopClassUID();
             if (!aarq.containsPresentationContextFor(cuid)) {
@@ -110,6 +116,16 @@ public class CStoreSCUImpl implements CStoreSCU {
         return aarq;
     }
 
+    private static void addPresentationContextFor(AAssociateRQ aarq, String cuid, Set<String> tsuids) {
+        aarq.addPresentationContextFor(cuid, UID.ImplicitVRLittleEndian);
+        aarq.addPresentationContextFor(cuid, UID.ExplicitVRLittleEndian);
+        for (String tsuid : tsuids) {
+            if (!tsuid.equals(UID.ImplicitVRLittleEndian) &&
+                    !tsuid.equals(UID.ExplicitVRLittleEndian))
+                aarq.addPresentationContextFor(cuid, tsuid);
+        }
+    }
+
     @Override
     public RetrieveTask newRetrieveTaskSTORE(RetrieveContext ctx) throws DicomServiceException {
         Association storeas = openAssociation(ctx);
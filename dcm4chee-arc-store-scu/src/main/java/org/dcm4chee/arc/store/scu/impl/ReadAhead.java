@@ -0,0 +1,78 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.store.scu.impl;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Prepares items by an executor up to a specified number ahead of the calling thread, which processes the
+ * prepared items in their original order.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+final class ReadAhead {
+
+    private ReadAhead() {}
+
+    static <T, R> void forEach(Iterator<T> items, int readAhead, Executor executor,
+            Function<T, R> prepare, Consumer<R> process, BooleanSupplier canceled) {
+        Deque<CompletableFuture<R>> ahead = new ArrayDeque<>(readAhead);
+        while (!canceled.getAsBoolean()) {
+            while (ahead.size() < readAhead && items.hasNext()) {
+                T item = items.next();
+                ahead.add(CompletableFuture.supplyAsync(() -> prepare.apply(item), executor));
+            }
+            CompletableFuture<R> next = ahead.poll();
+            if (next == null)
+                return;
+
+            process.accept(next.join());
+        }
+    }
+}
@@ -52,6 +52,7 @@ import org.dcm4che3.util.ReverseDNS;
 import org.dcm4che3.util.SafeClose;
 import org.dcm4chee.arc.conf.ArchiveAEExtension;
 import org.dcm4chee.arc.conf.Duration;
+import org.dcm4chee.arc.entity.Location;
 import org.dcm4chee.arc.store.InstanceLocations;
 import org.dcm4chee.arc.retrieve.RetrieveContext;
 import org.dcm4chee.arc.retrieve.RetrieveService;
@@ -59,9 +60,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.enterprise.event.Event;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -71,12 +75,29 @@ final class RetrieveTaskImpl implements RetrieveTask {
 
     static final Logger LOG = LoggerFactory.getLogger(RetrieveTaskImpl.class);
 
+    private static final int MAX_READ_AHEAD_SIZE = 32 * 1024 * 1024;
+
+    private static final int[] AUDIT_ATTRS = {
+            Tag.SOPClassUID,
+            Tag.SOPInstanceUID,
+            Tag.StudyDate,
+            Tag.AccessionNumber,
+            Tag.PatientName,
+            Tag.PatientID,
+            Tag.IssuerOfPatientID,
+            Tag.StudyInstanceUID,
+            Tag.SeriesInstanceUID
+    };
+
     private final Event<RetrieveContext> retrieveStart;
     private final Event<RetrieveContext> retrieveEnd;
     private final RetrieveContext ctx;
     private final Association storeas;
     private final ArchiveAEExtension aeExt;
     private final String hostName;
+    private final int readAhead;
+    private int maxAssociations;
+    private final List<Association> additionalStoreAssociations = new ArrayList<>();
     private Dimse dimserq;
     private Association rqas;
     private PresentationContext pc;
@@ -96,6 +117,8 @@ final class RetrieveTaskImpl implements RetrieveTask {
         this.storeas = storeas;
         this.aeExt = ctx.getArchiveAEExtension();
         this.hostName = ReverseDNS.hostNameOf(storeas.getSocket().getInetAddress());
+        this.readAhead = aeExt.retrieveReadAhead();
+        this.maxAssociations = aeExt.retrieveMaxAssociations();
     }
 
     void setRequestAssociation(Dimse dimserq, Association rqas, PresentationContext pc, Attributes rqCmd) {
@@ -106,6 +129,8 @@ final class RetrieveTaskImpl implements RetrieveTask {
         this.msgId = rqCmd.getInt(Tag.MessageID, 0);
         this.pendingRSP = dimserq == Dimse.C_GET_RQ && aeExt.sendPendingCGet();
         this.pendingRSPInterval = dimserq == Dimse.C_MOVE_RQ ? aeExt.sendPendingCMoveInterval() : null;
+        if (dimserq == Dimse.C_GET_RQ)
+            this.maxAssociations = 1;
     }
 
     @Override
@@ -122,21 +147,30 @@ final class RetrieveTaskImpl implements RetrieveTask {
         try {
             if (ctx.getFallbackAssociation() == null)
                 startWritePendingRSP();
-            for (InstanceLocations match : ctx.getMatches()) {
-                if (canceled)
-                    break;
-
-                if (!ctx.copyToRetrieveCache(match))
-                    store(match);
-            }
+            if (readAhead > 0 || maxAssociations > 1)
+                storeMatchesInParallel();
+            else
+                for (InstanceLocations match : ctx.getMatches()) {
+                    if (canceled)
+                        break;
+
+                    if (!ctx.copyToRetrieveCache(match))
+                        store(storeas, match);
+                }
+            List<InstanceLocations> streamed = ctx.isStreamMatches() && !canceled
+                    ? streamMatches()
+                    : Collections.emptyList();
             ctx.copyToRetrieveCache(null);
             InstanceLocations match;
             while ((match = ctx.copiedToRetrieveCache()) != null && !canceled)
-                store(match);
+                store(storeas, match);
+
+            ctx.getMatches().addAll(streamed);
 
             waitForOutstandingCStoreRSP();
         } finally {
             releaseStoreAssociation();
+            releaseAdditionalStoreAssociations();
             waitForPendingCMoveForward();
             waitForPendingCStoreForward();
             updateCompleteness();
@@ -151,42 +185,232 @@ final class RetrieveTaskImpl implements RetrieveTask {
         retrieveEnd.fire(ctx);
     }
 
-    private void store(InstanceLocations inst) {
-        CStoreRSPHandler rspHandler = new CStoreRSPHandler(inst);
+    private List<InstanceLocations> streamMatches() {
+        List<InstanceLocations> streamed = new ArrayList<>();
+        ctx.getRetrieveService().streamMatches(ctx, match -> {
+            if (canceled)
+                return false;
+
+            if (!ctx.copyToRetrieveCache(match))
+                store(storeas, match);
+            streamed.add(auditInstanceLocations(match));
+            return true;
+        });
+        return streamed;
+    }
+
+    private InstanceLocations auditInstanceLocations(InstanceLocations match) {
+        Attributes attrs = new Attributes(match.getAttributes(), AUDIT_ATTRS);
+        return ctx.getRetrieveService().newInstanceLocations(attrs);
+    }
+
+    private void storeMatchesInParallel() {
+        List<InstanceLocations> matches = new ArrayList<>(ctx.getMatches().size());
+        for (InstanceLocations match : ctx.getMatches()) {
+            if (canceled)
+                return;
+
+            if (!ctx.copyToRetrieveCache(match))
+                matches.add(match);
+        }
+        Map<String, List<InstanceLocations>> bySeries = matches.stream().collect(Collectors.groupingBy(
+                inst -> inst.getAttributes().getString(Tag.SeriesInstanceUID, ""),
+                LinkedHashMap::new,
+                Collectors.toList()));
+        openAdditionalStoreAssociations(Math.min(maxAssociations, bySeries.size()) - 1);
+        List<Association> associations = new ArrayList<>(additionalStoreAssociations.size() + 1);
+        associations.add(storeas);
+        associations.addAll(additionalStoreAssociations);
+        List<List<InstanceLocations>> partitions = partitionBySeries(bySeries.values(), associations.size());
+        int readAheadPerAssociation = (readAhead + associations.size() - 1) / associations.size();
+        CountDownLatch latch = new CountDownLatch(associations.size() - 1);
+        for (int i = 1; i < associations.size(); i++) {
+            Association as = associations.get(i);
+            List<InstanceLocations> partition = partitions.get(i);
+            device().execute(() -> {
+                try {
+                    store(as, partition, readAheadPerAssociation);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        store(storeas, partitions.get(0), readAheadPerAssociation);
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            LOG.warn("{}: failed to wait for C-STORE sub-operations on additional associations to {}",
+                    rqas, storeas.getRemoteAET(), e);
+        }
+    }
+
+    private static List<List<InstanceLocations>> partitionBySeries(
+            Collection<List<InstanceLocations>> series, int numPartitions) {
+        List<List<InstanceLocations>> partitions = new ArrayList<>(numPartitions);
+        for (int i = 0; i < numPartitions; i++)
+            partitions.add(new ArrayList<>());
+        series.stream()
+                .sorted(Comparator.comparingInt(List<InstanceLocations>::size).reversed())
+                .forEach(instances -> partitions.stream()
+                        .min(Comparator.comparingInt(List::size))
+                        .get()
+                        .addAll(instances));
+        return partitions;
+    }
+
+    private void openAdditionalStoreAssociations(int num) {
+        for (int i = 0; i < num && !canceled; i++) {
+            try {
+                additionalStoreAssociations.add(ctx.getLocalApplicationEntity()
+                        .connect(ctx.getDestinationAE(), CStoreSCUImpl.createAARQ(ctx)));
+            } catch (Exception e) {
+                LOG.info("{}: failed to open additional association to {} - continue with {} association(s)",
+                        rqas != null ? rqas : storeas, ctx.getDestinationAETitle(), i + 1, e);
+                return;
+            }
+        }
+    }
+
+    private void releaseAdditionalStoreAssociations() {
+        for (Association as : additionalStoreAssociations)
+            try {
+                as.release();
+            } catch (IOException e) {
+                LOG.warn("{}: failed to release association to {}", rqas, as.getRemoteAET(), e);
+            }
+    }
+
+    private Device device() {
+        return ctx.getLocalApplicationEntity().getDevice();
+    }
+
+    private void store(Association as, List<InstanceLocations> insts, int readAhead) {
+        if (readAhead > 0) {
+            ReadAhead.forEach(insts.iterator(), readAhead, device()::execute,
+                    inst -> transcode(as, inst),
+                    transcoded -> store(as, transcoded),
+                    () -> canceled);
+        } else {
+            for (InstanceLocations inst : insts) {
+                if (canceled)
+                    break;
+
+                store(as, inst);
+            }
+        }
+    }
+
+    private void store(Association as, InstanceLocations inst) {
+        CStoreRSPHandler rspHandler = new CStoreRSPHandler(as, inst);
         String iuid = inst.getSopInstanceUID();
         String cuid = inst.getSopClassUID();
         int priority = ctx.getPriority();
-        Set<String> tsuids = storeas.getTransferSyntaxesFor(cuid);
+        Set<String> tsuids = as.getTransferSyntaxesFor(cuid);
         try {
             if (tsuids.isEmpty()) {
                 throw new NoPresentationContextException(cuid);
             }
             RetrieveService service = ctx.getRetrieveService();
-            try (Transcoder transcoder = service.openTranscoder(ctx, inst, tsuids, false)) {
-                String tsuid = transcoder.getDestinationTransferSyntax();
-                AttributesCoercion coerce = service.getAttributesCoercion(ctx, inst);
+            Transcoder transcoder;
+            AttributesCoercion coerce;
+            synchronized (ctx) {
+                transcoder = service.openTranscoder(ctx, inst, tsuids, false);
+                coerce = service.getAttributesCoercion(ctx, inst);
+            }
+            try (Transcoder t = transcoder) {
+                String tsuid = t.getDestinationTransferSyntax();
                 if (coerce != null)
                     iuid = coerce.remapUID(iuid);
 
-                DataWriter data = new TranscoderDataWriter(transcoder, coerce);
-                outstandingRSP.add(inst);
-                if (ctx.getMoveOriginatorAETitle() != null) {
-                    storeas.cstore(cuid, iuid, priority,
-                            ctx.getMoveOriginatorAETitle(), ctx.getMoveOriginatorMessageID(),
-                            data, tsuid, rspHandler);
-                } else {
-                    storeas.cstore(cuid, iuid, priority,
-                            data, tsuid, rspHandler);
-                }
+                DataWriter data = new TranscoderDataWriter(t, coerce);
+                cstore(as, inst, cuid, iuid, priority, data, tsuid, rspHandler);
             }
         } catch (Exception e) {
-            outstandingRSP.remove(inst);
-            ctx.incrementFailed();
-            ctx.addFailedSOPInstanceUID(iuid);
-            LOG.warn("{}: failed to send {} to {}:", rqas != null ? rqas : storeas, inst, ctx.getDestinationAETitle(), e);
+            onFailed(as, inst, iuid, e);
         }
     }
 
+    private Transcoded transcode(Association as, InstanceLocations inst) {
+        String cuid = inst.getSopClassUID();
+        Set<String> tsuids = as.getTransferSyntaxesFor(cuid);
+        if (tsuids.isEmpty())
+            return new Transcoded(inst, new NoPresentationContextException(cuid));
+
+        if (objectSize(inst) > MAX_READ_AHEAD_SIZE)
+            return new Transcoded(inst);
+
+        RetrieveService service = ctx.getRetrieveService();
+        try {
+            Transcoder transcoder;
+            AttributesCoercion coerce;
+            synchronized (ctx) {
+                transcoder = service.openTranscoder(ctx, inst, tsuids, false);
+                coerce = service.getAttributesCoercion(ctx, inst);
+            }
+            try (Transcoder t = transcoder) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                t.transcode((transcoder1, dataset) -> {
+                    if (coerce != null)
+                        coerce.coerce(dataset, null);
+                    return out;
+                });
+                return new Transcoded(inst,
+                        coerce != null ? coerce.remapUID(inst.getSopInstanceUID()) : inst.getSopInstanceUID(),
+                        t.getDestinationTransferSyntax(),
+                        out.toByteArray());
+            }
+        } catch (Exception e) {
+            return new Transcoded(inst, e);
+        }
+    }
+
+    private static long objectSize(InstanceLocations inst) {
+        return inst.getLocations().stream()
+                .filter(Location::isDicomFile)
+                .mapToLong(Location::getSize)
+                .max()
+                .orElse(0L);
+    }
+
+    private void store(Association as, Transcoded transcoded) {
+        InstanceLocations inst = transcoded.inst;
+        if (transcoded.exception != null) {
+            onFailed(as, inst, inst.getSopInstanceUID(), transcoded.exception);
+            return;
+        }
+        if (transcoded.data == null) {
+            store(as, inst);
+            return;
+        }
+        try {
+            byte[] b = transcoded.data;
+            cstore(as, inst, inst.getSopClassUID(), transcoded.iuid, ctx.getPriority(),
+                    (out, tsuid) -> out.write(b), transcoded.tsuid, new CStoreRSPHandler(as, inst));
+        } catch (Exception e) {
+            onFailed(as, inst, transcoded.iuid, e);
+        }
+    }
+
+    private void cstore(Association as, InstanceLocations inst, String cuid, String iuid, int priority,
+            DataWriter data, String tsuid, CStoreRSPHandler rspHandler) throws IOException, InterruptedException {
+        outstandingRSP.add(inst);
+        if (ctx.getMoveOriginatorAETitle() != null) {
+            as.cstore(cuid, iuid, priority,
+                    ctx.getMoveOriginatorAETitle(), ctx.getMoveOriginatorMessageID(),
+                    data, tsuid, rspHandler);
+        } else {
+            as.cstore(cuid, iuid, priority,
+                    data, tsuid, rspHandler);
+        }
+    }
+
+    private void onFailed(Association as, InstanceLocations inst, String iuid, Exception e) {
+        outstandingRSP.remove(inst);
+        ctx.incrementFailed();
+        ctx.addFailedSOPInstanceUID(iuid);
+        LOG.warn("{}: failed to send {} to {}:", rqas != null ? rqas : as, inst, ctx.getDestinationAETitle(), e);
+    }
+
     private void writeFinalRSP() {
         ctx.addFailed(ctx.remaining());
         writeRSP(ctx.status(), 0, finalRSPDataset());
@@ -300,12 +524,40 @@ final class RetrieveTaskImpl implements RetrieveTask {
             }
     }
 
+    private static final class Transcoded {
+        final InstanceLocations inst;
+        final String iuid;
+        final String tsuid;
+        final byte[] data;
+        final Exception exception;
+
+        Transcoded(InstanceLocations inst) {
+            this(inst, null, null, null, null);
+        }
+
+        Transcoded(InstanceLocations inst, Exception exception) {
+            this(inst, null, null, null, exception);
+        }
+
+        Transcoded(InstanceLocations inst, String iuid, String tsuid, byte[] data) {
+            this(inst, iuid, tsuid, data, null);
+        }
+
+        private Transcoded(InstanceLocations inst, String iuid, String tsuid, byte[] data, Exception exception) {
+            this.inst = inst;
+            this.iuid = iuid;
+            this.tsuid = tsuid;
+            this.data = data;
+            this.exception = exception;
+        }
+    }
+
     private final class CStoreRSPHandler extends DimseRSPHandler {
 
         private final InstanceLocations inst;
 
-        public CStoreRSPHandler(InstanceLocations inst) {
-            super(storeas.nextMessageID());
+        public CStoreRSPHandler(Association as, InstanceLocations inst) {
+            super(as.nextMessageID());
             this.inst = inst;
         }
 
@@ -0,0 +1,150 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.store.scu.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class ReadAheadTest {
+
+    private static final int NUM_INSTANCES = 20;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void preservesOrderAndOutcomes() {
+        List<Integer> items = items();
+        List<String> sequential = new ArrayList<>();
+        ReadAhead.forEach(items.iterator(), 1, Runnable::run, this::prepare, sequential::add, () -> false);
+        List<String> readAhead = Collections.synchronizedList(new ArrayList<>());
+        ReadAhead.forEach(items.iterator(), 4, executor, this::prepare, readAhead::add, () -> false);
+        assertEquals(sequential, readAhead);
+        assertEquals(NUM_INSTANCES, readAhead.size());
+        assertEquals("failed:7", readAhead.get(7));
+    }
+
+    @Test
+    public void overlapsPrepareWithSend() {
+        CountDownLatch nextPrepared = new CountDownLatch(1);
+        AtomicBoolean overlapped = new AtomicBoolean();
+        ReadAhead.forEach(items().iterator(), 4, executor,
+                i -> {
+                    if (i == 1)
+                        nextPrepared.countDown();
+                    return i;
+                },
+                i -> {
+                    if (i == 0)
+                        overlapped.set(await(nextPrepared));
+                }, () -> false);
+        assertTrue("Item 1 not prepared while sending item 0", overlapped.get());
+    }
+
+    @Test
+    public void limitsPreparedAhead() {
+        AtomicInteger prepared = new AtomicInteger();
+        AtomicInteger maxAhead = new AtomicInteger();
+        AtomicInteger processed = new AtomicInteger();
+        ReadAhead.forEach(items().iterator(), 4, executor,
+                i -> {
+                    maxAhead.accumulateAndGet(prepared.incrementAndGet() - processed.get(), Math::max);
+                    return i;
+                },
+                i -> processed.incrementAndGet(), () -> false);
+        assertEquals(NUM_INSTANCES, processed.get());
+        assertTrue("Prepared ahead: " + maxAhead.get(), maxAhead.get() <= 4);
+    }
+
+    @Test
+    public void stopsOnCancel() {
+        AtomicInteger processed = new AtomicInteger();
+        ReadAhead.forEach(items().iterator(), 4, executor, Function.identity(),
+                i -> processed.incrementAndGet(), () -> processed.get() >= 5);
+        assertEquals(5, processed.get());
+    }
+
+    private String prepare(Integer i) {
+        return i == 7 ? "failed:" + i : "ok:" + i;
+    }
+
+    private static List<Integer> items() {
+        return IntStream.range(0, NUM_INSTANCES).boxed().collect(Collectors.toList());
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
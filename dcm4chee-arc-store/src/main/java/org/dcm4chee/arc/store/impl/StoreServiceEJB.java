@@ -86,6 +86,7 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
@@ -226,7 +227,10 @@ public class StoreServiceEJB {
             copyLocations(ctx, instance, result);
 
         result.setStoredInstance(instance);
-        deleteQueryAttributes(instance);
+        if (prevInstance != null)
+            deleteQueryAttributes(instance);
+        else
+            updateQueryAttributes(instance, result);
         Series series = instance.getSeries();
         series.getStudy().resetSize();
         series.scheduleMetadataUpdate(arcAE.seriesMetadataDelay());
@@ -249,6 +253,17 @@ public class StoreServiceEJB {
         return result;
     }
 
+    public void updateDB(Map<StoreContext, UpdateDBResult> batch) {
+        for (Map.Entry<StoreContext, UpdateDBResult> entry : batch.entrySet()) {
+            try {
+                updateDB(entry.getKey(), entry.getValue());
+            } catch (DicomServiceException e) {
+                // roll back the DB records of all objects of the batch
+                throw new EJBException(e);
+            }
+        }
+    }
+
     private static boolean isPatientVerificationStale(Patient patient, Duration maxStaleness) {
         if (maxStaleness != null)
             switch (patient.getVerificationStatus()) {
@@ -342,11 +357,14 @@ public class StoreServiceEJB {
             throws DicomServiceException {
         StoreSession session = ctx.getStoreSession();
         Duration seriesMetadataDelay = arcAE.seriesMetadataDelay();
+        Collection<QueryRetrieveView> qrViews = arcAE.getArchiveDeviceExtension().getQueryRetrieveViews();
         for (Attributes studyRef : ctx.getAttributes().getSequence(Tag.CurrentRequestedProcedureEvidenceSequence)) {
             String studyUID = studyRef.getString(Tag.StudyInstanceUID);
             Series series = null;
+            Set<String> studyViewIDs = new HashSet<>();
             for (Attributes seriesRef : studyRef.getSequence(Tag.ReferencedSeriesSequence)) {
                 Instance inst = null;
+                Set<String> viewIDs = new HashSet<>();
                 String seriesUID = seriesRef.getString(Tag.SeriesInstanceUID);
                 series = findSeries(studyUID, seriesUID);
                 if (series == null)
@@ -360,7 +378,8 @@ public class StoreServiceEJB {
                 for (Attributes sopRef : seriesRef.getSequence(Tag.ReferencedSOPSequence)) {
                     String classUID = sopRef.getString(Tag.ReferencedSOPClassUID);
                     String objectUID = sopRef.getString(Tag.ReferencedSOPInstanceUID);
-                    inst = rejectInstance(session, series, objectUID, classUID, rjNote, rejectionCode);
+                    inst = rejectInstance(session, series, objectUID, classUID, rjNote, rejectionCode,
+                            qrViews, viewIDs);
                 }
                 if (inst != null) {
                     RejectionState rejectionState = rjNote.isRevokeRejection()
@@ -369,7 +388,8 @@ public class StoreServiceEJB {
                     series.setRejectionState(rejectionState);
                     if (rejectionState == RejectionState.COMPLETE)
                         series.setExpirationDate(null);
-                    deleteSeriesQueryAttributes(series);
+                    deleteSeriesQueryAttributes(series, viewIDs);
+                    studyViewIDs.addAll(viewIDs);
                     series.scheduleMetadataUpdate(seriesMetadataDelay);
                     series.setInstancePurgeTime(null);
                 }
@@ -392,7 +412,7 @@ public class StoreServiceEJB {
                         study.getPatient().decrementNumberOfStudies();
                     }
                 }
-                deleteStudyQueryAttributes(study);
+                deleteStudyQueryAttributes(study, studyViewIDs);
             }
         }
     }
@@ -446,7 +466,8 @@ public class StoreServiceEJB {
 
     private Instance rejectInstance(StoreSession session, Series series,
                                     String objectUID, String classUID, RejectionNote rjNote,
-                                    CodeEntity rejectionCode) throws DicomServiceException {
+                                    CodeEntity rejectionCode, Collection<QueryRetrieveView> qrViews,
+                                    Set<String> viewIDs) throws DicomServiceException {
         Instance inst = findInstance(series, objectUID);
         if (inst == null)
             throw new DicomServiceException(StoreService.REJECTION_FAILED_NO_SUCH_INSTANCE,
@@ -463,6 +484,11 @@ public class StoreServiceEJB {
                         MessageFormat.format(StoreService.REJECTION_FAILED_ALREADY_REJECTED_MSG, objectUID));
         }
         inst.setRejectionNoteCode(rjNote.isRevokeRejection() ? null : rejectionCode);
+        QueryAttributesUtils.addViewIDsOfChangedVisibility(qrViews,
+                prevRjNoteCode != null ? prevRjNoteCode.getCode() : null,
+                inst.getRejectionNoteCode() != null ? inst.getRejectionNoteCode().getCode() : null,
+                inst.getConceptNameCode() != null ? inst.getConceptNameCode().getCode() : null,
+                viewIDs);
         if (!rjNote.isRevokeRejection())
             LOG.info("{}: Reject {} by {}", session, inst, rejectionCode.getCode());
         else if (prevRjNoteCode != null)
@@ -636,6 +662,54 @@ public class StoreServiceEJB {
         em.createNamedQuery(SeriesQueryAttributes.DELETE_FOR_SERIES).setParameter(1, series).executeUpdate();
     }
 
+    public void deleteStudyQueryAttributes(Study study, Collection<String> viewIDs) {
+        if (!viewIDs.isEmpty())
+            em.createNamedQuery(StudyQueryAttributes.DELETE_FOR_STUDY_AND_VIEW_IDS)
+                    .setParameter(1, study)
+                    .setParameter(2, viewIDs)
+                    .executeUpdate();
+    }
+
+    public void deleteSeriesQueryAttributes(Series series, Collection<String> viewIDs) {
+        if (!viewIDs.isEmpty())
+            em.createNamedQuery(SeriesQueryAttributes.DELETE_FOR_SERIES_AND_VIEW_IDS)
+                    .setParameter(1, series)
+                    .setParameter(2, viewIDs)
+                    .executeUpdate();
+    }
+
+    private void updateQueryAttributes(Instance instance, UpdateDBResult result) {
+        Series series = instance.getSeries();
+        Study study = series.getStudy();
+        if (result.getCreatedStudy() == study)
+            return;
+
+        ArchiveDeviceExtension arcDev = getArchiveDeviceExtension();
+        boolean seriesCreated = result.getCreatedSeries() == series;
+        Map<String, SeriesQueryAttributes> seriesQueryAttrs = new HashMap<>();
+        if (!seriesCreated)
+            for (SeriesQueryAttributes queryAttrs : em.createNamedQuery(
+                    SeriesQueryAttributes.FIND_BY_SERIES, SeriesQueryAttributes.class)
+                    .setParameter(1, series)
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .getResultList())
+                seriesQueryAttrs.put(queryAttrs.getViewID(), queryAttrs);
+
+        List<StudyQueryAttributes> studyQueryAttrs = em.createNamedQuery(
+                StudyQueryAttributes.FIND_BY_STUDY, StudyQueryAttributes.class)
+                .setParameter(1, study)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+        for (StudyQueryAttributes queryAttrs : QueryAttributesUtils.addInstance(studyQueryAttrs, seriesQueryAttrs,
+                seriesCreated, viewID -> {
+                    QueryRetrieveView qrView = arcDev.getQueryRetrieveView(viewID);
+                    return qrView != null && instance.isShownBy(qrView);
+                },
+                series.getModality(), instance.getSopClassUID(), instance.getRetrieveAETs(),
+                instance.getAvailability()))
+            em.remove(queryAttrs);
+    }
+
     private Instance createInstance(StoreContext ctx, CodeEntity conceptNameCode, UpdateDBResult result,
                                     Date now, String reasonForTheAttributeModification)
             throws DicomServiceException {
@@ -696,9 +770,9 @@ public class StoreServiceEJB {
         Study study = series.getStudy();
         Patient patient = study.getPatient();
         Attributes storedAttrs = new Attributes(result.getStoredAttributes());
-        Attributes seriesAttrs = new Attributes(series.getAttributes());
-        Attributes studyAttrs = new Attributes(study.getAttributes());
-        Attributes patAttrs = new Attributes(patient.getAttributes());
+        Attributes seriesAttrs = copyAttributes(series, series::getAttributes);
+        Attributes studyAttrs = copyAttributes(study, study::getAttributes);
+        Attributes patAttrs = copyAttributes(patient, patient::getAttributes);
         Attributes.unifyCharacterSets(patAttrs, studyAttrs, seriesAttrs, storedAttrs);
         Attributes modified = result.getCoercedAttributes();
         storedAttrs.updateNotSelected(Attributes.UpdatePolicy.OVERWRITE, patAttrs, modified,
@@ -759,13 +833,17 @@ public class StoreServiceEJB {
         Attributes.UpdatePolicy updatePolicy = session.getPatientUpdatePolicy();
         ArchiveDeviceExtension arcDev = getArchiveDeviceExtension();
         AttributeFilter filter = arcDev.getAttributeFilter(Entity.Patient);
-        Attributes attrs = pat.getAttributes();
+        if (!copyAttributes(pat, pat::getAttributes)
+                .updateSelected(updatePolicy, ctx.getAttributes(), null, filter.getSelection(false)))
+            return pat;
+
+        pat = em.find(Patient.class, pat.getPk(), LockModeType.PESSIMISTIC_WRITE);
+        Attributes attrs = new Attributes(pat.getAttributes());
         UpdateInfo updateInfo = new UpdateInfo(attrs);
         if (!attrs.updateSelected(updatePolicy, ctx.getAttributes(), null, filter.getSelection(false)))
             return pat;
 
         updateInfo.log(session, pat, attrs);
-        pat = em.find(Patient.class, pat.getPk());
         IDWithIssuer idWithIssuer = IDWithIssuer.pidOf(attrs);
         if (idWithIssuer != null) {
             Issuer issuer = idWithIssuer.getIssuer();
@@ -794,13 +872,17 @@ public class StoreServiceEJB {
                 : session.getStudyUpdatePolicy();
         ArchiveDeviceExtension arcDev = getArchiveDeviceExtension();
         AttributeFilter filter = arcDev.getAttributeFilter(Entity.Study);
-        Attributes attrs = study.getAttributes();
+        if (!copyAttributes(study, study::getAttributes)
+                .updateSelected(updatePolicy, ctx.getAttributes(), null, filter.getSelection(false)))
+            return study;
+
+        study = em.find(Study.class, study.getPk(), LockModeType.PESSIMISTIC_WRITE);
+        Attributes attrs = new Attributes(study.getAttributes());
         UpdateInfo updateInfo = new UpdateInfo(attrs);
         if (!attrs.updateSelected(updatePolicy, ctx.getAttributes(), updateInfo.modified, filter.getSelection(false)))
             return study;
 
         updateInfo.log(session, study, attrs);
-        study = em.find(Study.class, study.getPk());
         study.setAttributes(
                 attrs.addOriginalAttributes(null, now, reason, device.getDeviceName(), updateInfo.modified),
                 filter, arcDev.getFuzzyStr());
@@ -820,13 +902,17 @@ public class StoreServiceEJB {
         if (updatePolicy == null)
             return series;
 
-        Attributes attrs = series.getAttributes();
+        if (!copyAttributes(series, series::getAttributes)
+                .updateSelected(updatePolicy, ctx.getAttributes(), null, filter.getSelection(false)))
+            return series;
+
+        series = em.find(Series.class, series.getPk(), LockModeType.PESSIMISTIC_WRITE);
+        Attributes attrs = new Attributes(series.getAttributes());
         UpdateInfo updateInfo = new UpdateInfo(attrs);
         if (!attrs.updateSelected(updatePolicy, ctx.getAttributes(), updateInfo.modified, filter.getSelection(false)))
             return series;
 
         updateInfo.log(session, series, attrs);
-        series = em.find(Series.class, series.getPk());
         FuzzyStr fuzzyStr = arcDev.getFuzzyStr();
         series.setAttributes(
                 attrs.addOriginalAttributes(null, now, reason, device.getDeviceName(), updateInfo.modified),
@@ -836,6 +922,17 @@ public class StoreServiceEJB {
         return series;
     }
 
+    /**
+     * Returns a copy of the attributes of a Patient, Study or Series, which may be the detached entity cached by
+     * the Store Session and therefore shared by concurrent stores of that session. The cached entity itself is
+     * never modified; changes are merged into the row locked by {@link LockModeType#PESSIMISTIC_WRITE}.
+     */
+    private static Attributes copyAttributes(Object entity, Supplier<Attributes> attributes) {
+        synchronized (entity) {
+            return new Attributes(attributes.get());
+        }
+    }
+
     public List<Attributes> queryMWL(StoreContext ctx, MergeMWLQueryParam queryParam) {
         LOG.info("{}: Query for MWL Items with {}", ctx.getStoreSession(), queryParam);
         TypedQuery<Tuple> namedQuery = queryParam.accessionNumber != null
@@ -1048,13 +1145,9 @@ public class StoreServiceEJB {
         if (pat != null)
             attrs.addAll(pat.getAttributes());
         String urlspec = new AttributesFormat(serviceURL).format(attrs);
-        StorePermission storePermission = storePermissionCache.get(urlspec);
-        if (storePermission == null) {
-            storePermission = queryStorePermission(session, urlspec);
-            storePermissionCache.put(urlspec, storePermission);
-        } else
-            LOG.debug("{}: Use cached result of Query Store Permission Service {} - {}",
-                    session, urlspec, storePermission);
+        StorePermission storePermission = storePermissionCache.get(urlspec,
+                key -> queryStorePermission(session, key));
+        LOG.debug("{}: Use result of Query Store Permission Service {} - {}", session, urlspec, storePermission);
 
         if (storePermission.exception != null)
             throw storePermission.exception;
@@ -1186,6 +1279,7 @@ public class StoreServiceEJB {
             series.setRejectionState(RejectionState.COMPLETE);
         }
         em.persist(series);
+        result.setCreatedSeries(series);
         LOG.info("{}: Create {}", ctx.getStoreSession(), series);
         return series;
     }
@@ -1316,12 +1410,30 @@ public class StoreServiceEJB {
                 .size(writeContext.getSize())
                 .digest(writeContext.getDigest())
                 .build();
+        if (writeContext.isDeduplicated())
+            shareMultiReference(location);
         location.setInstance(instance);
         em.persist(location);
         LOG.info("{}: Create {}", ctx.getStoreSession(), location);
         return location;
     }
 
+    private void shareMultiReference(Location location) {
+        List<Location> locations = em.createNamedQuery(Location.FIND_BY_STORAGE_ID_AND_STORAGE_PATH, Location.class)
+                .setParameter(1, location.getStorageID())
+                .setParameter(2, location.getStoragePath())
+                .setParameter(3, Location.Status.TO_DELETE)
+                .setMaxResults(1)
+                .getResultList();
+        if (locations.isEmpty())
+            return;
+
+        Location prevLocation = locations.get(0);
+        if (prevLocation.getMultiReference() == null)
+            prevLocation.setMultiReference(idService.newLocationMultiReference());
+        location.setMultiReference(prevLocation.getMultiReference());
+    }
+
     private void copyLocations(StoreContext ctx, Instance instance, UpdateDBResult result) {
         StoreSession session = ctx.getStoreSession();
         Map<Long, UIDMap> uidMapCache = session.getUIDMapCache();
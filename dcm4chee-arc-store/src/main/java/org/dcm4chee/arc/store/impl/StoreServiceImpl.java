@@ -56,7 +56,6 @@ import org.dcm4che3.net.hl7.UnparsedHL7Message;
 import org.dcm4che3.net.service.DicomServiceException;
 import org.dcm4che3.util.StringUtils;
 import org.dcm4che3.util.UIDUtils;
-import org.dcm4chee.arc.Cache;
 import org.dcm4chee.arc.MergeMWLQueryParam;
 import org.dcm4chee.arc.MergeMWLCache;
 import org.dcm4chee.arc.conf.*;
@@ -113,6 +112,9 @@ class StoreServiceImpl implements StoreService {
     @Inject
     private Event<StoreContext> storeEvent;
 
+    @Inject @StoreSessionClosed
+    private Event<StoreSession> storeSessionClosedEvent;
+
     @Inject
     private Event<SoftwareConfiguration> softwareConfigurationEvent;
 
@@ -221,6 +223,14 @@ class StoreServiceImpl implements StoreService {
         StoreSession session = ctx.getStoreSession();
         ArchiveAEExtension arcAE = session.getArchiveAEExtension();
         ArchiveDeviceExtension arcDev = arcAE.getArchiveDeviceExtension();
+        int maxBatchSize = arcDev.getStoreUpdateDBMaxBatchSize();
+        if (maxBatchSize > 1 && session instanceof StoreSessionImpl) {
+            UpdateDBResult result = updateDBInBatch(ctx,
+                    ((StoreSessionImpl) session).joinUpdateDBBatch(ctx, maxBatchSize));
+            if (result != null)
+                return result;
+        }
+
         int retries = arcDev.getStoreUpdateDBMaxRetries();
         for (;;) {
             try {
@@ -245,6 +255,41 @@ class StoreServiceImpl implements StoreService {
         }
     }
 
+    private UpdateDBResult updateDBInBatch(StoreContext ctx, UpdateDBBatch batch) throws DicomServiceException {
+        if (batch.isLeader(ctx)) {
+            StoreSession session = ctx.getStoreSession();
+            ArchiveDeviceExtension arcDev = session.getArchiveAEExtension().getArchiveDeviceExtension();
+            Throwable failure = null;
+            try {
+                List<StoreContext> ctxs = batch.awaitClosed(arcDev.getStoreUpdateDBMaxBatchDelay());
+                if (ctxs.size() == 1) {
+                    batch.fallback();
+                } else {
+                    Map<StoreContext, UpdateDBResult> results = new LinkedHashMap<>();
+                    for (StoreContext ctx1 : ctxs)
+                        results.put(ctx1, new UpdateDBResult(ctx1));
+                    long start = System.currentTimeMillis();
+                    try {
+                        ejb.updateDB(results);
+                        LOG.info("{}: Updated DB for {} objects in {} ms",
+                                session, results.size(), System.currentTimeMillis() - start);
+                        batch.completed(results);
+                    } catch (EJBException e) {
+                        LOG.info("{}: Failed to update DB for {} objects in one transaction - update DB per object:\n",
+                                session, ctxs.size(), e);
+                        batch.fallback();
+                    }
+                }
+            } catch (RuntimeException | Error e) {
+                failure = e;
+                throw e;
+            } finally {
+                batch.release(failure);
+            }
+        }
+        return batch.getResult(ctx);
+    }
+
     private void postUpdateDB(StoreContext ctx, UpdateDBResult result) throws IOException {
         StoreSession storeSession = ctx.getStoreSession();
         LOG.debug("{}: Enter postUpdateDB", storeSession);
@@ -339,6 +384,14 @@ class StoreServiceImpl implements StoreService {
         }
     }
 
+    void fireStoreSessionClosed(StoreSession session) {
+        try {
+            storeSessionClosedEvent.fire(session);
+        } catch (RuntimeException e) {
+            LOG.warn("{}: Firing Store Session Closed Event throws Exception:\n", session, e);
+        }
+    }
+
     public void fireStoreEvent(StoreContext ctx) throws DicomServiceException {
         try {
             LOG.debug("{}: Firing Store Event", ctx.getStoreSession());
@@ -514,15 +567,15 @@ class StoreServiceImpl implements StoreService {
         MergeMWLQueryParam queryParam =
                 MergeMWLQueryParam.valueOf(mergeMWLMatchingKey, ctx.getAttributes());
 
-        Cache.Entry<Attributes> entry = mergeMWLCache.getEntry(queryParam);
-        if (entry != null)
-            return entry.value();
+        return mergeMWLCache.get(queryParam, key -> queryMWL(ctx, rule, tplURI, key));
+    }
 
+    private Attributes queryMWL(StoreContext ctx, ArchiveAttributeCoercion rule, String tplURI,
+                                MergeMWLQueryParam queryParam) {
         List<Attributes> mwlItems = ejb.queryMWL(ctx, queryParam);
-        if (mwlItems == null) {
-            mergeMWLCache.put(queryParam, null);
+        if (mwlItems == null)
             return null;
-        }
+
         Attributes result = null;
         Sequence reqAttrsSeq = null;
         try {
@@ -541,7 +594,6 @@ class StoreServiceImpl implements StoreService {
         } catch (SAXException e) {
             LOG.error("{}: Failed to apply XSL: {}", ctx.getStoreSession(), tplURI, e);
         }
-        mergeMWLCache.put(queryParam, result);
         return result;
     }
 
@@ -54,15 +54,16 @@ import org.dcm4chee.arc.entity.UIDMap;
 import org.dcm4chee.arc.qmgt.HttpServletRequestInfo;
 import org.dcm4chee.arc.storage.Storage;
 import org.dcm4chee.arc.storage.StorageFactory;
+import org.dcm4chee.arc.store.StoreContext;
 import org.dcm4chee.arc.store.StoreService;
 import org.dcm4chee.arc.store.StoreSession;
 
 import java.io.IOException;
 import java.net.Socket;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -82,12 +83,12 @@ class StoreSessionImpl implements StoreSession {
     private String callingAET;
     private Socket socket;
     private UnparsedHL7Message msg;
-    private final StoreService storeService;
-    private final Map<String, Storage> storageMap = new HashMap<>();
+    private final StoreServiceImpl storeService;
+    private final Map<String, Storage> storageMap = new ConcurrentHashMap<>();
     private Study cachedStudy;
-    private final Map<String,Series> seriesCache = new HashMap<>();
+    private final Map<String,Series> seriesCache = new ConcurrentHashMap<>();
     private final Set<String> processedPrefetchRules = new HashSet<>();
-    private final Map<Long,UIDMap> uidMapCache = new HashMap<>();
+    private final Map<Long,UIDMap> uidMapCache = new ConcurrentHashMap<>();
     private Map<String, String> uidMap;
     private String objectStorageID;
     private String metadataStorageID;
@@ -96,8 +97,9 @@ class StoreSessionImpl implements StoreSession {
     private Attributes.UpdatePolicy patientUpdatePolicy;
     private Attributes.UpdatePolicy studyUpdatePolicy;
     private String impaxReportEndpoint;
+    private UpdateDBBatch updateDBBatch;
 
-    StoreSessionImpl(StoreService storeService) {
+    StoreSessionImpl(StoreServiceImpl storeService) {
         this.serialNo = prevSerialNo.incrementAndGet();
         this.storeService = storeService;
     }
@@ -232,17 +234,17 @@ class StoreSessionImpl implements StoreSession {
     }
 
     @Override
-    public Study getCachedStudy(String studyInstanceUID) {
+    public synchronized Study getCachedStudy(String studyInstanceUID) {
         return isStudyCached(studyInstanceUID) ? cachedStudy : null;
     }
 
     @Override
-    public Series getCachedSeries(String studyInstanceUID, String seriesIUID) {
+    public synchronized Series getCachedSeries(String studyInstanceUID, String seriesIUID) {
         return isStudyCached(studyInstanceUID) ? seriesCache.get(seriesIUID) : null;
     }
 
     @Override
-    public void cacheSeries(Series series) {
+    public synchronized void cacheSeries(Series series) {
         Study study = series.getStudy();
         if (!isStudyCached(study.getStudyInstanceUID())) {
             cachedStudy = study;
@@ -253,15 +255,28 @@ class StoreSessionImpl implements StoreSession {
     }
 
     @Override
-    public boolean isNotProcessed(ExportPriorsRule rule) {
+    public synchronized boolean isNotProcessed(ExportPriorsRule rule) {
         return !processedPrefetchRules.contains(rule.getCommonName());
     }
 
     @Override
-    public boolean markAsProcessed(ExportPriorsRule rule) {
+    public synchronized boolean markAsProcessed(ExportPriorsRule rule) {
         return processedPrefetchRules.add(rule.getCommonName());
     }
 
+    /**
+     * @return batch joined by the specified object, which DB records are created in the same transaction as the
+     *         DB records of the other objects of the batch
+     */
+    synchronized UpdateDBBatch joinUpdateDBBatch(StoreContext ctx, int maxBatchSize) {
+        if (updateDBBatch == null || !updateDBBatch.add(ctx)) {
+            if (updateDBBatch != null)
+                updateDBBatch.close();
+            updateDBBatch = new UpdateDBBatch(ctx, maxBatchSize);
+        }
+        return updateDBBatch;
+    }
+
     private boolean isStudyCached(String studyInstanceUID) {
         return cachedStudy != null && cachedStudy.getStudyInstanceUID().equals(studyInstanceUID);
     }
@@ -270,6 +285,7 @@ class StoreSessionImpl implements StoreSession {
     public void close() throws IOException {
         for (Storage storage : storageMap.values())
             SafeClose.close(storage);
+        storeService.fireStoreSessionClosed(this);
     }
 
     @Override
@@ -278,9 +294,9 @@ class StoreSessionImpl implements StoreSession {
     }
 
     @Override
-    public Map<String, String> getUIDMap() {
+    public synchronized Map<String, String> getUIDMap() {
         if (uidMap == null)
-            uidMap = new HashMap<>();
+            uidMap = new ConcurrentHashMap<>();
 
         return uidMap;
     }
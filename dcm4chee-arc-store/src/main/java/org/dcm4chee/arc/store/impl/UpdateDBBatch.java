@@ -0,0 +1,156 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.store.impl;
+
+import org.dcm4che3.net.Status;
+import org.dcm4che3.net.service.DicomServiceException;
+import org.dcm4chee.arc.store.StoreContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Received objects of one Series of a Store Session, which DB records are created in one transaction.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class UpdateDBBatch {
+    private final String seriesInstanceUID;
+    private final int maxSize;
+    private final List<StoreContext> contexts;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private boolean closed;
+    private volatile Map<StoreContext, UpdateDBResult> results;
+    private volatile Throwable failure;
+
+    UpdateDBBatch(StoreContext ctx, int maxSize) {
+        this.seriesInstanceUID = ctx.getSeriesInstanceUID();
+        this.maxSize = maxSize;
+        this.contexts = new ArrayList<>(maxSize);
+        this.contexts.add(ctx);
+    }
+
+    synchronized boolean isLeader(StoreContext ctx) {
+        return contexts.get(0) == ctx;
+    }
+
+    synchronized boolean add(StoreContext ctx) {
+        if (closed || !seriesInstanceUID.equals(ctx.getSeriesInstanceUID()))
+            return false;
+
+        contexts.add(ctx);
+        if (contexts.size() >= maxSize)
+            close();
+        return true;
+    }
+
+    synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    synchronized List<StoreContext> awaitClosed(long maxDelay) {
+        long end = System.currentTimeMillis() + maxDelay;
+        long remaining;
+        try {
+            while (!closed && (remaining = end - System.currentTimeMillis()) > 0)
+                wait(remaining);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closed = true;
+        return new ArrayList<>(contexts);
+    }
+
+    void completed(Map<StoreContext, UpdateDBResult> results) {
+        this.results = results;
+        done.countDown();
+    }
+
+    /**
+     * Let each object of the batch update the DB in its own transaction.
+     */
+    void fallback() {
+        done.countDown();
+    }
+
+    /**
+     * Fail all objects of the batch, if the DB update of the batch neither completed nor fell back to the update
+     * per object - e.g. because the leader of the batch was terminated by an {@link Error}. Called by the leader
+     * in any case, so no other object of the batch waits forever on {@link #getResult}.
+     *
+     * @param failure cause of the failure or {@code null}
+     */
+    void release(Throwable failure) {
+        if (done.getCount() == 0)
+            return;
+
+        this.failure = failure != null
+                ? failure
+                : new IllegalStateException("DB update of batch of Series[" + seriesInstanceUID + "] aborted");
+        done.countDown();
+    }
+
+    /**
+     * @return result of updating the DB for the specified object or {@code null}, if the DB update of the batch
+     *         failed and the object has to update the DB in its own transaction
+     */
+    UpdateDBResult getResult(StoreContext ctx) throws DicomServiceException {
+        boolean interrupted = false;
+        for (;;) {
+            try {
+                done.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+        if (failure != null)
+            throw new DicomServiceException(Status.ProcessingFailure, failure);
+
+        return results != null ? results.get(ctx) : null;
+    }
+}
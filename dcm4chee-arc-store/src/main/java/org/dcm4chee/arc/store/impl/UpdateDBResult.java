@@ -41,6 +41,7 @@
 package org.dcm4chee.arc.store.impl;
 
 import org.dcm4che3.data.Attributes;
+import org.dcm4che3.net.service.DicomServiceException;
 import org.dcm4chee.arc.conf.RejectionNote;
 import org.dcm4chee.arc.entity.*;
 import org.dcm4chee.arc.storage.WriteContext;
@@ -61,6 +62,7 @@ class UpdateDBResult {
     private Instance createdInstance;
     private Patient createdPatient;
     private Study createdStudy;
+    private Series createdSeries;
     private Instance storedInstance;
     private Attributes storedAttributes;
     private final Attributes coercedAttributes;
@@ -110,6 +112,14 @@ class UpdateDBResult {
         this.createdStudy = createdStudy;
     }
 
+    public Series getCreatedSeries() {
+        return createdSeries;
+    }
+
+    public void setCreatedSeries(Series createdSeries) {
+        this.createdSeries = createdSeries;
+    }
+
     public Instance getCreatedInstance() {
         return createdInstance;
     }
@@ -0,0 +1,169 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.store.impl;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.net.service.DicomServiceException;
+import org.dcm4chee.arc.store.StoreContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class UpdateDBBatchTest {
+
+    private static final String SERIES_IUID = "1.2.3.4";
+    private static final String OTHER_SERIES_IUID = "1.2.3.5";
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void closesOnMaxSize() {
+        StoreContext leader = storeContext(SERIES_IUID);
+        StoreContext follower1 = storeContext(SERIES_IUID);
+        StoreContext follower2 = storeContext(SERIES_IUID);
+        UpdateDBBatch batch = new UpdateDBBatch(leader, 3);
+        assertTrue(batch.isLeader(leader));
+        assertTrue(batch.add(follower1));
+        assertFalse(batch.isLeader(follower1));
+        assertFalse(batch.add(storeContext(OTHER_SERIES_IUID)));
+        assertTrue(batch.add(follower2));
+        assertFalse(batch.add(storeContext(SERIES_IUID)));
+        assertEquals(Arrays.asList(leader, follower1, follower2), batch.awaitClosed(TimeUnit.MINUTES.toMillis(1)));
+    }
+
+    @Test
+    public void closesAfterMaxDelay() {
+        StoreContext leader = storeContext(SERIES_IUID);
+        UpdateDBBatch batch = new UpdateDBBatch(leader, 3);
+        assertEquals(Collections.singletonList(leader), batch.awaitClosed(10));
+        assertFalse(batch.add(storeContext(SERIES_IUID)));
+    }
+
+    @Test
+    public void followerGetsResultOfBatch() throws Exception {
+        StoreContext leader = storeContext(SERIES_IUID);
+        StoreContext follower = storeContext(SERIES_IUID);
+        UpdateDBBatch batch = new UpdateDBBatch(leader, 2);
+        batch.add(follower);
+        Future<UpdateDBResult> result = executor.submit(() -> batch.getResult(follower));
+        Map<StoreContext, UpdateDBResult> results = Collections.singletonMap(follower, new UpdateDBResult(follower));
+        batch.completed(results);
+        batch.release(null);
+        assertSame(results.get(follower), result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void followerUpdatesDBPerObjectAfterFallback() throws Exception {
+        StoreContext leader = storeContext(SERIES_IUID);
+        StoreContext follower = storeContext(SERIES_IUID);
+        UpdateDBBatch batch = new UpdateDBBatch(leader, 2);
+        batch.add(follower);
+        Future<UpdateDBResult> result = executor.submit(() -> batch.getResult(follower));
+        batch.fallback();
+        batch.release(null);
+        assertNull(result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void followerFailsIfLeaderTerminatedByError() throws Exception {
+        StoreContext leader = storeContext(SERIES_IUID);
+        StoreContext follower = storeContext(SERIES_IUID);
+        UpdateDBBatch batch = new UpdateDBBatch(leader, 2);
+        batch.add(follower);
+        Future<UpdateDBResult> result = executor.submit(() -> batch.getResult(follower));
+        AssertionError error = new AssertionError("leader terminated");
+        batch.release(error);
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            fail("DicomServiceException expected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof DicomServiceException);
+            assertSame(error, e.getCause().getCause());
+        }
+    }
+
+    private static StoreContext storeContext(String seriesIUID) {
+        return (StoreContext) Proxy.newProxyInstance(StoreContext.class.getClassLoader(),
+                new Class<?>[]{ StoreContext.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getSeriesInstanceUID":
+                            return seriesIUID;
+                        case "getAttributes":
+                        case "getCoercedAttributes":
+                            return new Attributes();
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "StoreContext[seriesUID=" + seriesIUID + ']';
+                    }
+                    return null;
+                });
+    }
+}
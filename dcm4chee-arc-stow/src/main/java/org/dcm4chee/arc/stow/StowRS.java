@@ -83,6 +83,9 @@ import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
@@ -136,7 +139,11 @@ public class StowRS {
     private Sequence sopSequence;
     private Sequence failedSOPSequence;
     private java.nio.file.Path spoolDirectory;
-    private Map<String, BulkDataWithMediaType> bulkdataMap = new HashMap<>();
+    private Map<String, BulkDataWithMediaType> bulkdataMap = new ConcurrentHashMap<>();
+    private int instanceNumber;
+    private int maxParallelism;
+    private Semaphore semaphore;
+    private final AtomicReference<Exception> storeFailure = new AtomicReference<>();
 
     @Override
     public String toString() {
@@ -272,37 +279,107 @@ public class StowRS {
         ar.register((CompletionCallback) throwable -> purgeSpoolDirectory());
         final StoreSession session = service.newStoreSession(
                 HttpServletRequestInfo.valueOf(request), getApplicationEntity(), null);
-        new MultipartParser(boundary())
-                .parse(new BufferedInputStream(in), (partNumber, multipartInputStream) -> {
-                    Map<String, List<String>> headerParams = multipartInputStream.readHeaderParams();
-                    LOG.info("storeInstances: Extract Part #{}{}", partNumber, headerParams);
-                    String contentLocation = getHeaderParamValue(headerParams, "content-location");
-                    String contentType = getHeaderParamValue(headerParams, "content-type");
-                    MediaType mediaType = MediaType.valueOf(contentType);
-                    try {
-                        if (!input.readBodyPart(StowRS.this, session, multipartInputStream, mediaType, contentLocation)) {
-                            LOG.info("{}: Ignore Part with Content-Type={}", session, mediaType);
-                            multipartInputStream.skipAll();
+        maxParallelism = session.getArchiveAEExtension().stowMaxParallelism();
+        if (maxParallelism > 1) {
+            LOG.info("{}: Store received instances by up to {} threads in parallel", session, maxParallelism);
+            semaphore = new Semaphore(maxParallelism);
+        }
+        try {
+            new MultipartParser(boundary())
+                    .parse(new BufferedInputStream(in), (partNumber, multipartInputStream) -> {
+                        Map<String, List<String>> headerParams = multipartInputStream.readHeaderParams();
+                        LOG.info("storeInstances: Extract Part #{}{}", partNumber, headerParams);
+                        String contentLocation = getHeaderParamValue(headerParams, "content-location");
+                        String contentType = getHeaderParamValue(headerParams, "content-type");
+                        MediaType mediaType = MediaType.valueOf(contentType);
+                        try {
+                            if (!input.readBodyPart(StowRS.this, session, multipartInputStream, mediaType, contentLocation)) {
+                                LOG.info("{}: Ignore Part with Content-Type={}", session, mediaType);
+                                multipartInputStream.skipAll();
+                            } else if (semaphore != null)
+                                storeDicomObjects(session, false);
+                        } catch (JsonParsingException e) {
+                            throw new WebApplicationException(
+                                    errResponse(e.getMessage() + " at location : " + e.getLocation(), Response.Status.BAD_REQUEST));
+                        } catch (Exception e) {
+                            if (instanceNumber + instances.size() == 1)
+                                throw new WebApplicationException(e.getMessage());
+                            else
+                                throw new WebApplicationException("Failed to process Part #" + partNumber + headerParams, e);
                         }
-                    } catch (JsonParsingException e) {
-                        throw new WebApplicationException(
-                                errResponse(e.getMessage() + " at location : " + e.getLocation(), Response.Status.BAD_REQUEST));
-                    } catch (Exception e) {
-                        if (instances.size() == 1)
-                            throw new WebApplicationException(e.getMessage());
-                        else
-                            throw new WebApplicationException("Failed to process Part #" + partNumber + headerParams, e);
-                    }
-                });
-        int instanceNumber = 0;
-        for (Attributes instance : instances) 
-            storeDicomObject(session, instance, ++instanceNumber);
+                    });
+            storeDicomObjects(session, true);
+        } finally {
+            awaitStoreCompletion();
+        }
+        Exception failure = storeFailure.get();
+        if (failure != null)
+            throw failure;
 
         response.setString(Tag.RetrieveURL, VR.UR, retrieveURL());
         Response.ResponseBuilder responseBuilder = Response.status(status());
         ar.resume(responseBuilder.entity(output.entity(response)).header("Warning", response.getString(Tag.ErrorComment)).build());
     }
 
+    private void storeDicomObjects(StoreSession session, boolean all) throws IOException {
+        for (Iterator<Attributes> iter = instances.iterator(); iter.hasNext();) {
+            Attributes instance = iter.next();
+            if (all || bulkdataReceived(instance)) {
+                iter.remove();
+                int instanceNumber = ++this.instanceNumber;
+                if (semaphore == null)
+                    storeDicomObject(session, instance, instanceNumber);
+                else
+                    execute(session, () -> storeDicomObject(session, instance, instanceNumber));
+            }
+        }
+    }
+
+    private boolean bulkdataReceived(Attributes attrs) {
+        try {
+            return attrs.accept((attrs1, tag, vr, value) ->
+                    !(value instanceof BulkData) || bulkdataMap.containsKey(((BulkData) value).getURI()), true);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void execute(StoreSession session, StoreTask task) throws IOException {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException(e.getMessage());
+        }
+        try {
+            device.execute(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    LOG.warn("{}: Failed to store received instance:\n", session, e);
+                    storeFailure.compareAndSet(null, e);
+                } finally {
+                    semaphore.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            semaphore.release();
+            throw e;
+        }
+    }
+
+    private void awaitStoreCompletion() {
+        if (semaphore == null)
+            return;
+
+        semaphore.acquireUninterruptibly(maxParallelism);
+        semaphore.release(maxParallelism);
+    }
+
+    @FunctionalInterface
+    private interface StoreTask {
+        void run() throws IOException;
+    }
+
     private void purgeSpoolDirectory() {
         if (spoolDirectory == null)
             return;
@@ -381,16 +458,29 @@ public class StowRS {
     }
 
     private void storeDicomObject(StoreSession session, MultipartInputStream in) throws IOException {
+        if (semaphore == null) {
+            storeDicomObject(session, (InputStream) in);
+            return;
+        }
+        java.nio.file.Path spoolFile = spoolFile(in);
+        execute(session, () -> {
+            try (InputStream fin = new BufferedInputStream(Files.newInputStream(spoolFile))) {
+                storeDicomObject(session, fin);
+            } finally {
+                Files.deleteIfExists(spoolFile);
+            }
+        });
+    }
+
+    private void storeDicomObject(StoreSession session, InputStream in) throws IOException {
         StoreContext ctx = service.newStoreContext(session);
         ctx.setAcceptedStudyInstanceUID(acceptedStudyInstanceUID);
         try {
             service.store(ctx, in);
-            studyInstanceUIDs.add(ctx.getStudyInstanceUID());
-            sopSequence().add(mkSOPRefWithRetrieveURL(ctx));
+            addSOPRef(ctx);
         } catch (DicomServiceException e) {
             LOG.info("{}: Failed to store {}", session, UID.nameOf(ctx.getSopClassUID()), e);
-            response.setString(Tag.ErrorComment, VR.LO, e.getMessage());
-            failedSOPSequence().add(mkSOPRefWithFailureReason(ctx, e));
+            addFailedSOPRef(ctx, e);
         }
     }
 
@@ -402,11 +492,23 @@ public class StowRS {
             ctx.setReceiveTransferSyntax(MediaTypes.transferSyntaxOf(bulkdataWithMediaType.mediaType));
             supplementAttrs(session, attrs, instanceNumber, bulkdataWithMediaType);
             service.store(ctx, attrs);
-            studyInstanceUIDs.add(ctx.getStudyInstanceUID());
-            sopSequence().add(mkSOPRefWithRetrieveURL(ctx));
+            addSOPRef(ctx);
         } catch (DicomServiceException e) {
             ctx.setAttributes(attrs);
             LOG.info("{}: Failed to store {}", session, UID.nameOf(ctx.getSopClassUID()), e);
+            addFailedSOPRef(ctx, e);
+        }
+    }
+
+    private void addSOPRef(StoreContext ctx) {
+        synchronized (response) {
+            studyInstanceUIDs.add(ctx.getStudyInstanceUID());
+            sopSequence().add(mkSOPRefWithRetrieveURL(ctx));
+        }
+    }
+
+    private void addFailedSOPRef(StoreContext ctx, DicomServiceException e) {
+        synchronized (response) {
             response.setString(Tag.ErrorComment, VR.LO, e.getMessage());
             failedSOPSequence().add(mkSOPRefWithFailureReason(ctx, e));
         }
@@ -542,15 +644,20 @@ public class StowRS {
         LOG.info("{}: Failed to valueOf bulkdata {} from {}", session, bulkdata.mediaType, bulkdata.bulkData.getURI());
     }
 
+    private java.nio.file.Path spoolFile(InputStream in) throws IOException {
+        if (spoolDirectory == null)
+            spoolDirectory = Files.createTempDirectory(spoolDirectoryRoot(), null);
+        java.nio.file.Path spoolFile = Files.createTempFile(spoolDirectory, null, null);
+        try (OutputStream out = Files.newOutputStream(spoolFile)) {
+            StreamUtils.copy(in, out);
+        }
+        return spoolFile;
+    }
+
     private boolean spoolBulkdata(MultipartInputStream in, MediaType mediaType,
                                   String contentLocation) {
         try {
-            if (spoolDirectory == null)
-                spoolDirectory = Files.createTempDirectory(spoolDirectoryRoot(), null);
-            java.nio.file.Path spoolFile = Files.createTempFile(spoolDirectory, null, null);
-            try (OutputStream out = Files.newOutputStream(spoolFile)) {
-                StreamUtils.copy(in, out);
-            }
+            java.nio.file.Path spoolFile = spoolFile(in);
             bulkdataMap.put(contentLocation, new BulkDataWithMediaType(spoolFile, mediaType));
             return true;
         } catch (IOException e) {
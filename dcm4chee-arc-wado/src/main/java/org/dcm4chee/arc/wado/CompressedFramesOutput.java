@@ -40,111 +40,25 @@
 
 package org.dcm4chee.arc.wado;
 
-import org.dcm4che3.data.Tag;
-import org.dcm4che3.io.DicomInputStream;
-import org.dcm4che3.util.SafeClose;
-import org.dcm4che3.util.StreamUtils;
 import org.dcm4chee.arc.retrieve.RetrieveContext;
-import org.dcm4chee.arc.retrieve.RetrieveService;
 import org.dcm4chee.arc.store.InstanceLocations;
 
-import javax.ws.rs.core.StreamingOutput;
-import java.io.Closeable;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
 
 /**
  * @author Gunter Zeilinger <gunterze@gmail.com>
  * @since Apr 2016
  */
-public class CompressedFramesOutput implements StreamingOutput, Closeable {
+public class CompressedFramesOutput extends IndexedFramesOutput {
 
-    private final RetrieveContext ctx;
-    private final InstanceLocations inst;
-    private DicomInputStream dis;
-    private final int[] frameList;
-    private final Path[] spoolFiles;
-    private final Path spoolDirectory;
-    private int frame = 1;
-    private int frameListIndex;
-
-    public CompressedFramesOutput(RetrieveContext ctx, InstanceLocations inst, int[] frameList, Path spoolDirectory) {
-        this.ctx = ctx;
-        this.inst = inst;
-        this.frameList = frameList;
-        this.spoolDirectory = spoolDirectory;
-        this.spoolFiles = spoolDirectory != null ? new Path[frameList.length] : null;
+    public CompressedFramesOutput(RetrieveContext ctx, InstanceLocations inst, int[] frameList,
+            FrameIndexCache frameIndexCache) {
+        super(ctx, inst, frameList, frameIndexCache);
     }
 
     @Override
-    public void write(OutputStream out) throws IOException {
-        try {
-            if (frameListIndex == 0)
-                initDicomInputStream();
-
-            if (dis == null) {
-                Files.copy(spoolFiles[frameListIndex++], out);
-                return;
-            }
-            int nextFrame =  frameList[frameListIndex++];
-            while (frame < nextFrame) {
-                skipFrame();
-                frame++;
-            }
-            if (!dis.readItemHeader())
-                throw new IOException(
-                        "Number of data fragments not sufficient for number of frames in requested object");
-
-            StreamUtils.copy(dis, out, dis.length());
-            frame++;
-            if (allFramesRead())
-                close();
-        } catch (IOException e) {
-            close();
-            throw e;
-        }
-    }
-
-    private void skipFrame() throws IOException {
-        if (!dis.readItemHeader())
-            throw new IOException(
-                    "Number of data fragments not sufficient for number of frames in requested object");
-
-        for (int i = frameListIndex; i < frameList.length; i++) {
-            if (frame == frameList[i]) {
-                spoolFiles[i] = Files.createTempFile(spoolDirectory, null, null);
-                try (OutputStream o = Files.newOutputStream(spoolFiles[i])) {
-                    StreamUtils.copy(dis, o, dis.length());
-                }
-                return;
-            }
-        }
-        dis.skipFully(dis.length());
-    }
-
-    private boolean allFramesRead() {
-        for (int i = frameListIndex; i < frameList.length; i++) {
-            if (frame <= frameList[i])
-                return false;
-        }
-        return true;
-    }
-
-    private void initDicomInputStream() throws IOException {
-        RetrieveService service = ctx.getRetrieveService();
-        dis = service.openDicomInputStream(ctx, inst);
-        dis.readDataset(-1, Tag.PixelData);
-        if (dis.tag() != Tag.PixelData || dis.length() != -1 || !dis.readItemHeader()) {
+    protected void checkFrameIndex(FrameIndex frameIndex) throws IOException {
+        if (!frameIndex.isEncapsulated() || frameIndex.size() == 0)
             throw new IOException("No or incorrect encapsulated compressed pixel data in requested object");
-        }
-        dis.skipFully(dis.length());
-    }
-
-    @Override
-    public void close() {
-        SafeClose.close(dis);
-        dis = null;
     }
 }
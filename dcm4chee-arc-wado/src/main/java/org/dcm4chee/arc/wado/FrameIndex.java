@@ -0,0 +1,123 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.wado;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.imageio.codec.ImageDescriptor;
+import org.dcm4che3.io.DicomInputStream;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Byte offsets and lengths of the frames of a stored multi-frame object.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class FrameIndex {
+
+    private final boolean encapsulated;
+    private final long[] offsets;
+    private final int[] lengths;
+
+    private FrameIndex(boolean encapsulated, long[] offsets, int[] lengths) {
+        this.encapsulated = encapsulated;
+        this.offsets = offsets;
+        this.lengths = lengths;
+    }
+
+    static FrameIndex read(DicomInputStream dis) throws IOException {
+        Attributes attrs = dis.readDataset(-1, Tag.PixelData);
+        if (dis.tag() != Tag.PixelData)
+            throw new IOException("Missing pixel data in requested object");
+
+        if (dis.length() != -1) {
+            int numFrames = attrs.getInt(Tag.NumberOfFrames, 1);
+            int frameLength = new ImageDescriptor(attrs).getFrameLength();
+            long offset = dis.getPosition();
+            long[] offsets = new long[numFrames];
+            int[] lengths = new int[numFrames];
+            for (int i = 0; i < numFrames; i++) {
+                offsets[i] = offset + (long) i * frameLength;
+                lengths[i] = frameLength;
+            }
+            return new FrameIndex(false, offsets, lengths);
+        }
+
+        if (!dis.readItemHeader())
+            throw new IOException("No or incorrect encapsulated compressed pixel data in requested object");
+
+        dis.skipFully(dis.length());
+        int numFrames = attrs.getInt(Tag.NumberOfFrames, 1);
+        long[] offsets = new long[numFrames];
+        int[] lengths = new int[numFrames];
+        int count = 0;
+        while (dis.readItemHeader()) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count << 1);
+                lengths = Arrays.copyOf(lengths, count << 1);
+            }
+            offsets[count] = dis.getPosition();
+            lengths[count] = dis.length();
+            count++;
+            dis.skipFully(dis.length());
+        }
+        return new FrameIndex(true, Arrays.copyOf(offsets, count), Arrays.copyOf(lengths, count));
+    }
+
+    boolean isEncapsulated() {
+        return encapsulated;
+    }
+
+    int size() {
+        return offsets.length;
+    }
+
+    long offset(int frame) {
+        return offsets[frame - 1];
+    }
+
+    int length(int frame) {
+        return lengths[frame - 1];
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.wado;
+
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.util.SafeClose;
+import org.dcm4che3.util.StreamUtils;
+import org.dcm4chee.arc.retrieve.LocationInputStream;
+import org.dcm4chee.arc.retrieve.RetrieveContext;
+import org.dcm4chee.arc.store.InstanceLocations;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes requested frames by seeking to their offsets in the stored object, given by its {@link FrameIndex}.
+ * The stream is only re-opened, if the frames are requested in descending order.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+abstract class IndexedFramesOutput implements StreamingOutput, Closeable {
+
+    private final RetrieveContext ctx;
+    private final InstanceLocations inst;
+    private final int[] frameList;
+    private final FrameIndexCache frameIndexCache;
+    private LocationInputStream lis;
+    private FrameIndex frameIndex;
+    private long position;
+    private int frameListIndex;
+
+    IndexedFramesOutput(RetrieveContext ctx, InstanceLocations inst, int[] frameList,
+                        FrameIndexCache frameIndexCache) {
+        this.ctx = ctx;
+        this.inst = inst;
+        this.frameList = frameList;
+        this.frameIndexCache = frameIndexCache;
+    }
+
+    @Override
+    public void write(OutputStream out) throws IOException {
+        try {
+            int frame = frameList[frameListIndex++];
+            if (frameIndex == null)
+                initFrameIndex();
+
+            if (frame > frameIndex.size())
+                throw new IOException(
+                        "Number of data fragments not sufficient for number of frames in requested object");
+
+            long offset = frameIndex.offset(frame);
+            if (lis == null || offset < position)
+                reopen();
+            skip(offset - position);
+            int length = frameIndex.length(frame);
+            StreamUtils.copy(lis.stream, out, length);
+            position = offset + length;
+            if (frameListIndex >= frameList.length)
+                close();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    protected abstract void checkFrameIndex(FrameIndex frameIndex) throws IOException;
+
+    private void initFrameIndex() throws IOException {
+        reopen();
+        FrameIndex frameIndex = frameIndexCache.get(lis.location);
+        if (frameIndex == null) {
+            frameIndex = FrameIndex.read(new DicomInputStream(lis.stream));
+            frameIndexCache.put(lis.location, frameIndex);
+            close();
+        }
+        checkFrameIndex(frameIndex);
+        this.frameIndex = frameIndex;
+    }
+
+    private void reopen() throws IOException {
+        close();
+        lis = ctx.getRetrieveService().openLocationInputStream(ctx, inst);
+        position = 0L;
+    }
+
+    private void skip(long n) throws IOException {
+        while (n > 0) {
+            long skipped = lis.stream.skip(n);
+            if (skipped <= 0) {
+                if (lis.stream.read() < 0)
+                    throw new EOFException();
+                skipped = 1;
+            }
+            n -= skipped;
+        }
+    }
+
+    @Override
+    public void close() {
+        SafeClose.close(lis);
+        lis = null;
+    }
+}
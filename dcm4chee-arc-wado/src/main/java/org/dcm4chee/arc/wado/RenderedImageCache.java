@@ -0,0 +1,294 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.wado;
+
+import org.dcm4che3.util.TagUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Disk backed cache of rendered images, evicting least recently accessed images if the total size exceeds the
+ * configured limit. Cached images are stored in one sub-directory per Study to support invalidation of all images
+ * of one Study. The cache owns only its sub-directory {@value #CACHE_DIR} of the configured directory, which is
+ * cleared on initialization.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class RenderedImageCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RenderedImageCache.class);
+    static final String CACHE_DIR = "dcm4chee-arc-rendered";
+
+    private final Path dir;
+    private final Path cacheDir;
+    private final long maxSize;
+    private final LinkedHashMap<Path, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    RenderedImageCache(Path dir, long maxSize) throws IOException {
+        this.dir = dir;
+        this.cacheDir = dir.resolve(CACHE_DIR);
+        this.maxSize = maxSize;
+        deleteDirectory(cacheDir);
+        Files.createDirectories(cacheDir);
+    }
+
+    Path getDirectory() {
+        return dir;
+    }
+
+    long getMaxSize() {
+        return maxSize;
+    }
+
+    synchronized long size() {
+        return size;
+    }
+
+    long hits() {
+        return hits.get();
+    }
+
+    long misses() {
+        return misses.get();
+    }
+
+    long evictions() {
+        return evictions.get();
+    }
+
+    StreamingOutput cached(String studyIUID, String key, StreamingOutput output) {
+        Path path = cacheDir.resolve(studyIUID).resolve(hash(key));
+        return out -> {
+            if (copyFromCache(path, out))
+                return;
+
+            writeToCache(path, output, out);
+        };
+    }
+
+    void invalidate(String studyIUID) {
+        Path studyDir = cacheDir.resolve(studyIUID);
+        synchronized (this) {
+            for (Iterator<Map.Entry<Path, Long>> iter = entries.entrySet().iterator(); iter.hasNext();) {
+                Map.Entry<Path, Long> entry = iter.next();
+                if (entry.getKey().startsWith(studyDir)) {
+                    size -= entry.getValue();
+                    iter.remove();
+                }
+            }
+        }
+        deleteDirectory(studyDir);
+    }
+
+    private boolean copyFromCache(Path path, OutputStream out) throws IOException {
+        synchronized (this) {
+            if (entries.get(path) == null) {
+                misses.getAndIncrement();
+                return false;
+            }
+        }
+        try {
+            Files.copy(path, out);
+        } catch (NoSuchFileException e) {
+            misses.getAndIncrement();
+            return false;
+        }
+        hits.getAndIncrement();
+        return true;
+    }
+
+    private void writeToCache(Path path, StreamingOutput output, OutputStream out) throws IOException {
+        Path tmp = null;
+        try {
+            Files.createDirectories(path.getParent());
+            tmp = Files.createTempFile(path.getParent(), null, ".tmp");
+        } catch (IOException e) {
+            LOG.warn("Failed to create file in {} - rendered image will not be cached", cacheDir, e);
+            output.write(out);
+            return;
+        }
+        boolean success = false;
+        try (TeeOutputStream tee = new TeeOutputStream(out, Files.newOutputStream(tmp))) {
+            output.write(tee);
+            success = !tee.isCacheFailed();
+        } finally {
+            if (success)
+                commit(tmp, path);
+            else
+                Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void commit(Path tmp, Path path) {
+        try {
+            long fileSize = Files.size(tmp);
+            if (fileSize > maxSize) {
+                Files.delete(tmp);
+                return;
+            }
+            synchronized (this) {
+                Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+                Long prevSize = entries.put(path, fileSize);
+                size += fileSize - (prevSize != null ? prevSize : 0L);
+                evict();
+            }
+        } catch (IOException e) {
+            LOG.info("Failed to add rendered image to cache {}", cacheDir, e);
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignore) {}
+        }
+    }
+
+    private void evict() {
+        for (Iterator<Map.Entry<Path, Long>> iter = entries.entrySet().iterator();
+             size > maxSize && iter.hasNext();) {
+            Map.Entry<Path, Long> eldest = iter.next();
+            iter.remove();
+            size -= eldest.getValue();
+            evictions.getAndIncrement();
+            try {
+                Files.deleteIfExists(eldest.getKey());
+            } catch (IOException e) {
+                LOG.warn("Failed to delete evicted {}", eldest.getKey(), e);
+            }
+        }
+    }
+
+    private static String hash(String key) {
+        try {
+            return TagUtils.toHexString(
+                    MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void deleteDirectory(Path dir) {
+        if (!Files.isDirectory(dir))
+            return;
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                if (Files.isDirectory(file))
+                    deleteDirectory(file);
+                else
+                    Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            LOG.warn("Failed to delete {}", dir, e);
+        }
+    }
+
+    private static class TeeOutputStream extends FilterOutputStream {
+        private final OutputStream cache;
+        private boolean cacheFailed;
+
+        TeeOutputStream(OutputStream out, OutputStream cache) {
+            super(out);
+            this.cache = cache;
+        }
+
+        boolean isCacheFailed() {
+            return cacheFailed;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (!cacheFailed)
+                try {
+                    cache.write(b);
+                } catch (IOException e) {
+                    cacheFailed(e);
+                }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (!cacheFailed)
+                try {
+                    cache.write(b, off, len);
+                } catch (IOException e) {
+                    cacheFailed(e);
+                }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                cache.close();
+            } catch (IOException e) {
+                cacheFailed(e);
+            }
+        }
+
+        private void cacheFailed(IOException e) {
+            LOG.warn("Failed to write rendered image to cache", e);
+            cacheFailed = true;
+        }
+    }
+}
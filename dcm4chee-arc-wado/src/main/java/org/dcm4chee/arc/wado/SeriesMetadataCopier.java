@@ -0,0 +1,325 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.wado;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.ItemPointer;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.io.DicomInputStream;
+import org.dcm4che3.json.JSONWriter;
+import org.dcm4chee.arc.store.InstanceLocations;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonParser;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Copies the DICOM JSON entries of a series metadata ZIP into a JSON array without parsing them into
+ * {@code Attributes}. The Bulk Data URIs are replaced and the archive private attributes are dropped.
+ * Top level attributes are overwritten by the current Patient, Study, Series and Instance attributes from
+ * the DB of the matching instance, as by the {@code MergeAttributesCoercion} applied on loading the metadata
+ * of a single instance, so updates of the Patient after the creation of the ZIP are reflected.
+ *
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+class SeriesMetadataCopier {
+
+    private static final String ARCHIVE_PRIVATE_GROUP = "7777";
+
+    private final JsonGenerator out;
+    private final Function<InstanceLocations, String> retrieveURL;
+    private JsonGenerator gen;
+    private JsonParser parser;
+    private JsonParser dbParser;
+    private String dbKey;
+    private String instanceURL;
+
+    SeriesMetadataCopier(JsonGenerator out, Function<InstanceLocations, String> retrieveURL) {
+        this.out = out;
+        this.retrieveURL = retrieveURL;
+    }
+
+    /**
+     * Copies the entries of the matching instances and removes them from {@code matches}. Each entry is copied
+     * into a buffer before it is written, so on failure to read or parse an entry, nothing of that entry was
+     * written and its instance is left in {@code matches}.
+     *
+     * @return number of copied entries
+     */
+    int copy(InputStream in, Map<String, InstanceLocations> matches) throws IOException {
+        ZipInputStream zip = new ZipInputStream(in);
+        ZipEntry entry;
+        int count = 0;
+        while ((entry = zip.getNextEntry()) != null) {
+            String name = entry.getName();
+            InstanceLocations match = matches.remove(name);
+            if (match != null) {
+                String json;
+                try {
+                    json = copyEntry(zip, name, match);
+                } catch (IOException e) {
+                    matches.put(name, match);
+                    throw e;
+                } catch (RuntimeException e) {
+                    matches.put(name, match);
+                    throw new IOException("Invalid metadata of instance " + name, e);
+                }
+                write(json);
+                count++;
+            }
+            zip.closeEntry();
+        }
+        return count;
+    }
+
+    private String copyEntry(InputStream in, String name, InstanceLocations match) throws IOException {
+        instanceURL = retrieveURL.apply(match);
+        StringWriter buffer = new StringWriter();
+        gen = Json.createGenerator(buffer);
+        parser = Json.createParser(new InputStreamReader(in, StandardCharsets.UTF_8));
+        if (parser.next() != JsonParser.Event.START_OBJECT)
+            throw new IOException("Invalid metadata of instance " + name);
+        openDBAttributes(match.getAttributes());
+        copyDataset(Collections.emptyList());
+        gen.close();
+        return buffer.toString();
+    }
+
+    private void write(String json) {
+        gen = out;
+        JsonParser buffered = Json.createParser(new StringReader(json));
+        copyValue(buffered, null, buffered.next());
+    }
+
+    private void openDBAttributes(Attributes attrs) {
+        StringWriter sw = new StringWriter();
+        try (JsonGenerator dbGen = Json.createGenerator(sw)) {
+            new JSONWriter(dbGen).write(attrs);
+        }
+        dbParser = Json.createParser(new StringReader(sw.toString()));
+        dbParser.next();
+        nextDBKey();
+    }
+
+    private void nextDBKey() {
+        dbKey = dbParser.next() == JsonParser.Event.KEY_NAME ? dbParser.getString() : null;
+    }
+
+    private void copyDBAttributesBefore(int tag) {
+        while (dbKey != null && Integer.compareUnsigned(toTag(dbKey), tag) < 0)
+            copyDBAttribute();
+    }
+
+    private void copyDBAttribute() {
+        copyValue(dbParser, dbKey, dbParser.next());
+        nextDBKey();
+    }
+
+    private static int toTag(String key) {
+        return (int) Long.parseLong(key, 16);
+    }
+
+    private void copyDataset(List<ItemPointer> itemPointers) {
+        boolean topLevel = itemPointers.isEmpty();
+        gen.writeStartObject();
+        while (parser.next() == JsonParser.Event.KEY_NAME) {
+            String key = parser.getString();
+            JsonParser.Event event = parser.next();
+            int tag = toTag(key);
+            if (topLevel) {
+                copyDBAttributesBefore(tag);
+                if (key.equals(dbKey)) {
+                    skipValue(event);
+                    copyDBAttribute();
+                    continue;
+                }
+            }
+            if (topLevel && key.startsWith(ARCHIVE_PRIVATE_GROUP)) {
+                skipValue(event);
+            } else {
+                gen.writeStartObject(key);
+                copyAttribute(itemPointers, tag);
+            }
+        }
+        if (topLevel) {
+            while (dbKey != null)
+                copyDBAttribute();
+        }
+        gen.writeEnd();
+    }
+
+    private void copyAttribute(List<ItemPointer> itemPointers, int tag) {
+        String vr = null;
+        while (parser.next() == JsonParser.Event.KEY_NAME) {
+            String name = parser.getString();
+            JsonParser.Event event = parser.next();
+            switch (name) {
+                case "vr":
+                    vr = parser.getString();
+                    gen.write(name, vr);
+                    break;
+                case "BulkDataURI":
+                    gen.write(name, bulkDataURI(itemPointers, tag));
+                    break;
+                default:
+                    if (name.equals("Value") && "SQ".equals(vr) && event == JsonParser.Event.START_ARRAY)
+                        copyItems(itemPointers, tag);
+                    else
+                        copyValue(parser, name, event);
+            }
+        }
+        gen.writeEnd();
+    }
+
+    private void copyItems(List<ItemPointer> itemPointers, int tag) {
+        gen.writeStartArray("Value");
+        JsonParser.Event event;
+        int itemIndex = 0;
+        while ((event = parser.next()) != JsonParser.Event.END_ARRAY) {
+            if (event == JsonParser.Event.START_OBJECT) {
+                List<ItemPointer> itemPointers1 = new ArrayList<>(itemPointers.size() + 1);
+                itemPointers1.addAll(itemPointers);
+                itemPointers1.add(new ItemPointer(tag, itemIndex));
+                copyDataset(itemPointers1);
+            } else {
+                copyValue(parser, null, event);
+            }
+            itemIndex++;
+        }
+        gen.writeEnd();
+    }
+
+    private String bulkDataURI(List<ItemPointer> itemPointers, int tag) {
+        return tag == Tag.PixelData && itemPointers.isEmpty()
+                ? instanceURL
+                : instanceURL + "/bulkdata" + DicomInputStream.toAttributePath(itemPointers, tag);
+    }
+
+    private void copyValue(JsonParser parser, String name, JsonParser.Event event) {
+        switch (event) {
+            case START_OBJECT:
+                if (name != null)
+                    gen.writeStartObject(name);
+                else
+                    gen.writeStartObject();
+                while ((event = parser.next()) == JsonParser.Event.KEY_NAME) {
+                    String key = parser.getString();
+                    copyValue(parser, key, parser.next());
+                }
+                gen.writeEnd();
+                break;
+            case START_ARRAY:
+                if (name != null)
+                    gen.writeStartArray(name);
+                else
+                    gen.writeStartArray();
+                while ((event = parser.next()) != JsonParser.Event.END_ARRAY)
+                    copyValue(parser, null, event);
+                gen.writeEnd();
+                break;
+            case VALUE_STRING:
+                if (name != null)
+                    gen.write(name, parser.getString());
+                else
+                    gen.write(parser.getString());
+                break;
+            case VALUE_NUMBER:
+                if (parser.isIntegralNumber()) {
+                    if (name != null)
+                        gen.write(name, parser.getLong());
+                    else
+                        gen.write(parser.getLong());
+                } else {
+                    if (name != null)
+                        gen.write(name, parser.getBigDecimal());
+                    else
+                        gen.write(parser.getBigDecimal());
+                }
+                break;
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                if (name != null)
+                    gen.write(name, event == JsonParser.Event.VALUE_TRUE);
+                else
+                    gen.write(event == JsonParser.Event.VALUE_TRUE);
+                break;
+            case VALUE_NULL:
+                if (name != null)
+                    gen.writeNull(name);
+                else
+                    gen.writeNull();
+                break;
+        }
+    }
+
+    private void skipValue(JsonParser.Event event) {
+        if (event != JsonParser.Event.START_OBJECT && event != JsonParser.Event.START_ARRAY)
+            return;
+
+        int depth = 1;
+        while (depth > 0) {
+            switch (parser.next()) {
+                case START_OBJECT:
+                case START_ARRAY:
+                    depth++;
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    depth--;
+                    break;
+            }
+        }
+    }
+}
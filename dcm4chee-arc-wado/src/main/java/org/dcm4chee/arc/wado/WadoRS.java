@@ -53,11 +53,15 @@ import org.dcm4che3.ws.rs.MediaTypes;
 import org.dcm4chee.arc.conf.ArchiveAEExtension;
 import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
 import org.dcm4chee.arc.conf.AttributeSet;
+import org.dcm4chee.arc.entity.Location;
+import org.dcm4chee.arc.entity.Metadata;
 import org.dcm4chee.arc.qmgt.HttpServletRequestInfo;
 import org.dcm4chee.arc.retrieve.RetrieveContext;
 import org.dcm4chee.arc.retrieve.RetrieveEnd;
 import org.dcm4chee.arc.retrieve.RetrieveService;
 import org.dcm4chee.arc.retrieve.RetrieveStart;
+import org.dcm4chee.arc.storage.ReadContext;
+import org.dcm4chee.arc.storage.Storage;
 import org.dcm4chee.arc.store.InstanceLocations;
 import org.dcm4chee.arc.validation.constraints.ValidValueOf;
 import org.jboss.resteasy.plugins.providers.multipart.MultipartRelatedOutput;
@@ -79,6 +83,7 @@ import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.*;
 import javax.xml.transform.stream.StreamResult;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.nio.file.DirectoryStream;
@@ -120,6 +125,9 @@ public class WadoRS {
     @Inject
     private Device device;
 
+    @Inject
+    private FrameIndexCache frameIndexCache;
+
     @Inject @RetrieveStart
     private Event<RetrieveContext> retrieveStart;
 
@@ -726,7 +734,7 @@ public class WadoRS {
                                          int[] frameList, StringBuffer bulkdataURL) throws IOException {
         bulkdataURL.append("/frames/");
         int length = bulkdataURL.length();
-        uncompressedFramesOutput = new UncompressedFramesOutput(ctx, inst, frameList, spoolDirectory(frameList));
+        uncompressedFramesOutput = new UncompressedFramesOutput(ctx, inst, frameList, frameIndexCache);
         for (int frame : frameList) {
             OutputPart outputPart = output.addPart(uncompressedFramesOutput, MediaType.APPLICATION_OCTET_STREAM_TYPE);
             bulkdataURL.setLength(length);
@@ -740,7 +748,7 @@ public class WadoRS {
             throws IOException {
         bulkdataURL.append("/frames/");
         int length = bulkdataURL.length();
-        compressedFramesOutput = new CompressedFramesOutput(ctx, inst, frameList, spoolDirectory(frameList));
+        compressedFramesOutput = new CompressedFramesOutput(ctx, inst, frameList, frameIndexCache);
         for (int frame : frameList) {
             OutputPart outputPart = output.addPart(compressedFramesOutput, mediaType);
             bulkdataURL.setLength(length);
@@ -847,13 +855,30 @@ public class WadoRS {
 
     private Object writeMetadataJSON(final RetrieveContext ctx) {
         final Collection<InstanceLocations> insts = ctx.getMatches();
+        final Map<String, Metadata> seriesMetadata = ctx.getMetadataFilter() == null
+                ? service.findSeriesMetadata(ctx)
+                : Collections.emptyMap();
         return (StreamingOutput) out -> {
                 try {
                     JsonGenerator gen = Json.createGenerator(out);
                     JSONWriter writer = new JSONWriter(gen);
                     gen.writeStartArray();
-                    for (InstanceLocations inst : insts)
-                        writer.write(loadMetadata(ctx, inst));
+                    Map<String, Map<String, InstanceLocations>> matchesBySeries = new LinkedHashMap<>();
+                    for (InstanceLocations inst : insts) {
+                        String seriesIUID = inst.getAttributes().getString(Tag.SeriesInstanceUID);
+                        if (seriesMetadata.containsKey(seriesIUID) && !hasUIDMap(inst))
+                            matchesBySeries.computeIfAbsent(seriesIUID, k -> new HashMap<>())
+                                    .put(inst.getSopInstanceUID(), inst);
+                        else
+                            writer.write(loadMetadata(ctx, inst));
+                    }
+                    SeriesMetadataCopier copier = new SeriesMetadataCopier(gen, this::retrieveURL);
+                    for (Map.Entry<String, Map<String, InstanceLocations>> entry : matchesBySeries.entrySet()) {
+                        Map<String, InstanceLocations> matches = entry.getValue();
+                        copySeriesMetadata(ctx, seriesMetadata.get(entry.getKey()), copier, matches);
+                        for (InstanceLocations inst : matches.values())
+                            writer.write(loadMetadata(ctx, inst));
+                    }
                     gen.writeEnd();
                     gen.flush();
                 } catch (Exception e) {
@@ -862,17 +887,50 @@ public class WadoRS {
         };
     }
 
+    private void copySeriesMetadata(RetrieveContext ctx, Metadata metadata, SeriesMetadataCopier copier,
+                                    Map<String, InstanceLocations> matches) throws IOException {
+        Storage storage = service.getStorage(metadata.getStorageID(), ctx);
+        ReadContext readContext = storage.createReadContext();
+        readContext.setStoragePath(metadata.getStoragePath());
+        InputStream in;
+        try {
+            in = storage.openInputStream(readContext);
+        } catch (IOException e) {
+            LOG.info("Failed to open Series Metadata {} - load metadata of {} instances separately:\n",
+                    metadata.getStoragePath(), matches.size(), e);
+            return;
+        }
+        try {
+            int copied = copier.copy(in, matches);
+            LOG.debug("Copied metadata of {} instances from Series Metadata {}", copied, metadata.getStoragePath());
+        } catch (IOException e) {
+            LOG.info("Failed to read Series Metadata {} - load metadata of {} instances separately:\n",
+                    metadata.getStoragePath(), matches.size(), e);
+        } finally {
+            SafeClose.close(in);
+        }
+    }
+
+    private static boolean hasUIDMap(InstanceLocations inst) {
+        List<Location> locations = inst.getLocations();
+        return !locations.isEmpty() && locations.get(0).getUidMap() != null;
+    }
+
     private Attributes loadMetadata(RetrieveContext ctx, InstanceLocations inst) throws IOException {
         Attributes metadata = inst.isContainsMetadata() ? inst.getAttributes() : service.loadMetadata(ctx, inst);
-        StringBuffer sb = device.getDeviceExtension(ArchiveDeviceExtension.class).remapRetrieveURL(request);
-        sb.setLength(sb.lastIndexOf("/metadata"));
-        mkInstanceURL(sb, inst);
         if (ctx.getMetadataFilter() != null)
             metadata = new Attributes(metadata, ctx.getMetadataFilter().getSelection());
-        setBulkdataURI(metadata, sb.toString());
+        setBulkdataURI(metadata, retrieveURL(inst));
         return metadata;
     }
 
+    private String retrieveURL(InstanceLocations inst) {
+        StringBuffer sb = device.getDeviceExtension(ArchiveDeviceExtension.class).remapRetrieveURL(request);
+        sb.setLength(sb.lastIndexOf("/metadata"));
+        mkInstanceURL(sb, inst);
+        return sb.toString();
+    }
+
     private void setBulkdataURI(Attributes attrs, String retrieveURL) {
         try {
             final List<ItemPointer> itemPointers = new ArrayList<>(4);
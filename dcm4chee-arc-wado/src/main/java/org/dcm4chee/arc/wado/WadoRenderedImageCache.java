@@ -0,0 +1,143 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.wado;
+
+import org.dcm4che3.net.Device;
+import org.dcm4che3.util.StringUtils;
+import org.dcm4chee.arc.conf.ArchiveDeviceExtension;
+import org.dcm4chee.arc.conf.BinaryPrefix;
+import org.dcm4chee.arc.delete.StudyDeleteContext;
+import org.dcm4chee.arc.entity.Study;
+import org.dcm4chee.arc.store.StoreContext;
+import org.dcm4chee.arc.study.StudyMgtContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.ws.rs.core.StreamingOutput;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+@ApplicationScoped
+public class WadoRenderedImageCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WadoRenderedImageCache.class);
+
+    private static final long DEF_MAX_SIZE = 1000000000L;
+
+    @Inject
+    private Device device;
+
+    private RenderedImageCache cache;
+
+    public boolean isEnabled() {
+        return getCache() != null;
+    }
+
+    public StreamingOutput cached(String studyIUID, String key, StreamingOutput output) {
+        RenderedImageCache cache = getCache();
+        return cache != null ? cache.cached(studyIUID, key, output) : output;
+    }
+
+    public void onStore(@Observes StoreContext ctx) {
+        if (ctx.getException() == null && (ctx.getRejectionNote() != null || ctx.getPreviousInstance() != null))
+            invalidate(ctx.getStudyInstanceUID());
+    }
+
+    public void onStudyDeleted(@Observes StudyDeleteContext ctx) {
+        Study study = ctx.getStudy();
+        if (study != null)
+            invalidate(study.getStudyInstanceUID());
+    }
+
+    public void onStudyUpdated(@Observes StudyMgtContext ctx) {
+        if (ctx.getException() == null && ctx.getStudyInstanceUID() != null)
+            invalidate(ctx.getStudyInstanceUID());
+    }
+
+    private void invalidate(String studyIUID) {
+        RenderedImageCache cache;
+        synchronized (this) {
+            cache = this.cache;
+        }
+        if (cache != null) {
+            cache.invalidate(studyIUID);
+            LOG.debug("Invalidated cached rendered images of Study[uid={}]", studyIUID);
+        }
+    }
+
+    private synchronized RenderedImageCache getCache() {
+        ArchiveDeviceExtension arcDev = device.getDeviceExtensionNotNull(ArchiveDeviceExtension.class);
+        String dirPath = arcDev.getWadoRenderedCacheDirectory();
+        if (dirPath == null) {
+            close();
+            return null;
+        }
+        Path dir = Paths.get(StringUtils.replaceSystemProperties(dirPath));
+        String maxSizeStr = arcDev.getWadoRenderedCacheMaxSize();
+        long maxSize = maxSizeStr != null ? BinaryPrefix.parse(maxSizeStr) : DEF_MAX_SIZE;
+        if (cache != null && cache.getDirectory().equals(dir) && cache.getMaxSize() == maxSize)
+            return cache;
+
+        close();
+        try {
+            cache = new RenderedImageCache(dir, maxSize);
+            LOG.info("Cache rendered images in {} up to {}", dir, BinaryPrefix.formatDecimal(maxSize));
+        } catch (Exception e) {
+            LOG.warn("Failed to initialize cache of rendered images in {}", dir, e);
+        }
+        return cache;
+    }
+
+    private void close() {
+        if (cache != null) {
+            LOG.info("Stop caching rendered images in {} - {} hits, {} misses, {} evictions",
+                    cache.getDirectory(), cache.hits(), cache.misses(), cache.evictions());
+            cache = null;
+        }
+    }
+}
@@ -49,6 +49,7 @@ import org.dcm4che3.net.Device;
 import org.dcm4che3.util.StringUtils;
 import org.dcm4che3.ws.rs.MediaTypes;
 import org.dcm4chee.arc.conf.ArchiveAEExtension;
+import org.dcm4chee.arc.entity.Location;
 import org.dcm4chee.arc.retrieve.*;
 import org.dcm4chee.arc.qmgt.HttpServletRequestInfo;
 import org.dcm4chee.arc.store.InstanceLocations;
@@ -109,6 +110,9 @@ public class WadoURI {
     @Inject
     private Device device;
 
+    @Inject
+    private WadoRenderedImageCache renderedImageCache;
+
     @Inject @RetrieveWADO
     private Event<RetrieveContext> retrieveWado;
 
@@ -292,8 +296,8 @@ public class WadoURI {
         throw new AssertionError("objectType: " + objectType);
     }
 
-    private RenderedImageOutput renderImage(RetrieveContext ctx, InstanceLocations inst,
-                                            MediaType mimeType, int imageIndex) throws IOException {
+    private StreamingOutput renderImage(RetrieveContext ctx, InstanceLocations inst,
+                                        MediaType mimeType, int imageIndex) throws IOException {
         Attributes attrs = inst.getAttributes();
         DicomImageReadParam readParam = new DicomImageReadParam();
         if (windowCenter != null && windowWidth != null) {
@@ -307,6 +311,16 @@ public class WadoURI {
         if (presentationUID != null)
             readParam.setPresentationState(retrievePresentationState());
 
+        if (!renderedImageCache.isEnabled())
+            return renderedImageOutput(ctx, inst, mimeType, imageIndex, readParam);
+
+        return renderedImageCache.cached(attrs.getString(Tag.StudyInstanceUID, studyUID),
+                renderedImageKey(inst, mimeType, imageIndex),
+                out -> renderedImageOutput(ctx, inst, mimeType, imageIndex, readParam).write(out));
+    }
+
+    private RenderedImageOutput renderedImageOutput(RetrieveContext ctx, InstanceLocations inst,
+            MediaType mimeType, int imageIndex, DicomImageReadParam readParam) throws IOException {
         ImageWriter imageWriter = getImageWriter(mimeType);
         ImageWriteParam writeParam = imageWriter.getDefaultWriteParam();
         if (imageQuality != null) {
@@ -319,6 +333,27 @@ public class WadoURI {
                 imageWriter, writeParam);
     }
 
+    private String renderedImageKey(InstanceLocations inst, MediaType mimeType, int imageIndex) {
+        StringBuilder sb = new StringBuilder(inst.getSopInstanceUID())
+                .append('|').append(imageIndex)
+                .append('|').append(rows)
+                .append('|').append(columns)
+                .append('|').append(region)
+                .append('|').append(windowCenter)
+                .append('|').append(windowWidth)
+                .append('|').append(presentationUID)
+                .append('|').append(presentationSeriesUID)
+                .append('|').append(mimeType)
+                .append('|').append(imageQuality)
+                .append('|').append(inst.getUpdatedTime() != null ? inst.getUpdatedTime().getTime() : 0L);
+        inst.getLocations().stream()
+                .filter(Location::isDicomFile)
+                .map(l -> l.getStorageID() + '/' + l.getStoragePath())
+                .sorted()
+                .forEach(s -> sb.append('|').append(s));
+        return sb.toString();
+    }
+
     private int frameNumber(Attributes attrs) {
         if (frameNumber == null)
             return 1;
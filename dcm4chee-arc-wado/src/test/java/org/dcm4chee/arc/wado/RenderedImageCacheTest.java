@@ -0,0 +1,169 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.wado;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.imageio.ImageIO;
+import javax.ws.rs.core.StreamingOutput;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class RenderedImageCacheTest {
+
+    private static final String STUDY_IUID = "1.2.3";
+    private static final String OTHER_STUDY_IUID = "1.2.4";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private final AtomicInteger rendered = new AtomicInteger();
+
+    private RenderedImageCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new RenderedImageCache(tmp.getRoot().toPath().resolve("rendered"), 100000L);
+    }
+
+    @Test
+    public void cachedOutputIsByteIdentical() throws Exception {
+        byte[] uncached = write(render(128));
+        rendered.set(0);
+        StreamingOutput cached = cache.cached(STUDY_IUID, "1.2.3.1|-1|128|128", render(128));
+        assertArrayEquals(uncached, write(cached));
+        assertArrayEquals(uncached, write(cached));
+        assertArrayEquals(uncached, write(cached));
+        assertEquals(1, rendered.get());
+        assertEquals(2, cache.hits());
+        assertEquals(1, cache.misses());
+        assertEquals(uncached.length, cache.size());
+    }
+
+    @Test
+    public void evictLeastRecentlyAccessed() throws Exception {
+        cache = new RenderedImageCache(tmp.getRoot().toPath().resolve("lru"),
+                write(render(64)).length * 2L);
+        rendered.set(0);
+        write(cache.cached(STUDY_IUID, "a", render(64)));
+        write(cache.cached(STUDY_IUID, "b", render(64)));
+        write(cache.cached(STUDY_IUID, "a", render(64)));
+        write(cache.cached(STUDY_IUID, "c", render(64)));
+        assertEquals(3, rendered.get());
+        assertEquals(1, cache.evictions());
+        write(cache.cached(STUDY_IUID, "a", render(64)));
+        write(cache.cached(STUDY_IUID, "b", render(64)));
+        assertEquals(4, rendered.get());
+        assertEquals(2, cache.hits());
+        assertEquals(4, cache.misses());
+    }
+
+    @Test
+    public void invalidate() throws Exception {
+        write(cache.cached(STUDY_IUID, "a", render(32)));
+        write(cache.cached(OTHER_STUDY_IUID, "a", render(32)));
+        cache.invalidate(STUDY_IUID);
+        write(cache.cached(STUDY_IUID, "a", render(32)));
+        write(cache.cached(OTHER_STUDY_IUID, "a", render(32)));
+        assertEquals(3, rendered.get());
+        assertEquals(1, cache.hits());
+        assertEquals(3, cache.misses());
+    }
+
+    @Test
+    public void keepOtherFilesInDirectory() throws Exception {
+        Path dir = tmp.getRoot().toPath().resolve("shared");
+        Path other = Files.createDirectories(dir.resolve("other")).resolve("file");
+        Files.write(other, new byte[10]);
+        write(new RenderedImageCache(dir, 100000L).cached(STUDY_IUID, "a", render(32)));
+        new RenderedImageCache(dir, 100000L);
+        assertTrue(Files.exists(other));
+        assertFalse(Files.exists(dir.resolve(RenderedImageCache.CACHE_DIR).resolve(STUDY_IUID)));
+    }
+
+    @Test
+    public void failedRenderingIsNotCached() throws Exception {
+        StreamingOutput failing = out -> {
+            rendered.getAndIncrement();
+            out.write(new byte[10]);
+            throw new IOException("Simulated failure");
+        };
+        for (int i = 0; i < 2; i++) {
+            try {
+                write(cache.cached(STUDY_IUID, "a", failing));
+                fail("IOException expected");
+            } catch (IOException expected) {
+            }
+        }
+        assertEquals(2, rendered.get());
+        assertEquals(0, cache.size());
+    }
+
+    private StreamingOutput render(int size) {
+        return out -> {
+            rendered.getAndIncrement();
+            BufferedImage bi = new BufferedImage(size, size, BufferedImage.TYPE_BYTE_GRAY);
+            for (int y = 0; y < size; y++)
+                for (int x = 0; x < size; x++)
+                    bi.getRaster().setSample(x, y, 0, (x * y) & 0xff);
+            ImageIO.write(bi, "png", out);
+        };
+    }
+
+    private static byte[] write(StreamingOutput output) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        output.write(out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * *** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is part of dcm4che, an implementation of DICOM(TM) in
+ * Java(TM), hosted at https://github.com/dcm4che.
+ *
+ * The Initial Developer of the Original Code is
+ * J4Care.
+ * Portions created by the Initial Developer are Copyright (C) 2019
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ * See @authors listed below
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ *
+ * *** END LICENSE BLOCK *****
+ */
+
+package org.dcm4chee.arc.wado;
+
+import org.dcm4che3.data.Attributes;
+import org.dcm4che3.data.Tag;
+import org.dcm4che3.data.VR;
+import org.dcm4chee.arc.conf.Availability;
+import org.dcm4chee.arc.entity.Location;
+import org.dcm4chee.arc.store.InstanceLocations;
+import org.junit.Test;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.stream.JsonGenerator;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent <agent@local>
+ * @since Oct 2026
+ */
+public class SeriesMetadataCopierTest {
+
+    private static final String SOP_IUID = "1.2.3.4";
+    private static final String RETRIEVE_URL = "http://host/dcm4chee-arc/aets/DCM4CHEE/rs/studies/1.2/series/1.2.3/instances/"
+            + SOP_IUID;
+
+    private static final String ENTRY = "{"
+            + "\"00080018\":{\"vr\":\"UI\",\"Value\":[\"" + SOP_IUID + "\"]},"
+            + "\"00100010\":{\"vr\":\"PN\",\"Value\":[{\"Alphabetic\":\"Old^Name\"}]},"
+            + "\"00200013\":{\"vr\":\"IS\",\"Value\":[1]},"
+            + "\"77770010\":{\"vr\":\"LO\",\"Value\":[\"DCM4CHEE ARCHIVE 5\"]},"
+            + "\"7FE00010\":{\"vr\":\"OW\",\"BulkDataURI\":\"file:/storage/1.dcm#offset=1234,length=5678\"}"
+            + "}";
+
+    @Test
+    public void mergeUpdatedPatientAttributes() throws Exception {
+        Attributes dbAttrs = new Attributes();
+        dbAttrs.setString(Tag.SOPInstanceUID, VR.UI, SOP_IUID);
+        dbAttrs.setString(Tag.PatientName, VR.PN, "New^Name");
+        dbAttrs.setString(Tag.PatientID, VR.LO, "P2");
+        Map<String, InstanceLocations> matches = new HashMap<>();
+        matches.put(SOP_IUID, new Instance(dbAttrs));
+
+        StringWriter sw = new StringWriter();
+        try (JsonGenerator gen = Json.createGenerator(sw)) {
+            gen.writeStartArray();
+            assertEquals(1, new SeriesMetadataCopier(gen, inst -> RETRIEVE_URL)
+                    .copy(new ByteArrayInputStream(zip(SOP_IUID, ENTRY)), matches));
+            gen.writeEnd();
+        }
+        assertTrue(matches.isEmpty());
+
+        JsonArray array = Json.createReader(new StringReader(sw.toString())).readArray();
+        assertEquals(1, array.size());
+        JsonObject obj = array.getJsonObject(0);
+        assertEquals("New^Name", obj.getJsonObject("00100010").getJsonArray("Value")
+                .getJsonObject(0).getString("Alphabetic"));
+        assertEquals("P2", obj.getJsonObject("00100020").getJsonArray("Value").getString(0));
+        assertEquals(1, obj.getJsonObject("00200013").getJsonArray("Value").getInt(0));
+        assertEquals(RETRIEVE_URL, obj.getJsonObject("7FE00010").getString("BulkDataURI"));
+        assertFalse(obj.containsKey("77770010"));
+        assertEquals(Arrays.asList("00080018", "00100010", "00100020", "00200013", "7FE00010"),
+                new ArrayList<>(obj.keySet()));
+    }
+
+    @Test
+    public void skipNotMatchingEntries() throws Exception {
+        Map<String, InstanceLocations> matches = new HashMap<>();
+        StringWriter sw = new StringWriter();
+        try (JsonGenerator gen = Json.createGenerator(sw)) {
+            gen.writeStartArray();
+            assertEquals(0, new SeriesMetadataCopier(gen, inst -> RETRIEVE_URL)
+                    .copy(new ByteArrayInputStream(zip(SOP_IUID, ENTRY)), matches));
+            gen.writeEnd();
+        }
+        assertEquals("[]", sw.toString());
+    }
+
+    @Test
+    public void mergeBeforeAttributesOfHighGroups() throws Exception {
+        Attributes dbAttrs = new Attributes();
+        dbAttrs.setString(Tag.SOPInstanceUID, VR.UI, SOP_IUID);
+        dbAttrs.setString(Tag.PatientID, VR.LO, "P2");
+        Map<String, InstanceLocations> matches = new HashMap<>();
+        matches.put(SOP_IUID, new Instance(dbAttrs));
+        String entry = "{"
+                + "\"00080018\":{\"vr\":\"UI\",\"Value\":[\"" + SOP_IUID + "\"]},"
+                + "\"FFFAFFFA\":{\"vr\":\"SQ\"}"
+                + "}";
+
+        StringWriter sw = new StringWriter();
+        try (JsonGenerator gen = Json.createGenerator(sw)) {
+            gen.writeStartArray();
+            new SeriesMetadataCopier(gen, inst -> RETRIEVE_URL)
+                    .copy(new ByteArrayInputStream(zip(SOP_IUID, entry)), matches);
+            gen.writeEnd();
+        }
+        JsonObject obj = Json.createReader(new StringReader(sw.toString())).readArray().getJsonObject(0);
+        assertEquals(Arrays.asList("00080018", "00100020", "FFFAFFFA"), new ArrayList<>(obj.keySet()));
+    }
+
+    @Test
+    public void keepMatchOfInvalidEntry() throws Exception {
+        String invalidIUID = "1.2.3.5";
+        Attributes dbAttrs = new Attributes();
+        dbAttrs.setString(Tag.SOPInstanceUID, VR.UI, SOP_IUID);
+        Attributes invalidDBAttrs = new Attributes();
+        invalidDBAttrs.setString(Tag.SOPInstanceUID, VR.UI, invalidIUID);
+        Map<String, InstanceLocations> matches = new HashMap<>();
+        matches.put(SOP_IUID, new Instance(dbAttrs));
+        matches.put(invalidIUID, new Instance(invalidDBAttrs));
+        String truncated = "{\"00080018\":{\"vr\":\"UI\",\"Value\":[\"" + invalidIUID + "\"]},\"00100010\":{\"vr";
+
+        StringWriter sw = new StringWriter();
+        try (JsonGenerator gen = Json.createGenerator(sw)) {
+            gen.writeStartArray();
+            try {
+                new SeriesMetadataCopier(gen, inst -> RETRIEVE_URL)
+                        .copy(new ByteArrayInputStream(zip(SOP_IUID, ENTRY, invalidIUID, truncated)), matches);
+                fail("IOException expected");
+            } catch (IOException e) {
+                assertEquals(Collections.singleton(invalidIUID), matches.keySet());
+            }
+            gen.writeEnd();
+        }
+        JsonArray array = Json.createReader(new StringReader(sw.toString())).readArray();
+        assertEquals(1, array.size());
+        assertEquals(SOP_IUID, array.getJsonObject(0).getJsonObject("00080018").getJsonArray("Value").getString(0));
+    }
+
+    private static byte[] zip(String... namesAndJson) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (int i = 0; i < namesAndJson.length; i += 2) {
+                zip.putNextEntry(new ZipEntry(namesAndJson[i]));
+                zip.write(namesAndJson[i + 1].getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static class Instance implements InstanceLocations {
+        private final Attributes attrs;
+
+        Instance(Attributes attrs) {
+            this.attrs = attrs;
+        }
+
+        @Override
+        public Long getInstancePk() {
+            return null;
+        }
+
+        @Override
+        public void setInstancePk(Long pk) {
+        }
+
+        @Override
+        public String getSopInstanceUID() {
+            return attrs.getString(Tag.SOPInstanceUID);
+        }
+
+        @Override
+        public String getSopClassUID() {
+            return null;
+        }
+
+        @Override
+        public List<Location> getLocations() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            return attrs;
+        }
+
+        @Override
+        public String getRetrieveAETs() {
+            return null;
+        }
+
+        @Override
+        public String getExternalRetrieveAET() {
+            return null;
+        }
+
+        @Override
+        public Availability getAvailability() {
+            return null;
+        }
+
+        @Override
+        public Date getCreatedTime() {
+            return null;
+        }
+
+        @Override
+        public Date getUpdatedTime() {
+            return null;
+        }
+
+        @Override
+        public Attributes getRejectionCode() {
+            return null;
+        }
+
+        @Override
+        public boolean isContainsMetadata() {
+            return false;
+        }
+    }
+}